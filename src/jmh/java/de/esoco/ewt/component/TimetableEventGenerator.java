@@ -0,0 +1,183 @@
+//++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+// gewt-timetable source file
+// Copyright (c) 2017 Elmar Sonnenschein / esoco GmbH
+// Last Change: 08.05.2017 by eso
+//
+// gewt-timetable is free software; you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published
+// by the Free Software Foundation; either version 3 of the License,
+// or (at your option) any later version.
+//
+// gewt-timetable is distributed in the hope that it will be useful, but
+// WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License along
+// with gewt-timetable; if not, write to the Free Software Foundation, Inc.,
+// 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA or use the
+// contact information on the FSF website http://www.fsf.org
+//++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+package de.esoco.ewt.component;
+
+import de.esoco.lib.property.HasProperties;
+import de.esoco.lib.property.StringProperties;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+
+import static de.esoco.lib.property.StandardProperties.ALL_DAY;
+import static de.esoco.lib.property.StandardProperties.DESCRIPTION;
+import static de.esoco.lib.property.StandardProperties.END_DATE;
+import static de.esoco.lib.property.StandardProperties.ID;
+import static de.esoco.lib.property.StandardProperties.LOCATION;
+import static de.esoco.lib.property.StandardProperties.START_DATE;
+import static de.esoco.lib.property.StandardProperties.TITLE;
+
+
+/********************************************************************
+ * Generates synthetic timetable events for benchmarks. The events are spread
+ * over a year starting at {@link #BASE_DATE} with a distribution that is
+ * similar to real calendars:
+ *
+ * <ul>
+ *   <li>70% regular events during working hours with durations between 15
+ *     minutes and 4 hours</li>
+ *   <li>10% events on a few hot spot days which overlap densely</li>
+ *   <li>10% all-day events</li>
+ *   <li>10% events that span between 2 and 14 days</li>
+ * </ul>
+ *
+ * <p>The generator uses a fixed seed so that all benchmark runs use the same
+ * events.</p>
+ *
+ * @author eso
+ */
+public class TimetableEventGenerator
+{
+	//~ Static fields/initializers ---------------------------------------------
+
+	/** The first day of the generated events. */
+	@SuppressWarnings("deprecation")
+	public static final Date BASE_DATE = new Date(126, 0, 5);
+
+	/** The number of days over which the events are distributed. */
+	public static final int DAY_COUNT = 365;
+
+	private static final int HOT_SPOT_DAYS = 20;
+	private static final int MINUTE		   = 60 * 1000;
+
+	private static final String[] LOCATIONS =
+		new String[]
+		{
+			"Room 1", "Room 2", "Room 3", "Board Room", "Canteen", "Online"
+		};
+
+	//~ Instance fields --------------------------------------------------------
+
+	private final Random aRandom;
+
+	//~ Constructors -----------------------------------------------------------
+
+	/***************************************
+	 * Creates a new instance with a fixed seed.
+	 */
+	public TimetableEventGenerator()
+	{
+		aRandom = new Random(42);
+	}
+
+	//~ Methods ----------------------------------------------------------------
+
+	/***************************************
+	 * Generates a list of event properties.
+	 *
+	 * @param  nCount The number of events to generate
+	 *
+	 * @return The new event list
+	 */
+	public List<HasProperties> createEvents(int nCount)
+	{
+		List<HasProperties> aEvents = new ArrayList<>(nCount);
+
+		for (int i = 0; i < nCount; i++)
+		{
+			aEvents.add(createEvent(i));
+		}
+
+		return aEvents;
+	}
+
+	/***************************************
+	 * Generates a single event.
+	 *
+	 * @param  nIndex The index of the event, used for the ID and title
+	 *
+	 * @return The new event properties
+	 */
+	@SuppressWarnings("deprecation")
+	private HasProperties createEvent(int nIndex)
+	{
+		StringProperties aEvent = new StringProperties();
+		int				 nType  = aRandom.nextInt(10);
+		boolean			 bAllDay;
+		int				 nDay;
+		int				 nStartMinute;
+		int				 nDuration;
+
+		if (nType < 7)
+		{
+			bAllDay		 = false;
+			nDay		 = aRandom.nextInt(DAY_COUNT);
+			nStartMinute = 8 * 60 + aRandom.nextInt(40) * 15;
+			nDuration    = 15 + aRandom.nextInt(16) * 15;
+		}
+		else if (nType == 7)
+		{
+			bAllDay		 = false;
+			nDay		 = aRandom.nextInt(HOT_SPOT_DAYS) * 17 % DAY_COUNT;
+			nStartMinute = 9 * 60 + aRandom.nextInt(16) * 15;
+			nDuration    = 60 + aRandom.nextInt(8) * 15;
+		}
+		else if (nType == 8)
+		{
+			bAllDay		 = true;
+			nDay		 = aRandom.nextInt(DAY_COUNT);
+			nStartMinute = 0;
+			nDuration    = 24 * 60;
+		}
+		else
+		{
+			bAllDay		 = false;
+			nDay		 = aRandom.nextInt(DAY_COUNT);
+			nStartMinute = aRandom.nextInt(24) * 60;
+			nDuration    = (2 + aRandom.nextInt(13)) * 24 * 60;
+		}
+
+		Date aStart =
+			new Date(BASE_DATE.getYear(),
+					 BASE_DATE.getMonth(),
+					 BASE_DATE.getDate() + nDay,
+					 nStartMinute / 60,
+					 nStartMinute % 60);
+
+		aEvent.setProperty(ID, "E" + nIndex);
+		aEvent.setProperty(TITLE, "Event " + nIndex);
+		aEvent.setProperty(DESCRIPTION, "Description of event " + nIndex);
+		aEvent.setProperty(LOCATION,
+						   LOCATIONS[aRandom.nextInt(LOCATIONS.length)]);
+		aEvent.setProperty(START_DATE, aStart);
+		aEvent.setProperty(END_DATE,
+						   new Date(aStart.getTime() +
+									(long) nDuration * MINUTE));
+
+		if (bAllDay)
+		{
+			aEvent.setFlag(ALL_DAY);
+		}
+
+		return aEvent;
+	}
+}
@@ -0,0 +1,228 @@
+//++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+// gewt-timetable source file
+// Copyright (c) 2017 Elmar Sonnenschein / esoco GmbH
+// Last Change: 08.05.2017 by eso
+//
+// gewt-timetable is free software; you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published
+// by the Free Software Foundation; either version 3 of the License,
+// or (at your option) any later version.
+//
+// gewt-timetable is distributed in the hope that it will be useful, but
+// WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License along
+// with gewt-timetable; if not, write to the Free Software Foundation, Inc.,
+// 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA or use the
+// contact information on the FSF website http://www.fsf.org
+//++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+package de.esoco.ewt.component;
+
+import de.esoco.ewt.component.Timetable.TimetableEvent;
+
+import de.esoco.lib.property.HasProperties;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.bradrydzewski.gwt.calendar.client.Appointment;
+import com.bradrydzewski.gwt.calendar.client.CalendarSettings;
+import com.bradrydzewski.gwt.calendar.client.HasSettings;
+import com.bradrydzewski.gwt.calendar.client.dayview.AppointmentAdapter;
+import com.bradrydzewski.gwt.calendar.client.dayview.DayViewLayoutStrategy;
+import com.bradrydzewski.gwt.calendar.client.util.AppointmentUtil;
+
+
+/********************************************************************
+ * Benchmarks for the layout paths of {@link Timetable}: the filtering of the
+ * appointments for each displayed day and the overlap layout of the
+ * appointments of a day. Each path is measured with the original gwt-cal
+ * implementation and the timetable implementation. The benchmarks use the
+ * first week of the generated events which starts with a densely overlapping
+ * hot spot day.
+ *
+ * @author eso
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TimetableLayoutBenchmark
+{
+	//~ Static fields/initializers ---------------------------------------------
+
+	private static final int WEEK_DAYS = 7;
+
+	//~ Instance fields --------------------------------------------------------
+
+	@Param({ "1000", "10000", "100000" })
+	public int nEventCount;
+
+	private List<Appointment>   aAppointments;
+	private TimetableEventIndex aEventIndex;
+	private List<Appointment>   aDenseDay;
+	private Date[]			    aDayStarts;
+
+	private DayViewLayoutStrategy aOriginalLayout;
+	private TimetableDayLayout    aTimetableLayout;
+
+	//~ Methods ----------------------------------------------------------------
+
+	/***************************************
+	 * Filters the appointments of a week with the event index.
+	 *
+	 * @param rBlackhole The JMH blackhole
+	 */
+	@Benchmark
+	public void filterDaysIndexed(Blackhole rBlackhole)
+	{
+		for (int i = 0; i < WEEK_DAYS; i++)
+		{
+			rBlackhole.consume(aEventIndex.getAppointments(aDayStarts[i],
+														   aDayStarts[i + 1]));
+		}
+	}
+
+	/***************************************
+	 * Filters the appointments of a week by scanning all appointments like
+	 * the gwt-cal views.
+	 *
+	 * @param rBlackhole The JMH blackhole
+	 */
+	@Benchmark
+	public void filterDaysLinear(Blackhole rBlackhole)
+	{
+		for (int i = 0; i < WEEK_DAYS; i++)
+		{
+			Date rStart = aDayStarts[i];
+			Date rEnd   = aDayStarts[i + 1];
+
+			rBlackhole.consume(AppointmentUtil.filterListByDate(aAppointments,
+																rStart,
+																rEnd));
+		}
+	}
+
+	/***************************************
+	 * Performs the overlap layout of the dense day with the original gwt-cal
+	 * strategy.
+	 *
+	 * @return The layout result
+	 */
+	@Benchmark
+	public List<AppointmentAdapter> layoutDenseDayOriginal()
+	{
+		return aOriginalLayout.doLayout(aDenseDay, 0, 1);
+	}
+
+	/***************************************
+	 * Performs the overlap layout of the dense day with the sweep-line layout
+	 * of the timetable without using its cache.
+	 *
+	 * @return The layout result
+	 */
+	@Benchmark
+	public List<AppointmentAdapter> layoutDenseDayTimetable()
+	{
+		aTimetableLayout.clearCache();
+
+		return aTimetableLayout.doLayout(aDenseDay, 0, 1);
+	}
+
+	/***************************************
+	 * Performs the overlap layout of the dense day with the timetable layout
+	 * when the result is cached from a previous layout.
+	 *
+	 * @return The layout result
+	 */
+	@Benchmark
+	public List<AppointmentAdapter> layoutDenseDayTimetableCached()
+	{
+		return aTimetableLayout.doLayout(aDenseDay, 0, 1);
+	}
+
+	/***************************************
+	 * Generates the benchmark events and prepares the layouts.
+	 */
+	@Setup
+	@SuppressWarnings("deprecation")
+	public void setup()
+	{
+		List<HasProperties> rEvents =
+			new TimetableEventGenerator().createEvents(nEventCount);
+
+		Date rBase = TimetableEventGenerator.BASE_DATE;
+
+		aAppointments = new ArrayList<>(nEventCount);
+		aEventIndex   = new TimetableEventIndex();
+		aDayStarts    = new Date[WEEK_DAYS + 1];
+
+		for (HasProperties rEvent : rEvents)
+		{
+			aAppointments.add(new TimetableEvent(rEvent, null));
+		}
+
+		Collections.sort(aAppointments);
+		aEventIndex.addAll(aAppointments);
+
+		for (int i = 0; i <= WEEK_DAYS; i++)
+		{
+			aDayStarts[i] =
+				new Date(rBase.getYear(),
+						 rBase.getMonth(),
+						 rBase.getDate() + i);
+		}
+
+		aDenseDay = new ArrayList<>();
+
+		for (Appointment rAppointment :
+			 aEventIndex.getAppointments(aDayStarts[0], aDayStarts[1]))
+		{
+			// the day layout only handles appointments within a single day
+			if (!rAppointment.isAllDay() && !rAppointment.isMultiDay())
+			{
+				aDenseDay.add(rAppointment);
+			}
+		}
+
+		final CalendarSettings aSettings = new CalendarSettings();
+
+		HasSettings aHasSettings =
+			new HasSettings()
+			{
+				@Override
+				public CalendarSettings getSettings()
+				{
+					return aSettings;
+				}
+
+				@Override
+				public void setSettings(CalendarSettings rSettings)
+				{
+				}
+			};
+
+		aOriginalLayout  = new DayViewLayoutStrategy(aHasSettings);
+		aTimetableLayout = new TimetableDayLayout(aHasSettings);
+	}
+}
@@ -0,0 +1,273 @@
+//++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+// gewt-timetable source file
+// Copyright (c) 2017 Elmar Sonnenschein / esoco GmbH
+// Last Change: 08.05.2017 by eso
+//
+// gewt-timetable is free software; you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published
+// by the Free Software Foundation; either version 3 of the License,
+// or (at your option) any later version.
+//
+// gewt-timetable is distributed in the hope that it will be useful, but
+// WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License along
+// with gewt-timetable; if not, write to the Free Software Foundation, Inc.,
+// 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA or use the
+// contact information on the FSF website http://www.fsf.org
+//++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+package de.esoco.ewt.component;
+
+import de.esoco.ewt.component.Timetable.TimetableEvent;
+
+import de.esoco.lib.property.HasProperties;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.bradrydzewski.gwt.calendar.client.Appointment;
+
+
+/********************************************************************
+ * Benchmarks for the event model of {@link Timetable}: the conversion between
+ * event properties and {@link TimetableEvent} instances, the lookup and
+ * removal of events by ID, and the sorting of the appointment list. The ID
+ * lookup and removal replicate the operations of the timetable widget with an
+ * ID map and a {@link TimetableEventIndex} because the widget itself cannot be
+ * created outside of a browser.
+ *
+ * @author eso
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TimetableModelBenchmark
+{
+	//~ Instance fields --------------------------------------------------------
+
+	@Param({ "1000", "10000", "100000" })
+	public int nEventCount;
+
+	private List<HasProperties>		 aEvents;
+	private List<Appointment>		 aAppointments;
+	private List<Appointment>		 aShuffledAppointments;
+	private List<String>			 aLookupIds;
+	private Map<String, Appointment> aEventIds;
+
+	//~ Static methods ---------------------------------------------------------
+
+	/***************************************
+	 * Creates a map from event IDs to appointments like the timetable widget
+	 * does.
+	 *
+	 * @param  rAppointments The appointments to map
+	 *
+	 * @return The new map
+	 */
+	static Map<String, Appointment> createIdMap(
+		List<Appointment> rAppointments)
+	{
+		Map<String, Appointment> aMap = new HashMap<>(rAppointments.size());
+
+		for (Appointment rAppointment : rAppointments)
+		{
+			aMap.put(rAppointment.getId(), rAppointment);
+		}
+
+		return aMap;
+	}
+
+	//~ Methods ----------------------------------------------------------------
+
+	/***************************************
+	 * Converts all appointments into event properties.
+	 *
+	 * @param rBlackhole The JMH blackhole
+	 */
+	@Benchmark
+	public void createEventProperties(Blackhole rBlackhole)
+	{
+		for (Appointment rAppointment : aAppointments)
+		{
+			rBlackhole.consume(Timetable.createEvent(rAppointment));
+		}
+	}
+
+	/***************************************
+	 * Creates timetable events from event properties in the default mode.
+	 *
+	 * @return The created events
+	 */
+	@Benchmark
+	public List<Appointment> createTimetableEvents()
+	{
+		return createAppointments(null);
+	}
+
+	/***************************************
+	 * Creates timetable events from event properties in the compact storage
+	 * mode.
+	 *
+	 * @return The created events
+	 */
+	@Benchmark
+	public List<Appointment> createTimetableEventsCompact()
+	{
+		return createAppointments(new HashMap<String, String>());
+	}
+
+	/***************************************
+	 * Looks up events by their ID.
+	 *
+	 * @param rBlackhole The JMH blackhole
+	 */
+	@Benchmark
+	public void lookupById(Blackhole rBlackhole)
+	{
+		for (String sId : aLookupIds)
+		{
+			rBlackhole.consume(aEventIds.get(sId));
+		}
+	}
+
+	/***************************************
+	 * Removes events by ID from an ID map and an event index.
+	 *
+	 * @param  rState The state containing the map and index
+	 *
+	 * @return The number of removed events
+	 */
+	@Benchmark
+	public int removeById(RemovalState rState)
+	{
+		int nRemoved = 0;
+
+		for (String sId : aLookupIds)
+		{
+			Appointment rAppointment = rState.aEventIds.remove(sId);
+
+			if (rAppointment != null &&
+				rState.aEventIndex.remove(rAppointment))
+			{
+				nRemoved++;
+			}
+		}
+
+		return nRemoved;
+	}
+
+	/***************************************
+	 * Generates the benchmark events.
+	 */
+	@Setup(Level.Trial)
+	public void setup()
+	{
+		Random aRandom = new Random(7);
+
+		aEvents				  =
+			new TimetableEventGenerator().createEvents(nEventCount);
+		aAppointments		  = createAppointments(null);
+		aShuffledAppointments = new ArrayList<>(aAppointments);
+		aLookupIds			  = new ArrayList<>(1000);
+		aEventIds			  = createIdMap(aAppointments);
+
+		Collections.shuffle(aShuffledAppointments, aRandom);
+
+		for (int i = 0; i < 1000; i++)
+		{
+			aLookupIds.add(aAppointments.get(aRandom.nextInt(nEventCount))
+							.getId());
+		}
+	}
+
+	/***************************************
+	 * Sorts the appointments in their natural order.
+	 *
+	 * @return The sorted list
+	 */
+	@Benchmark
+	public List<Appointment> sortAppointments()
+	{
+		List<Appointment> aSorted = new ArrayList<>(aShuffledAppointments);
+
+		Collections.sort(aSorted);
+
+		return aSorted;
+	}
+
+	/***************************************
+	 * Creates timetable events from the benchmark event properties.
+	 *
+	 * @param  rStringPool The string pool for compact storage or NULL
+	 *
+	 * @return The new events
+	 */
+	private List<Appointment> createAppointments(
+		Map<String, String> rStringPool)
+	{
+		List<Appointment> aResult = new ArrayList<>(aEvents.size());
+
+		for (HasProperties rEvent : aEvents)
+		{
+			aResult.add(new TimetableEvent(rEvent, rStringPool));
+		}
+
+		return aResult;
+	}
+
+	//~ Inner Classes ----------------------------------------------------------
+
+	/********************************************************************
+	 * A state that provides a new ID map and event index for each invocation
+	 * of the removal benchmark.
+	 *
+	 * @author eso
+	 */
+	@State(Scope.Thread)
+	public static class RemovalState
+	{
+		//~ Instance fields ----------------------------------------------------
+
+		private Map<String, Appointment> aEventIds;
+		private TimetableEventIndex		 aEventIndex;
+
+		//~ Methods ------------------------------------------------------------
+
+		/***************************************
+		 * Re-creates the ID map and the event index.
+		 *
+		 * @param rBenchmark The benchmark state with the appointments
+		 */
+		@Setup(Level.Invocation)
+		public void reset(TimetableModelBenchmark rBenchmark)
+		{
+			aEventIds   = createIdMap(rBenchmark.aAppointments);
+			aEventIndex = new TimetableEventIndex();
+			aEventIndex.addAll(rBenchmark.aAppointments);
+		}
+	}
+}
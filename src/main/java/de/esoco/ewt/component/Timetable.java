@@ -21,27 +21,49 @@
 package de.esoco.ewt.component;
 
 import de.esoco.ewt.EWT;
+import de.esoco.ewt.component.TimetableStatistics.Operation;
 import de.esoco.ewt.event.EventType;
 import de.esoco.ewt.impl.gwt.WidgetFactory;
 import de.esoco.ewt.style.StyleData;
+import de.esoco.ewt.timetable.TimetableLayout;
+import de.esoco.ewt.timetable.TimetableLayoutCalculator;
 
 import de.esoco.lib.property.DateAttribute;
 import de.esoco.lib.property.HasProperties;
+import de.esoco.lib.property.MutableProperties;
+import de.esoco.lib.property.PropertyName;
 import de.esoco.lib.property.StandardProperties;
 import de.esoco.lib.property.StringProperties;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
 
 import com.bradrydzewski.gwt.calendar.client.Appointment;
+import com.bradrydzewski.gwt.calendar.client.AppointmentManager;
 import com.bradrydzewski.gwt.calendar.client.Calendar;
 import com.bradrydzewski.gwt.calendar.client.CalendarFormat;
 import com.bradrydzewski.gwt.calendar.client.CalendarSettings;
 import com.bradrydzewski.gwt.calendar.client.CalendarSettings.Click;
+import com.bradrydzewski.gwt.calendar.client.CalendarView;
 import com.bradrydzewski.gwt.calendar.client.CalendarViews;
-import com.bradrydzewski.gwt.calendar.client.agenda.AgendaView;
+import com.bradrydzewski.gwt.calendar.client.DateUtils;
+import com.bradrydzewski.gwt.calendar.client.dayview.AppointmentAdapter;
+import com.bradrydzewski.gwt.calendar.client.dayview.AppointmentWidget;
+import com.bradrydzewski.gwt.calendar.client.dayview.DayView;
+import com.bradrydzewski.gwt.calendar.client.dayview.DayViewLayoutStrategy;
+import com.bradrydzewski.gwt.calendar.client.dayview.DayViewStyleManager;
 import com.bradrydzewski.gwt.calendar.client.event.CreateEvent;
 import com.bradrydzewski.gwt.calendar.client.event.CreateHandler;
 import com.bradrydzewski.gwt.calendar.client.event.DateRequestEvent;
@@ -54,14 +76,23 @@ import com.bradrydzewski.gwt.calendar.client.event.TimeBlockClickEvent;
 import com.bradrydzewski.gwt.calendar.client.event.TimeBlockClickHandler;
 import com.bradrydzewski.gwt.calendar.client.event.UpdateEvent;
 import com.bradrydzewski.gwt.calendar.client.event.UpdateHandler;
+import com.bradrydzewski.gwt.calendar.client.monthview.MonthView;
+import com.bradrydzewski.gwt.calendar.client.monthview.MonthViewDateUtils;
+import com.bradrydzewski.gwt.calendar.client.util.AppointmentUtil;
 
+import com.google.gwt.core.client.Duration;
+import com.google.gwt.core.client.GWT;
 import com.google.gwt.core.client.Scheduler;
+import com.google.gwt.core.client.Scheduler.RepeatingCommand;
 import com.google.gwt.core.client.Scheduler.ScheduledCommand;
 import com.google.gwt.event.logical.shared.OpenEvent;
 import com.google.gwt.event.logical.shared.OpenHandler;
 import com.google.gwt.event.logical.shared.SelectionEvent;
 import com.google.gwt.event.logical.shared.SelectionHandler;
 import com.google.gwt.event.shared.HandlerRegistration;
+import com.google.gwt.user.client.DOM;
+import com.google.gwt.user.client.Element;
+import com.google.gwt.user.client.Event;
 import com.google.gwt.user.client.Timer;
 import com.google.gwt.user.client.ui.Widget;
 
@@ -78,6 +109,13 @@ import static de.esoco.lib.property.StandardProperties.TITLE;
 /********************************************************************
  * A component that can display calendar events with different styles.
  *
+ * <p>Multiple events can be selected by clicking with modifier keys (see
+ * {@link #getSelectedEvents()}). The element of notifications of the event
+ * types {@link EventType#SELECTION}, {@link EventType#ELEMENT_DELETED}, and
+ * {@link EventType#ELEMENT_UPDATED} is always a single event. If such a
+ * notification refers to a multi-selection all affected events can be queried
+ * with {@link #getNotifiedEvents()} while the notification is handled.</p>
+ *
  * @author eso
  */
 public class Timetable extends Component implements DateAttribute
@@ -85,12 +123,49 @@ public class Timetable extends Component implements DateAttribute
 	//~ Enums ------------------------------------------------------------------
 
 	/********************************************************************
-	 * Enumeration of the possible display styles.
+	 * Enumeration of the possible display styles. In the MONTH style events
+	 * can only be moved by drag and drop if no event limit has been set with
+	 * {@link Timetable#setMonthEventLimit(int)}. The YEAR style displays an
+	 * overview of the utilization of each day of a year without displaying
+	 * the single events. The RESOURCES style displays the events of a day in
+	 * a separate lane for each resource that has been set with {@link
+	 * Timetable#setResources(Map)}.
 	 */
-	public enum TimetableStyle { DAY, MONTH, AGENDA }
+	public enum TimetableStyle { DAY, MONTH, AGENDA, YEAR, RESOURCES }
 
 	//~ Static fields/initializers ---------------------------------------------
 
+	/**
+	 * A recurrence rule that makes an event a recurring series. The rule must
+	 * be in a subset of the RRULE format of RFC 5545 as described in {@link
+	 * TimetableRecurrence}, e.g. FREQ=WEEKLY;BYDAY=MO,WE;COUNT=20.
+	 */
+	public static final PropertyName<String> RECURRENCE_RULE =
+		TimetableEventEncoder.RECURRENCE_RULE;
+
+	/**
+	 * A comma-separated list of dates (yyyyMMdd) on which the occurrences of a
+	 * recurring event are excluded.
+	 */
+	public static final PropertyName<String> RECURRENCE_EXCEPTIONS =
+		TimetableEventEncoder.RECURRENCE_EXCEPTIONS;
+
+	/**
+	 * The original start date of an occurrence of a recurring event. This
+	 * property is set in the events that are handed to listeners for
+	 * occurrences which also contain the ID of the recurring event.
+	 */
+	public static final PropertyName<Date> OCCURRENCE_DATE =
+		PropertyName.newDateName("OCCURRENCE_DATE");
+
+	/**
+	 * The key of the resource (e.g. a room) to which an event is assigned.
+	 * The events of each resource are displayed in a separate lane in the
+	 * style {@link TimetableStyle#RESOURCES}.
+	 */
+	public static final PropertyName<String> RESOURCE =
+		TimetableEventEncoder.RESOURCE;
+
 	static
 	{
 		EWT.registerWidgetFactory(Timetable.class,
@@ -98,6 +173,69 @@ public class Timetable extends Component implements DateAttribute
 								  false);
 	}
 
+	//~ Instance fields --------------------------------------------------------
+
+	private EventProvider	    rEventProvider = null;
+	private TimetableRangeCache aRangeCache    = null;
+
+	private TimetableEventDispatcher aEventDispatcher = null;
+	private EventLoader				 aEventLoader     = null;
+
+	private Map<String, String> aStringPool = null;
+
+	private TimetableInstrumentation.Listener rStatisticsListener = null;
+
+	private int nHoverDelay = 0;
+
+	private List<HasProperties> rNotifiedEvents = Collections.emptyList();
+
+	//~ Static methods ---------------------------------------------------------
+
+	/***************************************
+	 * Creates an event properties object from an {@link Appointment}.
+	 *
+	 * @param  rAppointment The source object
+	 *
+	 * @return The new event properties
+	 */
+	static MutableProperties createEvent(Appointment rAppointment)
+	{
+		StringProperties aEvent = new StringProperties();
+
+		aEvent.setProperty(ID, rAppointment.getId());
+		aEvent.setProperty(TITLE, rAppointment.getTitle());
+		aEvent.setProperty(DESCRIPTION, rAppointment.getDescription());
+		aEvent.setProperty(START_DATE, rAppointment.getStart());
+		aEvent.setProperty(END_DATE, rAppointment.getEnd());
+		aEvent.setProperty(LOCATION, rAppointment.getLocation());
+		aEvent.setProperty(ALL_DAY, rAppointment.isAllDay());
+
+		if (rAppointment instanceof TimetableEvent)
+		{
+			TimetableEvent	    rEvent	    = (TimetableEvent) rAppointment;
+			TimetableRecurrence rRecurrence = rEvent.getRecurrence();
+			String			    sResource   = rEvent.getResource();
+
+			if (sResource != null)
+			{
+				aEvent.setProperty(RESOURCE, sResource);
+			}
+
+			if (rRecurrence != null)
+			{
+				aEvent.setProperty(RECURRENCE_RULE, rRecurrence.getRule());
+
+				if (rRecurrence.getExceptions() != null)
+				{
+					aEvent.setProperty(RECURRENCE_EXCEPTIONS,
+									   rRecurrence.getExceptions());
+				}
+			}
+		}
+
+		return aEvent;
+	}
+
 	//~ Methods ----------------------------------------------------------------
 
 	/***************************************
@@ -118,13 +256,35 @@ public class Timetable extends Component implements DateAttribute
 	 *   <li>{@link StandardProperties#LOCATION}: the event location</li>
 	 *   <li>{@link StandardProperties#ALL_DAY}: TRUE for an all-day event on
 	 *     the start date</li>
+	 *   <li>{@link #RECURRENCE_RULE}: a rule that makes the event a recurring
+	 *     series with the start and end dates defining the first
+	 *     occurrence</li>
+	 *   <li>{@link #RECURRENCE_EXCEPTIONS}: the days on which occurrences of
+	 *     a recurring event are excluded</li>
+	 *   <li>{@link #RESOURCE}: the key of the resource to which the event is
+	 *     assigned</li>
 	 * </ul>
 	 *
+	 * <p>The occurrences of recurring events are only created for the
+	 * currently displayed date range. They are handed to event listeners with
+	 * the ID of the recurring event and the additional property {@link
+	 * #OCCURRENCE_DATE} that contains the original start of the
+	 * occurrence.</p>
+	 *
+	 * <p>If the event object implements {@link MutableProperties} changes of
+	 * the event dates by the user will be written back to it when the update
+	 * is notified and the object itself will be handed to event listeners.
+	 * Otherwise listeners will receive a copy of the event data.</p>
+	 *
 	 * @param rEvent A properties object containing the event data
 	 */
 	public void addEvent(HasProperties rEvent)
 	{
-		getTimetableWidget().addAppointment(new TimetableEvent(rEvent));
+		TimetableWidget rWidget = getTimetableWidget();
+		long		    nStart  = TimetableInstrumentation.startTime();
+
+		rWidget.addAppointment(new TimetableEvent(rEvent, aStringPool));
+		rWidget.recordOperation(Operation.ADD_EVENTS, nStart, 1);
 	}
 
 	/***************************************
@@ -136,33 +296,280 @@ public class Timetable extends Component implements DateAttribute
 	 */
 	public void addEvents(Collection<? extends HasProperties> rEvents)
 	{
+		TimetableWidget   rWidget		= getTimetableWidget();
+		long			  nStart		= TimetableInstrumentation.startTime();
 		List<Appointment> aAppointments = new ArrayList<>(rEvents.size());
 
 		for (HasProperties rEvent : rEvents)
 		{
-			aAppointments.add(new TimetableEvent(rEvent));
+			aAppointments.add(new TimetableEvent(rEvent, aStringPool));
+		}
+
+		rWidget.addAppointments(aAppointments);
+		rWidget.recordOperation(Operation.ADD_EVENTS, nStart, rEvents.size());
+	}
+
+	/***************************************
+	 * Adds the events from a compact event batch to this instance. This is
+	 * more efficient than adding a collection of event properties because
+	 * the events are created directly from the batch data. The properties
+	 * objects of the events will only be created on demand, e.g. when the
+	 * events are handed to event listeners.
+	 *
+	 * @param rBatch The event batch
+	 *
+	 * @see   TimetableEventEncoder
+	 */
+	public void addEvents(TimetableEventBatch rBatch)
+	{
+		TimetableWidget   rWidget		= getTimetableWidget();
+		long			  nStart		= TimetableInstrumentation.startTime();
+		int				  nCount		= rBatch.size();
+		List<Appointment> aAppointments = new ArrayList<>(nCount);
+
+		for (int i = 0; i < nCount; i++)
+		{
+			aAppointments.add(new TimetableEvent(rBatch, i));
 		}
 
-		getTimetableWidget().addAppointments(aAppointments);
+		rWidget.addAppointments(aAppointments);
+		rWidget.recordOperation(Operation.ADD_EVENTS, nStart, nCount);
 	}
 
 	/***************************************
-	 * Removes all calendar events from this instance.
+	 * Adds multiple events to this instance in the background. Other than
+	 * {@link #addEvents(Collection)} this method returns immediately and
+	 * processes the events in small time slices so that the UI remains
+	 * responsive even for very large numbers of events. The events in the
+	 * visible date range will be displayed first, the remaining events will
+	 * be added afterwards without affecting the display.
+	 *
+	 * <p>After each time slice an event of the type {@link
+	 * EventType#VALUE_CHANGED} will be sent to registered listeners which
+	 * contains the returned {@link EventLoader} as the element. It can be
+	 * queried for the progress and whether the loading has finished. Starting
+	 * another incremental loading or invoking {@link #clear()} will cancel a
+	 * previous loading that has not finished yet.</p>
+	 *
+	 * @param  rEvents The events to add
+	 *
+	 * @return The event loader that performs the background processing
+	 *
+	 * @see    #addEvent(HasProperties)
+	 */
+	public EventLoader addEventsIncrementally(
+		Collection<? extends HasProperties> rEvents)
+	{
+		if (aEventLoader != null)
+		{
+			aEventLoader.cancel();
+		}
+
+		aEventLoader = new EventLoader(rEvents);
+		Scheduler.get().scheduleIncremental(aEventLoader);
+
+		return aEventLoader;
+	}
+
+	/***************************************
+	 * Starts a sequence of modifications of this instance. Until the matching
+	 * call to {@link #endUpdate()} no layout of the UI will be performed. Calls
+	 * to this method can be nested, in which case the layout will be performed
+	 * by the outermost call to {@link #endUpdate()}.
+	 */
+	public void beginUpdate()
+	{
+		getTimetableWidget().beginUpdate();
+	}
+
+	/***************************************
+	 * Removes all calendar events from this instance. This will also cancel
+	 * an unfinished incremental adding of events. If an event provider has
+	 * been set the events of the visible date range will be requested again.
+	 *
+	 * @see #addEventsIncrementally(Collection)
+	 * @see #setEventProvider(EventProvider, int)
 	 */
 	public void clear()
 	{
-		getTimetableWidget().clearAppointments();
+		TimetableWidget rWidget = getTimetableWidget();
+		long		    nStart  = TimetableInstrumentation.startTime();
+		int			    nCount  = rWidget.getAllAppointments().size();
+
+		if (aEventLoader != null)
+		{
+			aEventLoader.cancel();
+		}
+
+		rWidget.clearAppointments();
+		rWidget.recordOperation(Operation.CLEAR, nStart, nCount);
+
+		if (aStringPool != null)
+		{
+			aStringPool.clear();
+		}
+
+		if (aRangeCache != null)
+		{
+			aRangeCache.clear();
+			requestVisibleEvents();
+		}
 	}
 
 	/***************************************
-	 * Enables or disables the editing of events with mouse interactions. Will
-	 * only be effective after a UI refresh through {@link #repaint()}.
+	 * Enables or disables the editing of events with mouse interactions.
 	 *
 	 * @param bEnable TRUE to enable interactive editing
 	 */
 	public void enableEditing(boolean bEnable)
 	{
 		getTimetableWidget().getSettings().setEnableDragDrop(bEnable);
+		getTimetableWidget().scheduleLayout();
+	}
+
+	/***************************************
+	 * Enables or disables the local relayout of the day view after an event
+	 * has been moved or resized interactively. By default the complete view
+	 * is laid out again after such a modification. If enabled only the
+	 * widgets in the day columns that the event has been moved from and to
+	 * will be recreated at the end of the current event loop. During the
+	 * drag only the lightweight drag proxy or the resized event widget is
+	 * modified. The update notification is sent exactly once after the drop
+	 * with the final event dates. If it is rejected by an event handler the
+	 * original dates will be restored. Modifications that affect the
+	 * multi-day area of the day view and modifications in the month view
+	 * always cause a complete layout.
+	 *
+	 * @param bEnable TRUE to enable the local relayout
+	 *
+	 * @see   #enableEditing(boolean)
+	 */
+	public void enableLocalRelayout(boolean bEnable)
+	{
+		getTimetableWidget().setLocalRelayout(bEnable);
+	}
+
+	/***************************************
+	 * Enables or disables the prerendering of the next period. If enabled the
+	 * day and month views will render the period that follows the displayed
+	 * period shortly after each layout when the browser is idle, e.g. the
+	 * next week of a week view or the next month of the month view. The
+	 * layouts of the day view and the grids of the month view are kept in a
+	 * bounded cache for recently displayed and prerendered periods so that
+	 * navigating back and forth between them doesn't need to calculate or
+	 * create them again. Any modification of the events invalidates the
+	 * cached month grids while the day layouts are validated against their
+	 * events individually. The month grids are only cached if a month event
+	 * limit has been set.
+	 *
+	 * @param bEnable TRUE to enable the prerendering
+	 *
+	 * @see   #setMonthEventLimit(int)
+	 */
+	public void enablePrerendering(boolean bEnable)
+	{
+		getTimetableWidget().setPrerendering(bEnable);
+	}
+
+	/***************************************
+	 * Enables or disables the recording of performance statistics. If enabled
+	 * the durations of the modifications of the timetable events, of the
+	 * sorting of events, and of the layout and sizing of the views will be
+	 * measured together with the number of created event widgets. The
+	 * recorded values can then be queried with {@link #getStatistics()} and
+	 * a listener can be notified of each measured operation. Enabling the
+	 * statistics again will reset the recorded values.
+	 *
+	 * @param bEnable TRUE to enable the statistics, FALSE to disable them
+	 *
+	 * @see   #setStatisticsListener(TimetableInstrumentation.Listener)
+	 */
+	public void enableStatistics(boolean bEnable)
+	{
+		TimetableInstrumentation aInstrumentation = null;
+
+		if (bEnable)
+		{
+			aInstrumentation = new TimetableInstrumentation();
+			aInstrumentation.setListener(rStatisticsListener);
+		}
+
+		getTimetableWidget().setInstrumentation(aInstrumentation);
+	}
+
+	/***************************************
+	 * Ends a sequence of modifications that has been started by {@link
+	 * #beginUpdate()}. If this ends the outermost sequence and the UI needs to
+	 * be updated the layout will be performed immediately.
+	 */
+	public void endUpdate()
+	{
+		getTimetableWidget().endUpdate();
+	}
+
+	/***************************************
+	 * Writes all events of this instance as iCalendar data and finishes the
+	 * writer afterwards. The text will be handed to the output handler of the
+	 * writer in fragments. Recurring events are written with their recurrence
+	 * rule and exceptions so that they can be imported again as the same
+	 * series.
+	 *
+	 * @param rWriter The writer to write the events with
+	 *
+	 * @see   TimetableICalReader
+	 */
+	public void exportEvents(TimetableICalWriter rWriter)
+	{
+		for (Appointment rAppointment :
+			 getTimetableWidget().getAllAppointments())
+		{
+			TimetableRecurrence rRecurrence = null;
+
+			if (rAppointment instanceof TimetableEvent)
+			{
+				rRecurrence = ((TimetableEvent) rAppointment).getRecurrence();
+			}
+
+			rWriter.writeEvent(rAppointment, rRecurrence);
+		}
+
+		rWriter.finish();
+	}
+
+	/***************************************
+	 * Returns the events that overlap a certain time range, e.g. to reject
+	 * the drop of an event on a time range that is already occupied. Events
+	 * that only touch the range and all-day events are not considered to be
+	 * conflicting. The occurrences of recurring events are included. The
+	 * query is performed on the event index and therefore only depends on
+	 * the number of overlapping events.
+	 *
+	 * @param  rStart     The start of the time range (inclusive)
+	 * @param  rEnd       The end of the time range (exclusive)
+	 * @param  sExcludeId The ID of an event to ignore, e.g. the event that is
+	 *                    being moved, or NULL for none
+	 *
+	 * @return A new list of the conflicting events (empty for none)
+	 */
+	public List<HasProperties> getConflictingEvents(Date   rStart,
+													Date   rEnd,
+													String sExcludeId)
+	{
+		List<Appointment> rConflicts =
+			getTimetableWidget().getConflicts(rStart.getTime(),
+											  rEnd.getTime());
+
+		List<HasProperties> aEvents = new ArrayList<>(rConflicts.size());
+
+		for (Appointment rAppointment : rConflicts)
+		{
+			if (sExcludeId == null || !sExcludeId.equals(rAppointment.getId()))
+			{
+				aEvents.add(getEventProperties(rAppointment));
+			}
+		}
+
+		return aEvents;
 	}
 
 	/***************************************
@@ -175,16 +582,130 @@ public class Timetable extends Component implements DateAttribute
 	}
 
 	/***************************************
-	 * Returns the currently selected calendar event.
+	 * Returns the occupancy of a sequence of days as the sum of the minutes
+	 * that are booked by the events on each day. Overlapping events are
+	 * counted separately and all-day events don't add booked minutes. The
+	 * occupancy is taken from aggregates that are updated incrementally on
+	 * each modification of the events.
+	 *
+	 * @param  rFirstDay The first day
+	 * @param  nDays     The number of days
+	 *
+	 * @return An array containing the booked minutes of each day
+	 */
+	public int[] getDayOccupancy(Date rFirstDay, int nDays)
+	{
+		return getTimetableWidget().getDayOccupancy(rFirstDay, nDays);
+	}
+
+	/***************************************
+	 * Returns a detached copy of the current state of a certain event. Other
+	 * than the event objects that are handed to event listeners or returned
+	 * by {@link #getSelectedEvent()} the returned object will not be affected
+	 * by subsequent modifications of the event.
+	 *
+	 * @param  sId The event ID
+	 *
+	 * @return A new properties object containing the event data or NULL if
+	 *         no event with the given ID exists
+	 */
+	public HasProperties getDetachedEvent(String sId)
+	{
+		Appointment rAppointment = getTimetableWidget().getAppointment(sId);
+
+		return rAppointment != null ? createEvent(rAppointment) : null;
+	}
+
+	/***************************************
+	 * Returns the free time slots of at least a certain duration in a time
+	 * range. Only the working hours of each day as set with {@link
+	 * #setWorkingHours(int, int)} are considered to be available. All-day
+	 * events don't occupy any time. Each day is queried from the event index
+	 * so that the query only depends on the number of days and the number of
+	 * events in the working hours of these days.
+	 *
+	 * @param  rStart       The start of the time range (inclusive)
+	 * @param  rEnd         The end of the time range (exclusive)
+	 * @param  nMinDuration The minimum duration of a free slot in minutes
+	 *
+	 * @return A new list of the free slots in chronological order
+	 */
+	public List<TimetableSlot> getFreeSlots(Date rStart,
+											Date rEnd,
+											int  nMinDuration)
+	{
+		return getTimetableWidget().getFreeSlots(rStart,
+												 rEnd.getTime(),
+												 nMinDuration);
+	}
+
+	/***************************************
+	 * Returns all events that are affected by the notification that is
+	 * currently being handled. If a notification of the type {@link
+	 * EventType#SELECTION}, {@link EventType#ELEMENT_DELETED}, or {@link
+	 * EventType#ELEMENT_UPDATED} refers to a multi-selection this list
+	 * contains all selected (or moved) events, starting with the element of
+	 * the notification. This allows to handle all events in a single batch,
+	 * e.g. with {@link #removeEvents(Collection)}.
+	 *
+	 * @return The affected events or an empty list if no notification for
+	 *         multiple events is being handled
+	 */
+	public List<HasProperties> getNotifiedEvents()
+	{
+		return rNotifiedEvents;
+	}
+
+	/***************************************
+	 * Returns the currently selected calendar event. If the event properties
+	 * that have been added to this instance are mutable the original object
+	 * will be returned. It contains the current dates because these are
+	 * written back to it on each interactive modification. Otherwise a new
+	 * properties object will be created. This method does not modify the
+	 * event.
 	 *
 	 * @return The selected calendar event or NULL for none
+	 *
+	 * @see    #getDetachedEvent(String)
 	 */
 	public HasProperties getSelectedEvent()
 	{
 		Appointment rAppointment =
 			getTimetableWidget().getSelectedAppointment();
 
-		return rAppointment != null ? createEvent(rAppointment) : null;
+		return rAppointment != null ? getEventProperties(rAppointment) : null;
+	}
+
+	/***************************************
+	 * Returns all currently selected calendar events. Multiple events can be
+	 * selected by clicking on them with the control or meta key pressed or
+	 * by clicking with the shift key pressed to select the range of visible
+	 * events from the first selected event. The event objects are determined
+	 * in the same way as in {@link #getSelectedEvent()}.
+	 *
+	 * @return A new list of the selected events in the order of their
+	 *         selection (empty for none)
+	 */
+	public List<HasProperties> getSelectedEvents()
+	{
+		return getEventProperties(getTimetableWidget().getSelection());
+	}
+
+	/***************************************
+	 * Returns a snapshot of the performance statistics that have been
+	 * recorded since they have been enabled.
+	 *
+	 * @return The statistics or NULL if statistics are not enabled
+	 *
+	 * @see    #enableStatistics(boolean)
+	 */
+	public TimetableStatistics getStatistics()
+	{
+		TimetableInstrumentation rInstrumentation =
+			getTimetableWidget().getInstrumentation();
+
+		return rInstrumentation != null ? rInstrumentation.getStatistics()
+										: null;
 	}
 
 	/***************************************
@@ -222,6 +743,15 @@ public class Timetable extends Component implements DateAttribute
 				{
 					rWidget.setView(CalendarViews.DAY, 1);
 					rWidget.setDate(rEvent.getTarget());
+					requestVisibleEvents();
+				}
+			});
+		rWidget.setRangeExtensionHandler(new ScheduledCommand()
+			{
+				@Override
+				public void execute()
+				{
+					requestVisibleEvents();
 				}
 			});
 	}
@@ -233,28 +763,56 @@ public class Timetable extends Component implements DateAttribute
 	 */
 	public void removeEvent(String sId)
 	{
-		List<Appointment> rAppointments =
-			getTimetableWidget().getAppointments();
+		TimetableWidget rWidget		 = getTimetableWidget();
+		long		    nStart		 = TimetableInstrumentation.startTime();
+		Appointment     rAppointment = rWidget.getAppointment(sId);
 
-		for (Appointment rAppointment : rAppointments)
+		if (rAppointment != null)
 		{
-			if (rAppointment.getId().equals(sId))
-			{
-				getTimetableWidget().removeAppointment(rAppointment);
+			rWidget.removeAppointment(rAppointment);
+			rWidget.recordOperation(Operation.REMOVE_EVENTS, nStart, 1);
+		}
+	}
+
+	/***************************************
+	 * Removes multiple events from this instance. The UI will only be updated
+	 * once after all events have been removed.
+	 *
+	 * @param rIds The unique IDs of the events to remove
+	 */
+	public void removeEvents(Collection<String> rIds)
+	{
+		TimetableWidget   rWidget  = getTimetableWidget();
+		long			  nStart   = TimetableInstrumentation.startTime();
+		List<Appointment> aRemoved = new ArrayList<>(rIds.size());
+
+		for (String sId : rIds)
+		{
+			Appointment rAppointment = rWidget.getAppointment(sId);
 
-				break;
+			if (rAppointment != null)
+			{
+				aRemoved.add(rAppointment);
 			}
 		}
+
+		rWidget.removeAppointments(aRemoved);
+		rWidget.recordOperation(Operation.REMOVE_EVENTS,
+								nStart,
+								aRemoved.size());
 	}
 
 	/***************************************
-	 * {@inheritDoc}
+	 * Schedules a layout of the UI that will be combined with all other
+	 * pending changes into a single layout pass at the end of the current
+	 * event loop.
+	 *
+	 * @see Component#repaint()
 	 */
 	@Override
 	public void repaint()
 	{
-		getTimetableWidget().doLayout();
-		getTimetableWidget().doSizing();
+		getTimetableWidget().scheduleLayout();
 	}
 
 	/***************************************
@@ -277,6 +835,22 @@ public class Timetable extends Component implements DateAttribute
 			});
 	}
 
+	/***************************************
+	 * Enables or disables the compact storage of events. In compact mode the
+	 * titles and locations of the events will be shared between all events
+	 * with the same values and the event descriptions will not be copied but
+	 * read from the original event properties when they are displayed. This
+	 * reduces the memory consumption for large numbers of events with
+	 * repeating values. The mode only affects events that are added or
+	 * updated after it has been set.
+	 *
+	 * @param bCompact TRUE to enable compact event storage
+	 */
+	public void setCompactEvents(boolean bCompact)
+	{
+		aStringPool = bCompact ? new HashMap<String, String>() : null;
+	}
+
 	/***************************************
 	 * {@inheritDoc}
 	 */
@@ -284,22 +858,40 @@ public class Timetable extends Component implements DateAttribute
 	public void setDate(Date rDate)
 	{
 		getTimetableWidget().setDate(rDate);
+		requestVisibleEvents();
 	}
 
 	/***************************************
-	 * Sets the first hour to be displayed for a day. Will only be effective
-	 * after a UI refresh through {@link #repaint()}.
+	 * Sets the first hour to be displayed for a day.
 	 *
 	 * @param nHour The starting hour of a day
 	 */
 	public void setDayStart(int nHour)
 	{
 		getTimetableWidget().getSettings().setDayStartsAt(nHour);
+		getTimetableWidget().scheduleLayout();
+	}
+
+	/***************************************
+	 * Sets the time that the pointer must rest on an event before a {@link
+	 * EventType#POINTER_HOVER} notification is sent. If the pointer moves
+	 * over several events within this time only the last of them will be
+	 * notified. Independent of the delay repeated hover events for the same
+	 * event are suppressed and a {@link EventType#POINTER_EXITED}
+	 * notification with the event properties is sent when the pointer leaves
+	 * an event for which a hover notification has been sent before. This
+	 * allows handlers to cancel work that has been started for the hover.
+	 *
+	 * @param nMillis The hover delay in milliseconds or zero to notify
+	 *                immediately (the default)
+	 */
+	public void setHoverDelay(int nMillis)
+	{
+		nHoverDelay = nMillis;
 	}
 
 	/***************************************
-	 * Sets the parameters for the display of hour first intervals. Will only be
-	 * effective after a UI refresh through {@link #repaint()}.
+	 * Sets the parameters for the display of hour first intervals.
 	 *
 	 * @param nSubdivisions      The number of subdivisions of an hour or -1 to
 	 *                           ignore
@@ -319,210 +911,3736 @@ public class Timetable extends Component implements DateAttribute
 		{
 			rSettings.setPixelsPerInterval(nSubdivisionHeight);
 		}
-	}
 
-	/***************************************
-	 * Sets the display type.
-	 *
-	 * @param eType The new display type
-	 */
-	public void setTimetableStyle(TimetableStyle eType)
-	{
-		getTimetableWidget().setView(CalendarViews.valueOf(eType.name()));
+		getTimetableWidget().scheduleLayout();
 	}
 
 	/***************************************
-	 * Sets the number of days that are displayed if the display type is {@link
-	 * TimetableStyle#DAY}.
+	 * Sets a provider that will be queried for the events of the visible date
+	 * range each time this range changes. Instead of adding all events in
+	 * advance the application can then load events on demand. Besides the
+	 * visible range the events of the adjacent periods (of the same length)
+	 * will be prefetched. The date ranges that have already been loaded or
+	 * requested are cached so that they won't be requested again. If the
+	 * number of loaded events exceeds the given budget the events of the
+	 * least recently displayed ranges will be removed.
 	 *
-	 * @param nDays The number of visible days
+	 * <p>Setting a new provider discards the cached ranges but not the events
+	 * that have already been loaded. To reload all events {@link #clear()}
+	 * can be invoked.</p>
+	 *
+	 * @param rProvider    The event provider or NULL to disable on-demand
+	 *                     loading
+	 * @param nEventBudget The maximum number of loaded events to keep or zero
+	 *                     for no limit
 	 */
-	public void setVisibleDays(int nDays)
+	public void setEventProvider(EventProvider rProvider, int nEventBudget)
 	{
-		getTimetableWidget().setDays(nDays);
+		rEventProvider = rProvider;
+		aRangeCache    =
+			rProvider != null ? new TimetableRangeCache(nEventBudget) : null;
+
+		if (getWidget() != null)
+		{
+			requestVisibleEvents();
+		}
 	}
 
 	/***************************************
-	 * Sets the working hours of a day. Will only be effective after a UI
-	 * refresh through {@link #repaint()}.
+	 * Attaches this timetable to an event store that can be shared with other
+	 * timetables. All attached timetables display the same events which are
+	 * converted, indexed and sorted only once. Modifications through any of
+	 * the timetables (including {@link #clear()}) are applied to the store
+	 * and the other timetables will be laid out again if the modification
+	 * affects their visible date range. The current events of this timetable
+	 * are replaced by the events in the store.
 	 *
-	 * @param nFirstWorkHour The first work hour of a day or -1 to ignore
-	 * @param nLastWorkHour  The last work hour of a day or -1 to ignore
+	 * @param rStore The event store or NULL to detach this timetable from a
+	 *               shared store and to continue with a new empty store
 	 */
-	public void setWorkingHours(int nFirstWorkHour, int nLastWorkHour)
+	public void setEventStore(TimetableEventStore rStore)
 	{
-		CalendarSettings rSettings = getTimetableWidget().getSettings();
-
-		if (nFirstWorkHour >= 0)
+		if (aEventLoader != null)
 		{
-			rSettings.setWorkingHourStart(nFirstWorkHour);
+			aEventLoader.cancel();
 		}
 
-		if (nLastWorkHour >= 0)
+		getTimetableWidget().setEventStore(rStore != null
+										   ? rStore
+										   : new TimetableEventStore());
+
+		if (aRangeCache != null)
 		{
-			rSettings.setWorkingHourEnd(nLastWorkHour);
+			aRangeCache.clear();
+			requestVisibleEvents();
 		}
 	}
 
 	/***************************************
-	 * Enables or disables the display of week numbers. Will only be effective
-	 * after a UI refresh through {@link #repaint()}.
+	 * Sets the events of this instance by comparing them with the current
+	 * content. Events are identified by their {@link StandardProperties#ID
+	 * ID}. Only new events will be added and only existing events with
+	 * modified attributes will be updated. All current events that are not
+	 * contained in the argument collection will be removed. The UI will only
+	 * be updated if a change affects the currently displayed date range.
+	 *
+	 * @param  rEvents The new events of this instance
+	 *
+	 * @throws IllegalArgumentException If an event has no ID or if an ID
+	 *                                  occurs more than once
+	 *
+	 * @see    #addEvent(HasProperties)
+	 */
+	public void setEvents(Collection<? extends HasProperties> rEvents)
+	{
+		TimetableWidget    rWidget = getTimetableWidget();
+		long			   nStart  = TimetableInstrumentation.startTime();
+		TimetableEventDiff aDiff   = new TimetableEventDiff(new DiffTarget());
+
+		aDiff.setEvents(rEvents);
+
+		List<Appointment> rUpdated = aDiff.getUpdated();
+		List<Appointment> rRemoved = aDiff.getRemoved();
+
+		rWidget.updateAppointments(rUpdated,
+								   rRemoved,
+								   aDiff.isVisibleChange());
+		rWidget.recordOperation(Operation.UPDATE_EVENTS,
+								nStart,
+								rUpdated.size() + rRemoved.size());
+	}
+
+	/***************************************
+	 * Sets the maximum number of events that will be displayed in a day cell
+	 * of the month style. If more events occur on a day they will be
+	 * summarized in a single element that displays the remaining events when
+	 * expanded by the user. The widgets for the events are only created for
+	 * the displayed events which makes this mode suitable for months with
+	 * large numbers of events. A value of zero (the default) reverts to the
+	 * standard month view which fills the day cells according to their size.
+	 *
+	 * <p>The month view with an event limit doesn't support drag and drop.
+	 * Events can still be selected, opened, and deleted but they can only be
+	 * moved to another day in the standard month view or in the other
+	 * styles.</p>
+	 *
+	 * @param nMaxEvents The maximum number of events per day or zero for no
+	 *                   fixed limit
+	 */
+	public void setMonthEventLimit(int nMaxEvents)
+	{
+		getTimetableWidget().setMonthEventLimit(nMaxEvents);
+	}
+
+	/***************************************
+	 * Sets a layout of the events that has been precomputed, typically on
+	 * the server with a {@link TimetableLayoutCalculator}. The day style will
+	 * then display the events of the days and the multi-day events that are
+	 * matched by the layout without calculating their layout. The layout is
+	 * only used if it has been calculated for the current settings of this
+	 * timetable and if it contains exactly the displayed events with their
+	 * current dates. Otherwise the layout will be calculated as usual.
+	 *
+	 * @param rLayout The precomputed layout or NULL for none
+	 */
+	public void setPrecomputedLayout(TimetableLayout rLayout)
+	{
+		getTimetableWidget().setPrecomputedLayout(rLayout);
+	}
+
+	/***************************************
+	 * Sets the resources that are displayed in the style {@link
+	 * TimetableStyle#RESOURCES}. Each resource is displayed in a separate
+	 * lane that contains the events which have the resource key in the
+	 * property {@link #RESOURCE}. Events of other resources are not
+	 * displayed in this style.
+	 *
+	 * @param rResources An ordered mapping from resource keys to the labels
+	 *                   of the resource lanes
+	 */
+	public void setResources(Map<String, String> rResources)
+	{
+		getTimetableWidget().setResources(rResources);
+	}
+
+	/***************************************
+	 * Selects the events with certain IDs and replaces the current
+	 * selection. Unknown IDs will be ignored and no selection event will be
+	 * fired.
+	 *
+	 * @param rIds The IDs of the events to select or an empty collection to
+	 *             clear the selection
+	 */
+	public void setSelectedEvents(Collection<String> rIds)
+	{
+		TimetableWidget   rWidget   = getTimetableWidget();
+		List<Appointment> aSelected = new ArrayList<>(rIds.size());
+
+		for (String sId : rIds)
+		{
+			Appointment rAppointment = rWidget.getAppointment(sId);
+
+			if (rAppointment != null)
+			{
+				aSelected.add(rAppointment);
+			}
+		}
+
+		rWidget.setSelection(aSelected);
+	}
+
+	/***************************************
+	 * Sets a listener that will be notified of each operation that has been
+	 * measured while statistics are enabled.
+	 *
+	 * @param rListener The listener or NULL for none
+	 *
+	 * @see   #enableStatistics(boolean)
+	 */
+	public void setStatisticsListener(
+		TimetableInstrumentation.Listener rListener)
+	{
+		TimetableInstrumentation rInstrumentation =
+			getTimetableWidget().getInstrumentation();
+
+		rStatisticsListener = rListener;
+
+		if (rInstrumentation != null)
+		{
+			rInstrumentation.setListener(rListener);
+		}
+	}
+
+	/***************************************
+	 * Sets the display type.
+	 *
+	 * @param eType The new display type
+	 */
+	public void setTimetableStyle(TimetableStyle eType)
+	{
+		TimetableWidget rWidget = getTimetableWidget();
+
+		if (eType == TimetableStyle.YEAR)
+		{
+			rWidget.setYearView();
+		}
+		else if (eType == TimetableStyle.RESOURCES)
+		{
+			rWidget.setResourceView();
+		}
+		else
+		{
+			rWidget.setView(CalendarViews.valueOf(eType.name()));
+		}
+
+		requestVisibleEvents();
+	}
+
+	/***************************************
+	 * Sets the number of days that are displayed if the display type is {@link
+	 * TimetableStyle#DAY}.
+	 *
+	 * @param nDays The number of visible days
+	 */
+	public void setVisibleDays(int nDays)
+	{
+		getTimetableWidget().setDays(nDays);
+		requestVisibleEvents();
+	}
+
+	/***************************************
+	 * Sets the working hours of a day.
+	 *
+	 * @param nFirstWorkHour The first work hour of a day or -1 to ignore
+	 * @param nLastWorkHour  The last work hour of a day or -1 to ignore
+	 */
+	public void setWorkingHours(int nFirstWorkHour, int nLastWorkHour)
+	{
+		CalendarSettings rSettings = getTimetableWidget().getSettings();
+
+		if (nFirstWorkHour >= 0)
+		{
+			rSettings.setWorkingHourStart(nFirstWorkHour);
+		}
+
+		if (nLastWorkHour >= 0)
+		{
+			rSettings.setWorkingHourEnd(nLastWorkHour);
+		}
+
+		getTimetableWidget().scheduleLayout();
+	}
+
+	/***************************************
+	 * Enables or disables the display of week numbers.
 	 *
 	 * @param bShow TRUE to show week numbers
 	 */
 	public void showWeekNumbers(boolean bShow)
 	{
 		getTimetableWidget().getSettings().setShowWeekNumbers(bShow);
+		getTimetableWidget().scheduleLayout();
 	}
 
 	/***************************************
-	 * Creates an event properties object from an {@link Appointment}.
+	 * Updates multiple events in this instance. Existing events are identified
+	 * by their {@link StandardProperties#ID ID} property and will only be
+	 * updated if the new event data contains modified attributes. Events with
+	 * an unknown ID will be added. The events will be re-sorted only once
+	 * after all events have been updated and the UI will only be updated if a
+	 * change affects the currently displayed date range.
 	 *
-	 * @param  rAppointment The source object
+	 * @param  rEvents The events to update
 	 *
-	 * @return The new event properties
+	 * @throws IllegalArgumentException If an event has no ID or if an ID
+	 *                                  occurs more than once
+	 *
+	 * @see    #addEvent(HasProperties)
 	 */
-	HasProperties createEvent(Appointment rAppointment)
+	public void updateEvents(Collection<? extends HasProperties> rEvents)
 	{
-		StringProperties aEvent = new StringProperties();
+		TimetableWidget    rWidget = getTimetableWidget();
+		long			   nStart  = TimetableInstrumentation.startTime();
+		TimetableEventDiff aDiff   = new TimetableEventDiff(new DiffTarget());
 
-		aEvent.setProperty(ID, rAppointment.getId());
-		aEvent.setProperty(TITLE, rAppointment.getTitle());
-		aEvent.setProperty(DESCRIPTION, rAppointment.getDescription());
-		aEvent.setProperty(START_DATE, rAppointment.getStart());
-		aEvent.setProperty(END_DATE, rAppointment.getEnd());
-		aEvent.setProperty(LOCATION, rAppointment.getLocation());
-		aEvent.setProperty(ALL_DAY, rAppointment.isAllDay());
+		aDiff.updateEvents(rEvents);
+
+		List<Appointment> rUpdated = aDiff.getUpdated();
+
+		rWidget.updateAppointments(rUpdated,
+								   Collections.<Appointment>emptyList(),
+								   aDiff.isVisibleChange());
+		rWidget.recordOperation(Operation.UPDATE_EVENTS,
+								nStart,
+								rUpdated.size());
+	}
+
+	/***************************************
+	 * {@inheritDoc}
+	 */
+	@Override
+	ComponentEventDispatcher createEventDispatcher()
+	{
+		aEventDispatcher = new TimetableEventDispatcher();
+
+		return aEventDispatcher;
+	}
+
+	/***************************************
+	 * Returns the event properties for an appointment. If the appointment is
+	 * a {@link TimetableEvent} with mutable properties the original properties
+	 * will be returned. These always contain the current dates because the
+	 * dates are written back on each interactive update. Otherwise a new
+	 * properties object will be created.
+	 *
+	 * @param  rAppointment The appointment
+	 *
+	 * @return The event properties
+	 */
+	private HasProperties getEventProperties(Appointment rAppointment)
+	{
+		if (rAppointment instanceof TimetableEvent)
+		{
+			HasProperties rProperties =
+				((TimetableEvent) rAppointment).getEventProperties();
+
+			if (rProperties instanceof MutableProperties)
+			{
+				return rProperties;
+			}
+		}
+
+		return createEvent(rAppointment);
+	}
+
+	/***************************************
+	 * Returns the event properties for multiple appointments.
+	 *
+	 * @param  rAppointments The appointments
+	 *
+	 * @return A new list of the event properties
+	 *
+	 * @see    #getEventProperties(Appointment)
+	 */
+	private List<HasProperties> getEventProperties(
+		Collection<Appointment> rAppointments)
+	{
+		List<HasProperties> aEvents = new ArrayList<>(rAppointments.size());
+
+		for (Appointment rAppointment : rAppointments)
+		{
+			aEvents.add(getEventProperties(rAppointment));
+		}
+
+		return aEvents;
+	}
+
+	/***************************************
+	 * Requests the events of a certain date range from the event provider
+	 * if they have not been loaded or requested yet.
+	 *
+	 * @param nStart The start of the range (inclusive)
+	 * @param nEnd   The end of the range (exclusive)
+	 */
+	private void requestEvents(long nStart, long nEnd)
+	{
+		for (TimetableRangeCache.Range rRange :
+			 aRangeCache.requestRanges(nStart, nEnd))
+		{
+			rEventProvider.requestEvents(new EventRequest(aRangeCache,
+														  rRange));
+		}
+	}
+
+	/***************************************
+	 * Requests the events of the visible date range and the adjacent periods
+	 * from the event provider if necessary.
+	 */
+	private void requestVisibleEvents()
+	{
+		if (rEventProvider != null)
+		{
+			TimetableWidget rWidget = getTimetableWidget();
+			long		    nStart  = rWidget.getVisibleStart().getTime();
+			long		    nEnd    = rWidget.getVisibleEnd().getTime();
+			long		    nLength = nEnd - nStart;
+
+			aRangeCache.touch(nStart, nEnd);
+
+			// request visible range first, then prefetch adjacent periods
+			requestEvents(nStart, nEnd);
+			requestEvents(nEnd, nEnd + nLength);
+			requestEvents(nStart - nLength, nStart);
+		}
+	}
+
+	/***************************************
+	 * Returns the timetable widget wrapped by this instance.
+	 *
+	 * @return The timetable widget
+	 */
+	private TimetableWidget getTimetableWidget()
+	{
+		return (TimetableWidget) getWidget();
+	}
+
+	//~ Inner Interfaces -------------------------------------------------------
+
+	/********************************************************************
+	 * An interface for the on-demand loading of timetable events.
+	 *
+	 * @see Timetable#setEventProvider(EventProvider, int)
+	 */
+	public static interface EventProvider
+	{
+		//~ Methods ------------------------------------------------------------
+
+		/***************************************
+		 * Requests the events for a certain date range. The implementation
+		 * should load the events asynchronously and then hand them to {@link
+		 * EventRequest#setEvents(Collection)}. If the loading fails {@link
+		 * EventRequest#cancel()} should be invoked so that the range can be
+		 * requested again later.
+		 *
+		 * @param rRequest The request that describes the date range
+		 */
+		public void requestEvents(EventRequest rRequest);
+	}
+
+	//~ Inner Classes ----------------------------------------------------------
+
+	/********************************************************************
+	 * Widget factory for this component.
+	 *
+	 * @author eso
+	 */
+	public static class TimetableWidgetFactory implements WidgetFactory<Widget>
+	{
+		//~ Methods ------------------------------------------------------------
+
+		/***************************************
+		 * {@inheritDoc}
+		 */
+		@Override
+		public Widget createWidget(Component rComponent, StyleData rStyle)
+		{
+			return new TimetableWidget();
+		}
+	}
+
+	/********************************************************************
+	 * An appointment subclass that also contains the original event properties.
+	 *
+	 * @author eso
+	 */
+	static class TimetableEvent extends Appointment
+	{
+		//~ Static fields/initializers -----------------------------------------
+
+		private static final long serialVersionUID = 1L;
+
+		//~ Instance fields ----------------------------------------------------
+
+		private HasProperties			  rEventProperties;
+		private final Map<String, String> rStringPool;
+
+		private long nStartTime = 0;
+		private long nEndTime   = 0;
+
+		private TimetableRecurrence aRecurrence = null;
+		private TimetableEvent	    rSeries     = null;
+		private String			    sResource   = null;
+
+		//~ Constructors -------------------------------------------------------
+
+		/***************************************
+		 * Creates a new instance from an event properties object. If a string
+		 * pool is provided this instance will use the compact storage mode
+		 * where title and location strings are shared through the pool and
+		 * the description is read from the event properties on demand.
+		 *
+		 * @param rEventProperties The event to initialize this instance from
+		 * @param rStringPool      The string pool for compact storage or NULL
+		 *                         to store all attributes in this instance
+		 */
+		public TimetableEvent(
+			HasProperties		rEventProperties,
+			Map<String, String> rStringPool)
+		{
+			this.rStringPool = rStringPool;
+
+			update(rEventProperties);
+		}
+
+		/***************************************
+		 * Creates a new instance from an event in a compact event batch. The
+		 * event properties of this instance will be created on demand.
+		 *
+		 * @param rBatch The event batch
+		 * @param nIndex The index of the event in the batch
+		 */
+		public TimetableEvent(TimetableEventBatch rBatch, int nIndex)
+		{
+			this.rStringPool = null;
+
+			setId(rBatch.getId(nIndex));
+			setTitle(rBatch.getTitle(nIndex));
+			setDescription(rBatch.getDescription(nIndex));
+			setStart(rBatch.getStart(nIndex));
+			setEnd(rBatch.getEnd(nIndex));
+			setLocation(rBatch.getLocation(nIndex));
+			setAllDay(rBatch.hasFlag(nIndex, TimetableEventBatch.FLAG_ALL_DAY));
+			setReadOnly(rBatch.hasFlag(nIndex,
+									   TimetableEventBatch.FLAG_READONLY));
+			sResource   = rBatch.getResource(nIndex);
+			aRecurrence =
+				TimetableRecurrence.parse(
+					rBatch.getRecurrenceRule(nIndex),
+					rBatch.getRecurrenceExceptions(nIndex));
+		}
+
+		/***************************************
+		 * Creates a new occurrence of a recurring event. The event properties
+		 * of the occurrence contain the ID of the recurring event and the
+		 * original start date of the occurrence in the property {@link
+		 * Timetable#OCCURRENCE_DATE}.
+		 *
+		 * @param rSeries The recurring event
+		 * @param rStart  The start date of the occurrence
+		 * @param rEnd    The end date of the occurrence
+		 */
+		TimetableEvent(TimetableEvent rSeries, Date rStart, Date rEnd)
+		{
+			this.rStringPool = null;
+			this.rSeries     = rSeries;
+
+			setId(rSeries.getId() + "@" + rStart.getTime());
+			setTitle(rSeries.getTitle());
+			setDescription(rSeries.getDescription());
+			setStart(rStart);
+			setEnd(rEnd);
+			setLocation(rSeries.getLocation());
+			setAllDay(rSeries.isAllDay());
+			setReadOnly(rSeries.isReadOnly());
+			sResource = rSeries.sResource;
+
+			MutableProperties aProperties = createEvent(this);
+
+			aProperties.setProperty(ID, rSeries.getId());
+			aProperties.setProperty(OCCURRENCE_DATE,
+									new Date(rStart.getTime()));
+			rEventProperties = aProperties;
+		}
+
+		//~ Methods ------------------------------------------------------------
+
+		/***************************************
+		 * Overridden to compare the primitive start and end times of timetable
+		 * events instead of their dates.
+		 *
+		 * @see Appointment#compareTo(Appointment)
+		 */
+		@Override
+		public int compareTo(Appointment rOther)
+		{
+			if (rOther instanceof TimetableEvent)
+			{
+				TimetableEvent rOtherEvent = (TimetableEvent) rOther;
+
+				if (nStartTime == rOtherEvent.nStartTime)
+				{
+					return Long.compare(rOtherEvent.getEndTime(), getEndTime());
+				}
+				else
+				{
+					return nStartTime < rOtherEvent.nStartTime ? -1 : 1;
+				}
+			}
+			else
+			{
+				return super.compareTo(rOther);
+			}
+		}
+
+		/***************************************
+		 * Adds the occurrences of this recurring event that overlap a certain
+		 * time range to a list. Does nothing if this event is not recurring.
+		 *
+		 * @param nRangeStart  The start of the time range (inclusive)
+		 * @param nRangeEnd    The end of the time range (exclusive)
+		 * @param rOccurrences The list to add the occurrences to
+		 */
+		public void createOccurrences(long				nRangeStart,
+									  long				nRangeEnd,
+									  List<Appointment> rOccurrences)
+		{
+			if (aRecurrence != null && getStart() != null)
+			{
+				boolean bHasEnd   = getEnd() != null;
+				long    nDuration = getEndTime() - nStartTime;
+
+				for (Date rStart :
+					 aRecurrence.getOccurrences(getStart(),
+												nDuration,
+												nRangeStart,
+												nRangeEnd))
+				{
+					Date aEnd =
+						bHasEnd ? new Date(rStart.getTime() + nDuration)
+								: null;
+
+					rOccurrences.add(new TimetableEvent(this, rStart, aEnd));
+				}
+			}
+		}
+
+		/***************************************
+		 * Overridden to read the description from the event properties in the
+		 * compact storage mode.
+		 *
+		 * @see Appointment#getDescription()
+		 */
+		@Override
+		public String getDescription()
+		{
+			return rStringPool != null
+				   ? rEventProperties.getProperty(DESCRIPTION, "")
+				   : super.getDescription();
+		}
+
+		/***************************************
+		 * Returns the end time of this event in milliseconds. If the event has
+		 * no end date the start time will be returned.
+		 *
+		 * @return The end time in milliseconds
+		 */
+		public final long getEndTime()
+		{
+			return getEnd() != null ? nEndTime : nStartTime;
+		}
+
+		/***************************************
+		 * Returns the original event properties. If this instance has been
+		 * created from an event batch the properties will be created on the
+		 * first invocation.
+		 *
+		 * @return The event properties
+		 */
+		public final HasProperties getEventProperties()
+		{
+			if (rEventProperties == null)
+			{
+				rEventProperties = createEvent(this);
+			}
+
+			return rEventProperties;
+		}
+
+		/***************************************
+		 * Returns the recurrence of this event.
+		 *
+		 * @return The recurrence or NULL if this is not a recurring event
+		 */
+		public final TimetableRecurrence getRecurrence()
+		{
+			return aRecurrence;
+		}
+
+		/***************************************
+		 * Returns the key of the resource to which this event is assigned.
+		 *
+		 * @return The resource key or NULL for none
+		 */
+		public final String getResource()
+		{
+			return sResource;
+		}
+
+		/***************************************
+		 * Returns the recurring event of which this event is an occurrence.
+		 *
+		 * @return The recurring event or NULL if this is not an occurrence
+		 */
+		public final TimetableEvent getSeries()
+		{
+			return rSeries;
+		}
+
+		/***************************************
+		 * Returns the start time of this event in milliseconds.
+		 *
+		 * @return The start time in milliseconds (0 if no start date is set)
+		 */
+		public final long getStartTime()
+		{
+			return nStartTime;
+		}
+
+		/***************************************
+		 * Checks whether the displayed attributes of this instance differ from
+		 * the values in certain event properties.
+		 *
+		 * @param  rNewProperties The event properties to compare with
+		 *
+		 * @return TRUE if the event properties contain different values
+		 */
+		public boolean hasChanges(HasProperties rNewProperties)
+		{
+			Date   rStart	 = rNewProperties.getProperty(START_DATE, null);
+			Date   rEnd		 = rNewProperties.getProperty(END_DATE, null);
+			String sTitle	 = rNewProperties.getProperty(TITLE, "");
+			String sLocation = rNewProperties.getProperty(LOCATION, "");
+			String sDesc     = rNewProperties.getProperty(DESCRIPTION, "");
+			String sResource = rNewProperties.getProperty(RESOURCE, null);
+
+			return !Objects.equals(getStart(), rStart) ||
+				   !Objects.equals(getEnd(), rEnd) ||
+				   !Objects.equals(getTitle(), sTitle) ||
+				   !Objects.equals(getLocation(), sLocation) ||
+				   !Objects.equals(getDescription(), sDesc) ||
+				   isAllDay() != rNewProperties.hasFlag(ALL_DAY) ||
+				   isReadOnly() != rNewProperties.hasFlag(READONLY) ||
+				   !Objects.equals(getResource(), sResource) ||
+				   hasRecurrenceChanges(rNewProperties);
+		}
+
+		/***************************************
+		 * Checks whether this event is an occurrence of a recurring event.
+		 *
+		 * @return TRUE for an occurrence
+		 */
+		public final boolean isOccurrence()
+		{
+			return rSeries != null;
+		}
+
+		/***************************************
+		 * Checks whether this event is a recurring event which is not
+		 * displayed itself but through its occurrences.
+		 *
+		 * @return TRUE for a recurring event
+		 */
+		public final boolean isRecurring()
+		{
+			return aRecurrence != null;
+		}
+
+		/***************************************
+		 * Overridden to also store the end time as a primitive value.
+		 *
+		 * @see Appointment#setEnd(Date)
+		 */
+		@Override
+		public void setEnd(Date rEnd)
+		{
+			super.setEnd(rEnd);
+			nEndTime = rEnd != null ? rEnd.getTime() : 0;
+		}
+
+		/***************************************
+		 * Replaces the original event properties without updating the
+		 * attributes of this instance. This can be used if the new properties
+		 * contain the same data.
+		 *
+		 * @param rNewProperties The new event properties
+		 */
+		public final void setEventProperties(HasProperties rNewProperties)
+		{
+			rEventProperties = rNewProperties;
+		}
+
+		/***************************************
+		 * Overridden to also store the start time as a primitive value.
+		 *
+		 * @see Appointment#setStart(Date)
+		 */
+		@Override
+		public void setStart(Date rStart)
+		{
+			super.setStart(rStart);
+			nStartTime = rStart != null ? rStart.getTime() : 0;
+		}
+
+		/***************************************
+		 * Updates the attributes of this instance from new event properties.
+		 * The event ID will not be changed by this method. If the start or end
+		 * date are changed the containing {@link TimetableWidget} must be
+		 * notified through {@link TimetableWidget#updateAppointments(List)}.
+		 *
+		 * @param rNewProperties The new event properties
+		 */
+		public final void update(HasProperties rNewProperties)
+		{
+			if (getId() == null)
+			{
+				setId(rNewProperties.getProperty(ID, null));
+			}
+
+			rEventProperties = rNewProperties;
+
+			setTitle(intern(rNewProperties.getProperty(TITLE, "")));
+			setStart(rNewProperties.getProperty(START_DATE, null));
+			setEnd(rNewProperties.getProperty(END_DATE, null));
+			setLocation(intern(rNewProperties.getProperty(LOCATION, "")));
+
+			if (rStringPool == null)
+			{
+				setDescription(rNewProperties.getProperty(DESCRIPTION, ""));
+			}
+			setAllDay(rNewProperties.hasFlag(ALL_DAY));
+			setReadOnly(rNewProperties.hasFlag(READONLY));
+			sResource = intern(rNewProperties.getProperty(RESOURCE, null));
+
+			if (hasRecurrenceChanges(rNewProperties))
+			{
+				String sRule	   =
+					rNewProperties.getProperty(RECURRENCE_RULE, null);
+				String sExceptions =
+					rNewProperties.getProperty(RECURRENCE_EXCEPTIONS, null);
+
+				aRecurrence = TimetableRecurrence.parse(sRule, sExceptions);
+			}
+		}
+
+		/***************************************
+		 * Writes the start and end dates of this instance back into the
+		 * original event properties if these are mutable. This is used to
+		 * reflect interactive modifications in the event properties without
+		 * creating a copy of them.
+		 *
+		 * @return TRUE if the event properties are mutable and contain the
+		 *         current dates, FALSE if they cannot be modified
+		 */
+		public final boolean writeBackDates()
+		{
+			HasProperties rProperties = getEventProperties();
+			boolean		  bMutable    =
+				rProperties instanceof MutableProperties;
+
+			if (bMutable)
+			{
+				MutableProperties rMutable = (MutableProperties) rProperties;
+
+				if (rMutable.getProperty(START_DATE, null) != getStart())
+				{
+					rMutable.setProperty(START_DATE, getStart());
+				}
+
+				if (rMutable.getProperty(END_DATE, null) != getEnd())
+				{
+					rMutable.setProperty(END_DATE, getEnd());
+				}
+			}
+
+			return bMutable;
+		}
+
+		/***************************************
+		 * Checks whether the recurrence of this event differs from that in
+		 * certain event properties.
+		 *
+		 * @param  rNewProperties The event properties to compare with
+		 *
+		 * @return TRUE if the recurrence rule or exceptions are different
+		 */
+		private boolean hasRecurrenceChanges(HasProperties rNewProperties)
+		{
+			String sRule	   =
+				rNewProperties.getProperty(RECURRENCE_RULE, null);
+			String sExceptions =
+				rNewProperties.getProperty(RECURRENCE_EXCEPTIONS, null);
+
+			return aRecurrence != null
+				   ? !aRecurrence.isDefinedBy(sRule, sExceptions)
+				   : sRule != null;
+		}
+
+		/***************************************
+		 * Returns the shared instance of a string from the string pool if
+		 * this event uses the compact storage mode.
+		 *
+		 * @param  sValue The string value
+		 *
+		 * @return The shared string instance or the original string if no
+		 *         string pool is used
+		 */
+		private String intern(String sValue)
+		{
+			if (rStringPool != null && sValue != null)
+			{
+				String sShared = rStringPool.get(sValue);
+
+				if (sShared == null)
+				{
+					rStringPool.put(sValue, sValue);
+				}
+				else
+				{
+					sValue = sShared;
+				}
+			}
+
+			return sValue;
+		}
+	}
+
+	/********************************************************************
+	 * A timetable calendar subclass that fixes some issues with the original
+	 * implementation.
+	 *
+	 * @author eso
+	 */
+	static class TimetableWidget extends Calendar
+	{
+		//~ Static fields/initializers -----------------------------------------
+
+		private static final int MAX_OCCURRENCE_RANGES = 16;
+		private static final int PRERENDER_DELAY	   = 250;
+		private static final int MILLIS_PER_MINUTE	   = 60 * 1000;
+
+		//~ Instance fields ----------------------------------------------------
+
+		private TimetableEventStore		 rEventStore;
+		private TimetableEventIndex		 aEventIndex;
+		private Map<String, Appointment> aEventIds;
+		private Set<Appointment>		 aSeries;
+
+		private List<Appointment> aVisibleAppointments = null;
+		private long			  nVisibleStart		   = 0;
+		private long			  nVisibleEnd		   = 0;
+		private int				  nVisibleModification = -1;
+
+		private int     nUpdateLevel	 = 0;
+		private boolean bLayoutPending   = false;
+		private boolean bLayoutScheduled = false;
+
+		// not initialized because it is set during the super constructor
+		private TimetableDayLayout aDayLayout;
+
+		private int				   nMonthEventLimit;
+		private TimetableMonthView aMonthView;
+		private TimetableYearView  aYearView;
+		private ScheduledCommand   rRangeExtensionHandler;
+		private TimetableLayout    rPrecomputedLayout;
+
+		private TimetableResourceView aResourceView;
+		private Map<String, String>   aResources = new LinkedHashMap<>();
+
+		private final List<Appointment> aSelection = new ArrayList<>();
+
+		private Event			  rMouseDownEvent	   = null;
+		private List<Appointment> rGroupUpdate		   = null;
+		private boolean			  bMultiSelectionStyled = false;
+
+		private final DayViewStyleManager rDayStyleManager =
+			GWT.create(DayViewStyleManager.class);
+
+		private TimetableInstrumentation rInstrumentation;
+		private boolean					 bSortPending;
+
+		private final Set<Integer> aRelayoutDays = new TreeSet<>();
+
+		private boolean bLocalRelayout     = false;
+		private boolean bRelayoutScheduled = false;
+		private boolean bPrerendering	   = false;
+		private Timer   aPrerenderTimer    = null;
+
+		@SuppressWarnings("serial")
+		private final Map<String, List<Appointment>> aOccurrenceCache =
+			new LinkedHashMap<String, List<Appointment>>(16, 0.75f, true)
+			{
+				@Override
+				protected boolean removeEldestEntry(
+					Map.Entry<String, List<Appointment>> rEldest)
+				{
+					return size() > MAX_OCCURRENCE_RANGES;
+				}
+			};
+
+		//~ Constructors -------------------------------------------------------
+
+		/***************************************
+		 * Creates a new instance.
+		 */
+		TimetableWidget()
+		{
+			useEventStore(new TimetableEventStore());
+			sinkEvents(Event.ONMOUSEOUT);
+		}
+
+		//~ Static methods -----------------------------------------------------
+
+		/***************************************
+		 * Creates the widgets for the appointments of a day column by
+		 * invoking the private method of a day view that is also used by the
+		 * view layout.
+		 *
+		 * @param rView     The day view
+		 * @param rAdapters The layout adapters of the appointments
+		 */
+		private static native void addAppointmentWidgets(
+			DayView					 rView,
+			List<AppointmentAdapter> rAdapters) /*-{
+			rView.@com.bradrydzewski.gwt.calendar.client.dayview.DayView::addAppointmentsToGrid(Ljava/util/List;Z)(rAdapters, false);
+		}-*/;
+
+		/***************************************
+		 * Returns the private appointment manager of a calendar widget.
+		 *
+		 * @param  rWidget The calendar widget
+		 *
+		 * @return The appointment manager
+		 */
+		private static native AppointmentManager getAppointmentManager(
+			Calendar rWidget) /*-{
+			return rWidget.@com.bradrydzewski.gwt.calendar.client.CalendarWidget::appointmentManager;
+		}-*/;
+
+		/***************************************
+		 * Returns the private list of the appointment widgets of a day view.
+		 *
+		 * @param  rView The day view
+		 *
+		 * @return The list of appointment widgets
+		 */
+		private static native List<AppointmentWidget> getAppointmentWidgets(
+			DayView rView) /*-{
+			return rView.@com.bradrydzewski.gwt.calendar.client.dayview.DayView::appointmentWidgets;
+		}-*/;
+
+		/***************************************
+		 * Returns the copy of an appointment that an appointment manager has
+		 * stored before an interactive modification.
+		 *
+		 * @param  rManager The appointment manager
+		 *
+		 * @return The rollback appointment or NULL for none
+		 */
+		private static native Appointment getRollbackAppointment(
+			AppointmentManager rManager) /*-{
+			return rManager.@com.bradrydzewski.gwt.calendar.client.AppointmentManager::rollbackAppointment;
+		}-*/;
+
+		/***************************************
+		 * Returns the private list of the selected appointment widgets of a
+		 * day view.
+		 *
+		 * @param  rView The day view
+		 *
+		 * @return The list of selected appointment widgets
+		 */
+		private static native List<AppointmentWidget> getSelectedWidgets(
+			DayView rView) /*-{
+			return rView.@com.bradrydzewski.gwt.calendar.client.dayview.DayView::selectedAppointmentWidgets;
+		}-*/;
+
+		/***************************************
+		 * Returns the number of appointment widgets that have been created by
+		 * the last layout of a day view.
+		 *
+		 * @param  rView The day view
+		 *
+		 * @return The widget count
+		 */
+		private static native int getWidgetCount(DayView rView) /*-{
+			return rView.@com.bradrydzewski.gwt.calendar.client.dayview.DayView::appointmentWidgets.@java.util.List::size()();
+		}-*/;
+
+		/***************************************
+		 * Returns the number of appointment widgets that have been created by
+		 * the last layout of a month view.
+		 *
+		 * @param  rView The month view
+		 *
+		 * @return The widget count
+		 */
+		private static native int getWidgetCount(MonthView rView) /*-{
+			return rView.@com.bradrydzewski.gwt.calendar.client.monthview.MonthView::appointmentsWidgets.@java.util.ArrayList::size()();
+		}-*/;
+
+		/***************************************
+		 * Replaces the private appointment list of an appointment manager.
+		 *
+		 * @param rManager      The appointment manager
+		 * @param rAppointments The new appointment list
+		 */
+		private static native void setAppointmentList(
+			AppointmentManager	   rManager,
+			ArrayList<Appointment> rAppointments) /*-{
+			rManager.@com.bradrydzewski.gwt.calendar.client.AppointmentManager::appointments =
+				rAppointments;
+		}-*/;
+
+		/***************************************
+		 * Replaces the private layout strategy of a day view.
+		 *
+		 * @param rView     The day view
+		 * @param rStrategy The new layout strategy
+		 */
+		private static native void setLayoutStrategy(
+			DayView				  rView,
+			DayViewLayoutStrategy rStrategy) /*-{
+			rView.@com.bradrydzewski.gwt.calendar.client.dayview.DayView::layoutStrategy =
+				rStrategy;
+		}-*/;
+
+		//~ Methods ------------------------------------------------------------
+
+		/***************************************
+		 * Overridden to add the appointment to the event index.
+		 *
+		 * @see Calendar#addAppointment(Appointment)
+		 */
+		@Override
+		public void addAppointment(Appointment rAppointment)
+		{
+			if (rAppointment != null)
+			{
+				indexAppointment(rAppointment);
+				bSortPending = true;
+			}
+
+			super.addAppointment(rAppointment);
+
+			if (rAppointment != null)
+			{
+				notifyStore(Collections.singletonList(rAppointment));
+			}
+		}
+
+		/***************************************
+		 * Overridden to add the appointments to the event index.
+		 *
+		 * @see Calendar#addAppointments(List)
+		 */
+		@Override
+		public void addAppointments(List<Appointment> rAppointments)
+		{
+			if (rAppointments != null)
+			{
+				aEventIndex.addAll(rAppointments);
+
+				for (Appointment rAppointment : rAppointments)
+				{
+					aEventIds.put(rAppointment.getId(), rAppointment);
+					updateSeries(rAppointment);
+				}
+
+				bSortPending = true;
+			}
+
+			super.addAppointments(rAppointments);
+
+			if (rAppointments != null)
+			{
+				notifyStore(rAppointments);
+			}
+		}
+
+		/***************************************
+		 * Appends appointments to this calendar without sorting the
+		 * appointment list and without refreshing the view. This is intended
+		 * for the incremental adding of large numbers of appointments and
+		 * must be followed by {@link #sortAppointments()} after the last
+		 * appointments have been appended.
+		 *
+		 * @param rAppointments The appointments to append
+		 */
+		public void appendAppointments(
+			Collection<? extends Appointment> rAppointments)
+		{
+			aEventIndex.addAll(rAppointments);
+
+			for (Appointment rAppointment : rAppointments)
+			{
+				aEventIds.put(rAppointment.getId(), rAppointment);
+				updateSeries(rAppointment);
+			}
+
+			super.getAppointments().addAll(rAppointments);
+			notifyStore(rAppointments);
+		}
+
+		/***************************************
+		 * Starts a sequence of modifications during which no layout will be
+		 * performed.
+		 *
+		 * @see Timetable#beginUpdate()
+		 */
+		public void beginUpdate()
+		{
+			nUpdateLevel++;
+		}
+
+		/***************************************
+		 * Overridden to also clear the event index.
+		 *
+		 * @see Calendar#clearAppointments()
+		 */
+		@Override
+		public void clearAppointments()
+		{
+			aEventIndex.clear();
+			aEventIds.clear();
+			aSelection.clear();
+			clearSeries();
+			super.clearAppointments();
+			notifyStore(null);
+		}
+
+		/***************************************
+		 * Overridden to measure the layout of the current view if statistics
+		 * are enabled and to prerender the next period if enabled.
+		 *
+		 * @see Calendar#doLayout()
+		 */
+		@Override
+		public void doLayout()
+		{
+			long nStart = TimetableInstrumentation.startTime();
+
+			if (aDayLayout != null)
+			{
+				aDayLayout.setPeriod(getDate());
+			}
+
+			if (aMonthView != null)
+			{
+				aMonthView.setDataVersion(rEventStore.getVersion());
+			}
+
+			if (aYearView != null && getView() == aYearView)
+			{
+				aYearView.setAggregates(aEventIndex.getDayAggregates(),
+										getSeriesAdjustments(getVisibleStart(),
+															 getVisibleEnd()));
+			}
+
+			super.doLayout();
+
+			if (bPrerendering)
+			{
+				schedulePrerender();
+			}
+
+			if (rInstrumentation != null)
+			{
+				int nAppointments =
+					aVisibleAppointments != null ? aVisibleAppointments.size()
+												 : 0;
+
+				rInstrumentation.record(getLayoutOperation(),
+										nStart,
+										nAppointments);
+				rInstrumentation.countWidgets(getCreatedWidgetCount());
+			}
+		}
+
+		/***************************************
+		 * Overridden to measure the sizing of the current view if statistics
+		 * are enabled.
+		 *
+		 * @see Calendar#doSizing()
+		 */
+		@Override
+		public void doSizing()
+		{
+			long nStart = TimetableInstrumentation.startTime();
+
+			super.doSizing();
+			recordOperation(Operation.SIZING, nStart, 0);
+		}
+
+		/***************************************
+		 * Ends a sequence of modifications and performs a pending layout if
+		 * the outermost sequence has been ended.
+		 *
+		 * @see Timetable#endUpdate()
+		 */
+		public void endUpdate()
+		{
+			if (nUpdateLevel > 0 && --nUpdateLevel == 0 && bLayoutPending)
+			{
+				performLayout();
+			}
+		}
+
+		/***************************************
+		 * Overridden to remove the appointment through {@link
+		 * #removeAppointment(Appointment, boolean)} which also removes it from
+		 * the event index if the delete event has not been cancelled.
+		 *
+		 * @see Calendar#fireDeleteEvent(Appointment)
+		 */
+		@Override
+		public void fireDeleteEvent(Appointment rAppointment)
+		{
+			if (DeleteEvent.fire(this, rAppointment))
+			{
+				removeAppointment(rAppointment, false);
+			}
+		}
+
+		/***************************************
+		 * Overridden to also notify the mouse over handlers with a NULL
+		 * appointment if the pointer has left the hovered appointment. The
+		 * original implementation ignores the NULL appointment and therefore
+		 * also doesn't notify the handlers if the pointer returns to the same
+		 * appointment.
+		 *
+		 * @see Calendar#fireMouseOverEvent(Appointment, Element)
+		 */
+		@Override
+		public void fireMouseOverEvent(Appointment rAppointment,
+									   Element	   rElement)
+		{
+			if (rAppointment != null)
+			{
+				super.fireMouseOverEvent(rAppointment, rElement);
+			}
+			else
+			{
+				AppointmentManager rManager = getAppointmentManager(this);
+
+				if (rManager.getHoveredAppointment() != null)
+				{
+					rManager.resetHoveredAppointment();
+					MouseOverEvent.fire(this, null, rElement);
+				}
+			}
+		}
+
+		/***************************************
+		 * Overridden to synchronize the multi-selection with selections that
+		 * have been made by the base class, e.g. by keyboard navigation, and
+		 * to highlight all selected appointments in a day view because the
+		 * day view only highlights the appointment of the event.
+		 *
+		 * @see Calendar#fireSelectionEvent(Appointment)
+		 */
+		@Override
+		public void fireSelectionEvent(Appointment rAppointment)
+		{
+			if (rAppointment != null && getSelectionIndex(rAppointment) < 0)
+			{
+				aSelection.clear();
+				aSelection.add(rAppointment);
+			}
+
+			super.fireSelectionEvent(rAppointment);
+			styleDayViewSelection();
+		}
+
+		/***************************************
+		 * Overridden to re-index an appointment that has been modified by
+		 * interactive editing. If the update is rejected by an event handler
+		 * the original dates will be restored in the appointment itself
+		 * because the rollback of the appointment manager would replace it
+		 * with a plain copy. If the local relayout is enabled and the
+		 * modification only affects the day columns of a day view the
+		 * relayout of these columns will be scheduled instead of a complete
+		 * layout. If the appointment has been moved while being part of a
+		 * multi-selection the other selected appointments will be moved by
+		 * the same offset in a single batch before the event is fired and
+		 * restored if the update is rejected.
+		 *
+		 * @see Calendar#fireUpdateEvent(Appointment)
+		 */
+		@Override
+		public void fireUpdateEvent(Appointment rAppointment)
+		{
+			if (rAppointment instanceof TimetableEvent &&
+				((TimetableEvent) rAppointment).isOccurrence())
+			{
+				// occurrences are not indexed but a rejected update adds a
+				// copy of the original occurrence to the appointment list
+				List<Appointment> rAllAppointments = super.getAppointments();
+				int				  nCount		   = rAllAppointments.size();
+
+				writeBackDates(rAppointment);
+				super.fireUpdateEvent(rAppointment);
+
+				if (rAllAppointments.size() > nCount)
+				{
+					restoreOccurrence(rAppointment);
+					writeBackDates(rAppointment);
+				}
+
+				// re-sort the visible appointments on the next query
+				aVisibleAppointments = null;
+			}
+			else
+			{
+				AppointmentManager rManager = getAppointmentManager(this);
+				Appointment		   rOriginal =
+					getRollbackAppointment(rManager);
+
+				List<Appointment> aGroup  =
+					getGroupMembers(rAppointment, rOriginal);
+				long			  nOffset = 0;
+
+				aEventIndex.update(rAppointment);
+				writeBackDates(rAppointment);
+
+				if (!aGroup.isEmpty())
+				{
+					nOffset =
+						rAppointment.getStart().getTime() -
+						rOriginal.getStart().getTime();
+
+					shiftAppointments(aGroup, nOffset);
+					rGroupUpdate = new ArrayList<>(aGroup);
+					rGroupUpdate.add(0, rAppointment);
+				}
+
+				boolean bLocal =
+					bLocalRelayout &&
+					rOriginal != null &&
+					scheduleRelayout(rOriginal, rAppointment);
+
+				if (!bLocal)
+				{
+					refresh();
+				}
+
+				boolean bAccepted = UpdateEvent.fire(this, rAppointment);
+
+				rGroupUpdate = null;
+
+				if (!bAccepted && rOriginal != null)
+				{
+					// restore the dates instead of the manager rollback
+					// which would replace the event with a plain copy and
+					// leave the event at the rejected dates in the index
+					rAppointment.setStart(rOriginal.getStart());
+					rAppointment.setEnd(rOriginal.getEnd());
+					aEventIndex.update(rAppointment);
+					writeBackDates(rAppointment);
+
+					if (bLocal)
+					{
+						scheduleRelayout(rOriginal, rAppointment);
+					}
+
+					if (!aGroup.isEmpty())
+					{
+						shiftAppointments(aGroup, -nOffset);
+					}
+				}
+
+				rManager.commit();
+
+				notifyStore(rOriginal != null
+							? Arrays.asList(rAppointment, rOriginal)
+							: Collections.singletonList(rAppointment));
+			}
+		}
+
+		/***************************************
+		 * Returns all appointments of this calendar, independent of the
+		 * currently visible date range.
+		 *
+		 * @return The list of all appointments
+		 */
+		public List<Appointment> getAllAppointments()
+		{
+			return super.getAppointments();
+		}
+
+		/***************************************
+		 * Returns the appointment with a certain ID.
+		 *
+		 * @param  sId The appointment ID
+		 *
+		 * @return The matching appointment or NULL for none
+		 */
+		public Appointment getAppointment(String sId)
+		{
+			return aEventIds.get(sId);
+		}
+
+		/***************************************
+		 * Overridden to only return the appointments that overlap the visible
+		 * date range of the current view. The calendar views filter the result
+		 * of this method for each displayed day which would otherwise cause a
+		 * full scan of all appointments per day. The returned list is queried
+		 * from the event index and cached until either the visible range or
+		 * the appointments change.
+		 *
+		 * @see Calendar#getAppointments()
+		 */
+		@Override
+		public List<Appointment> getAppointments()
+		{
+			// extend the range by a day on each side because the views use
+			// different definitions of the day start
+			long nStart =
+				getVisibleStart().getTime() - DateUtils.MILLIS_IN_A_DAY;
+			long nEnd   = getVisibleEnd().getTime() + DateUtils.MILLIS_IN_A_DAY;
+
+			if (aVisibleAppointments == null ||
+				nStart != nVisibleStart ||
+				nEnd != nVisibleEnd ||
+				nVisibleModification != aEventIndex.getModificationCount())
+			{
+				aVisibleAppointments = queryAppointments(nStart, nEnd);
+				nVisibleStart		 = nStart;
+				nVisibleEnd			 = nEnd;
+				nVisibleModification = aEventIndex.getModificationCount();
+			}
+
+			return aVisibleAppointments;
+		}
+
+		/***************************************
+		 * Returns the appointments that overlap a certain time range,
+		 * excluding all-day appointments and appointments that only touch
+		 * the range.
+		 *
+		 * @param  nStart The start of the time range (inclusive)
+		 * @param  nEnd   The end of the time range (exclusive)
+		 *
+		 * @return A new list of the conflicting appointments
+		 *
+		 * @see    Timetable#getConflictingEvents(Date, Date, String)
+		 */
+		public List<Appointment> getConflicts(long nStart, long nEnd)
+		{
+			return getTimedAppointments(nStart, nEnd);
+		}
+
+		/***************************************
+		 * Returns the booked minutes of a sequence of days.
+		 *
+		 * @param  rFirstDay The first day
+		 * @param  nDays     The number of days
+		 *
+		 * @return An array containing the booked minutes of each day
+		 *
+		 * @see    Timetable#getDayOccupancy(Date, int)
+		 */
+		public int[] getDayOccupancy(Date rFirstDay, int nDays)
+		{
+			long[] aDayStarts =
+				TimetableLayoutCalculator.getDayStarts(rFirstDay, nDays, 0);
+
+			TimetableDayAggregates rAggregates  =
+				aEventIndex.getDayAggregates();
+			TimetableDayAggregates aAdjustments =
+				getSeriesAdjustments(new Date(aDayStarts[0]),
+									 new Date(aDayStarts[nDays]));
+
+			int[] aMinutes = new int[nDays];
+
+			for (int i = 0; i < nDays; i++)
+			{
+				aMinutes[i] =
+					rAggregates.getMinutes(aDayStarts[i]) +
+					aAdjustments.getMinutes(aDayStarts[i]);
+			}
+
+			return aMinutes;
+		}
+
+		/***************************************
+		 * Returns the free slots in the working hours of the days in a
+		 * certain time range.
+		 *
+		 * @param  rStart       The start of the time range (inclusive)
+		 * @param  nEnd         The end of the time range (exclusive)
+		 * @param  nMinDuration The minimum duration of a slot in minutes
+		 *
+		 * @return A new list of the free slots
+		 *
+		 * @see    Timetable#getFreeSlots(Date, Date, int)
+		 */
+		public List<TimetableSlot> getFreeSlots(Date rStart,
+												long nEnd,
+												int  nMinDuration)
+		{
+			List<TimetableSlot> aSlots    = new ArrayList<>();
+			CalendarSettings    rSettings = getSettings();
+			long			    nStart    = rStart.getTime();
+			long			    nMinimum  =
+				Math.max(nMinDuration * (long) MILLIS_PER_MINUTE, 1);
+
+			// one more day to include the last day after a DST change
+			int nDays =
+				(int) ((nEnd - nStart) / DateUtils.MILLIS_IN_A_DAY) + 2;
+
+			long[] aWorkStarts =
+				TimetableLayoutCalculator.getDayStarts(rStart,
+													   nDays,
+													   rSettings
+													   .getWorkingHourStart());
+			long[] aWorkEnds   =
+				TimetableLayoutCalculator.getDayStarts(rStart,
+													   nDays,
+													   rSettings
+													   .getWorkingHourEnd());
+
+			for (int i = 0; i < nDays; i++)
+			{
+				long nFrom = Math.max(nStart, aWorkStarts[i]);
+				long nTo   = Math.min(nEnd, aWorkEnds[i]);
+
+				if (nTo - nFrom >= nMinimum)
+				{
+					TimetableSlot.addFreeSlots(aSlots,
+											   nFrom,
+											   nTo,
+											   nMinimum,
+											   getTimedAppointments(nFrom,
+																	nTo));
+				}
+			}
+
+			return aSlots;
+		}
+
+		/***************************************
+		 * Returns the instrumentation that records the performance
+		 * statistics of this calendar.
+		 *
+		 * @return The instrumentation or NULL if statistics are disabled
+		 */
+		public TimetableInstrumentation getInstrumentation()
+		{
+			return rInstrumentation;
+		}
+
+		/***************************************
+		 * Returns the appointments that are updated together with the target
+		 * of the update event that is currently being fired because they are
+		 * part of the same multi-selection.
+		 *
+		 * @return The updated appointments, starting with the event target, or
+		 *         NULL if only the event target has been updated
+		 */
+		public List<Appointment> getGroupUpdate()
+		{
+			return rGroupUpdate;
+		}
+
+		/***************************************
+		 * Overridden to return the most recently selected appointment of the
+		 * multi-selection.
+		 *
+		 * @see Calendar#getSelectedAppointment()
+		 */
+		@Override
+		public Appointment getSelectedAppointment()
+		{
+			return aSelection.isEmpty() ? null
+										: aSelection.get(aSelection.size() - 1);
+		}
+
+		/***************************************
+		 * Returns all selected appointments in the order in which they have
+		 * been selected.
+		 *
+		 * @return An unmodifiable list of the selected appointments
+		 */
+		public List<Appointment> getSelection()
+		{
+			return Collections.unmodifiableList(aSelection);
+		}
+
+		/***************************************
+		 * Returns the end of the date range that is displayed by the current
+		 * view.
+		 *
+		 * @return The exclusive end date (at midnight)
+		 */
+		@SuppressWarnings("deprecation")
+		public Date getVisibleEnd()
+		{
+			Date rStart = getVisibleStart();
+
+			return new Date(rStart.getYear(),
+							rStart.getMonth(),
+							rStart.getDate() + getVisibleDayCount());
+		}
+
+		/***************************************
+		 * Returns the start of the date range that is displayed by the current
+		 * view. For the month view this is the first date of the first
+		 * displayed week which may be in the previous month.
+		 *
+		 * @return The inclusive start date (at midnight)
+		 */
+		@SuppressWarnings("deprecation")
+		public Date getVisibleStart()
+		{
+			Date rDate = getDate();
+
+			if (isMonthView())
+			{
+				int nFirstDay = CalendarFormat.INSTANCE.getFirstDayOfWeek();
+
+				rDate =
+					MonthViewDateUtils.firstDateShownInAMonthView(rDate,
+																  nFirstDay);
+			}
+			else if (isYearView())
+			{
+				rDate = new Date(rDate.getYear(), 0, 1);
+			}
+
+			return new Date(rDate.getYear(), rDate.getMonth(), rDate.getDate());
+		}
+
+		/***************************************
+		 * Overridden to check the multi-selection.
+		 *
+		 * @see Calendar#hasAppointmentSelected()
+		 */
+		@Override
+		public boolean hasAppointmentSelected()
+		{
+			return !aSelection.isEmpty();
+		}
+
+		/***************************************
+		 * Checks whether an appointment overlaps the date range that has been
+		 * displayed by the last layout of the current view. If no layout has
+		 * been performed yet this method will always return TRUE.
+		 *
+		 * @param  rAppointment The appointment to check
+		 *
+		 * @return TRUE if the appointment is in the visible range
+		 */
+		public boolean isInVisibleRange(Appointment rAppointment)
+		{
+			// the occurrences of recurring events may be anywhere
+			return aVisibleAppointments == null ||
+				   aSeries.contains(rAppointment) ||
+				   (TimetableEventIndex.getStartTime(rAppointment) <
+					nVisibleEnd &&
+					TimetableEventIndex.getEndTime(rAppointment) >=
+					nVisibleStart);
+		}
+
+		/***************************************
+		 * Overridden to check whether an appointment is part of the
+		 * multi-selection so that the views highlight all selected
+		 * appointments. Other than the original implementation the check is
+		 * based on identity because different appointments may have the same
+		 * content.
+		 *
+		 * @see Calendar#isTheSelectedAppointment(Appointment)
+		 */
+		@Override
+		public boolean isTheSelectedAppointment(Appointment rAppointment)
+		{
+			return getSelectionIndex(rAppointment) >= 0;
+		}
+
+		/***************************************
+		 * Overridden to end the hovering of an appointment if the pointer
+		 * leaves this widget.
+		 *
+		 * @see Calendar#onBrowserEvent(Event)
+		 */
+		@Override
+		public void onBrowserEvent(Event rEvent)
+		{
+			if (DOM.eventGetType(rEvent) == Event.ONMOUSEOUT)
+			{
+				Element rTarget = DOM.eventGetToElement(rEvent);
+
+				if (rTarget == null || !DOM.isOrHasChild(getElement(), rTarget))
+				{
+					fireMouseOverEvent(null, getElement());
+				}
+			}
+
+			super.onBrowserEvent(rEvent);
+		}
+
+		/***************************************
+		 * Overridden to record the mouse event while the view handles it so
+		 * that a resulting selection can evaluate the modifier keys.
+		 *
+		 * @see Calendar#onMouseDown(Element, Event)
+		 */
+		@Override
+		public void onMouseDown(Element rElement, Event rEvent)
+		{
+			rMouseDownEvent = rEvent;
+			super.onMouseDown(rElement, rEvent);
+			rMouseDownEvent = null;
+		}
+
+		/***************************************
+		 * Overridden to remove the appointment from the event index. If
+		 * events are fired the delete event is fired here like in the base
+		 * class so that the index is only modified if the removal has not
+		 * been rejected.
+		 *
+		 * @see Calendar#removeAppointment(Appointment, boolean)
+		 */
+		@Override
+		public void removeAppointment(
+			Appointment rAppointment,
+			boolean		bFireEvents)
+		{
+			if (!bFireEvents ||
+				DeleteEvent.fire(this, getSelectedAppointment()))
+			{
+				unindexAppointment(rAppointment);
+				deselect(rAppointment);
+				super.removeAppointment(rAppointment, false);
+				notifyStore(Collections.singletonList(rAppointment));
+			}
+		}
+
+		/***************************************
+		 * Records a measured operation if statistics are enabled.
+		 *
+		 * @param eOperation The operation
+		 * @param nStartTime The start time of the operation
+		 * @param nItems     The number of processed items
+		 *
+		 * @see   TimetableInstrumentation#record(Operation, long, int)
+		 */
+		public void recordOperation(Operation eOperation,
+									long	  nStartTime,
+									int		  nItems)
+		{
+			if (rInstrumentation != null)
+			{
+				rInstrumentation.record(eOperation, nStartTime, nItems);
+			}
+		}
+
+		/***************************************
+		 * Removes multiple appointments and updates the view only once
+		 * afterwards.
+		 *
+		 * @param rAppointments The appointments to remove
+		 *
+		 * @see   #updateAppointments(Collection, Collection, boolean)
+		 */
+		public void removeAppointments(
+			Collection<? extends Appointment> rAppointments)
+		{
+			updateAppointments(Collections.<Appointment>emptyList(),
+							   rAppointments,
+							   true);
+		}
+
+		/***************************************
+		 * Overridden to remove the selected appointment through {@link
+		 * #removeAppointment(Appointment, boolean)} which also removes it from
+		 * the event index.
+		 *
+		 * @see Calendar#removeCurrentlySelectedAppointment()
+		 */
+		@Override
+		public void removeCurrentlySelectedAppointment()
+		{
+			if (hasAppointmentSelected())
+			{
+				removeAppointment(getSelectedAppointment(), false);
+			}
+		}
+
+		/***************************************
+		 * Overridden to also clear the multi-selection.
+		 *
+		 * @see Calendar#resetSelectedAppointment()
+		 */
+		@Override
+		public void resetSelectedAppointment()
+		{
+			aSelection.clear();
+			super.resetSelectedAppointment();
+		}
+
+		/***************************************
+		 * Schedules a layout and sizing of the current view at the end of the
+		 * current event loop. Multiple invocations will be coalesced into a
+		 * single layout pass. If an update sequence has been started with
+		 * {@link #beginUpdate()} the layout will be performed when the
+		 * sequence ends.
+		 */
+		public void scheduleLayout()
+		{
+			bLayoutPending = true;
+
+			if (nUpdateLevel == 0 && !bLayoutScheduled)
+			{
+				bLayoutScheduled = true;
+
+				Scheduler.get()
+						 .scheduleFinally(new ScheduledCommand()
+					{
+						@Override
+						public void execute()
+						{
+							bLayoutScheduled = false;
+
+							if (bLayoutPending && nUpdateLevel == 0)
+							{
+								performLayout();
+							}
+						}
+					});
+			}
+		}
+
+		/***************************************
+		 * Attaches this calendar to an event store and replaces the current
+		 * appointments with the events in the store.
+		 *
+		 * @param rStore The event store
+		 *
+		 * @see   Timetable#setEventStore(TimetableEventStore)
+		 */
+		public void setEventStore(TimetableEventStore rStore)
+		{
+			useEventStore(rStore);
+			resetSelectedAppointment();
+			invalidateOccurrences();
+			scheduleLayout();
+		}
+
+		/***************************************
+		 * Sets the instrumentation that records the performance statistics
+		 * of this calendar.
+		 *
+		 * @param rInstrumentation The instrumentation or NULL to disable the
+		 *                         statistics
+		 */
+		public void setInstrumentation(
+			TimetableInstrumentation rInstrumentation)
+		{
+			this.rInstrumentation = rInstrumentation;
+		}
+
+		/***************************************
+		 * Enables or disables the local relayout of the day columns that are
+		 * affected by an interactive modification.
+		 *
+		 * @param bEnable TRUE to enable the local relayout
+		 *
+		 * @see   Timetable#enableLocalRelayout(boolean)
+		 */
+		public void setLocalRelayout(boolean bEnable)
+		{
+			bLocalRelayout = bEnable;
+		}
+
+		/***************************************
+		 * Sets the maximum number of events to be displayed per day in the
+		 * month view.
+		 *
+		 * @param nMaxEvents The maximum number of events or zero for none
+		 *
+		 * @see   Timetable#setMonthEventLimit(int)
+		 */
+		public void setMonthEventLimit(int nMaxEvents)
+		{
+			nMonthEventLimit = nMaxEvents;
+
+			if (isMonthView())
+			{
+				setView(CalendarViews.MONTH);
+			}
+		}
+
+		/***************************************
+		 * Sets a precomputed layout for the day view.
+		 *
+		 * @param rLayout The layout or NULL for none
+		 *
+		 * @see   Timetable#setPrecomputedLayout(TimetableLayout)
+		 */
+		public void setPrecomputedLayout(TimetableLayout rLayout)
+		{
+			rPrecomputedLayout = rLayout;
+
+			if (aDayLayout != null)
+			{
+				aDayLayout.setPrecomputedLayout(rLayout);
+			}
+
+			scheduleLayout();
+		}
+
+		/***************************************
+		 * Enables or disables the prerendering of the next period after each
+		 * layout.
+		 *
+		 * @param bEnable TRUE to enable the prerendering
+		 *
+		 * @see   Timetable#enablePrerendering(boolean)
+		 */
+		public void setPrerendering(boolean bEnable)
+		{
+			bPrerendering = bEnable;
+
+			if (!bEnable && aPrerenderTimer != null)
+			{
+				aPrerenderTimer.cancel();
+			}
+		}
+
+		/***************************************
+		 * Sets a command to be executed when the agenda view has been
+		 * extended by scrolling past its end. Must be set before the agenda
+		 * view is activated.
+		 *
+		 * @param rHandler The handler command
+		 */
+		public void setRangeExtensionHandler(ScheduledCommand rHandler)
+		{
+			rRangeExtensionHandler = rHandler;
+		}
+
+		/***************************************
+		 * Sets a view that displays the events of a day in a separate lane
+		 * for each resource.
+		 *
+		 * @see Timetable#setTimetableStyle(TimetableStyle)
+		 */
+		public void setResourceView()
+		{
+			if (aResourceView == null)
+			{
+				aResourceView = new TimetableResourceView();
+				aResourceView.setResources(aResources);
+			}
+
+			setView(aResourceView);
+		}
+
+		/***************************************
+		 * Sets the resources that are displayed by the resource view.
+		 *
+		 * @param rResources The mapping from resource keys to lane labels
+		 *
+		 * @see   Timetable#setResources(Map)
+		 */
+		public void setResources(Map<String, String> rResources)
+		{
+			aResources = new LinkedHashMap<>(rResources);
+
+			if (aResourceView != null)
+			{
+				aResourceView.setResources(aResources);
+				scheduleLayout();
+			}
+		}
+
+		/***************************************
+		 * Overridden to maintain the multi-selection. If the selection is
+		 * caused by a mouse click with the control or meta key pressed the
+		 * appointment will be added to or removed from the selection. With
+		 * the shift key pressed all visible appointments between the first
+		 * selected appointment and the clicked appointment will be selected.
+		 * A click without modifier keys on an appointment that is already
+		 * selected keeps the selection so that all selected appointments can
+		 * be moved together. Otherwise the appointment replaces the current
+		 * selection.
+		 *
+		 * @see Calendar#setSelectedAppointment(Appointment, boolean)
+		 */
+		@Override
+		public void setSelectedAppointment(
+			Appointment rAppointment,
+			boolean		bFireEvents)
+		{
+			int nIndex =
+				rAppointment != null ? getSelectionIndex(rAppointment) : -1;
+
+			if (rMouseDownEvent == null || rAppointment == null)
+			{
+				aSelection.clear();
+
+				if (rAppointment != null)
+				{
+					aSelection.add(rAppointment);
+				}
+			}
+			else if (rMouseDownEvent.getCtrlKey() ||
+					 rMouseDownEvent.getMetaKey())
+			{
+				if (nIndex >= 0)
+				{
+					aSelection.remove(nIndex);
+					rAppointment = getSelectedAppointment();
+				}
+				else
+				{
+					aSelection.add(rAppointment);
+				}
+			}
+			else if (rMouseDownEvent.getShiftKey() && !aSelection.isEmpty())
+			{
+				selectRange(aSelection.get(0), rAppointment);
+			}
+			else if (nIndex >= 0)
+			{
+				aSelection.remove(nIndex);
+				aSelection.add(rAppointment);
+			}
+			else
+			{
+				aSelection.clear();
+				aSelection.add(rAppointment);
+			}
+
+			selectLeadAppointment(rAppointment, bFireEvents);
+		}
+
+		/***************************************
+		 * Replaces the multi-selection without firing a selection event.
+		 *
+		 * @param rAppointments The appointments to select in the order of
+		 *                      their selection
+		 *
+		 * @see   Timetable#setSelectedEvents(Collection)
+		 */
+		public void setSelection(Collection<Appointment> rAppointments)
+		{
+			aSelection.clear();
+			aSelection.addAll(rAppointments);
+
+			Appointment rLead = getSelectedAppointment();
+
+			selectLeadAppointment(rLead, false);
+			getView().onAppointmentSelected(rLead);
+			styleDayViewSelection();
+		}
+
+		/***************************************
+		 * Overridden to forward to {@link #setStylePrimaryName(String)} because
+		 * otherwise original code overwrites secondary styles.
+		 *
+		 * @see Calendar#setStyleName(String)
+		 */
+		@Override
+		public void setStyleName(String sStyle)
+		{
+			setStylePrimaryName(sStyle);
+		}
+
+		/***************************************
+		 * @see Calendar#setView(CalendarViews, int)
+		 */
+		@Override
+		public void setView(CalendarViews eViewStyle, int nDays)
+		{
+			if (eViewStyle == CalendarViews.AGENDA)
+			{
+				// replaces the original agenda view which is disabled in
+				// the original code and creates widgets for all appointments
+				setView(new TimetableAgendaView(rRangeExtensionHandler));
+			}
+			else if (eViewStyle == CalendarViews.MONTH && nMonthEventLimit > 0)
+			{
+				if (aMonthView == null)
+				{
+					aMonthView = new TimetableMonthView(nMonthEventLimit);
+				}
+
+				aMonthView.setMaxCellEvents(nMonthEventLimit);
+				setView(aMonthView);
+			}
+			else
+			{
+				super.setView(eViewStyle, nDays);
+
+				if (getView() instanceof DayView)
+				{
+					installDayLayout((DayView) getView());
+				}
+			}
+		}
+
+		/***************************************
+		 * Sets a view that displays the utilization of the days of a year.
+		 *
+		 * @see Timetable#setTimetableStyle(TimetableStyle)
+		 */
+		public void setYearView()
+		{
+			if (aYearView == null)
+			{
+				aYearView = new TimetableYearView();
+			}
+
+			setView(aYearView);
+		}
+
+		/***************************************
+		 * Sorts the list of all appointments after appointments have been
+		 * appended.
+		 *
+		 * @see #appendAppointments(Collection)
+		 */
+		public void sortAppointments()
+		{
+			List<Appointment> rAllAppointments = super.getAppointments();
+			long			  nStart		   =
+				TimetableInstrumentation.startTime();
+
+			Collections.sort(rAllAppointments);
+			recordOperation(Operation.SORT, nStart, rAllAppointments.size());
+		}
+
+		/***************************************
+		 * Updates the given appointments in this calendar and updates the view
+		 * only once afterwards.
+		 *
+		 * @param rAppointments The updated appointments
+		 *
+		 * @see   #updateAppointments(Collection, Collection, boolean)
+		 */
+		public void updateAppointments(List<Appointment> rAppointments)
+		{
+			updateAppointments(rAppointments,
+							   Collections.<Appointment>emptyList(),
+							   true);
+		}
+
+		/***************************************
+		 * Applies a batch of changes to the appointments of this calendar.
+		 * Updated appointments that are not yet part of this calendar will be
+		 * added. Existing appointments must have been modified before invoking
+		 * this method which will then re-index them. Removed appointments are
+		 * deleted from the appointment list in a single pass. If necessary all
+		 * appointments will be re-sorted once.
+		 *
+		 * @param rUpdated The updated or added appointments
+		 * @param rRemoved The appointments to remove
+		 * @param bRefresh TRUE to refresh the view after the update, FALSE if
+		 *                 the view is not affected by the changes
+		 */
+		public void updateAppointments(
+			Collection<? extends Appointment> rUpdated,
+			Collection<? extends Appointment> rRemoved,
+			boolean							  bRefresh)
+		{
+			List<Appointment> rAllAppointments = super.getAppointments();
+			boolean			  bRemoved		   = false;
+
+			for (Appointment rAppointment : rRemoved)
+			{
+				if (unindexAppointment(rAppointment))
+				{
+					deselect(rAppointment);
+					bRemoved = true;
+				}
+			}
+
+			if (bRemoved)
+			{
+				List<Appointment> aRemaining =
+					new ArrayList<>(aEventIndex.size());
+
+				for (Appointment rAppointment : rAllAppointments)
+				{
+					if (aEventIndex.contains(rAppointment))
+					{
+						aRemaining.add(rAppointment);
+					}
+				}
+
+				rAllAppointments.clear();
+				rAllAppointments.addAll(aRemaining);
+			}
+
+			if (!rUpdated.isEmpty())
+			{
+				for (Appointment rAppointment : rUpdated)
+				{
+					if (aEventIndex.contains(rAppointment))
+					{
+						aEventIndex.update(rAppointment);
+						updateSeries(rAppointment);
+					}
+					else
+					{
+						indexAppointment(rAppointment);
+						rAllAppointments.add(rAppointment);
+					}
+				}
+
+				long nStart = TimetableInstrumentation.startTime();
+
+				Collections.sort(rAllAppointments);
+				recordOperation(Operation.SORT,
+								nStart,
+								rAllAppointments.size());
+			}
+
+			if (bRemoved || !rUpdated.isEmpty())
+			{
+				List<Appointment> aChanged = new ArrayList<>(rUpdated);
+
+				aChanged.addAll(rRemoved);
+				notifyStore(aChanged);
+
+				if (bRefresh)
+				{
+					refresh();
+				}
+			}
+		}
+
+		/***************************************
+		 * Overridden to defer the refresh to a single layout pass that
+		 * combines all modifications during the current event loop.
+		 *
+		 * @see #scheduleLayout()
+		 */
+		@Override
+		protected void refresh()
+		{
+			scheduleLayout();
+		}
+
+		/***************************************
+		 * Notifies this calendar that the events in a shared event store have
+		 * been modified through another calendar. A layout will only be
+		 * scheduled if the modification affects the visible date range, i.e.
+		 * if a changed appointment is visible now or has been visible in the
+		 * last layout. Recurring events are always considered to be visible.
+		 *
+		 * @param rChanged The changed appointments or NULL if all appointments
+		 *                 have changed
+		 */
+		void eventsChanged(Collection<? extends Appointment> rChanged)
+		{
+			boolean bAffected =
+				rChanged == null || aVisibleAppointments == null ||
+				!aSeries.isEmpty();
+
+			if (!bAffected)
+			{
+				for (Appointment rAppointment : rChanged)
+				{
+					bAffected |= isInVisibleRange(rAppointment);
+				}
+			}
+
+			if (!bAffected)
+			{
+				Set<Appointment> aChanged =
+					Collections.newSetFromMap(
+						new IdentityHashMap<Appointment, Boolean>());
+
+				aChanged.addAll(rChanged);
+
+				for (Appointment rAppointment : aVisibleAppointments)
+				{
+					bAffected |= aChanged.contains(rAppointment);
+				}
+			}
+
+			if (bAffected)
+			{
+				invalidateOccurrences();
+				scheduleLayout();
+			}
+		}
+
+		/***************************************
+		 * Replaces the recurring events in a list of appointments with their
+		 * occurrences in a certain time range. The occurrences are cached for
+		 * the most recently used ranges until the recurring events change.
+		 *
+		 * @param rAppointments The appointments of the time range
+		 * @param nStart        The start of the time range (inclusive)
+		 * @param nEnd          The end of the time range (exclusive)
+		 */
+		private void addOccurrences(List<Appointment> rAppointments,
+									long			  nStart,
+									long			  nEnd)
+		{
+			String			  sRangeKey    = nStart + ":" + nEnd;
+			List<Appointment> rOccurrences = aOccurrenceCache.get(sRangeKey);
+
+			if (rOccurrences == null)
+			{
+				rOccurrences = new ArrayList<>();
+
+				for (Appointment rSeries : aSeries)
+				{
+					((TimetableEvent) rSeries).createOccurrences(nStart,
+																 nEnd,
+																 rOccurrences);
+				}
+
+				aOccurrenceCache.put(sRangeKey, rOccurrences);
+			}
+
+			Iterator<Appointment> rIterator = rAppointments.iterator();
+
+			while (rIterator.hasNext())
+			{
+				if (aSeries.contains(rIterator.next()))
+				{
+					rIterator.remove();
+				}
+			}
+
+			rAppointments.addAll(rOccurrences);
+			Collections.sort(rAppointments);
+		}
+
+		/***************************************
+		 * Removes all recurring events and their cached occurrences.
+		 */
+		private void clearSeries()
+		{
+			aSeries.clear();
+			invalidateOccurrences();
+		}
+
+		/***************************************
+		 * Removes an appointment from the multi-selection. If the selection
+		 * becomes empty the selection of the base class will be reset too.
+		 *
+		 * @param rAppointment The appointment to deselect
+		 */
+		private void deselect(Appointment rAppointment)
+		{
+			int nIndex = getSelectionIndex(rAppointment);
+
+			if (nIndex >= 0)
+			{
+				aSelection.remove(nIndex);
+
+				if (aSelection.isEmpty())
+				{
+					super.resetSelectedAppointment();
+				}
+			}
+		}
+
+		/***************************************
+		 * Returns the number of appointment widgets that have been created by
+		 * the last layout of the current view.
+		 *
+		 * @return The widget count
+		 */
+		private int getCreatedWidgetCount()
+		{
+			CalendarView rView  = getView();
+			int			 nCount = 0;
+
+			if (rView instanceof DayView)
+			{
+				nCount = getWidgetCount((DayView) rView);
+			}
+			else if (rView instanceof MonthView)
+			{
+				nCount = getWidgetCount((MonthView) rView);
+			}
+			else if (rView instanceof TimetableMonthView)
+			{
+				nCount = ((TimetableMonthView) rView).getWidgetCount();
+			}
+			else if (rView instanceof TimetableAgendaView)
+			{
+				nCount =
+					((TimetableAgendaView) rView).resetCreatedRowCount();
+			}
+			else if (rView instanceof TimetableResourceView)
+			{
+				nCount =
+					((TimetableResourceView) rView).resetCreatedWidgetCount();
+			}
+
+			return nCount;
+		}
+
+		/***************************************
+		 * Returns the index of the day column of the current day view in which
+		 * an appointment is displayed.
+		 *
+		 * @param  rDayStarts   The start times of the displayed days
+		 * @param  rAppointment The appointment
+		 *
+		 * @return The column index or -1 if the appointment is not displayed
+		 *         in a day column
+		 */
+		private int getDayColumn(long[] rDayStarts, Appointment rAppointment)
+		{
+			int nColumn = -1;
+
+			if (!rAppointment.isAllDay() && !rAppointment.isMultiDay())
+			{
+				nColumn =
+					TimetableLayoutCalculator.getTimedDay(
+						rDayStarts,
+						rAppointment.getStart().getTime(),
+						rAppointment.getEnd().getTime());
+			}
+
+			return nColumn;
+		}
+
+		/***************************************
+		 * Returns the other selected appointments that need to be moved
+		 * together with an appointment that has been moved interactively.
+		 * Read-only appointments and the occurrences of recurring events are
+		 * not moved.
+		 *
+		 * @param  rLead     The moved appointment
+		 * @param  rOriginal The copy of the appointment before the move or
+		 *                   NULL if not available
+		 *
+		 * @return A new list of the appointments to move (empty for none)
+		 */
+		private List<Appointment> getGroupMembers(
+			Appointment rLead,
+			Appointment rOriginal)
+		{
+			List<Appointment> aMembers = new ArrayList<>();
+
+			if (rOriginal != null &&
+				aSelection.size() > 1 &&
+				isTheSelectedAppointment(rLead) &&
+				!rLead.getStart().equals(rOriginal.getStart()))
+			{
+				for (Appointment rAppointment : aSelection)
+				{
+					if (rAppointment != rLead &&
+						!rAppointment.isReadOnly() &&
+						!(rAppointment instanceof TimetableEvent &&
+						  ((TimetableEvent) rAppointment).isOccurrence()))
+					{
+						aMembers.add(rAppointment);
+					}
+				}
+			}
+
+			return aMembers;
+		}
+
+		/***************************************
+		 * Returns the operation that describes the layout of the current
+		 * view.
+		 *
+		 * @return The layout operation
+		 */
+		private Operation getLayoutOperation()
+		{
+			CalendarView rView = getView();
+			Operation    eLayout;
+
+			if (rView instanceof DayView)
+			{
+				eLayout = Operation.DAY_LAYOUT;
+			}
+			else if (isMonthView())
+			{
+				eLayout = Operation.MONTH_LAYOUT;
+			}
+			else if (isYearView())
+			{
+				eLayout = Operation.YEAR_LAYOUT;
+			}
+			else if (isResourceView())
+			{
+				eLayout = Operation.RESOURCE_LAYOUT;
+			}
+			else
+			{
+				eLayout = Operation.AGENDA_LAYOUT;
+			}
+
+			return eLayout;
+		}
+
+		/***************************************
+		 * Returns the position of an appointment in the multi-selection.
+		 *
+		 * @param  rAppointment The appointment
+		 *
+		 * @return The selection index or -1 if the appointment is not selected
+		 */
+		private int getSelectionIndex(Appointment rAppointment)
+		{
+			for (int i = aSelection.size() - 1; i >= 0; i--)
+			{
+				if (aSelection.get(i) == rAppointment)
+				{
+					return i;
+				}
+			}
+
+			return -1;
+		}
+
+		/***************************************
+		 * Returns the appointments that are not all-day appointments and
+		 * overlap a certain time range by more than a touching start or end.
+		 * The occurrences of recurring appointments are included but not
+		 * cached because the time ranges of such queries are arbitrary.
+		 *
+		 * @param  nStart The start of the time range (inclusive)
+		 * @param  nEnd   The end of the time range (exclusive)
+		 *
+		 * @return A new list of the appointments ordered by their start
+		 */
+		private List<Appointment> getTimedAppointments(long nStart, long nEnd)
+		{
+			List<Appointment> aAppointments =
+				aEventIndex.getAppointments(nStart, nEnd);
+
+			if (!aSeries.isEmpty())
+			{
+				List<Appointment> aOccurrences = new ArrayList<>();
+
+				for (Appointment rSeries : aSeries)
+				{
+					((TimetableEvent) rSeries).createOccurrences(nStart,
+																 nEnd,
+																 aOccurrences);
+				}
+
+				aAppointments.removeAll(aSeries);
+				aAppointments.addAll(aOccurrences);
+				Collections.sort(aAppointments);
+			}
+
+			Iterator<Appointment> rIterator = aAppointments.iterator();
+
+			while (rIterator.hasNext())
+			{
+				Appointment rAppointment = rIterator.next();
+
+				if (rAppointment.isAllDay() ||
+					TimetableEventIndex.getEndTime(rAppointment) <= nStart ||
+					TimetableEventIndex.getStartTime(rAppointment) >= nEnd)
+				{
+					rIterator.remove();
+				}
+			}
+
+			return aAppointments;
+		}
+
+		/***************************************
+		 * Returns the number of days that are displayed by the current view.
+		 *
+		 * @return The visible day count
+		 */
+		@SuppressWarnings("deprecation")
+		private int getVisibleDayCount()
+		{
+			int nDays = getDays();
+
+			if (getView() instanceof TimetableAgendaView)
+			{
+				nDays = ((TimetableAgendaView) getView()).getDayCount();
+			}
+			else if (isMonthView())
+			{
+				int nFirstDay = CalendarFormat.INSTANCE.getFirstDayOfWeek();
+				int nWeeks    =
+					MonthViewDateUtils.monthViewRequiredRows(getDate(),
+															 nFirstDay);
+
+				nDays = nWeeks * DateUtils.DAYS_IN_A_WEEK;
+			}
+			else if (isYearView())
+			{
+				int nYear = getDate().getYear();
+
+				// February 29 is moved to March 1 in a non-leap year
+				nDays = new Date(nYear, 1, 29).getMonth() == 1 ? 366 : 365;
+			}
+			else if (isResourceView())
+			{
+				nDays = 1;
+			}
+
+			return nDays;
+		}
+
+		/***************************************
+		 * Returns the adjustments of the day aggregates that replace the
+		 * recurring events with their occurrences in a certain time range.
+		 *
+		 * @param  rStart The start of the time range (inclusive)
+		 * @param  rEnd   The end of the time range (exclusive)
+		 *
+		 * @return The adjustments (empty if no recurring events exist)
+		 */
+		private TimetableDayAggregates getSeriesAdjustments(
+			Date rStart,
+			Date rEnd)
+		{
+			TimetableDayAggregates aAdjustments =
+				new TimetableDayAggregates();
+
+			List<Appointment> aOccurrences = new ArrayList<>();
+
+			for (Appointment rSeries : aSeries)
+			{
+				aAdjustments.remove(TimetableEventIndex.getStartTime(rSeries),
+									TimetableEventIndex.getEndTime(rSeries),
+									rSeries.isAllDay());
+				((TimetableEvent) rSeries).createOccurrences(rStart.getTime(),
+															 rEnd.getTime(),
+															 aOccurrences);
+			}
+
+			for (Appointment rOccurrence : aOccurrences)
+			{
+				aAdjustments.add(TimetableEventIndex.getStartTime(rOccurrence),
+								 TimetableEventIndex.getEndTime(rOccurrence),
+								 rOccurrence.isAllDay());
+			}
+
+			return aAdjustments;
+		}
+
+		/***************************************
+		 * Adds an appointment to the event index and the ID lookup.
+		 *
+		 * @param rAppointment The appointment to index
+		 */
+		private void indexAppointment(Appointment rAppointment)
+		{
+			aEventIndex.add(rAppointment);
+			aEventIds.put(rAppointment.getId(), rAppointment);
+			updateSeries(rAppointment);
+		}
+
+		/***************************************
+		 * Replaces the layout strategy of a day view with an instance of
+		 * {@link TimetableDayLayout} which is shared by all day views of this
+		 * calendar.
+		 *
+		 * @param rView The day view
+		 */
+		private void installDayLayout(DayView rView)
+		{
+			if (aDayLayout == null)
+			{
+				aDayLayout = new TimetableDayLayout(rView);
+				aDayLayout.setPrecomputedLayout(rPrecomputedLayout);
+			}
+
+			setLayoutStrategy(rView, aDayLayout);
+		}
+
+		/***************************************
+		 * Discards the cached occurrences of recurring events after the
+		 * recurring events have changed.
+		 */
+		private void invalidateOccurrences()
+		{
+			aOccurrenceCache.clear();
+			aVisibleAppointments = null;
+		}
+
+		/***************************************
+		 * Checks whether the current view is a month view.
+		 *
+		 * @return TRUE for a month view
+		 */
+		private boolean isMonthView()
+		{
+			CalendarView rView = getView();
+
+			return rView instanceof MonthView ||
+				   rView instanceof TimetableMonthView;
+		}
+
+		/***************************************
+		 * Checks whether the current view is the resource view.
+		 *
+		 * @return TRUE for the resource view
+		 */
+		private boolean isResourceView()
+		{
+			return aResourceView != null && getView() == aResourceView;
+		}
+
+		/***************************************
+		 * Checks whether the current view is the year view.
+		 *
+		 * @return TRUE for the year view
+		 */
+		private boolean isYearView()
+		{
+			return aYearView != null && getView() == aYearView;
+		}
+
+		/***************************************
+		 * Notifies the other calendars that share the event store of this
+		 * calendar of modified appointments.
+		 *
+		 * @param rChanged The changed appointments or NULL for all
+		 */
+		private void notifyStore(Collection<? extends Appointment> rChanged)
+		{
+			rEventStore.fireEventsChanged(this, rChanged);
+		}
+
+		/***************************************
+		 * Performs a pending layout of the current view.
+		 */
+		private void performLayout()
+		{
+			bLayoutPending = false;
+			aRelayoutDays.clear();
+
+			if (rInstrumentation != null && bSortPending)
+			{
+				// sort in advance to measure it separately from the refresh
+				long nSortStart = TimetableInstrumentation.startTime();
+
+				getAppointmentManager(this).sortAppointments();
+				recordOperation(Operation.SORT,
+								nSortStart,
+								super.getAppointments().size());
+			}
+
+			long nStart = TimetableInstrumentation.startTime();
+
+			bSortPending = false;
+			super.refresh();
+			recordOperation(Operation.REPAINT, nStart, 0);
+		}
+
+		/***************************************
+		 * Renders the period that follows the period of the current day or
+		 * month view into the cache of the view.
+		 */
+		@SuppressWarnings("deprecation")
+		private void prerender()
+		{
+			CalendarView rView = getView();
+			Date		 rDate = getDate();
+
+			if (rView == aMonthView && aMonthView != null)
+			{
+				int  nFirstDay = CalendarFormat.INSTANCE.getFirstDayOfWeek();
+				Date aNext     =
+					new Date(rDate.getYear(), rDate.getMonth() + 1, 1);
+				Date rStart    =
+					MonthViewDateUtils.firstDateShownInAMonthView(aNext,
+																  nFirstDay);
+				int  nDays     =
+					MonthViewDateUtils.monthViewRequiredRows(aNext,
+															 nFirstDay) *
+					DateUtils.DAYS_IN_A_WEEK;
+
+				aMonthView.prerender(aNext,
+									 queryPeriodAppointments(rStart, nDays));
+			}
+			else if (rView instanceof DayView && aDayLayout != null)
+			{
+				int  nDays = getDays();
+				Date aNext =
+					new Date(rDate.getYear(),
+							 rDate.getMonth(),
+							 rDate.getDate() + nDays);
+
+				aDayLayout.prerender(aNext,
+									 nDays,
+									 queryPeriodAppointments(aNext, nDays));
+			}
+		}
+
+		/***************************************
+		 * Queries the appointments and the occurrences of recurring
+		 * appointments that overlap a certain time range.
+		 *
+		 * @param  nStart The start of the time range (inclusive)
+		 * @param  nEnd   The end of the time range (exclusive)
+		 *
+		 * @return A new list containing the appointments
+		 */
+		private List<Appointment> queryAppointments(long nStart, long nEnd)
+		{
+			List<Appointment> aAppointments =
+				aEventIndex.getAppointments(nStart, nEnd);
+
+			if (!aSeries.isEmpty())
+			{
+				addOccurrences(aAppointments, nStart, nEnd);
+			}
+
+			return aAppointments;
+		}
+
+		/***************************************
+		 * Queries the appointments of a period of days in the same way as
+		 * {@link #getAppointments()} queries the appointments of the visible
+		 * period.
+		 *
+		 * @param  rFirstDay The first day of the period
+		 * @param  nDays     The number of days in the period
+		 *
+		 * @return A new list containing the appointments
+		 */
+		@SuppressWarnings("deprecation")
+		private List<Appointment> queryPeriodAppointments(
+			Date rFirstDay,
+			int  nDays)
+		{
+			Date aStart = new Date(rFirstDay.getYear(),
+								   rFirstDay.getMonth(),
+								   rFirstDay.getDate());
+			Date aEnd   = new Date(rFirstDay.getYear(),
+								   rFirstDay.getMonth(),
+								   rFirstDay.getDate() + nDays);
+
+			return queryAppointments(aStart.getTime() -
+									 DateUtils.MILLIS_IN_A_DAY,
+									 aEnd.getTime() +
+									 DateUtils.MILLIS_IN_A_DAY);
+		}
+
+		/***************************************
+		 * Recreates the appointment widgets in the day columns of the current
+		 * day view that have been registered for a relayout. The widgets in
+		 * all other columns and in the multi-day area remain unchanged.
+		 */
+		private void relayoutDays()
+		{
+			long    nStart   = TimetableInstrumentation.startTime();
+			DayView rView    = (DayView) getView();
+			int     nDays    = getDays();
+			int     nLaidOut = 0;
+
+			long[] aDayStarts =
+				TimetableLayoutCalculator.getDayStarts(
+					getDate(),
+					nDays,
+					DateUtils.getDayStartsAt());
+
+			List<AppointmentWidget> rWidgets  = getAppointmentWidgets(rView);
+			List<AppointmentWidget> rSelected = getSelectedWidgets(rView);
+
+			Iterator<AppointmentWidget> rIterator = rWidgets.iterator();
+
+			while (rIterator.hasNext())
+			{
+				AppointmentWidget rWidget = rIterator.next();
+				int				  nColumn =
+					getDayColumn(aDayStarts, rWidget.getAppointment());
+
+				if (!rWidget.isMultiDay() && aRelayoutDays.contains(nColumn))
+				{
+					rWidget.removeFromParent();
+					rSelected.remove(rWidget);
+					rIterator.remove();
+				}
+			}
+
+			int nWidgets = rWidgets.size();
+
+			for (int nDay : aRelayoutDays)
+			{
+				Date aDayStart = new Date(aDayStarts[nDay]);
+				Date aDayEnd   = new Date(aDayStarts[nDay + 1]);
+
+				List<Appointment> rDayAppointments =
+					AppointmentUtil.filterListByDate(getAppointments(),
+													 aDayStart,
+													 aDayEnd);
+
+				addAppointmentWidgets(rView,
+									  aDayLayout.doLayout(rDayAppointments,
+														  nDay,
+														  nDays));
+				nLaidOut += rDayAppointments.size();
+			}
+
+			aRelayoutDays.clear();
+
+			if (rInstrumentation != null)
+			{
+				rInstrumentation.record(Operation.DAY_LAYOUT, nStart, nLaidOut);
+				rInstrumentation.countWidgets(rWidgets.size() - nWidgets);
+			}
+		}
+
+		/***************************************
+		 * Restores the original dates of an occurrence after an update has
+		 * been rejected by an event handler. The original dates are taken
+		 * from the copy of the occurrence that the rollback of the update has
+		 * added to the appointment list which is then removed again.
+		 *
+		 * @param rOccurrence The occurrence to restore
+		 */
+		private void restoreOccurrence(Appointment rOccurrence)
+		{
+			List<Appointment> rAllAppointments = super.getAppointments();
+
+			for (int i = rAllAppointments.size() - 1; i >= 0; i--)
+			{
+				Appointment rCopy = rAllAppointments.get(i);
+
+				if (!aEventIndex.contains(rCopy))
+				{
+					rOccurrence.setStart(rCopy.getStart());
+					rOccurrence.setEnd(rCopy.getEnd());
+					rAllAppointments.remove(i);
+				}
+			}
+		}
+
+		/***************************************
+		 * Schedules the prerendering of the next period. The prerendering
+		 * will be delayed until no layout has been performed for a short time
+		 * so that it doesn't slow down a fast navigation.
+		 */
+		private void schedulePrerender()
+		{
+			if (aPrerenderTimer == null)
+			{
+				aPrerenderTimer =
+					new Timer()
+					{
+						@Override
+						public void run()
+						{
+							if (bPrerendering && !bLayoutPending)
+							{
+								prerender();
+							}
+						}
+					};
+			}
+
+			aPrerenderTimer.schedule(PRERENDER_DELAY);
+		}
+
+		/***************************************
+		 * Schedules the relayout of the day columns that are affected by the
+		 * modification of an appointment at the end of the current event
+		 * loop. This is only possible in a day view if the appointment has
+		 * been displayed in a day column before and after the modification
+		 * and if no complete layout is pending.
+		 *
+		 * @param  rOriginal    A copy of the appointment before the
+		 *                      modification
+		 * @param  rAppointment The modified appointment
+		 *
+		 * @return TRUE if the relayout has been scheduled, FALSE if a complete
+		 *         layout is necessary
+		 */
+		private boolean scheduleRelayout(
+			Appointment rOriginal,
+			Appointment rAppointment)
+		{
+			if (!(getView() instanceof DayView) ||
+				aDayLayout == null ||
+				bLayoutPending ||
+				nUpdateLevel > 0)
+			{
+				return false;
+			}
+
+			long[] aDayStarts =
+				TimetableLayoutCalculator.getDayStarts(
+					getDate(),
+					getDays(),
+					DateUtils.getDayStartsAt());
+
+			int nFromDay = getDayColumn(aDayStarts, rOriginal);
+			int nToDay   = getDayColumn(aDayStarts, rAppointment);
+
+			if (nFromDay < 0 || nToDay < 0)
+			{
+				return false;
+			}
+
+			aRelayoutDays.add(nFromDay);
+			aRelayoutDays.add(nToDay);
+
+			if (!bRelayoutScheduled)
+			{
+				bRelayoutScheduled = true;
+
+				Scheduler.get()
+						 .scheduleFinally(new ScheduledCommand()
+					{
+						@Override
+						public void execute()
+						{
+							bRelayoutScheduled = false;
+
+							if (!bLayoutPending &&
+								!aRelayoutDays.isEmpty() &&
+								getView() instanceof DayView)
+							{
+								relayoutDays();
+							}
+
+							aRelayoutDays.clear();
+						}
+					});
+			}
+
+			return true;
+		}
+
+		/***************************************
+		 * Sets the lead appointment of the multi-selection as the selected
+		 * appointment of the base class.
+		 *
+		 * @param rLead       The lead appointment or NULL for none
+		 * @param bFireEvents TRUE to fire a selection event
+		 */
+		private void selectLeadAppointment(Appointment rLead,
+										   boolean	   bFireEvents)
+		{
+			if (rLead != null)
+			{
+				super.setSelectedAppointment(rLead, bFireEvents);
+			}
+			else
+			{
+				// the base class ignores the selection of NULL
+				super.resetSelectedAppointment();
+
+				if (bFireEvents)
+				{
+					fireSelectionEvent(null);
+				}
+			}
+		}
+
+		/***************************************
+		 * Selects all visible appointments in the range between two
+		 * appointments. If the anchor is not visible only the target will be
+		 * selected.
+		 *
+		 * @param rAnchor The appointment at which the range starts
+		 * @param rTarget The appointment at which the range ends and which
+		 *                becomes the lead of the selection
+		 */
+		private void selectRange(Appointment rAnchor, Appointment rTarget)
+		{
+			List<Appointment> rVisible = getAppointments();
+			int				  nFrom    = -1;
+			int				  nTo	   = -1;
+
+			for (int i = 0; i < rVisible.size(); i++)
+			{
+				Appointment rAppointment = rVisible.get(i);
+
+				if (rAppointment == rAnchor)
+				{
+					nFrom = i;
+				}
+
+				if (rAppointment == rTarget)
+				{
+					nTo = i;
+				}
+			}
+
+			aSelection.clear();
+
+			if (nFrom >= 0 && nTo >= 0)
+			{
+				int nStep = nTo >= nFrom ? 1 : -1;
+
+				for (int i = nFrom; i != nTo; i += nStep)
+				{
+					aSelection.add(rVisible.get(i));
+				}
+			}
+
+			aSelection.add(rTarget);
+		}
+
+		/***************************************
+		 * Moves appointments by a certain offset and applies the modification
+		 * as a single batch.
+		 *
+		 * @param rAppointments The appointments to move
+		 * @param nOffset       The offset in milliseconds
+		 */
+		private void shiftAppointments(
+			List<Appointment> rAppointments,
+			long			  nOffset)
+		{
+			for (Appointment rAppointment : rAppointments)
+			{
+				rAppointment.setStart(new Date(rAppointment.getStart()
+												  .getTime() + nOffset));
+				rAppointment.setEnd(new Date(rAppointment.getEnd().getTime() +
+											 nOffset));
+				writeBackDates(rAppointment);
+			}
+
+			updateAppointments(rAppointments);
+		}
+
+		/***************************************
+		 * Highlights all selected appointments in a day view. The day view
+		 * itself only highlights the appointment of the last selection event.
+		 * This is only necessary if a multi-selection exists or has existed
+		 * before.
+		 */
+		private void styleDayViewSelection()
+		{
+			boolean bMultiSelection = aSelection.size() != 1;
+
+			if (getView() instanceof DayView &&
+				(bMultiSelection || bMultiSelectionStyled))
+			{
+				DayView					rView     = (DayView) getView();
+				List<AppointmentWidget> rSelected = getSelectedWidgets(rView);
+
+				rSelected.clear();
+
+				for (AppointmentWidget rWidget : getAppointmentWidgets(rView))
+				{
+					boolean bSelected =
+						isTheSelectedAppointment(rWidget.getAppointment());
+
+					rDayStyleManager.applyStyle(rWidget, bSelected);
+
+					if (bSelected)
+					{
+						rSelected.add(rWidget);
+					}
+				}
+			}
+
+			bMultiSelectionStyled = bMultiSelection;
+		}
+
+		/***************************************
+		 * Removes an appointment from the event index and the ID lookup.
+		 *
+		 * @param  rAppointment The appointment to remove
+		 *
+		 * @return TRUE if the appointment had been indexed
+		 */
+		private boolean unindexAppointment(Appointment rAppointment)
+		{
+			boolean bRemoved = aEventIndex.remove(rAppointment);
+
+			if (bRemoved && aEventIds.get(rAppointment.getId()) == rAppointment)
+			{
+				aEventIds.remove(rAppointment.getId());
+			}
+
+			if (bRemoved && aSeries.remove(rAppointment))
+			{
+				invalidateOccurrences();
+			}
+
+			return bRemoved;
+		}
+
+		/***************************************
+		 * Registers or unregisters an appointment as a recurring event after
+		 * it has been added or updated.
+		 *
+		 * @param rAppointment The appointment
+		 */
+		private void updateSeries(Appointment rAppointment)
+		{
+			if (rAppointment instanceof TimetableEvent &&
+				((TimetableEvent) rAppointment).isRecurring())
+			{
+				aSeries.add(rAppointment);
+				invalidateOccurrences();
+			}
+			else if (aSeries.remove(rAppointment))
+			{
+				invalidateOccurrences();
+			}
+		}
+
+		/***************************************
+		 * Attaches this calendar to an event store and installs the event
+		 * data structures of the store, including the appointment list of
+		 * the appointment manager.
+		 *
+		 * @param rStore The event store
+		 */
+		private void useEventStore(TimetableEventStore rStore)
+		{
+			if (rEventStore != null)
+			{
+				rEventStore.detach(this);
+			}
+
+			rEventStore = rStore;
+			aEventIndex = rStore.getEventIndex();
+			aEventIds   = rStore.getEventIds();
+			aSeries     = rStore.getSeries();
+
+			setAppointmentList(getAppointmentManager(this),
+							   rStore.getAppointments());
+			rStore.attach(this);
+		}
+
+		/***************************************
+		 * Writes the current dates of an updated appointment back into the
+		 * original event properties if possible. This is done before an
+		 * update is notified so that listeners and later queries receive the
+		 * original properties with the current dates.
+		 *
+		 * @param rAppointment The updated appointment
+		 *
+		 * @see   TimetableEvent#writeBackDates()
+		 */
+		private void writeBackDates(Appointment rAppointment)
+		{
+			if (rAppointment instanceof TimetableEvent)
+			{
+				((TimetableEvent) rAppointment).writeBackDates();
+			}
+		}
+	}
+
+	/********************************************************************
+	 * Adds events to the timetable incrementally in time slices of limited
+	 * duration. In the first phase the events are converted into appointments
+	 * and separated into events inside and outside of the visible date range.
+	 * The visible events are displayed at the end of each slice while the
+	 * remaining events are appended in chunks after the conversion. Instances
+	 * are also used as the element of the progress events.
+	 *
+	 * @author eso
+	 * @see    Timetable#addEventsIncrementally(Collection)
+	 */
+	public class EventLoader implements RepeatingCommand
+	{
+		//~ Static fields/initializers -----------------------------------------
+
+		private static final int SLICE_MILLIS	   = 8;
+		private static final int APPEND_CHUNK_SIZE = 200;
+
+		//~ Instance fields ----------------------------------------------------
+
+		private final TimetableIncrementalLoad aLoad;
+
+		private Duration aSlice		  = null;
+		private long     nVisibleStart = 0;
+		private long     nVisibleEnd   = 0;
+		private boolean  bCancelled    = false;
+
+		//~ Constructors -------------------------------------------------------
+
+		/***************************************
+		 * Creates a new instance.
+		 *
+		 * @param rEvents The events to add
+		 */
+		EventLoader(Collection<? extends HasProperties> rEvents)
+		{
+			aLoad =
+				new TimetableIncrementalLoad(rEvents,
+											 APPEND_CHUNK_SIZE,
+											 new LoadTarget());
+		}
+
+		//~ Methods ------------------------------------------------------------
+
+		/***************************************
+		 * Cancels the loading. Events that have already been added will
+		 * remain in the timetable.
+		 */
+		public void cancel()
+		{
+			bCancelled = true;
+		}
+
+		/***************************************
+		 * Performs the next time slice of the incremental loading.
+		 *
+		 * @return TRUE if the loading needs to be continued
+		 */
+		@Override
+		public boolean execute()
+		{
+			if (bCancelled)
+			{
+				return false;
+			}
+
+			TimetableWidget rWidget = getTimetableWidget();
+
+			// same range extension as in TimetableWidget.getAppointments()
+			nVisibleStart =
+				rWidget.getVisibleStart().getTime() - DateUtils.MILLIS_IN_A_DAY;
+			nVisibleEnd   =
+				rWidget.getVisibleEnd().getTime() + DateUtils.MILLIS_IN_A_DAY;
+			aSlice		  = new Duration();
+
+			aLoad.execute();
 
-		return aEvent;
-	}
+			boolean bFinished = aLoad.isFinished();
 
-	/***************************************
-	 * {@inheritDoc}
-	 */
-	@Override
-	ComponentEventDispatcher createEventDispatcher()
-	{
-		return new TimetableEventDispatcher();
-	}
+			if (bFinished)
+			{
+				rWidget.sortAppointments();
 
-	/***************************************
-	 * Returns the timetable widget wrapped by this instance.
-	 *
-	 * @return The timetable widget
-	 */
-	private TimetableWidget getTimetableWidget()
-	{
-		return (TimetableWidget) getWidget();
-	}
+				if (aEventLoader == this)
+				{
+					aEventLoader = null;
+				}
+			}
 
-	//~ Inner Classes ----------------------------------------------------------
+			if (aEventDispatcher != null)
+			{
+				aEventDispatcher.notifyEventHandler(EventType.VALUE_CHANGED,
+													this);
+			}
 
-	/********************************************************************
-	 * Widget factory for this component.
-	 *
-	 * @author eso
-	 */
-	public static class TimetableWidgetFactory implements WidgetFactory<Widget>
-	{
-		//~ Methods ------------------------------------------------------------
+			return !bFinished;
+		}
 
 		/***************************************
-		 * {@inheritDoc}
+		 * Returns the number of events that have been added to the timetable
+		 * so far.
+		 *
+		 * @return The number of added events
 		 */
-		@Override
-		public Widget createWidget(Component rComponent, StyleData rStyle)
+		public int getAddedCount()
 		{
-			return new TimetableWidget();
+			return aLoad.getAddedCount();
+		}
+
+		/***************************************
+		 * Returns the total number of events to be added by this loader.
+		 *
+		 * @return The total event count
+		 */
+		public int getTotalCount()
+		{
+			return aLoad.getTotalCount();
+		}
+
+		/***************************************
+		 * Checks whether this loader has been cancelled.
+		 *
+		 * @return TRUE if cancelled
+		 */
+		public boolean isCancelled()
+		{
+			return bCancelled;
+		}
+
+		/***************************************
+		 * Checks whether this loader has finished adding all events.
+		 *
+		 * @return TRUE if finished
+		 */
+		public boolean isFinished()
+		{
+			return aLoad.isFinished();
+		}
+
+		//~ Inner Classes ------------------------------------------------------
+
+		/********************************************************************
+		 * The target of the incremental loading that adds the appointments
+		 * to the timetable widget.
+		 *
+		 * @author eso
+		 */
+		class LoadTarget implements TimetableIncrementalLoad.Target
+		{
+			//~ Methods --------------------------------------------------------
+
+			/***************************************
+			 * {@inheritDoc}
+			 */
+			@Override
+			public void addVisibleAppointments(
+				List<Appointment> rAppointments)
+			{
+				TimetableWidget rWidget = getTimetableWidget();
+
+				rWidget.appendAppointments(rAppointments);
+				rWidget.scheduleLayout();
+			}
+
+			/***************************************
+			 * Appends a chunk of appointments. If the visible range has
+			 * changed in the meantime and the chunk contains visible
+			 * appointments a layout will be scheduled.
+			 *
+			 * @see TimetableIncrementalLoad.Target
+			 */
+			@Override
+			public void appendHiddenAppointments(
+				List<Appointment> rAppointments)
+			{
+				TimetableWidget rWidget = getTimetableWidget();
+
+				rWidget.appendAppointments(rAppointments);
+
+				for (Appointment rAppointment : rAppointments)
+				{
+					if (rWidget.isInVisibleRange(rAppointment))
+					{
+						rWidget.scheduleLayout();
+
+						break;
+					}
+				}
+			}
+
+			/***************************************
+			 * {@inheritDoc}
+			 */
+			@Override
+			public Appointment createAppointment(HasProperties rEvent)
+			{
+				return new TimetableEvent(rEvent, aStringPool);
+			}
+
+			/***************************************
+			 * {@inheritDoc}
+			 */
+			@Override
+			public boolean isSliceExpired()
+			{
+				return aSlice.elapsedMillis() >= SLICE_MILLIS;
+			}
+
+			/***************************************
+			 * {@inheritDoc}
+			 */
+			@Override
+			public boolean isVisible(Appointment rAppointment)
+			{
+				return TimetableEventIndex.getStartTime(rAppointment) <
+					   nVisibleEnd &&
+					   TimetableEventIndex.getEndTime(rAppointment) >=
+					   nVisibleStart;
+			}
 		}
 	}
 
 	/********************************************************************
-	 * An appointment subclass that also contains the original event properties.
+	 * A request for the events of a certain date range that is handed to an
+	 * {@link EventProvider}.
 	 *
 	 * @author eso
 	 */
-	static class TimetableEvent extends Appointment
+	public class EventRequest
 	{
-		//~ Static fields/initializers -----------------------------------------
-
-		private static final long serialVersionUID = 1L;
-
 		//~ Instance fields ----------------------------------------------------
 
-		private final HasProperties rEventProperties;
+		private final TimetableRangeCache		rCache;
+		private final TimetableRangeCache.Range rRange;
 
 		//~ Constructors -------------------------------------------------------
 
 		/***************************************
-		 * Creates a new instance from an event properties object.
+		 * Creates a new instance.
 		 *
-		 * @param rEventProperties The event to initialize this instance from
+		 * @param rCache The range cache the request has been created for
+		 * @param rRange The requested range
 		 */
-		public TimetableEvent(HasProperties rEventProperties)
+		EventRequest(
+			TimetableRangeCache		  rCache,
+			TimetableRangeCache.Range rRange)
 		{
-			this.rEventProperties = rEventProperties;
-
-			setId(rEventProperties.getProperty(ID, null));
-			setTitle(rEventProperties.getProperty(TITLE, ""));
-			setDescription(rEventProperties.getProperty(DESCRIPTION, ""));
-			setStart(rEventProperties.getProperty(START_DATE, null));
-			setEnd(rEventProperties.getProperty(END_DATE, null));
-			setLocation(rEventProperties.getProperty(LOCATION, ""));
-			setAllDay(rEventProperties.hasFlag(ALL_DAY));
-			setReadOnly(rEventProperties.hasFlag(READONLY));
+			this.rCache = rCache;
+			this.rRange = rRange;
 		}
 
 		//~ Methods ------------------------------------------------------------
 
 		/***************************************
-		 * Returns the original event properties.
+		 * Cancels this request so that the date range can be requested again.
+		 */
+		public void cancel()
+		{
+			rCache.removePendingRange(rRange);
+		}
+
+		/***************************************
+		 * Returns the end of the requested date range.
 		 *
-		 * @return The event properties
+		 * @return The exclusive end date
 		 */
-		public final HasProperties getEventProperties()
+		public Date getEnd()
 		{
-			return rEventProperties;
+			return new Date(rRange.getEnd());
+		}
+
+		/***************************************
+		 * Returns the start of the requested date range.
+		 *
+		 * @return The inclusive start date
+		 */
+		public Date getStart()
+		{
+			return new Date(rRange.getStart());
+		}
+
+		/***************************************
+		 * Sets the events that have been loaded for this request. They will
+		 * be added to the timetable or update existing events with the same
+		 * ID. This may cause the removal of the events of the least recently
+		 * displayed date ranges if the event budget is exceeded. If the event
+		 * provider has been changed since the request has been made the events
+		 * will be ignored.
+		 *
+		 * @param rEvents The events of the requested date range
+		 */
+		public void setEvents(Collection<? extends HasProperties> rEvents)
+		{
+			if (rCache == aRangeCache)
+			{
+				TimetableWidget rWidget   = getTimetableWidget();
+				List<String>    aEventIds = new ArrayList<>(rEvents.size());
+
+				for (HasProperties rEvent : rEvents)
+				{
+					aEventIds.add(rEvent.getProperty(ID, null));
+				}
+
+				List<String> rEvicted =
+					rCache.setRangeEvents(rRange,
+										  aEventIds,
+										  rWidget.getVisibleStart().getTime(),
+										  rWidget.getVisibleEnd().getTime());
+
+				if (rEvicted != null)
+				{
+					updateEvents(rEvents);
+					removeEvents(rEvicted);
+				}
+			}
 		}
 	}
 
 	/********************************************************************
-	 * A timetable calendar subclass that fixes some issues with the original
-	 * implementation.
+	 * The target of the comparison of new events with the appointments of
+	 * the timetable widget.
 	 *
 	 * @author eso
 	 */
-	static class TimetableWidget extends Calendar
+	class DiffTarget implements TimetableEventDiff.Target
 	{
 		//~ Methods ------------------------------------------------------------
 
 		/***************************************
-		 * Overridden to forward to {@link #setStylePrimaryName(String)} because
-		 * otherwise original code overwrites secondary styles.
+		 * {@inheritDoc}
+		 */
+		@Override
+		public Appointment createAppointment(HasProperties rEvent)
+		{
+			return new TimetableEvent(rEvent, aStringPool);
+		}
+
+		/***************************************
+		 * {@inheritDoc}
+		 */
+		@Override
+		public Collection<Appointment> getAllAppointments()
+		{
+			return getTimetableWidget().getAllAppointments();
+		}
+
+		/***************************************
+		 * Returns the timetable event with the given ID. Other types of
+		 * appointments will be ignored and replaced by new timetable events.
 		 *
-		 * @see Calendar#setStyleName(String)
+		 * @see TimetableEventDiff.Target
 		 */
 		@Override
-		public void setStyleName(String sStyle)
+		public Appointment getAppointment(String sId)
 		{
-			setStylePrimaryName(sStyle);
+			Appointment rAppointment = getTimetableWidget().getAppointment(sId);
+
+			return rAppointment instanceof TimetableEvent ? rAppointment : null;
 		}
 
 		/***************************************
-		 * @see Calendar#setView(CalendarViews, int)
+		 * {@inheritDoc}
 		 */
 		@Override
-		public void setView(CalendarViews eViewStyle, int nDays)
+		public boolean hasChanges(Appointment   rAppointment,
+								  HasProperties rEvent)
 		{
-			if (eViewStyle == CalendarViews.AGENDA)
+			return ((TimetableEvent) rAppointment).hasChanges(rEvent);
+		}
+
+		/***************************************
+		 * {@inheritDoc}
+		 */
+		@Override
+		public boolean isVisible(Appointment rAppointment)
+		{
+			return getTimetableWidget().isInVisibleRange(rAppointment);
+		}
+
+		/***************************************
+		 * {@inheritDoc}
+		 */
+		@Override
+		public void updateAppointment(Appointment   rAppointment,
+									  HasProperties rEvent,
+									  boolean		bChanged)
+		{
+			TimetableEvent rTimetableEvent = (TimetableEvent) rAppointment;
+
+			if (bChanged)
 			{
-				// enabled although disabled in original code
-				// TODO: check how the bug mentioned there affects functionality
-				setView(new AgendaView());
+				rTimetableEvent.update(rEvent);
 			}
 			else
 			{
-				super.setView(eViewStyle, nDays);
+				rTimetableEvent.setEventProperties(rEvent);
 			}
 		}
 	}
@@ -540,8 +4658,12 @@ public class Timetable extends Component implements DateAttribute
 	{
 		//~ Instance fields ----------------------------------------------------
 
-		private TimetableEvent rPreviousSelection = null;
-		private Timer		   aDoubleClickTimer  = null;
+		private List<String> aPreviousSelection = Collections.emptyList();
+		private Timer		 aDoubleClickTimer  = null;
+
+		private TimetableEvent rHoverTarget  = null;
+		private TimetableEvent rHoveredEvent = null;
+		private Timer		   aHoverTimer   = null;
 
 		//~ Methods ------------------------------------------------------------
 
@@ -556,16 +4678,34 @@ public class Timetable extends Component implements DateAttribute
 		}
 
 		/***************************************
-		 * {@inheritDoc}
+		 * Notifies the deletion of an event. If the event is part of a
+		 * multi-selection all selected events will be available from {@link
+		 * Timetable#getNotifiedEvents()} so that the application can remove
+		 * them in a single batch with {@link
+		 * Timetable#removeEvents(Collection)}.
+		 *
+		 * @see DeleteHandler#onDelete(DeleteEvent)
 		 */
 		@Override
 		public void onDelete(DeleteEvent<Appointment> rEvent)
 		{
-			TimetableEvent rTimetableEvent =
-				(TimetableEvent) rEvent.getTarget();
+			TimetableWidget   rWidget    = getTimetableWidget();
+			TimetableEvent    rTarget    = (TimetableEvent) rEvent.getTarget();
+			HasProperties     rElement   = rTarget.getEventProperties();
+			List<Appointment> rSelection = rWidget.getSelection();
 
-			notifyEventHandler(EventType.ELEMENT_DELETED,
-							   rTimetableEvent.getEventProperties());
+			if (rSelection.size() > 1 &&
+				rWidget.isTheSelectedAppointment(rTarget))
+			{
+				notifyEventGroup(EventType.ELEMENT_DELETED,
+								 rElement,
+								 rTarget,
+								 rSelection);
+			}
+			else
+			{
+				notifyEventHandler(EventType.ELEMENT_DELETED, rElement);
+			}
 
 			// cancel the original event to prevent deletion before the
 			// application could query the user for a confirmation
@@ -573,14 +4713,50 @@ public class Timetable extends Component implements DateAttribute
 		}
 
 		/***************************************
-		 * {@inheritDoc}
+		 * Handles the hovering of events. A NULL target indicates that the
+		 * pointer has left the last hovered event. Repeated invocations for
+		 * the same event ID are ignored. This is also the case if the handler
+		 * is registered for both hover event types.
+		 *
+		 * @see MouseOverHandler#onMouseOver(MouseOverEvent)
 		 */
 		@Override
 		public void onMouseOver(MouseOverEvent<Appointment> rEvent)
 		{
-			notifyEventHandler(EventType.POINTER_HOVER,
-							   ((TimetableEvent) rEvent.getTarget())
-							   .getEventProperties());
+			TimetableEvent rTarget = (TimetableEvent) rEvent.getTarget();
+
+			String sTargetId  = rTarget != null ? rTarget.getId() : null;
+			String sCurrentId =
+				rHoverTarget != null ? rHoverTarget.getId() : null;
+
+			if (!Objects.equals(sTargetId, sCurrentId))
+			{
+				rHoverTarget = rTarget;
+
+				if (aHoverTimer != null)
+				{
+					aHoverTimer.cancel();
+				}
+
+				if (rHoveredEvent != null)
+				{
+					notifyEventHandler(EventType.POINTER_EXITED,
+									   rHoveredEvent.getEventProperties());
+					rHoveredEvent = null;
+				}
+
+				if (rTarget != null)
+				{
+					if (nHoverDelay > 0)
+					{
+						scheduleHover();
+					}
+					else
+					{
+						notifyHover();
+					}
+				}
+			}
 		}
 
 		/***************************************
@@ -601,36 +4777,41 @@ public class Timetable extends Component implements DateAttribute
 		}
 
 		/***************************************
-		 * {@inheritDoc}
+		 * Notifies a modified selection after the double click interval. The
+		 * notification is sent for the selection at the end of the interval
+		 * so that the modifications of a multi-selection in the interval are
+		 * combined into a single notification.
+		 *
+		 * @see SelectionHandler#onSelection(SelectionEvent)
 		 */
 		@Override
 		public void onSelection(SelectionEvent<Appointment> rEvent)
 		{
-			final TimetableEvent rNewSelection =
-				(TimetableEvent) rEvent.getSelectedItem();
+			List<Appointment> rSelection = getTimetableWidget().getSelection();
+			List<String>	  aSelection = new ArrayList<>(rSelection.size());
 
-			if (rPreviousSelection == null ||
-				!rPreviousSelection.getId().equals(rNewSelection.getId()))
+			for (Appointment rAppointment : rSelection)
 			{
-				if (aDoubleClickTimer == null)
-				{
-					aDoubleClickTimer =
-						new Timer()
+				aSelection.add(rAppointment.getId());
+			}
+
+			if (!aSelection.equals(aPreviousSelection) &&
+				aDoubleClickTimer == null)
+			{
+				aDoubleClickTimer =
+					new Timer()
+					{
+						@Override
+						public void run()
 						{
-							@Override
-							public void run()
-							{
-								aDoubleClickTimer = null;
-								notifyEventHandler(EventType.SELECTION,
-												   rNewSelection
-												   .getEventProperties());
-							}
-						};
-					aDoubleClickTimer.schedule(EWT.getDoubleClickInterval());
-				}
+							aDoubleClickTimer = null;
+							notifySelection();
+						}
+					};
+				aDoubleClickTimer.schedule(EWT.getDoubleClickInterval());
 			}
 
-			rPreviousSelection = rNewSelection;
+			aPreviousSelection = aSelection;
 		}
 
 		/***************************************
@@ -643,13 +4824,30 @@ public class Timetable extends Component implements DateAttribute
 		}
 
 		/***************************************
-		 * {@inheritDoc}
+		 * Notifies the update of an event. If other selected events have been
+		 * moved together with the event all updated events will be available
+		 * from {@link Timetable#getNotifiedEvents()}.
+		 *
+		 * @see UpdateHandler#onUpdate(UpdateEvent)
 		 */
 		@Override
 		public void onUpdate(UpdateEvent<Appointment> rEvent)
 		{
-			notifyEventHandler(EventType.ELEMENT_UPDATED,
-							   createEvent(rEvent.getTarget()));
+			Appointment		  rTarget  = rEvent.getTarget();
+			HasProperties     rElement = getEventProperties(rTarget);
+			List<Appointment> rGroup   = getTimetableWidget().getGroupUpdate();
+
+			if (rGroup != null)
+			{
+				notifyEventGroup(EventType.ELEMENT_UPDATED,
+								 rElement,
+								 rTarget,
+								 rGroup);
+			}
+			else
+			{
+				notifyEventHandler(EventType.ELEMENT_UPDATED, rElement);
+			}
 		}
 
 		/***************************************
@@ -676,7 +4874,8 @@ public class Timetable extends Component implements DateAttribute
 			{
 				return rTimetableWidget.addDeleteHandler(this);
 			}
-			else if (eEventType == EventType.POINTER_HOVER)
+			else if (eEventType == EventType.POINTER_HOVER ||
+					 eEventType == EventType.POINTER_EXITED)
 			{
 				return rTimetableWidget.addMouseOverHandler(this);
 			}
@@ -693,5 +4892,114 @@ public class Timetable extends Component implements DateAttribute
 				return super.initEventDispatching(rWidget, eEventType);
 			}
 		}
+
+		/***************************************
+		 * Sends the hover notification for the current hover target.
+		 */
+		private void notifyHover()
+		{
+			rHoveredEvent = rHoverTarget;
+			notifyEventHandler(EventType.POINTER_HOVER,
+							   rHoveredEvent.getEventProperties());
+		}
+
+		/***************************************
+		 * Notifies an event that refers to multiple events. The element of
+		 * the notification is a single event and all affected events can be
+		 * queried with {@link Timetable#getNotifiedEvents()} while the
+		 * notification is handled.
+		 *
+		 * @param eEventType The event type
+		 * @param rElement   The element of the notification
+		 * @param rTarget    The appointment of the element
+		 * @param rGroup     All affected appointments, including the target
+		 */
+		private void notifyEventGroup(EventType				  eEventType,
+									  HasProperties			  rElement,
+									  Appointment			  rTarget,
+									  Collection<Appointment> rGroup)
+		{
+			List<HasProperties> aEvents = new ArrayList<>(rGroup.size());
+
+			aEvents.add(rElement);
+
+			for (Appointment rAppointment : rGroup)
+			{
+				if (rAppointment != rTarget)
+				{
+					aEvents.add(getEventProperties(rAppointment));
+				}
+			}
+
+			rNotifiedEvents = Collections.unmodifiableList(aEvents);
+
+			try
+			{
+				notifyEventHandler(eEventType, rElement);
+			}
+			finally
+			{
+				rNotifiedEvents = Collections.emptyList();
+			}
+		}
+
+		/***************************************
+		 * Sends the selection notification for the current selection. The
+		 * element of the notification is the most recently selected event.
+		 * If multiple events are selected all of them will be available from
+		 * {@link Timetable#getNotifiedEvents()}. No notification is sent if
+		 * the last selected event has been deselected.
+		 */
+		private void notifySelection()
+		{
+			TimetableWidget   rWidget	 = getTimetableWidget();
+			List<Appointment> rSelection = rWidget.getSelection();
+			Appointment		  rLead		 = rWidget.getSelectedAppointment();
+
+			if (rLead != null)
+			{
+				HasProperties rElement =
+					((TimetableEvent) rLead).getEventProperties();
+
+				if (rSelection.size() > 1)
+				{
+					notifyEventGroup(EventType.SELECTION,
+									 rElement,
+									 rLead,
+									 rSelection);
+				}
+				else
+				{
+					notifyEventHandler(EventType.SELECTION, rElement);
+				}
+			}
+		}
+
+		/***************************************
+		 * Schedules the hover notification for the current hover target after
+		 * the hover delay. The timer is restarted for each new target so that
+		 * a rapid sequence of targets is coalesced into a single notification
+		 * for the last target.
+		 */
+		private void scheduleHover()
+		{
+			if (aHoverTimer == null)
+			{
+				aHoverTimer =
+					new Timer()
+					{
+						@Override
+						public void run()
+						{
+							if (rHoverTarget != null)
+							{
+								notifyHover();
+							}
+						}
+					};
+			}
+
+			aHoverTimer.schedule(nHoverDelay);
+		}
 	}
 }
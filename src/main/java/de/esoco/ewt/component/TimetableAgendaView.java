@@ -0,0 +1,650 @@
+//++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+// gewt-timetable source file
+// Copyright (c) 2017 Elmar Sonnenschein / esoco GmbH
+// Last Change: 08.05.2017 by eso
+//
+// gewt-timetable is free software; you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published
+// by the Free Software Foundation; either version 3 of the License,
+// or (at your option) any later version.
+//
+// gewt-timetable is distributed in the hope that it will be useful, but
+// WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License along
+// with gewt-timetable; if not, write to the Free Software Foundation, Inc.,
+// 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA or use the
+// contact information on the FSF website http://www.fsf.org
+//++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+package de.esoco.ewt.component;
+
+import de.esoco.ewt.timetable.TimetableLayoutCalculator;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import com.bradrydzewski.gwt.calendar.client.Appointment;
+import com.bradrydzewski.gwt.calendar.client.CalendarView;
+import com.bradrydzewski.gwt.calendar.client.CalendarWidget;
+import com.bradrydzewski.gwt.calendar.client.DateUtils;
+
+import com.google.gwt.core.client.Scheduler.ScheduledCommand;
+import com.google.gwt.dom.client.Style.Unit;
+import com.google.gwt.event.dom.client.ScrollEvent;
+import com.google.gwt.event.dom.client.ScrollHandler;
+import com.google.gwt.i18n.client.DateTimeFormat;
+import com.google.gwt.i18n.client.DateTimeFormat.PredefinedFormat;
+import com.google.gwt.user.client.DOM;
+import com.google.gwt.user.client.Element;
+import com.google.gwt.user.client.Event;
+import com.google.gwt.user.client.ui.AbsolutePanel;
+import com.google.gwt.user.client.ui.FlowPanel;
+import com.google.gwt.user.client.ui.InlineLabel;
+import com.google.gwt.user.client.ui.ScrollPanel;
+
+
+/********************************************************************
+ * An agenda view that only creates widgets for the rows in the visible part of
+ * the agenda. Other than the gwt-cal agenda view which creates table rows for
+ * all appointments of all displayed days this view only builds a lightweight
+ * list of row descriptions on layout. All rows have the same height so that
+ * the rows in the viewport can be calculated from the scroll position. Only
+ * these rows and a small overscan above and below are rendered with widgets
+ * that are recycled when the user scrolls. If the user scrolls near the end of
+ * the agenda further days will be appended and a handler will be notified so
+ * that the events for the new days can be loaded. The same happens if the
+ * rows don't fill the viewport, up to a maximum number of days.
+ *
+ * @author eso
+ */
+class TimetableAgendaView extends CalendarView
+{
+	//~ Static fields/initializers ---------------------------------------------
+
+	/** The default height of the agenda rows in pixels. */
+	public static final int DEFAULT_ROW_HEIGHT = 24;
+
+	private static final int OVERSCAN_ROWS	   = 10;
+	private static final int MIN_EXTENSION_DAYS = 7;
+	private static final int MAX_FILL_DAYS	   = 8 * MIN_EXTENSION_DAYS;
+
+	private static final String AGENDA_VIEW_STYLE = "gwt-cal-ListView";
+	private static final String ROW_STYLE		  = "row";
+	private static final String ALT_ROW_STYLE	  = "row-alt";
+	private static final String DATE_CELL_STYLE   = "dateCell";
+	private static final String TIME_CELL_STYLE   = "timeCell";
+	private static final String TITLE_CELL_STYLE  = "titleCell";
+	private static final String SELECTED_STYLE    = "selected";
+
+	private static final DateTimeFormat DATE_FORMAT =
+		DateTimeFormat.getFormat("EEE MMM d");
+	private static final DateTimeFormat TIME_FORMAT =
+		DateTimeFormat.getFormat(PredefinedFormat.TIME_SHORT);
+
+	//~ Instance fields --------------------------------------------------------
+
+	private final ScheduledCommand rRangeExtensionHandler;
+
+	private final ScrollPanel   aScrollPanel = new ScrollPanel();
+	private final AbsolutePanel aContent     = new AbsolutePanel();
+
+	private final List<RowData>		   aRows	   = new ArrayList<>();
+	private final Map<Integer, AgendaRow> aActiveRows = new HashMap<>();
+	private final List<AgendaRow>		   aRowPool    = new ArrayList<>();
+
+	private int  nRowHeight    = DEFAULT_ROW_HEIGHT;
+	private int  nDayCount     = 0;
+	private long nAgendaStart  = 0;
+	private int  nRenderedFrom = 0;
+	private int  nRenderedTo   = 0;
+	private int  nCreatedRows  = 0;
+
+	//~ Constructors -----------------------------------------------------------
+
+	/***************************************
+	 * Creates a new instance.
+	 *
+	 * @param rRangeExtensionHandler A command to be executed after the agenda
+	 *                               has been extended by further days or NULL
+	 *                               for none
+	 */
+	public TimetableAgendaView(ScheduledCommand rRangeExtensionHandler)
+	{
+		this.rRangeExtensionHandler = rRangeExtensionHandler;
+	}
+
+	//~ Methods ----------------------------------------------------------------
+
+	/***************************************
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void attach(CalendarWidget rWidget)
+	{
+		super.attach(rWidget);
+
+		aScrollPanel.setWidth("100%");
+		aScrollPanel.setHeight("100%");
+		aContent.setWidth("100%");
+		aScrollPanel.setWidget(aContent);
+		aScrollPanel.addScrollHandler(new ScrollHandler()
+			{
+				@Override
+				public void onScroll(ScrollEvent rEvent)
+				{
+					handleScroll();
+				}
+			});
+
+		calendarWidget.getRootPanel().add(aScrollPanel);
+	}
+
+	/***************************************
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void doLayout()
+	{
+		Date aStart = DateUtils.newDate(calendarWidget.getDate());
+
+		DateUtils.resetTime(aStart);
+
+		if (aStart.getTime() != nAgendaStart || nDayCount == 0)
+		{
+			nAgendaStart = aStart.getTime();
+			nDayCount    = Math.max(calendarWidget.getDays(), 1);
+			aScrollPanel.setVerticalScrollPosition(0);
+		}
+
+		buildRows(aStart);
+		releaseRows(0, 0);
+		renderRows();
+
+		if (isViewportUnfilled())
+		{
+			extendRange();
+		}
+	}
+
+	/***************************************
+	 * Returns the number of days that are currently displayed by this agenda.
+	 * This includes the days that have been appended by scrolling.
+	 *
+	 * @return The agenda day count
+	 */
+	public int getDayCount()
+	{
+		return Math.max(nDayCount, calendarWidget.getDays());
+	}
+
+	/***************************************
+	 * Returns the height of the agenda rows.
+	 *
+	 * @return The row height in pixels
+	 */
+	public final int getRowHeight()
+	{
+		return nRowHeight;
+	}
+
+	/***************************************
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String getStyleName()
+	{
+		return AGENDA_VIEW_STYLE;
+	}
+
+	/***************************************
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void onAppointmentSelected(Appointment rAppointment)
+	{
+		for (AgendaRow rRow : aActiveRows.values())
+		{
+			rRow.setStyleName(SELECTED_STYLE, isSelected(rRow.rAppointment));
+		}
+	}
+
+	/***************************************
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void onDoubleClick(Element rElement, Event rEvent)
+	{
+		AgendaRow rRow = findRow(rElement);
+
+		if (rRow != null && rRow.rAppointment != null)
+		{
+			openAppointment(rRow.rAppointment);
+		}
+	}
+
+	/***************************************
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void onMouseOver(Element rElement, Event rEvent)
+	{
+		AgendaRow rRow = findRow(rElement);
+
+		calendarWidget.fireMouseOverEvent(rRow != null ? rRow.rAppointment
+													   : null,
+										  rElement);
+	}
+
+	/***************************************
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void onSingleClick(Element rElement, Event rEvent)
+	{
+		AgendaRow rRow = findRow(rElement);
+
+		if (rRow != null)
+		{
+			if (rRow.rAppointment != null)
+			{
+				selectAppointment(rRow.rAppointment);
+			}
+			else
+			{
+				calendarWidget.fireDateRequestEvent(new Date(rRow.nDate),
+													rElement);
+			}
+		}
+	}
+
+	/***************************************
+	 * Returns the number of row widgets that have been created since the
+	 * last invocation of this method and resets the count. Because rows are
+	 * reused while scrolling this only counts the rows that have been added
+	 * to the row pool.
+	 *
+	 * @return The number of created rows
+	 */
+	public int resetCreatedRowCount()
+	{
+		int nCount = nCreatedRows;
+
+		nCreatedRows = 0;
+
+		return nCount;
+	}
+
+	/***************************************
+	 * Sets the height of the agenda rows. All rows must have the same height
+	 * to allow the calculation of the visible rows from the scroll position.
+	 *
+	 * @param nHeight The row height in pixels
+	 */
+	public final void setRowHeight(int nHeight)
+	{
+		nRowHeight = nHeight;
+	}
+
+	/***************************************
+	 * Builds the row descriptions for the displayed days. This only creates
+	 * small data objects, the widgets are only created for the rows that are
+	 * rendered.
+	 *
+	 * @param rStart The first day of the agenda
+	 */
+	private void buildRows(Date rStart)
+	{
+		long[] aDayStarts =
+			TimetableLayoutCalculator.getDayStarts(rStart, nDayCount, 0);
+
+		List<List<Appointment>> aDayAppointments =
+			new ArrayList<>(nDayCount);
+
+		for (int i = 0; i < nDayCount; i++)
+		{
+			aDayAppointments.add(new ArrayList<Appointment>());
+		}
+
+		for (Appointment rAppointment : calendarWidget.getAppointments())
+		{
+			long nStart = TimetableEventIndex.getStartTime(rAppointment);
+			long nEnd   = TimetableEventIndex.getEndTime(rAppointment);
+
+			// an appointment that ends at midnight doesn't occupy the next
+			// day but the end of an all-day appointment is its last day
+			if (!rAppointment.isAllDay() && nEnd > nStart)
+			{
+				nEnd--;
+			}
+
+			int nFirst =
+				TimetableLayoutCalculator.getDayIndex(aDayStarts, nStart);
+			int nLast  =
+				TimetableLayoutCalculator.getDayIndex(aDayStarts, nEnd);
+
+			nFirst = Math.max(nFirst, 0);
+			nLast  = Math.min(nLast, nDayCount - 1);
+
+			for (int nDay = nFirst; nDay <= nLast; nDay++)
+			{
+				aDayAppointments.get(nDay).add(rAppointment);
+			}
+		}
+
+		aRows.clear();
+
+		for (int nDay = 0; nDay < nDayCount; nDay++)
+		{
+			List<Appointment> rAppointments = aDayAppointments.get(nDay);
+
+			if (!rAppointments.isEmpty())
+			{
+				aRows.add(new RowData(aDayStarts[nDay], null, nDay));
+
+				for (Appointment rAppointment : rAppointments)
+				{
+					aRows.add(new RowData(aDayStarts[nDay],
+										  rAppointment,
+										  nDay));
+				}
+			}
+		}
+
+		aContent.setHeight((aRows.size() * nRowHeight) + "px");
+	}
+
+	/***************************************
+	 * Appends further days to the agenda and notifies the range extension
+	 * handler. If the rows of the already available appointments don't fill
+	 * the viewport more days will be appended up to {@link #MAX_FILL_DAYS}.
+	 */
+	private void extendRange()
+	{
+		do
+		{
+			nDayCount += Math.max(calendarWidget.getDays(), MIN_EXTENSION_DAYS);
+			buildRows(new Date(nAgendaStart));
+		}
+		while (isViewportUnfilled());
+
+		releaseRows(0, 0);
+		renderRows();
+
+		if (rRangeExtensionHandler != null)
+		{
+			rRangeExtensionHandler.execute();
+		}
+	}
+
+	/***************************************
+	 * Returns the rendered row that contains a certain element.
+	 *
+	 * @param  rElement The element
+	 *
+	 * @return The row or NULL for none
+	 */
+	private AgendaRow findRow(Element rElement)
+	{
+		for (AgendaRow rRow : aActiveRows.values())
+		{
+			if (DOM.isOrHasChild(rRow.getElement(), rElement))
+			{
+				return rRow;
+			}
+		}
+
+		return null;
+	}
+
+	/***************************************
+	 * Handles scroll events by rendering the rows in the new viewport and
+	 * extending the agenda if the end has been reached.
+	 */
+	private void handleScroll()
+	{
+		int nScrollEnd =
+			aScrollPanel.getVerticalScrollPosition() +
+			aScrollPanel.getOffsetHeight();
+
+		if (nScrollEnd >= (aRows.size() - OVERSCAN_ROWS) * nRowHeight)
+		{
+			extendRange();
+		}
+		else
+		{
+			renderRows();
+		}
+	}
+
+	/***************************************
+	 * Checks whether the appointment of a row is selected.
+	 *
+	 * @param  rAppointment The row appointment or NULL for a header row
+	 *
+	 * @return TRUE if the appointment is selected
+	 */
+	private boolean isSelected(Appointment rAppointment)
+	{
+		return rAppointment != null &&
+			   calendarWidget.isTheSelectedAppointment(rAppointment);
+	}
+
+	/***************************************
+	 * Checks whether the agenda rows are not high enough to fill the viewport
+	 * and the overscan below it. This only returns TRUE as long as the agenda
+	 * contains less than {@link #MAX_FILL_DAYS} so that an empty period will
+	 * not be extended indefinitely.
+	 *
+	 * @return TRUE if the agenda should be extended to fill the viewport
+	 */
+	private boolean isViewportUnfilled()
+	{
+		int nViewHeight = aScrollPanel.getOffsetHeight();
+
+		return nViewHeight > 0 && nDayCount < MAX_FILL_DAYS &&
+			   aRows.size() * nRowHeight <
+			   nViewHeight + OVERSCAN_ROWS * nRowHeight;
+	}
+
+	/***************************************
+	 * Moves the rendered rows outside of a certain row range into the pool of
+	 * reusable rows.
+	 *
+	 * @param nFrom The first row to keep (inclusive)
+	 * @param nTo   The last row to keep (exclusive)
+	 */
+	private void releaseRows(int nFrom, int nTo)
+	{
+		Iterator<Entry<Integer, AgendaRow>> rIterator =
+			aActiveRows.entrySet().iterator();
+
+		while (rIterator.hasNext())
+		{
+			Entry<Integer, AgendaRow> rEntry = rIterator.next();
+			int						  nRow   = rEntry.getKey().intValue();
+
+			if (nRow < nFrom || nRow >= nTo)
+			{
+				AgendaRow rRow = rEntry.getValue();
+
+				rRow.setVisible(false);
+				rRow.rAppointment = null;
+				aRowPool.add(rRow);
+				rIterator.remove();
+			}
+		}
+	}
+
+	/***************************************
+	 * Renders the rows in the viewport and the overscan around it. Rows that
+	 * are already rendered will be kept, rows that have left the rendered
+	 * range will be reused for the new rows.
+	 */
+	private void renderRows()
+	{
+		int nViewHeight = aScrollPanel.getOffsetHeight();
+		int nFirstRow   =
+			aScrollPanel.getVerticalScrollPosition() / nRowHeight;
+
+		if (nViewHeight <= 0)
+		{
+			// not attached yet, render at least a reasonable first page
+			nViewHeight = OVERSCAN_ROWS * 2 * nRowHeight;
+		}
+
+		int nFrom = Math.max(nFirstRow - OVERSCAN_ROWS, 0);
+		int nTo   =
+			Math.min(nFirstRow + nViewHeight / nRowHeight + 1 + OVERSCAN_ROWS,
+					 aRows.size());
+
+		if (nFrom == nRenderedFrom && nTo == nRenderedTo &&
+			aActiveRows.size() == nTo - nFrom)
+		{
+			return;
+		}
+
+		releaseRows(nFrom, nTo);
+
+		for (int nRow = nFrom; nRow < nTo; nRow++)
+		{
+			if (!aActiveRows.containsKey(nRow))
+			{
+				AgendaRow aRow = aRowPool.isEmpty()
+								 ? new AgendaRow()
+								 : aRowPool.remove(aRowPool.size() - 1);
+
+				if (aRow.getParent() == null)
+				{
+					nCreatedRows++;
+					aContent.add(aRow, 0, nRow * nRowHeight);
+				}
+				else
+				{
+					aContent.setWidgetPosition(aRow, 0, nRow * nRowHeight);
+				}
+
+				RowData rData = aRows.get(nRow);
+
+				aRow.bind(rData, isSelected(rData.rAppointment), nRowHeight);
+				aActiveRows.put(nRow, aRow);
+			}
+		}
+
+		nRenderedFrom = nFrom;
+		nRenderedTo   = nTo;
+	}
+
+	//~ Inner Classes ----------------------------------------------------------
+
+	/********************************************************************
+	 * The description of a single agenda row which is either a day header or
+	 * an appointment.
+	 *
+	 * @author eso
+	 */
+	static class RowData
+	{
+		//~ Instance fields ----------------------------------------------------
+
+		final long		  nDate;
+		final Appointment rAppointment;
+		final int		  nDay;
+
+		//~ Constructors -------------------------------------------------------
+
+		/***************************************
+		 * Creates a new instance.
+		 *
+		 * @param nDate        The start time of the row day
+		 * @param rAppointment The appointment or NULL for a day header
+		 * @param nDay         The index of the row day in the agenda
+		 */
+		RowData(long nDate, Appointment rAppointment, int nDay)
+		{
+			this.nDate		  = nDate;
+			this.rAppointment = rAppointment;
+			this.nDay		  = nDay;
+		}
+	}
+
+	/********************************************************************
+	 * A recyclable widget that renders an agenda row.
+	 *
+	 * @author eso
+	 */
+	static class AgendaRow extends FlowPanel
+	{
+		//~ Instance fields ----------------------------------------------------
+
+		private final InlineLabel aDateLabel  = new InlineLabel();
+		private final InlineLabel aTimeLabel  = new InlineLabel();
+		private final InlineLabel aTitleLabel = new InlineLabel();
+
+		private Appointment rAppointment = null;
+		private long	    nDate		 = 0;
+
+		//~ Constructors -------------------------------------------------------
+
+		/***************************************
+		 * Creates a new instance.
+		 */
+		AgendaRow()
+		{
+			setWidth("100%");
+			aDateLabel.setStyleName(DATE_CELL_STYLE);
+			aTimeLabel.setStyleName(TIME_CELL_STYLE);
+			aTitleLabel.setStyleName(TITLE_CELL_STYLE);
+			add(aDateLabel);
+			add(aTimeLabel);
+			add(aTitleLabel);
+		}
+
+		//~ Methods ------------------------------------------------------------
+
+		/***************************************
+		 * Binds this row widget to the data of an agenda row.
+		 *
+		 * @param rData      The row data
+		 * @param bSelected  TRUE if the row appointment is selected
+		 * @param nRowHeight The row height in pixels
+		 */
+		void bind(RowData rData, boolean bSelected, int nRowHeight)
+		{
+			Appointment rRowAppointment = rData.rAppointment;
+			boolean     bHeader		    = rRowAppointment == null;
+
+			rAppointment = rRowAppointment;
+			nDate		 = rData.nDate;
+
+			setStyleName(rData.nDay % 2 == 0 ? ROW_STYLE : ALT_ROW_STYLE);
+			setStyleName(SELECTED_STYLE, bSelected);
+			getElement().getStyle().setHeight(nRowHeight, Unit.PX);
+
+			aDateLabel.setVisible(bHeader);
+			aTimeLabel.setVisible(!bHeader);
+			aTitleLabel.setVisible(!bHeader);
+
+			if (bHeader)
+			{
+				aDateLabel.setText(DATE_FORMAT.format(new Date(nDate)));
+			}
+			else
+			{
+				aTimeLabel.setText(TIME_FORMAT.format(rRowAppointment
+													  .getStart()) + " - " +
+								   TIME_FORMAT.format(rRowAppointment
+													  .getEnd()));
+				aTitleLabel.setText(rRowAppointment.getTitle());
+			}
+
+			setVisible(true);
+		}
+	}
+}
@@ -0,0 +1,198 @@
+//++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+// gewt-timetable source file
+// Copyright (c) 2017 Elmar Sonnenschein / esoco GmbH
+// Last Change: 08.05.2017 by eso
+//
+// gewt-timetable is free software; you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published
+// by the Free Software Foundation; either version 3 of the License,
+// or (at your option) any later version.
+//
+// gewt-timetable is distributed in the hope that it will be useful, but
+// WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License along
+// with gewt-timetable; if not, write to the Free Software Foundation, Inc.,
+// 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA or use the
+// contact information on the FSF website http://www.fsf.org
+//++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+package de.esoco.ewt.component;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+
+/********************************************************************
+ * Contains aggregated values of the events on each day, currently the number
+ * of events and the booked minutes. The aggregates are updated incrementally
+ * when events are added or removed so that overviews of long periods can be
+ * rendered without querying or displaying the individual events. An event is
+ * counted on each day it overlaps while the booked minutes of a day only
+ * contain the part of the event on that day. All-day events are counted up
+ * to and including the day of their end date (which is the midnight of the
+ * last day) but don't add booked minutes. The values of an instance can also
+ * be negative so that it can be used to record adjustments of other
+ * aggregates.
+ *
+ * @author eso
+ */
+class TimetableDayAggregates
+{
+	//~ Static fields/initializers ---------------------------------------------
+
+	private static final int MILLIS_PER_MINUTE = 60 * 1000;
+
+	//~ Instance fields --------------------------------------------------------
+
+	private final Map<Long, int[]> aDays = new HashMap<>();
+
+	//~ Static methods ---------------------------------------------------------
+
+	/***************************************
+	 * Returns the start of the day (at midnight) that contains a certain
+	 * time.
+	 *
+	 * @param  nTime The time in milliseconds
+	 *
+	 * @return The start time of the day in milliseconds
+	 */
+	@SuppressWarnings("deprecation")
+	static long getDayStart(long nTime)
+	{
+		Date aDate = new Date(nTime);
+
+		return new Date(aDate.getYear(), aDate.getMonth(), aDate.getDate())
+			   .getTime();
+	}
+
+	/***************************************
+	 * Returns the start of the day that follows a certain day.
+	 *
+	 * @param  nDayStart The start time of the day
+	 *
+	 * @return The start time of the next day in milliseconds
+	 */
+	@SuppressWarnings("deprecation")
+	static long getNextDayStart(long nDayStart)
+	{
+		Date aDate = new Date(nDayStart);
+
+		return new Date(aDate.getYear(), aDate.getMonth(), aDate.getDate() + 1)
+			   .getTime();
+	}
+
+	//~ Methods ----------------------------------------------------------------
+
+	/***************************************
+	 * Adds an event to the aggregates of the days it overlaps.
+	 *
+	 * @param nStart  The start time of the event
+	 * @param nEnd    The end time of the event
+	 * @param bAllDay TRUE for an all-day event
+	 */
+	public void add(long nStart, long nEnd, boolean bAllDay)
+	{
+		update(nStart, nEnd, bAllDay, 1);
+	}
+
+	/***************************************
+	 * Removes all aggregated values.
+	 */
+	public void clear()
+	{
+		aDays.clear();
+	}
+
+	/***************************************
+	 * Returns the number of events on a certain day.
+	 *
+	 * @param  nDayStart The start time of the day (at midnight)
+	 *
+	 * @return The event count
+	 */
+	public int getCount(long nDayStart)
+	{
+		int[] rValues = aDays.get(nDayStart);
+
+		return rValues != null ? rValues[0] : 0;
+	}
+
+	/***************************************
+	 * Returns the number of minutes that are booked by events on a certain
+	 * day.
+	 *
+	 * @param  nDayStart The start time of the day (at midnight)
+	 *
+	 * @return The booked minutes
+	 */
+	public int getMinutes(long nDayStart)
+	{
+		int[] rValues = aDays.get(nDayStart);
+
+		return rValues != null ? rValues[1] : 0;
+	}
+
+	/***************************************
+	 * Removes an event from the aggregates of the days it overlaps. The
+	 * arguments must be the same as those that the event has been added
+	 * with.
+	 *
+	 * @param nStart  The start time of the event
+	 * @param nEnd    The end time of the event
+	 * @param bAllDay TRUE for an all-day event
+	 */
+	public void remove(long nStart, long nEnd, boolean bAllDay)
+	{
+		update(nStart, nEnd, bAllDay, -1);
+	}
+
+	/***************************************
+	 * Updates the aggregates of the days that an event overlaps. An event
+	 * without duration is counted on the day of its start. The end of an
+	 * all-day event is the start of its last day which is therefore included.
+	 *
+	 * @param nStart  The start time of the event
+	 * @param nEnd    The end time of the event
+	 * @param bAllDay TRUE for an all-day event
+	 * @param nSign   1 to add the event, -1 to remove it
+	 */
+	private void update(long nStart, long nEnd, boolean bAllDay, int nSign)
+	{
+		long nDay   = getDayStart(nStart);
+		long nLimit = bAllDay ? getNextDayStart(getDayStart(nEnd)) : nEnd;
+
+		do
+		{
+			long  nNextDay = getNextDayStart(nDay);
+			int[] rValues  = aDays.get(nDay);
+
+			if (rValues == null)
+			{
+				rValues = new int[2];
+				aDays.put(nDay, rValues);
+			}
+
+			rValues[0] += nSign;
+
+			if (!bAllDay)
+			{
+				long nBooked =
+					Math.max(Math.min(nEnd, nNextDay) - Math.max(nStart, nDay),
+							 0);
+
+				rValues[1] += nSign * (int) (nBooked / MILLIS_PER_MINUTE);
+			}
+
+			if (rValues[0] == 0 && rValues[1] == 0)
+			{
+				aDays.remove(nDay);
+			}
+
+			nDay = nNextDay;
+		}
+		while (nDay < nLimit);
+	}
+}
@@ -0,0 +1,707 @@
+//++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+// gewt-timetable source file
+// Copyright (c) 2017 Elmar Sonnenschein / esoco GmbH
+// Last Change: 08.05.2017 by eso
+//
+// gewt-timetable is free software; you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published
+// by the Free Software Foundation; either version 3 of the License,
+// or (at your option) any later version.
+//
+// gewt-timetable is distributed in the hope that it will be useful, but
+// WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License along
+// with gewt-timetable; if not, write to the Free Software Foundation, Inc.,
+// 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA or use the
+// contact information on the FSF website http://www.fsf.org
+//++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+package de.esoco.ewt.component;
+
+import de.esoco.ewt.timetable.TimetableLayout;
+import de.esoco.ewt.timetable.TimetableLayoutCalculator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.bradrydzewski.gwt.calendar.client.Appointment;
+import com.bradrydzewski.gwt.calendar.client.CalendarSettings;
+import com.bradrydzewski.gwt.calendar.client.DateUtils;
+import com.bradrydzewski.gwt.calendar.client.HasSettings;
+import com.bradrydzewski.gwt.calendar.client.dayview.AppointmentAdapter;
+import com.bradrydzewski.gwt.calendar.client.dayview.DayViewLayoutStrategy;
+import com.bradrydzewski.gwt.calendar.client.util.AppointmentUtil;
+
+
+/********************************************************************
+ * A replacement for the layout strategy of the gwt-cal day view. The original
+ * implementation tests each appointment against every time block of a day.
+ * This implementation assigns the overlap columns with a sweep over the
+ * appointments that are ordered by their start block which only needs to
+ * track the currently active appointments and the free columns. The result
+ * is the same as that of the original strategy.
+ *
+ * <p>Furthermore the layout of each displayed day is cached together with
+ * the appointments it has been calculated for. If a layout is requested for
+ * the same appointments with unchanged times and settings the cached layout
+ * will be returned. Therefore after a modification only the days with changed
+ * appointments need to be calculated again. The cache is keyed by the first
+ * day of the displayed period so that it also contains the layouts of
+ * recently displayed periods and of periods that have been prerendered with
+ * {@link #prerender(Date, int, List)}. The least recently used day layouts
+ * will be removed if the cache limit is exceeded.</p>
+ *
+ * <p>If a precomputed {@link TimetableLayout} has been set it will be used
+ * instead of calculating the layout as long as it matches the current
+ * appointments and settings. The layout algorithms are shared with the
+ * server-side {@link TimetableLayoutCalculator}. That also includes the
+ * stacking of multi-day appointments which replaces the original
+ * implementation that compares each appointment with all others.</p>
+ *
+ * @author eso
+ */
+class TimetableDayLayout extends DayViewLayoutStrategy
+{
+	//~ Static fields/initializers ---------------------------------------------
+
+	private static final int MINUTES_PER_HOUR = 60;
+
+	private static final int MAX_CACHED_DAYS = 6 * DateUtils.DAYS_IN_A_WEEK;
+
+	private static final float PADDING_LEFT   = .5f;
+	private static final float PADDING_RIGHT  = .5f;
+	private static final float PADDING_BOTTOM = 2;
+
+	private static final int MULTI_DAY_LANE_HEIGHT  = 25;
+	private static final int MULTI_DAY_EVENT_HEIGHT = 20;
+	private static final int MULTI_DAY_PADDING	    = 5;
+	private static final int MULTI_DAY_MIN_HEIGHT   = 30;
+
+	private static final Comparator<AppointmentAdapter> CELL_START_ORDER =
+		new Comparator<AppointmentAdapter>()
+		{
+			@Override
+			public int compare(
+				AppointmentAdapter rFirst,
+				AppointmentAdapter rSecond)
+			{
+				return rFirst.getCellStart() - rSecond.getCellStart();
+			}
+		};
+
+	//~ Instance fields --------------------------------------------------------
+
+	private final HasSettings rSettings;
+
+	@SuppressWarnings("serial")
+	private final Map<String, DayLayout> aDayLayouts =
+		new LinkedHashMap<String, DayLayout>(16, 0.75f, true)
+		{
+			@Override
+			protected boolean removeEldestEntry(
+				Map.Entry<String, DayLayout> rEldest)
+			{
+				return size() > MAX_CACHED_DAYS;
+			}
+		};
+
+	private TimetableLayout rPrecomputedLayout = null;
+	private long			nPeriodStart	   = 0;
+
+	//~ Constructors -----------------------------------------------------------
+
+	/***************************************
+	 * Creates a new instance.
+	 *
+	 * @param rSettings The source of the calendar settings
+	 */
+	public TimetableDayLayout(HasSettings rSettings)
+	{
+		super(rSettings);
+
+		this.rSettings = rSettings;
+	}
+
+	//~ Methods ----------------------------------------------------------------
+
+	/***************************************
+	 * Removes all cached day layouts.
+	 */
+	public void clearCache()
+	{
+		aDayLayouts.clear();
+	}
+
+	/***************************************
+	 * Overridden to perform a sweep-line layout and to cache the result.
+	 *
+	 * @see DayViewLayoutStrategy#doLayout(List, int, int)
+	 */
+	@Override
+	public List<AppointmentAdapter> doLayout(List<Appointment> rAppointments,
+											 int			   nDayIndex,
+											 int			   nDayCount)
+	{
+		CalendarSettings rCalendarSettings = rSettings.getSettings();
+
+		String    sKey    = nPeriodStart + ":" + nDayCount + ":" + nDayIndex;
+		DayLayout rLayout = aDayLayouts.get(sKey);
+
+		if (rLayout == null ||
+			!rLayout.isValid(rAppointments, nDayCount, rCalendarSettings))
+		{
+			rLayout =
+				new DayLayout(rAppointments, nDayCount, rCalendarSettings);
+
+			rLayout.aAdapters =
+				applyPrecomputedLayout(rAppointments,
+									   nDayIndex,
+									   nDayCount,
+									   rCalendarSettings);
+
+			if (rLayout.aAdapters == null)
+			{
+				rLayout.aAdapters =
+					layoutDay(rAppointments,
+							  nDayIndex,
+							  nDayCount,
+							  rCalendarSettings);
+			}
+
+			aDayLayouts.put(sKey, rLayout);
+		}
+
+		return rLayout.aAdapters;
+	}
+
+	/***************************************
+	 * Overridden to stack the multi-day appointments with the lane algorithm
+	 * of {@link TimetableLayoutCalculator} or to use the lanes of a matching
+	 * precomputed layout. The resulting positions are the same as those of
+	 * the original implementation.
+	 *
+	 * @see DayViewLayoutStrategy#doMultiDayLayout(List, List, Date, int)
+	 */
+	@Override
+	public int doMultiDayLayout(List<Appointment>		 rAppointments,
+								List<AppointmentAdapter> rAdapters,
+								Date					 rStart,
+								int						 nDays)
+	{
+		long[] aDayStarts =
+			TimetableLayoutCalculator.getDayStarts(rStart,
+												   nDays,
+												   DateUtils.getDayStartsAt());
+
+		List<Appointment> aDisplayed = new ArrayList<>(rAppointments.size());
+		int[]			  aFirstDays = new int[rAppointments.size()];
+		int[]			  aLastDays  = new int[rAppointments.size()];
+
+		for (Appointment rAppointment : rAppointments)
+		{
+			long nStart    = TimetableEventIndex.getStartTime(rAppointment);
+			long nEnd	   = TimetableEventIndex.getEndTime(rAppointment);
+			int  nFirstDay =
+				TimetableLayoutCalculator.getFirstDay(aDayStarts, nStart, nEnd);
+
+			// the original implementation fails on appointments that are not
+			// displayed on any day, e.g. if the view date has a time
+			if (nFirstDay >= 0)
+			{
+				int nIndex = aDisplayed.size();
+
+				aFirstDays[nIndex] = nFirstDay;
+				aLastDays[nIndex]  =
+					TimetableLayoutCalculator.getLastDay(aDayStarts,
+														 nFirstDay,
+														 nEnd);
+				aDisplayed.add(rAppointment);
+			}
+		}
+
+		int nCount = aDisplayed.size();
+
+		aFirstDays = Arrays.copyOf(aFirstDays, nCount);
+		aLastDays  = Arrays.copyOf(aLastDays, nCount);
+
+		int[] aLanes = new int[nCount];
+		int   nLanes =
+			getPrecomputedLanes(aDisplayed,
+								nDays,
+								aFirstDays,
+								aLastDays,
+								aLanes);
+
+		if (nLanes < 0)
+		{
+			nLanes =
+				TimetableLayoutCalculator.assignLanes(aFirstDays,
+													  aLastDays,
+													  aLanes);
+		}
+
+		for (int i = 0; i < nCount; i++)
+		{
+			AppointmentAdapter aAdapter =
+				new AppointmentAdapter(aDisplayed.get(i));
+
+			int nSpan = aLastDays[i] - aFirstDays[i];
+
+			aAdapter.setColumnStart(aFirstDays[i]);
+			aAdapter.setColumnSpan(nSpan);
+			aAdapter.setCellStart(aLanes[i]);
+			aAdapter.setTop(aLanes[i] * MULTI_DAY_LANE_HEIGHT +
+							MULTI_DAY_PADDING);
+			aAdapter.setLeft(aFirstDays[i] * 100f / nDays + PADDING_LEFT);
+			aAdapter.setWidth((nSpan + 1f) * 100f / nDays - 1f);
+			aAdapter.setHeight(MULTI_DAY_EVENT_HEIGHT);
+			rAdapters.add(aAdapter);
+		}
+
+		return Math.max(nLanes * MULTI_DAY_LANE_HEIGHT + MULTI_DAY_PADDING,
+						MULTI_DAY_MIN_HEIGHT);
+	}
+
+	/***************************************
+	 * Calculates the layout of the appointments of a single column that
+	 * occupies the full width. Other than {@link #doLayout(List, int, int)}
+	 * the result is not cached because this is intended for views that cache
+	 * the layouts of their columns themselves.
+	 *
+	 * @param  rAppointments The appointments of the column
+	 *
+	 * @return The appointment adapters containing the layout
+	 */
+	public List<AppointmentAdapter> layoutColumn(
+		List<Appointment> rAppointments)
+	{
+		return layoutDay(rAppointments, 0, 1, rSettings.getSettings());
+	}
+
+	/***************************************
+	 * Calculates the layouts of the days of a period that is not displayed
+	 * yet and stores them in the cache. If the period is displayed later the
+	 * layouts will be reused as long as the appointments have not changed.
+	 *
+	 * @param rFirstDay     The first day of the period
+	 * @param nDays         The number of days in the period
+	 * @param rAppointments The appointments of the period
+	 */
+	public void prerender(Date				rFirstDay,
+						  int				nDays,
+						  List<Appointment> rAppointments)
+	{
+		long   nCurrentPeriod = nPeriodStart;
+		long[] aDayStarts     =
+			TimetableLayoutCalculator.getDayStarts(rFirstDay,
+												   nDays,
+												   DateUtils.getDayStartsAt());
+
+		nPeriodStart = aDayStarts[0];
+
+		for (int nDay = 0; nDay < nDays; nDay++)
+		{
+			Date aDayStart = new Date(aDayStarts[nDay]);
+			Date aDayEnd   = new Date(aDayStarts[nDay + 1]);
+
+			doLayout(AppointmentUtil.filterListByDate(rAppointments,
+													  aDayStart,
+													  aDayEnd),
+					 nDay,
+					 nDays);
+		}
+
+		nPeriodStart = nCurrentPeriod;
+	}
+
+	/***************************************
+	 * Sets the first day of the period that is displayed by the next
+	 * layout. The cached day layouts are associated with this period.
+	 *
+	 * @param rFirstDay The first displayed day
+	 */
+	public void setPeriod(Date rFirstDay)
+	{
+		long[] aDayStarts =
+			TimetableLayoutCalculator.getDayStarts(rFirstDay,
+												   0,
+												   DateUtils.getDayStartsAt());
+
+		nPeriodStart = aDayStarts[0];
+	}
+
+	/***************************************
+	 * Sets a precomputed layout that will be used for the days and
+	 * multi-day appointments it matches. This also clears the cached day
+	 * layouts.
+	 *
+	 * @param rLayout The precomputed layout or NULL for none
+	 */
+	public void setPrecomputedLayout(TimetableLayout rLayout)
+	{
+		rPrecomputedLayout = rLayout;
+		clearCache();
+	}
+
+	/***************************************
+	 * Creates the appointment adapters of a day from the precomputed layout
+	 * if it matches the appointments of the day and the settings.
+	 *
+	 * @param  rAppointments The appointments of the day
+	 * @param  nDayIndex     The index of the day in the view
+	 * @param  nDayCount     The number of days in the view
+	 * @param  rSettings     The calendar settings
+	 *
+	 * @return The appointment adapters or NULL if the precomputed layout
+	 *         cannot be used
+	 */
+	private List<AppointmentAdapter> applyPrecomputedLayout(
+		List<Appointment> rAppointments,
+		int				  nDayIndex,
+		int				  nDayCount,
+		CalendarSettings  rSettings)
+	{
+		TimetableLayout rLayout = rPrecomputedLayout;
+		int				nCount  = rAppointments.size();
+
+		if (rLayout == null ||
+			!rLayout.matches(nDayCount,
+							 rSettings.getIntervalsPerHour(),
+							 DateUtils.getDayStartsAt()) ||
+			rLayout.getDayEventCount(nDayIndex) != nCount)
+		{
+			return null;
+		}
+
+		List<AppointmentAdapter> aAdapters     = new ArrayList<>(nCount);
+		int[]					 aTotalColumns = new int[nCount];
+
+		for (int i = 0; i < nCount; i++)
+		{
+			Appointment rAppointment = rAppointments.get(i);
+			int			nIndex		 =
+				getLayoutIndex(rLayout, rAppointment);
+
+			if (nIndex < 0 ||
+				rLayout.isMultiDay(nIndex) ||
+				rLayout.getFirstDay(nIndex) != nDayIndex)
+			{
+				return null;
+			}
+
+			AppointmentAdapter aAdapter = new AppointmentAdapter(rAppointment);
+
+			aAdapter.setCellStart(rLayout.getCellStart(nIndex));
+			aAdapter.setCellSpan(rLayout.getCellSpan(nIndex));
+			aAdapter.setColumnStart(rLayout.getColumn(nIndex));
+			aAdapter.setColumnSpan(1);
+			aTotalColumns[i] = rLayout.getColumnCount(nIndex);
+			aAdapters.add(aAdapter);
+		}
+
+		setPositions(aAdapters, aTotalColumns, nDayIndex, nDayCount, rSettings);
+
+		return aAdapters;
+	}
+
+	/***************************************
+	 * Returns the index of an appointment in a precomputed layout if the
+	 * layout has been calculated for the current times of the appointment.
+	 *
+	 * @param  rLayout      The precomputed layout
+	 * @param  rAppointment The appointment
+	 *
+	 * @return The layout index or -1 if the appointment is not contained in
+	 *         the layout or has been modified
+	 */
+	private int getLayoutIndex(
+		TimetableLayout rLayout,
+		Appointment		rAppointment)
+	{
+		int nIndex = rLayout.indexOf(rAppointment.getId());
+
+		if (nIndex >= 0 &&
+			(rLayout.getStartTime(nIndex) !=
+			 TimetableEventIndex.getStartTime(rAppointment) ||
+			 rLayout.getEndTime(nIndex) !=
+			 TimetableEventIndex.getEndTime(rAppointment)))
+		{
+			nIndex = -1;
+		}
+
+		return nIndex;
+	}
+
+	/***************************************
+	 * Copies the lanes of multi-day appointments from the precomputed layout
+	 * if it matches the appointments.
+	 *
+	 * @param  rAppointments The multi-day appointments
+	 * @param  nDays         The number of days in the view
+	 * @param  rFirstDays    The first days of the appointments
+	 * @param  rLastDays     The last days of the appointments
+	 * @param  rLanes        The array to copy the lanes into
+	 *
+	 * @return The number of lanes or -1 if the precomputed layout cannot be
+	 *         used
+	 */
+	private int getPrecomputedLanes(List<Appointment> rAppointments,
+									int				  nDays,
+									int[]			  rFirstDays,
+									int[]			  rLastDays,
+									int[]			  rLanes)
+	{
+		TimetableLayout rLayout = rPrecomputedLayout;
+		int				nCount  = rAppointments.size();
+
+		if (rLayout == null ||
+			rLayout.getDays() != nDays ||
+			rLayout.getDayStartsAt() != DateUtils.getDayStartsAt() ||
+			rLayout.getMultiDayEventCount() != nCount)
+		{
+			return -1;
+		}
+
+		for (int i = 0; i < nCount; i++)
+		{
+			int nIndex = getLayoutIndex(rLayout, rAppointments.get(i));
+
+			if (nIndex < 0 ||
+				!rLayout.isMultiDay(nIndex) ||
+				rLayout.getFirstDay(nIndex) != rFirstDays[i] ||
+				rLayout.getLastDay(nIndex) != rLastDays[i])
+			{
+				return -1;
+			}
+
+			rLanes[i] = rLayout.getLane(nIndex);
+		}
+
+		return rLayout.getLaneCount();
+	}
+
+	/***************************************
+	 * Performs the layout of the appointments of a single day.
+	 *
+	 * @param  rAppointments The appointments of the day
+	 * @param  nDayIndex     The index of the day in the view
+	 * @param  nDayCount     The number of days in the view
+	 * @param  rSettings     The calendar settings
+	 *
+	 * @return The appointment adapters containing the layout
+	 */
+	private List<AppointmentAdapter> layoutDay(List<Appointment> rAppointments,
+											   int				 nDayIndex,
+											   int				 nDayCount,
+											   CalendarSettings  rSettings)
+	{
+		int nIntervalsPerHour = rSettings.getIntervalsPerHour();
+		int nCount			  = rAppointments.size();
+
+		List<AppointmentAdapter> aAdapters = new ArrayList<>(nCount);
+
+		for (Appointment rAppointment : rAppointments)
+		{
+			AppointmentAdapter aAdapter =
+				new AppointmentAdapter(rAppointment);
+
+			int nCellStart =
+				TimetableLayoutCalculator.getStartCell(aAdapter
+													   .getAppointmentStart(),
+													   nIntervalsPerHour);
+			int nCellEnd   =
+				TimetableLayoutCalculator.getEndCell(nCellStart,
+													 aAdapter
+													 .getAppointmentEnd(),
+													 nIntervalsPerHour);
+
+			aAdapter.setCellStart(nCellStart);
+			aAdapter.setCellSpan(nCellEnd - nCellStart + 1);
+			aAdapters.add(aAdapter);
+		}
+
+		// stable sort that keeps the order of the original strategy for
+		// appointments starting in the same block
+		Collections.sort(aAdapters, CELL_START_ORDER);
+
+		int[] aCellStarts = new int[nCount];
+		int[] aCellEnds   = new int[nCount];
+		int[] aColumns    = new int[nCount];
+
+		for (int i = 0; i < nCount; i++)
+		{
+			AppointmentAdapter rAdapter = aAdapters.get(i);
+
+			aCellStarts[i] = rAdapter.getCellStart();
+			aCellEnds[i]   =
+				rAdapter.getCellStart() + rAdapter.getCellSpan() - 1;
+		}
+
+		int[] aTotalColumns =
+			TimetableLayoutCalculator.assignColumns(aCellStarts,
+													aCellEnds,
+													aColumns);
+
+		for (int i = 0; i < nCount; i++)
+		{
+			aAdapters.get(i).setColumnStart(aColumns[i]);
+			aAdapters.get(i).setColumnSpan(1);
+		}
+
+		setPositions(aAdapters, aTotalColumns, nDayIndex, nDayCount, rSettings);
+
+		return aAdapters;
+	}
+
+	/***************************************
+	 * Sets the display positions of the appointment adapters of a day from
+	 * their time cells and overlap columns.
+	 *
+	 * @param rAdapters     The appointment adapters
+	 * @param rTotalColumns The total column counts of the adapters
+	 * @param nDayIndex     The index of the day in the view
+	 * @param nDayCount     The number of days in the view
+	 * @param rSettings     The calendar settings
+	 */
+	private void setPositions(List<AppointmentAdapter> rAdapters,
+							  int[]					   rTotalColumns,
+							  int					   nDayIndex,
+							  int					   nDayCount,
+							  CalendarSettings		   rSettings)
+	{
+		int   nMinutesPerInterval =
+			MINUTES_PER_HOUR / rSettings.getIntervalsPerHour();
+		float fIntervalSize		  = rSettings.getPixelsPerInterval();
+		float fWidthFactor		  = 1f / nDayCount;
+
+		for (int i = 0; i < rTotalColumns.length; i++)
+		{
+			AppointmentAdapter rAdapter = rAdapters.get(i);
+
+			float fColumns	   = rTotalColumns[i];
+			float fColumnWidth = 1f / fColumns * 100;
+			float fLeft		   = rAdapter.getColumnStart() / fColumns * 100;
+			int   nCellSpan    = rAdapter.getCellSpan();
+			float fBlockStart  = rAdapter.getCellStart() * nMinutesPerInterval;
+			float fBlockLength = nCellSpan * nMinutesPerInterval;
+			float fStart	   = rAdapter.getAppointmentStart();
+			float fLength	   = rAdapter.getAppointmentEnd() - fStart;
+
+			rAdapter.setTop(rAdapter.getCellStart() * fIntervalSize);
+			rAdapter.setLeft(fWidthFactor * 100 * nDayIndex +
+							 fLeft * fWidthFactor + PADDING_LEFT);
+			rAdapter.setWidth(fColumnWidth * fWidthFactor - PADDING_LEFT -
+							  PADDING_RIGHT);
+			rAdapter.setHeight(nCellSpan * fIntervalSize - PADDING_BOTTOM);
+			rAdapter.setCellPercentFill(fLength / fBlockLength * 100f);
+			rAdapter.setCellPercentStart((fStart - fBlockStart) /
+										 fBlockLength * 100f);
+		}
+	}
+
+	//~ Inner Classes ----------------------------------------------------------
+
+	/********************************************************************
+	 * A cached day layout together with the data it has been calculated from.
+	 *
+	 * @author eso
+	 */
+	static class DayLayout
+	{
+		//~ Instance fields ----------------------------------------------------
+
+		private final Appointment[] aAppointments;
+		private final long[]	    aTimes;
+		private final int		    nDayCount;
+		private final int		    nIntervalsPerHour;
+		private final int		    nPixelsPerInterval;
+		private final int		    nDayStartsAt;
+
+		private List<AppointmentAdapter> aAdapters;
+
+		//~ Constructors -------------------------------------------------------
+
+		/***************************************
+		 * Creates a new instance.
+		 *
+		 * @param rAppointments The appointments of the day
+		 * @param nDayCount     The number of days in the view
+		 * @param rSettings     The calendar settings
+		 */
+		DayLayout(List<Appointment> rAppointments,
+				  int				nDayCount,
+				  CalendarSettings  rSettings)
+		{
+			int nCount = rAppointments.size();
+
+			this.aAppointments	    =
+				rAppointments.toArray(new Appointment[nCount]);
+			this.aTimes			    = new long[nCount * 2];
+			this.nDayCount		    = nDayCount;
+			this.nIntervalsPerHour  = rSettings.getIntervalsPerHour();
+			this.nPixelsPerInterval = rSettings.getPixelsPerInterval();
+			this.nDayStartsAt	    = DateUtils.getDayStartsAt();
+
+			for (int i = 0; i < nCount; i++)
+			{
+				aTimes[i * 2]     = TimetableEventIndex.getStartTime(
+					aAppointments[i]);
+				aTimes[i * 2 + 1] = TimetableEventIndex.getEndTime(
+					aAppointments[i]);
+			}
+		}
+
+		//~ Methods ------------------------------------------------------------
+
+		/***************************************
+		 * Checks whether this layout is valid for the given appointments and
+		 * settings. This is the case if the appointments are the same objects
+		 * in the same order with unchanged times and the settings are equal.
+		 *
+		 * @param  rAppointments The appointments of the day
+		 * @param  nDayCount     The number of days in the view
+		 * @param  rSettings     The calendar settings
+		 *
+		 * @return TRUE if this layout can be reused
+		 */
+		boolean isValid(List<Appointment> rAppointments,
+						int				  nDayCount,
+						CalendarSettings  rSettings)
+		{
+			int nCount = aAppointments.length;
+
+			if (rAppointments.size() != nCount ||
+				nDayCount != this.nDayCount ||
+				rSettings.getIntervalsPerHour() != nIntervalsPerHour ||
+				rSettings.getPixelsPerInterval() != nPixelsPerInterval ||
+				DateUtils.getDayStartsAt() != nDayStartsAt)
+			{
+				return false;
+			}
+
+			for (int i = 0; i < nCount; i++)
+			{
+				Appointment rAppointment = rAppointments.get(i);
+
+				if (rAppointment != aAppointments[i] ||
+					TimetableEventIndex.getStartTime(rAppointment) !=
+					aTimes[i * 2] ||
+					TimetableEventIndex.getEndTime(rAppointment) !=
+					aTimes[i * 2 + 1])
+				{
+					return false;
+				}
+			}
+
+			return true;
+		}
+	}
+}
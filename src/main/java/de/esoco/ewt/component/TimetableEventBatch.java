@@ -0,0 +1,268 @@
+//++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+// gewt-timetable source file
+// Copyright (c) 2017 Elmar Sonnenschein / esoco GmbH
+// Last Change: 08.05.2017 by eso
+//
+// gewt-timetable is free software; you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published
+// by the Free Software Foundation; either version 3 of the License,
+// or (at your option) any later version.
+//
+// gewt-timetable is distributed in the hope that it will be useful, but
+// WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License along
+// with gewt-timetable; if not, write to the Free Software Foundation, Inc.,
+// 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA or use the
+// contact information on the FSF website http://www.fsf.org
+//++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+package de.esoco.ewt.component;
+
+import java.util.Date;
+
+import com.google.gwt.user.client.rpc.IsSerializable;
+
+
+/********************************************************************
+ * A compact representation of multiple timetable events for the bulk
+ * transfer from a server. Instead of one properties object per event the
+ * event attributes are stored in parallel arrays. Start and end times are
+ * stored as milliseconds, boolean attributes as bit flags and all strings as
+ * indexes into a shared string table so that repeated values like titles and
+ * locations are only transferred once. Instances are created with a {@link
+ * TimetableEventEncoder} and can be added directly to a timetable with
+ * {@link Timetable#addEvents(TimetableEventBatch)}.
+ *
+ * @author eso
+ */
+public class TimetableEventBatch implements IsSerializable
+{
+	//~ Static fields/initializers ---------------------------------------------
+
+	/** The flag bit for all-day events. */
+	public static final int FLAG_ALL_DAY = 0x01;
+
+	/** The flag bit for read-only events. */
+	public static final int FLAG_READONLY = 0x02;
+
+	/** The flag bit for events that have an end date. */
+	public static final int FLAG_HAS_END = 0x04;
+
+	/** The string index for undefined strings. */
+	public static final int NO_STRING = -1;
+
+	//~ Instance fields --------------------------------------------------------
+
+	private String[] aStrings;
+	private double[] aStartTimes;
+	private double[] aEndTimes;
+	private int[]    aFlags;
+	private int[]    aIds;
+	private int[]    aTitles;
+	private int[]    aLocations;
+	private int[]    aDescriptions;
+	private int[]    aResources;
+	private int[]    aRecurrenceRules;
+	private int[]    aRecurrenceExceptions;
+
+	//~ Constructors -----------------------------------------------------------
+
+	/***************************************
+	 * Creates a new instance with the given event data. All arrays except the
+	 * string table must have the same length.
+	 *
+	 * @param rStrings      The string table
+	 * @param rStartTimes   The event start times in milliseconds
+	 * @param rEndTimes     The event end times in milliseconds
+	 * @param rFlags        The event flags
+	 * @param rIds          The string indexes of the event IDs
+	 * @param rTitles       The string indexes of the event titles
+	 * @param rLocations    The string indexes of the event locations
+	 * @param rDescriptions The string indexes of the event descriptions
+	 * @param rResources    The string indexes of the event resources
+	 * @param rRules        The string indexes of the recurrence rules
+	 * @param rExceptions   The string indexes of the recurrence exceptions
+	 */
+	TimetableEventBatch(String[] rStrings,
+						double[] rStartTimes,
+						double[] rEndTimes,
+						int[]    rFlags,
+						int[]    rIds,
+						int[]    rTitles,
+						int[]    rLocations,
+						int[]    rDescriptions,
+						int[]    rResources,
+						int[]    rRules,
+						int[]    rExceptions)
+	{
+		aStrings	  = rStrings;
+		aStartTimes   = rStartTimes;
+		aEndTimes	  = rEndTimes;
+		aFlags		  = rFlags;
+		aIds		  = rIds;
+		aTitles		  = rTitles;
+		aLocations    = rLocations;
+		aDescriptions = rDescriptions;
+		aResources    = rResources;
+
+		aRecurrenceRules	  = rRules;
+		aRecurrenceExceptions = rExceptions;
+	}
+
+	/***************************************
+	 * Default constructor for serialization.
+	 */
+	TimetableEventBatch()
+	{
+	}
+
+	//~ Methods ----------------------------------------------------------------
+
+	/***************************************
+	 * Returns the description of an event.
+	 *
+	 * @param  nIndex The event index
+	 *
+	 * @return The event description (empty if not set)
+	 */
+	public String getDescription(int nIndex)
+	{
+		return getString(aDescriptions[nIndex], "");
+	}
+
+	/***************************************
+	 * Returns the end date of an event.
+	 *
+	 * @param  nIndex The event index
+	 *
+	 * @return A new date object containing the end date or NULL if the event
+	 *         has no end date
+	 */
+	public Date getEnd(int nIndex)
+	{
+		return hasFlag(nIndex, FLAG_HAS_END)
+			   ? new Date((long) aEndTimes[nIndex]) : null;
+	}
+
+	/***************************************
+	 * Returns the ID of an event.
+	 *
+	 * @param  nIndex The event index
+	 *
+	 * @return The event ID
+	 */
+	public String getId(int nIndex)
+	{
+		return getString(aIds[nIndex], null);
+	}
+
+	/***************************************
+	 * Returns the location of an event.
+	 *
+	 * @param  nIndex The event index
+	 *
+	 * @return The event location (empty if not set)
+	 */
+	public String getLocation(int nIndex)
+	{
+		return getString(aLocations[nIndex], "");
+	}
+
+	/***************************************
+	 * Returns the recurrence exceptions of an event.
+	 *
+	 * @param  nIndex The event index
+	 *
+	 * @return The recurrence exceptions or NULL if not set
+	 */
+	public String getRecurrenceExceptions(int nIndex)
+	{
+		return getString(aRecurrenceExceptions[nIndex], null);
+	}
+
+	/***************************************
+	 * Returns the recurrence rule of an event.
+	 *
+	 * @param  nIndex The event index
+	 *
+	 * @return The recurrence rule or NULL if the event is not recurring
+	 */
+	public String getRecurrenceRule(int nIndex)
+	{
+		return getString(aRecurrenceRules[nIndex], null);
+	}
+
+	/***************************************
+	 * Returns the resource key of an event.
+	 *
+	 * @param  nIndex The event index
+	 *
+	 * @return The resource key or NULL if not set
+	 */
+	public String getResource(int nIndex)
+	{
+		return getString(aResources[nIndex], null);
+	}
+
+	/***************************************
+	 * Returns the start date of an event.
+	 *
+	 * @param  nIndex The event index
+	 *
+	 * @return A new date object containing the start date
+	 */
+	public Date getStart(int nIndex)
+	{
+		return new Date((long) aStartTimes[nIndex]);
+	}
+
+	/***************************************
+	 * Returns the title of an event.
+	 *
+	 * @param  nIndex The event index
+	 *
+	 * @return The event title (empty if not set)
+	 */
+	public String getTitle(int nIndex)
+	{
+		return getString(aTitles[nIndex], "");
+	}
+
+	/***************************************
+	 * Checks whether a certain flag is set for an event.
+	 *
+	 * @param  nIndex The event index
+	 * @param  nFlag  The flag bit to check
+	 *
+	 * @return TRUE if the flag is set
+	 */
+	public boolean hasFlag(int nIndex, int nFlag)
+	{
+		return (aFlags[nIndex] & nFlag) != 0;
+	}
+
+	/***************************************
+	 * Returns the number of events in this batch.
+	 *
+	 * @return The event count
+	 */
+	public int size()
+	{
+		return aStartTimes.length;
+	}
+
+	/***************************************
+	 * Returns a string from the string table.
+	 *
+	 * @param  nStringIndex The string index
+	 * @param  sDefault     The default value for undefined strings
+	 *
+	 * @return The string or the default value
+	 */
+	private String getString(int nStringIndex, String sDefault)
+	{
+		return nStringIndex != NO_STRING ? aStrings[nStringIndex] : sDefault;
+	}
+}
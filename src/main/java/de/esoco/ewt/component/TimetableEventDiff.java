@@ -0,0 +1,290 @@
+//++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+// gewt-timetable source file
+// Copyright (c) 2017 Elmar Sonnenschein / esoco GmbH
+// Last Change: 08.05.2017 by eso
+//
+// gewt-timetable is free software; you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published
+// by the Free Software Foundation; either version 3 of the License,
+// or (at your option) any later version.
+//
+// gewt-timetable is distributed in the hope that it will be useful, but
+// WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License along
+// with gewt-timetable; if not, write to the Free Software Foundation, Inc.,
+// 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA or use the
+// contact information on the FSF website http://www.fsf.org
+//++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+package de.esoco.ewt.component;
+
+import de.esoco.lib.property.HasProperties;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.bradrydzewski.gwt.calendar.client.Appointment;
+
+import static de.esoco.lib.property.StandardProperties.ID;
+
+
+/********************************************************************
+ * Compares new event data with the current appointments of a timetable. The
+ * events are identified by their {@link
+ * de.esoco.lib.property.StandardProperties#ID ID} which must be set and
+ * unique. Events with an unknown ID will be converted into new appointments
+ * and existing appointments will only be updated if their attributes have
+ * changed. The result can then be applied to the timetable in a single
+ * batch. The comparison is independent of the GWT widgets so that it can be
+ * tested separately.
+ *
+ * @author eso
+ * @see    Timetable#setEvents(java.util.Collection)
+ * @see    Timetable#updateEvents(java.util.Collection)
+ */
+class TimetableEventDiff
+{
+	//~ Instance fields --------------------------------------------------------
+
+	private final Target rTarget;
+
+	private final List<Appointment> aUpdated = new ArrayList<>();
+	private final List<Appointment> aRemoved = new ArrayList<>();
+
+	private boolean bVisibleChange = false;
+
+	//~ Constructors -----------------------------------------------------------
+
+	/***************************************
+	 * Creates a new instance.
+	 *
+	 * @param rTarget The target that provides and modifies the appointments
+	 */
+	TimetableEventDiff(Target rTarget)
+	{
+		this.rTarget = rTarget;
+	}
+
+	//~ Methods ----------------------------------------------------------------
+
+	/***************************************
+	 * Returns the current appointments that are not contained in the new
+	 * events.
+	 *
+	 * @return The removed appointments
+	 */
+	public List<Appointment> getRemoved()
+	{
+		return aRemoved;
+	}
+
+	/***************************************
+	 * Returns the appointments that have been updated from the new events or
+	 * that have been created for events with an unknown ID.
+	 *
+	 * @return The updated or added appointments
+	 */
+	public List<Appointment> getUpdated()
+	{
+		return aUpdated;
+	}
+
+	/***************************************
+	 * Checks whether an added, updated, or removed appointment is or has been
+	 * in the visible date range.
+	 *
+	 * @return TRUE if the view needs to be updated
+	 */
+	public boolean isVisibleChange()
+	{
+		return bVisibleChange;
+	}
+
+	/***************************************
+	 * Replaces the current appointments with new events. Appointments of
+	 * events with a known ID will be updated and events with an unknown ID
+	 * will be added. All current appointments that are not contained in the
+	 * new events will be removed. The events are validated before any
+	 * appointment is modified.
+	 *
+	 * @param  rEvents The new events
+	 *
+	 * @throws IllegalArgumentException If an event has no ID or if an ID
+	 *                                  occurs more than once
+	 */
+	public void setEvents(Collection<? extends HasProperties> rEvents)
+	{
+		Set<String> aEventIds = getEventIds(rEvents);
+
+		applyEvents(rEvents);
+
+		for (Appointment rAppointment : rTarget.getAllAppointments())
+		{
+			if (!aEventIds.contains(rAppointment.getId()))
+			{
+				aRemoved.add(rAppointment);
+				bVisibleChange |= rTarget.isVisible(rAppointment);
+			}
+		}
+	}
+
+	/***************************************
+	 * Updates the appointments of certain events. Appointments of events with
+	 * a known ID will be updated and events with an unknown ID will be added.
+	 * Appointments of other events remain unchanged. The events are validated
+	 * before any appointment is modified.
+	 *
+	 * @param  rEvents The events to update
+	 *
+	 * @throws IllegalArgumentException If an event has no ID or if an ID
+	 *                                  occurs more than once
+	 */
+	public void updateEvents(Collection<? extends HasProperties> rEvents)
+	{
+		getEventIds(rEvents);
+		applyEvents(rEvents);
+	}
+
+	/***************************************
+	 * Updates or adds the appointments of validated events.
+	 *
+	 * @param rEvents The events
+	 */
+	private void applyEvents(Collection<? extends HasProperties> rEvents)
+	{
+		for (HasProperties rEvent : rEvents)
+		{
+			Appointment rAppointment =
+				rTarget.getAppointment(rEvent.getProperty(ID, null));
+
+			if (rAppointment == null)
+			{
+				rAppointment = rTarget.createAppointment(rEvent);
+				bVisibleChange |= rTarget.isVisible(rAppointment);
+				aUpdated.add(rAppointment);
+			}
+			else if (rTarget.hasChanges(rAppointment, rEvent))
+			{
+				// check before and after the update to detect events that
+				// are moved into or out of the visible range
+				bVisibleChange |= rTarget.isVisible(rAppointment);
+				rTarget.updateAppointment(rAppointment, rEvent, true);
+				bVisibleChange |= rTarget.isVisible(rAppointment);
+				aUpdated.add(rAppointment);
+			}
+			else
+			{
+				rTarget.updateAppointment(rAppointment, rEvent, false);
+			}
+		}
+	}
+
+	/***************************************
+	 * Returns the IDs of events and validates that each event has a unique
+	 * ID.
+	 *
+	 * @param  rEvents The events
+	 *
+	 * @return The event IDs
+	 *
+	 * @throws IllegalArgumentException If an event has no ID or if an ID
+	 *                                  occurs more than once
+	 */
+	private Set<String> getEventIds(Collection<? extends HasProperties> rEvents)
+	{
+		Set<String> aEventIds = new HashSet<>(rEvents.size());
+
+		for (HasProperties rEvent : rEvents)
+		{
+			String sId = rEvent.getProperty(ID, null);
+
+			if (sId == null)
+			{
+				throw new IllegalArgumentException("Event has no ID: " +
+												   rEvent);
+			}
+			else if (!aEventIds.add(sId))
+			{
+				throw new IllegalArgumentException("Duplicate event ID: " +
+												   sId);
+			}
+		}
+
+		return aEventIds;
+	}
+
+	//~ Inner Interfaces -------------------------------------------------------
+
+	/********************************************************************
+	 * The interface that needs to be implemented to provide and modify the
+	 * appointments that are compared with new events.
+	 */
+	static interface Target
+	{
+		//~ Methods ------------------------------------------------------------
+
+		/***************************************
+		 * Converts an event with an unknown ID into a new appointment.
+		 *
+		 * @param  rEvent The event to convert
+		 *
+		 * @return The new appointment
+		 */
+		public Appointment createAppointment(HasProperties rEvent);
+
+		/***************************************
+		 * Returns all current appointments.
+		 *
+		 * @return The current appointments
+		 */
+		public Collection<Appointment> getAllAppointments();
+
+		/***************************************
+		 * Returns the current appointment with a certain ID.
+		 *
+		 * @param  sId The event ID
+		 *
+		 * @return The appointment or NULL if the ID is unknown
+		 */
+		public Appointment getAppointment(String sId);
+
+		/***************************************
+		 * Checks whether the displayed attributes of an appointment differ
+		 * from the values in an event.
+		 *
+		 * @param  rAppointment The appointment
+		 * @param  rEvent       The event with the same ID
+		 *
+		 * @return TRUE if the appointment needs to be updated
+		 */
+		public boolean hasChanges(Appointment   rAppointment,
+								  HasProperties rEvent);
+
+		/***************************************
+		 * Checks whether an appointment is in the visible date range.
+		 *
+		 * @param  rAppointment The appointment to check
+		 *
+		 * @return TRUE if the appointment is visible
+		 */
+		public boolean isVisible(Appointment rAppointment);
+
+		/***************************************
+		 * Stores the data of an event in an appointment.
+		 *
+		 * @param rAppointment The appointment
+		 * @param rEvent       The event with the same ID
+		 * @param bChanged     TRUE if the attributes of the appointment need
+		 *                     to be updated, FALSE if only the event data
+		 *                     needs to be replaced
+		 */
+		public void updateAppointment(Appointment   rAppointment,
+									  HasProperties rEvent,
+									  boolean		bChanged);
+	}
+}
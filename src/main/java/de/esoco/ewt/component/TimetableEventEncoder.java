@@ -0,0 +1,278 @@
+//++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+// gewt-timetable source file
+// Copyright (c) 2017 Elmar Sonnenschein / esoco GmbH
+// Last Change: 08.05.2017 by eso
+//
+// gewt-timetable is free software; you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published
+// by the Free Software Foundation; either version 3 of the License,
+// or (at your option) any later version.
+//
+// gewt-timetable is distributed in the hope that it will be useful, but
+// WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License along
+// with gewt-timetable; if not, write to the Free Software Foundation, Inc.,
+// 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA or use the
+// contact information on the FSF website http://www.fsf.org
+//++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+package de.esoco.ewt.component;
+
+import de.esoco.lib.property.HasProperties;
+import de.esoco.lib.property.PropertyName;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static de.esoco.lib.property.StandardProperties.ALL_DAY;
+import static de.esoco.lib.property.StandardProperties.DESCRIPTION;
+import static de.esoco.lib.property.StandardProperties.END_DATE;
+import static de.esoco.lib.property.StandardProperties.ID;
+import static de.esoco.lib.property.StandardProperties.LOCATION;
+import static de.esoco.lib.property.StandardProperties.READONLY;
+import static de.esoco.lib.property.StandardProperties.START_DATE;
+import static de.esoco.lib.property.StandardProperties.TITLE;
+
+
+/********************************************************************
+ * Encodes timetable events into a {@link TimetableEventBatch}. This class has
+ * no dependencies on client-side code so that it can be used on the server to
+ * prepare events for the transfer to the client. Equal strings are stored only
+ * once in the string table of the batch.
+ *
+ * <p>An encoder can be used to create multiple batches. After each invocation
+ * of {@link #encode()} it is reset to an empty state.</p>
+ *
+ * @author eso
+ */
+public class TimetableEventEncoder
+{
+	//~ Static fields/initializers ---------------------------------------------
+
+	/**
+	 * The key of the resource to which an event is assigned. It is declared
+	 * here so that it can be used on the server without referencing the
+	 * client-side timetable class.
+	 *
+	 * @see Timetable#RESOURCE
+	 */
+	public static final PropertyName<String> RESOURCE =
+		PropertyName.newStringName("RESOURCE");
+
+	/**
+	 * The recurrence rule of a recurring event.
+	 *
+	 * @see Timetable#RECURRENCE_RULE
+	 */
+	public static final PropertyName<String> RECURRENCE_RULE =
+		PropertyName.newStringName("RECURRENCE_RULE");
+
+	/**
+	 * The exceptions of a recurring event.
+	 *
+	 * @see Timetable#RECURRENCE_EXCEPTIONS
+	 */
+	public static final PropertyName<String> RECURRENCE_EXCEPTIONS =
+		PropertyName.newStringName("RECURRENCE_EXCEPTIONS");
+
+	//~ Instance fields --------------------------------------------------------
+
+	private List<String>		 aStrings	  = new ArrayList<>();
+	private Map<String, Integer> aStringIndex = new HashMap<>();
+	private List<HasProperties>  aEvents	  = new ArrayList<>();
+
+	//~ Static methods ---------------------------------------------------------
+
+	/***************************************
+	 * Encodes a collection of events into a new batch.
+	 *
+	 * @param  rEvents The events to encode
+	 *
+	 * @return The new event batch
+	 *
+	 * @throws IllegalArgumentException If an event has no ID or start date
+	 */
+	public static TimetableEventBatch encode(
+		Collection<? extends HasProperties> rEvents)
+	{
+		TimetableEventEncoder aEncoder = new TimetableEventEncoder();
+
+		aEncoder.addAll(rEvents);
+
+		return aEncoder.encode();
+	}
+
+	//~ Methods ----------------------------------------------------------------
+
+	/***************************************
+	 * Adds an event to this encoder. The supported event properties are the
+	 * same as for {@link Timetable#addEvent(HasProperties)}. The event must
+	 * have an ID and a start date.
+	 *
+	 * @param  rEvent The event to add
+	 *
+	 * @throws IllegalArgumentException If the event has no ID or start date
+	 */
+	public void add(HasProperties rEvent)
+	{
+		String sId = rEvent.getProperty(ID, null);
+
+		if (sId == null)
+		{
+			throw new IllegalArgumentException("Event has no ID: " + rEvent);
+		}
+
+		if (rEvent.getProperty(START_DATE, null) == null)
+		{
+			throw new IllegalArgumentException("Event has no start date: " +
+											   sId);
+		}
+
+		aEvents.add(rEvent);
+	}
+
+	/***************************************
+	 * Adds multiple events to this encoder. If one of the events is invalid
+	 * none of them will be added.
+	 *
+	 * @param  rEvents The events to add
+	 *
+	 * @throws IllegalArgumentException If an event has no ID or start date
+	 *
+	 * @see    #add(HasProperties)
+	 */
+	public void addAll(Collection<? extends HasProperties> rEvents)
+	{
+		int nCount = aEvents.size();
+
+		try
+		{
+			for (HasProperties rEvent : rEvents)
+			{
+				add(rEvent);
+			}
+		}
+		catch (IllegalArgumentException e)
+		{
+			aEvents.subList(nCount, aEvents.size()).clear();
+			throw e;
+		}
+	}
+
+	/***************************************
+	 * Encodes the events that have been added to this encoder into a new
+	 * batch and resets this encoder.
+	 *
+	 * @return The new event batch
+	 */
+	public TimetableEventBatch encode()
+	{
+		int nCount = aEvents.size();
+
+		double[] aStartTimes   = new double[nCount];
+		double[] aEndTimes     = new double[nCount];
+		int[]    aFlags		   = new int[nCount];
+		int[]    aIds		   = new int[nCount];
+		int[]    aTitles	   = new int[nCount];
+		int[]    aLocations    = new int[nCount];
+		int[]    aDescriptions = new int[nCount];
+		int[]    aResources    = new int[nCount];
+		int[]    aRules		   = new int[nCount];
+		int[]    aExceptions   = new int[nCount];
+
+		for (int i = 0; i < nCount; i++)
+		{
+			HasProperties rEvent = aEvents.get(i);
+			Date		  rStart = rEvent.getProperty(START_DATE, null);
+			Date		  rEnd   = rEvent.getProperty(END_DATE, null);
+			int			  nFlags = 0;
+
+			if (rEnd != null)
+			{
+				aEndTimes[i] = rEnd.getTime();
+				nFlags		 |= TimetableEventBatch.FLAG_HAS_END;
+			}
+
+			if (rEvent.hasFlag(ALL_DAY))
+			{
+				nFlags |= TimetableEventBatch.FLAG_ALL_DAY;
+			}
+
+			if (rEvent.hasFlag(READONLY))
+			{
+				nFlags |= TimetableEventBatch.FLAG_READONLY;
+			}
+
+			aStartTimes[i]   = rStart.getTime();
+			aFlags[i]		 = nFlags;
+			aIds[i]			 = getStringIndex(rEvent.getProperty(ID, null));
+			aTitles[i]		 =
+				getStringIndex(rEvent.getProperty(TITLE, null));
+			aLocations[i]    =
+				getStringIndex(rEvent.getProperty(LOCATION, null));
+			aDescriptions[i] =
+				getStringIndex(rEvent.getProperty(DESCRIPTION, null));
+			aResources[i]    =
+				getStringIndex(rEvent.getProperty(RESOURCE, null));
+			aRules[i]		 =
+				getStringIndex(rEvent.getProperty(RECURRENCE_RULE, null));
+			aExceptions[i]   =
+				getStringIndex(rEvent.getProperty(RECURRENCE_EXCEPTIONS, null));
+		}
+
+		String[] aStringTable = aStrings.toArray(new String[aStrings.size()]);
+
+		TimetableEventBatch aBatch =
+			new TimetableEventBatch(aStringTable,
+									aStartTimes,
+									aEndTimes,
+									aFlags,
+									aIds,
+									aTitles,
+									aLocations,
+									aDescriptions,
+									aResources,
+									aRules,
+									aExceptions);
+
+		aStrings	 = new ArrayList<>();
+		aStringIndex = new HashMap<>();
+		aEvents		 = new ArrayList<>();
+
+		return aBatch;
+	}
+
+	/***************************************
+	 * Returns the index of a string in the string table and adds it to the
+	 * table if necessary.
+	 *
+	 * @param  sValue The string value
+	 *
+	 * @return The string index or {@link TimetableEventBatch#NO_STRING} if
+	 *         the value is NULL
+	 */
+	private int getStringIndex(String sValue)
+	{
+		if (sValue == null)
+		{
+			return TimetableEventBatch.NO_STRING;
+		}
+
+		Integer rIndex = aStringIndex.get(sValue);
+
+		if (rIndex == null)
+		{
+			rIndex = aStrings.size();
+			aStrings.add(sValue);
+			aStringIndex.put(sValue, rIndex);
+		}
+
+		return rIndex;
+	}
+}
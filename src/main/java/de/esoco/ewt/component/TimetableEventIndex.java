@@ -0,0 +1,586 @@
+//++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+// gewt-timetable source file
+// Copyright (c) 2017 Elmar Sonnenschein / esoco GmbH
+// Last Change: 08.05.2017 by eso
+//
+// gewt-timetable is free software; you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published
+// by the Free Software Foundation; either version 3 of the License,
+// or (at your option) any later version.
+//
+// gewt-timetable is distributed in the hope that it will be useful, but
+// WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License along
+// with gewt-timetable; if not, write to the Free Software Foundation, Inc.,
+// 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA or use the
+// contact information on the FSF website http://www.fsf.org
+//++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+package de.esoco.ewt.component;
+
+import de.esoco.ewt.component.Timetable.TimetableEvent;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.bradrydzewski.gwt.calendar.client.Appointment;
+import com.bradrydzewski.gwt.calendar.client.DateUtils;
+
+
+/********************************************************************
+ * An index of appointments that is ordered by the start and end times of the
+ * appointments. It answers queries for the appointments that overlap a certain
+ * time range in O(log N + k) instead of scanning all appointments. To achieve
+ * this appointments with a duration of up to a day are kept in a list that is
+ * sorted in the natural appointment order (start ascending, end descending)
+ * so that a query only needs to scan the entries that start at most one day
+ * before the queried range. Appointments that span more than a day are
+ * typically rare and kept in a separate list that is always scanned
+ * completely.
+ *
+ * <p>The start and end times of an appointment are recorded when it is added
+ * so that the index remains consistent if an appointment is modified in place
+ * (e.g. by interactive editing). After such a modification {@link
+ * #update(Appointment)} must be invoked to re-index the appointment.</p>
+ *
+ * <p>If the aggregates of the indexed appointments per day are queried with
+ * {@link #getDayAggregates()} they will be calculated once and then updated
+ * incrementally on each modification of the index.</p>
+ *
+ * @author eso
+ */
+class TimetableEventIndex
+{
+	//~ Static fields/initializers ---------------------------------------------
+
+	/** The maximum duration of an appointment in the sorted list. */
+	static final long MAX_SHORT_DURATION = DateUtils.MILLIS_IN_A_DAY;
+
+	private static final Comparator<Entry> ENTRY_ORDER =
+		new Comparator<Entry>()
+		{
+			@Override
+			public int compare(Entry rFirst, Entry rSecond)
+			{
+				return compareEntry(rFirst, rSecond.nStart, rSecond.nEnd);
+			}
+		};
+
+	private static final Comparator<Appointment> APPOINTMENT_ORDER =
+		new Comparator<Appointment>()
+		{
+			@Override
+			public int compare(Appointment rFirst, Appointment rSecond)
+			{
+				long nFirstStart  = getStartTime(rFirst);
+				long nSecondStart = getStartTime(rSecond);
+
+				if (nFirstStart == nSecondStart)
+				{
+					return Long.compare(getEndTime(rSecond),
+										getEndTime(rFirst));
+				}
+				else
+				{
+					return nFirstStart < nSecondStart ? -1 : 1;
+				}
+			}
+		};
+
+	//~ Instance fields --------------------------------------------------------
+
+	private final List<Entry> aShortEntries = new ArrayList<>();
+	private final List<Entry> aLongEntries  = new ArrayList<>();
+
+	private final Map<Appointment, Entry> aEntries = new IdentityHashMap<>();
+
+	private boolean				   bSortPending		  = false;
+	private int					   nModificationCount = 0;
+	private TimetableDayAggregates aDayAggregates     = null;
+
+	//~ Static methods ---------------------------------------------------------
+
+	/***************************************
+	 * Returns the end time of an appointment in milliseconds. If the
+	 * appointment has no end date the start time will be returned.
+	 *
+	 * @param  rAppointment The appointment
+	 *
+	 * @return The end time in milliseconds
+	 */
+	static long getEndTime(Appointment rAppointment)
+	{
+		if (rAppointment instanceof TimetableEvent)
+		{
+			return ((TimetableEvent) rAppointment).getEndTime();
+		}
+
+		Date rEnd = rAppointment.getEnd();
+
+		return rEnd != null ? rEnd.getTime() : getStartTime(rAppointment);
+	}
+
+	/***************************************
+	 * Returns the start time of an appointment in milliseconds.
+	 *
+	 * @param  rAppointment The appointment
+	 *
+	 * @return The start time in milliseconds (0 if no start date is set)
+	 */
+	static long getStartTime(Appointment rAppointment)
+	{
+		if (rAppointment instanceof TimetableEvent)
+		{
+			return ((TimetableEvent) rAppointment).getStartTime();
+		}
+
+		Date rStart = rAppointment.getStart();
+
+		return rStart != null ? rStart.getTime() : 0;
+	}
+
+	/***************************************
+	 * Compares an entry with the given start and end times in the natural
+	 * appointment order.
+	 *
+	 * @param  rEntry The entry to compare
+	 * @param  nStart The start time to compare with
+	 * @param  nEnd   The end time to compare with
+	 *
+	 * @return The comparison result
+	 */
+	private static int compareEntry(Entry rEntry, long nStart, long nEnd)
+	{
+		if (rEntry.nStart != nStart)
+		{
+			return rEntry.nStart < nStart ? -1 : 1;
+		}
+		else if (rEntry.nEnd != nEnd)
+		{
+			return rEntry.nEnd > nEnd ? -1 : 1;
+		}
+		else
+		{
+			return 0;
+		}
+	}
+
+	//~ Methods ----------------------------------------------------------------
+
+	/***************************************
+	 * Adds an appointment to this index. If the same appointment instance has
+	 * already been added before it will be re-indexed instead.
+	 *
+	 * @param rAppointment The appointment to add
+	 */
+	public void add(Appointment rAppointment)
+	{
+		if (aEntries.containsKey(rAppointment))
+		{
+			update(rAppointment);
+		}
+		else
+		{
+			Entry aEntry = new Entry(rAppointment);
+
+			aEntries.put(rAppointment, aEntry);
+			aggregate(aEntry, true);
+
+			if (aEntry.isLong())
+			{
+				aLongEntries.add(aEntry);
+			}
+			else if (bSortPending)
+			{
+				aShortEntries.add(aEntry);
+			}
+			else
+			{
+				aShortEntries.add(findInsertPosition(aEntry.nStart,
+													 aEntry.nEnd),
+								  aEntry);
+			}
+
+			nModificationCount++;
+		}
+	}
+
+	/***************************************
+	 * Adds multiple appointments to this index. The sorting of the index will
+	 * be deferred until the next query.
+	 *
+	 * @param rAppointments The appointments to add
+	 */
+	public void addAll(Collection<? extends Appointment> rAppointments)
+	{
+		for (Appointment rAppointment : rAppointments)
+		{
+			if (aEntries.containsKey(rAppointment))
+			{
+				update(rAppointment);
+			}
+			else
+			{
+				Entry aEntry = new Entry(rAppointment);
+
+				aEntries.put(rAppointment, aEntry);
+				aggregate(aEntry, true);
+
+				if (aEntry.isLong())
+				{
+					aLongEntries.add(aEntry);
+				}
+				else
+				{
+					aShortEntries.add(aEntry);
+					bSortPending = true;
+				}
+			}
+		}
+
+		nModificationCount++;
+	}
+
+	/***************************************
+	 * Removes all appointments from this index.
+	 */
+	public void clear()
+	{
+		aShortEntries.clear();
+		aLongEntries.clear();
+		aEntries.clear();
+		bSortPending = false;
+		nModificationCount++;
+
+		if (aDayAggregates != null)
+		{
+			aDayAggregates.clear();
+		}
+	}
+
+	/***************************************
+	 * Checks whether this index contains a certain appointment instance.
+	 *
+	 * @param  rAppointment The appointment to check
+	 *
+	 * @return TRUE if the appointment has been indexed
+	 */
+	public boolean contains(Appointment rAppointment)
+	{
+		return aEntries.containsKey(rAppointment);
+	}
+
+	/***************************************
+	 * Returns the appointments that overlap a certain time range in the
+	 * natural appointment order. To be consistent with the range checks in
+	 * {@link com.bradrydzewski.gwt.calendar.client.util.AppointmentUtil} an
+	 * appointment that ends exactly at the range start is considered to be
+	 * overlapping.
+	 *
+	 * @param  rStart The start of the range (inclusive)
+	 * @param  rEnd   The end of the range (exclusive)
+	 *
+	 * @return A new list containing the overlapping appointments
+	 */
+	public List<Appointment> getAppointments(Date rStart, Date rEnd)
+	{
+		return getAppointments(rStart.getTime(), rEnd.getTime());
+	}
+
+	/***************************************
+	 * Returns the appointments that overlap a certain time range in the
+	 * natural appointment order.
+	 *
+	 * @param  nStart The start of the range in milliseconds (inclusive)
+	 * @param  nEnd   The end of the range in milliseconds (exclusive)
+	 *
+	 * @return A new list containing the overlapping appointments
+	 *
+	 * @see    #getAppointments(Date, Date)
+	 */
+	public List<Appointment> getAppointments(long nStart, long nEnd)
+	{
+		List<Appointment> aResult = new ArrayList<>();
+
+		sortIfPending();
+
+		int nCount = aShortEntries.size();
+		int nIndex = findInsertPosition(nStart - MAX_SHORT_DURATION,
+										 Long.MAX_VALUE);
+
+		while (nIndex < nCount)
+		{
+			Entry rEntry = aShortEntries.get(nIndex++);
+
+			if (rEntry.nStart >= nEnd)
+			{
+				break;
+			}
+			else if (rEntry.nEnd >= nStart)
+			{
+				aResult.add(rEntry.rAppointment);
+			}
+		}
+
+		if (!aLongEntries.isEmpty())
+		{
+			boolean bAdded = false;
+
+			for (Entry rEntry : aLongEntries)
+			{
+				if (rEntry.nStart < nEnd && rEntry.nEnd >= nStart)
+				{
+					aResult.add(rEntry.rAppointment);
+					bAdded = true;
+				}
+			}
+
+			if (bAdded)
+			{
+				Collections.sort(aResult, APPOINTMENT_ORDER);
+			}
+		}
+
+		return aResult;
+	}
+
+	/***************************************
+	 * Returns the aggregates of the indexed appointments per day. On the
+	 * first invocation the aggregates will be calculated from all indexed
+	 * appointments. Afterwards they will be updated with each modification.
+	 *
+	 * @return The day aggregates
+	 */
+	public TimetableDayAggregates getDayAggregates()
+	{
+		if (aDayAggregates == null)
+		{
+			aDayAggregates = new TimetableDayAggregates();
+
+			for (Entry rEntry : aEntries.values())
+			{
+				aggregate(rEntry, true);
+			}
+		}
+
+		return aDayAggregates;
+	}
+
+	/***************************************
+	 * Returns a counter that is incremented on each modification of this
+	 * index. This can be used to detect changes to the indexed data.
+	 *
+	 * @return The modification count
+	 */
+	public final int getModificationCount()
+	{
+		return nModificationCount;
+	}
+
+	/***************************************
+	 * Removes an appointment from this index.
+	 *
+	 * @param  rAppointment The appointment to remove
+	 *
+	 * @return TRUE if the appointment had been indexed
+	 */
+	public boolean remove(Appointment rAppointment)
+	{
+		Entry rEntry = aEntries.remove(rAppointment);
+
+		if (rEntry != null)
+		{
+			removeEntry(rEntry);
+			nModificationCount++;
+		}
+
+		return rEntry != null;
+	}
+
+	/***************************************
+	 * Returns the number of indexed appointments.
+	 *
+	 * @return The appointment count
+	 */
+	public int size()
+	{
+		return aEntries.size();
+	}
+
+	/***************************************
+	 * Re-indexes an appointment after its start or end date or its all-day
+	 * flag has been modified. If the appointment hasn't been indexed yet it
+	 * will be added.
+	 *
+	 * @param rAppointment The modified appointment
+	 */
+	public void update(Appointment rAppointment)
+	{
+		Entry rEntry = aEntries.get(rAppointment);
+
+		if (rEntry == null)
+		{
+			add(rAppointment);
+		}
+		else if (rEntry.nStart != getStartTime(rAppointment) ||
+				 rEntry.nEnd != getEndTime(rAppointment) ||
+				 rEntry.bAllDay != rAppointment.isAllDay())
+		{
+			aEntries.remove(rAppointment);
+			removeEntry(rEntry);
+			add(rAppointment);
+		}
+	}
+
+	/***************************************
+	 * Adds an entry to or removes it from the day aggregates if they are
+	 * maintained.
+	 *
+	 * @param rEntry The entry
+	 * @param bAdd   TRUE to add the entry, FALSE to remove it
+	 */
+	private void aggregate(Entry rEntry, boolean bAdd)
+	{
+		if (aDayAggregates != null)
+		{
+			if (bAdd)
+			{
+				aDayAggregates.add(rEntry.nStart, rEntry.nEnd, rEntry.bAllDay);
+			}
+			else
+			{
+				aDayAggregates.remove(rEntry.nStart,
+									  rEntry.nEnd,
+									  rEntry.bAllDay);
+			}
+		}
+	}
+
+	/***************************************
+	 * Performs a binary search for the position of the first short entry that
+	 * is not ordered before the given start and end time.
+	 *
+	 * @param  nStart The start time
+	 * @param  nEnd   The end time
+	 *
+	 * @return The insert position
+	 */
+	private int findInsertPosition(long nStart, long nEnd)
+	{
+		int nLow  = 0;
+		int nHigh = aShortEntries.size();
+
+		while (nLow < nHigh)
+		{
+			int nMiddle = (nLow + nHigh) >>> 1;
+
+			if (compareEntry(aShortEntries.get(nMiddle), nStart, nEnd) < 0)
+			{
+				nLow = nMiddle + 1;
+			}
+			else
+			{
+				nHigh = nMiddle;
+			}
+		}
+
+		return nLow;
+	}
+
+	/***************************************
+	 * Removes an entry from the entry lists.
+	 *
+	 * @param rEntry The entry to remove
+	 */
+	private void removeEntry(Entry rEntry)
+	{
+		aggregate(rEntry, false);
+
+		if (rEntry.isLong())
+		{
+			aLongEntries.remove(rEntry);
+		}
+		else if (bSortPending)
+		{
+			aShortEntries.remove(rEntry);
+		}
+		else
+		{
+			int nCount = aShortEntries.size();
+			int nIndex = findInsertPosition(rEntry.nStart, rEntry.nEnd);
+
+			while (nIndex < nCount && aShortEntries.get(nIndex) != rEntry)
+			{
+				nIndex++;
+			}
+
+			aShortEntries.remove(nIndex);
+		}
+	}
+
+	/***************************************
+	 * Sorts the short entry list if necessary.
+	 */
+	private void sortIfPending()
+	{
+		if (bSortPending)
+		{
+			Collections.sort(aShortEntries, ENTRY_ORDER);
+			bSortPending = false;
+		}
+	}
+
+	//~ Inner Classes ----------------------------------------------------------
+
+	/********************************************************************
+	 * An index entry that records the times and the all-day flag of an
+	 * appointment at the time it has been indexed.
+	 *
+	 * @author eso
+	 */
+	static class Entry
+	{
+		//~ Instance fields ----------------------------------------------------
+
+		final Appointment rAppointment;
+		final long		  nStart;
+		final long		  nEnd;
+		final boolean	  bAllDay;
+
+		//~ Constructors -------------------------------------------------------
+
+		/***************************************
+		 * Creates a new instance.
+		 *
+		 * @param rAppointment The appointment to index
+		 */
+		Entry(Appointment rAppointment)
+		{
+			this.rAppointment = rAppointment;
+			this.nStart		  = getStartTime(rAppointment);
+			this.nEnd		  = getEndTime(rAppointment);
+			this.bAllDay	  = rAppointment.isAllDay();
+		}
+
+		//~ Methods ------------------------------------------------------------
+
+		/***************************************
+		 * Checks whether this entry is longer than {@link
+		 * #MAX_SHORT_DURATION}.
+		 *
+		 * @return TRUE for a long entry
+		 */
+		boolean isLong()
+		{
+			return nEnd - nStart > MAX_SHORT_DURATION;
+		}
+	}
+}
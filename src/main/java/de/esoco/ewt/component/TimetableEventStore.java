@@ -0,0 +1,190 @@
+//++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+// gewt-timetable source file
+// Copyright (c) 2017 Elmar Sonnenschein / esoco GmbH
+// Last Change: 08.05.2017 by eso
+//
+// gewt-timetable is free software; you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published
+// by the Free Software Foundation; either version 3 of the License,
+// or (at your option) any later version.
+//
+// gewt-timetable is distributed in the hope that it will be useful, but
+// WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License along
+// with gewt-timetable; if not, write to the Free Software Foundation, Inc.,
+// 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA or use the
+// contact information on the FSF website http://www.fsf.org
+//++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+package de.esoco.ewt.component;
+
+import de.esoco.ewt.component.Timetable.TimetableWidget;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.bradrydzewski.gwt.calendar.client.Appointment;
+
+
+/********************************************************************
+ * A store for timetable events that can be shared by multiple {@link
+ * Timetable} components, e.g. to display the same events in a month and in a
+ * day view at the same time. The store contains the converted events together
+ * with their index so that events are only converted, indexed and sorted
+ * once for all attached timetables. The events can be modified through any
+ * of the attached timetables. After a modification each other timetable will
+ * be notified of the changed events and only lays out its view again if the
+ * changes affect its visible date range.
+ *
+ * <p>A timetable is attached to a store with {@link
+ * Timetable#setEventStore(TimetableEventStore)}. Each timetable creates a
+ * private store if none has been set.</p>
+ *
+ * @author eso
+ */
+public class TimetableEventStore
+{
+	//~ Instance fields --------------------------------------------------------
+
+	private final ArrayList<Appointment> aAppointments = new ArrayList<>();
+
+	private final TimetableEventIndex aEventIndex = new TimetableEventIndex();
+
+	private final Map<String, Appointment> aEventIds = new HashMap<>();
+	private final Set<Appointment>		   aSeries   =
+		Collections.newSetFromMap(new IdentityHashMap<Appointment, Boolean>());
+
+	private final List<TimetableWidget> aViews = new ArrayList<>();
+
+	private int nVersion = 0;
+
+	//~ Methods ----------------------------------------------------------------
+
+	/***************************************
+	 * Returns the number of timetables that are attached to this store.
+	 *
+	 * @return The number of attached timetables
+	 */
+	public int getViewCount()
+	{
+		return aViews.size();
+	}
+
+	/***************************************
+	 * Returns the number of events in this store.
+	 *
+	 * @return The event count
+	 */
+	public int size()
+	{
+		return aEventIndex.size();
+	}
+
+	/***************************************
+	 * Attaches the widget of a timetable to this store.
+	 *
+	 * @param rView The timetable widget
+	 */
+	void attach(TimetableWidget rView)
+	{
+		if (!aViews.contains(rView))
+		{
+			aViews.add(rView);
+		}
+	}
+
+	/***************************************
+	 * Detaches the widget of a timetable from this store.
+	 *
+	 * @param rView The timetable widget
+	 */
+	void detach(TimetableWidget rView)
+	{
+		aViews.remove(rView);
+	}
+
+	/***************************************
+	 * Notifies all attached timetable widgets except the source of a
+	 * modification that events have changed and increments the version of
+	 * the events.
+	 *
+	 * @param rSource  The widget through which the events have been modified
+	 * @param rChanged The changed events or NULL if all events have changed
+	 */
+	void fireEventsChanged(
+		TimetableWidget					  rSource,
+		Collection<? extends Appointment> rChanged)
+	{
+		nVersion++;
+
+		for (TimetableWidget rView : aViews)
+		{
+			if (rView != rSource)
+			{
+				rView.eventsChanged(rChanged);
+			}
+		}
+	}
+
+	/***************************************
+	 * Returns the list of all events. The list is installed as the list of
+	 * the appointment manager of all attached widgets.
+	 *
+	 * @return The event list
+	 */
+	ArrayList<Appointment> getAppointments()
+	{
+		return aAppointments;
+	}
+
+	/***************************************
+	 * Returns the mapping from event IDs to events.
+	 *
+	 * @return The event ID map
+	 */
+	Map<String, Appointment> getEventIds()
+	{
+		return aEventIds;
+	}
+
+	/***************************************
+	 * Returns the index of the events.
+	 *
+	 * @return The event index
+	 */
+	TimetableEventIndex getEventIndex()
+	{
+		return aEventIndex;
+	}
+
+	/***************************************
+	 * Returns the recurring events. The set is based on object identity
+	 * because the equality of appointments depends on their mutable dates.
+	 *
+	 * @return The set of recurring events
+	 */
+	Set<Appointment> getSeries()
+	{
+		return aSeries;
+	}
+
+	/***************************************
+	 * Returns the version of the events which is incremented on each
+	 * modification. It is used to invalidate the rendered views of the
+	 * attached timetables.
+	 *
+	 * @return The current version
+	 */
+	int getVersion()
+	{
+		return nVersion;
+	}
+}
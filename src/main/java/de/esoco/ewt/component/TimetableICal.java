@@ -0,0 +1,437 @@
+//++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+// gewt-timetable source file
+// Copyright (c) 2017 Elmar Sonnenschein / esoco GmbH
+// Last Change: 08.05.2017 by eso
+//
+// gewt-timetable is free software; you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published
+// by the Free Software Foundation; either version 3 of the License,
+// or (at your option) any later version.
+//
+// gewt-timetable is distributed in the hope that it will be useful, but
+// WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License along
+// with gewt-timetable; if not, write to the Free Software Foundation, Inc.,
+// 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA or use the
+// contact information on the FSF website http://www.fsf.org
+//++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+package de.esoco.ewt.component;
+
+import java.util.Date;
+
+
+/********************************************************************
+ * Contains the value conversions of the iCalendar format (RFC 5545) that are
+ * shared by {@link TimetableICalReader} and {@link TimetableICalWriter}. UTC
+ * date-times are converted with integer arithmetic so that the conversion is
+ * exact and independent of the default time zone. Floating date-times and
+ * dates are interpreted in the default time zone.
+ *
+ * @author eso
+ */
+class TimetableICal
+{
+	//~ Static fields/initializers ---------------------------------------------
+
+	static final String LINE_END = "\r\n";
+
+	private static final long MILLIS_PER_SECOND = 1000;
+	private static final long MILLIS_PER_MINUTE = 60 * MILLIS_PER_SECOND;
+	private static final long MILLIS_PER_HOUR   = 60 * MILLIS_PER_MINUTE;
+	private static final long MILLIS_PER_DAY    = 24 * MILLIS_PER_HOUR;
+
+	// the number of days from 0000-03-01 to 1970-01-01
+	private static final long EPOCH_DAY_OFFSET = 719468;
+	private static final long DAYS_PER_ERA     = 146097;
+
+	private static int nNextIdPrefix = 0;
+
+	//~ Constructors -----------------------------------------------------------
+
+	/***************************************
+	 * Private, only static use.
+	 */
+	private TimetableICal()
+	{
+	}
+
+	//~ Static methods ---------------------------------------------------------
+
+	/***************************************
+	 * Creates a new prefix for the generation of event IDs. Each invocation
+	 * returns a different prefix that is derived from the current time and a
+	 * counter so that IDs that are generated by appending a running number
+	 * are unique for all readers and writers.
+	 *
+	 * @return The new ID prefix
+	 */
+	static String createIdPrefix()
+	{
+		return "ical-" + Long.toString(System.currentTimeMillis(), 36) + "-" +
+			   nNextIdPrefix++ + "-";
+	}
+
+	/***************************************
+	 * Escapes the special characters of a text value.
+	 *
+	 * @param  sText The text to escape
+	 *
+	 * @return The escaped text
+	 */
+	static String escape(String sText)
+	{
+		StringBuilder aResult = new StringBuilder(sText.length() + 8);
+		int			  nLength = sText.length();
+
+		for (int i = 0; i < nLength; i++)
+		{
+			char c = sText.charAt(i);
+
+			if (c == '\\' || c == ';' || c == ',')
+			{
+				aResult.append('\\').append(c);
+			}
+			else if (c == '\n')
+			{
+				aResult.append("\\n");
+			}
+			else if (c != '\r')
+			{
+				aResult.append(c);
+			}
+		}
+
+		return aResult.toString();
+	}
+
+	/***************************************
+	 * Formats the local date of a date value as an iCalendar DATE value.
+	 *
+	 * @param  rDate The date to format
+	 *
+	 * @return The formatted date (yyyyMMdd)
+	 */
+	@SuppressWarnings("deprecation")
+	static String formatDate(Date rDate)
+	{
+		StringBuilder aResult = new StringBuilder(8);
+
+		appendDigits(aResult, rDate.getYear() + 1900, 4);
+		appendDigits(aResult, rDate.getMonth() + 1, 2);
+		appendDigits(aResult, rDate.getDate(), 2);
+
+		return aResult.toString();
+	}
+
+	/***************************************
+	 * Formats a point in time as an iCalendar DATE-TIME value in UTC.
+	 *
+	 * @param  nTime The time in milliseconds
+	 *
+	 * @return The formatted date-time (yyyyMMddTHHmmssZ)
+	 */
+	static String formatUtcDateTime(long nTime)
+	{
+		long		  nDay    = floorDiv(nTime, MILLIS_PER_DAY);
+		long		  nMillis = nTime - nDay * MILLIS_PER_DAY;
+		int[]		  rDate   = getCivilDate(nDay);
+		StringBuilder aResult = new StringBuilder(16);
+
+		appendDigits(aResult, rDate[0], 4);
+		appendDigits(aResult, rDate[1], 2);
+		appendDigits(aResult, rDate[2], 2);
+		aResult.append('T');
+		appendDigits(aResult, (int) (nMillis / MILLIS_PER_HOUR), 2);
+		appendDigits(aResult, (int) (nMillis / MILLIS_PER_MINUTE % 60), 2);
+		appendDigits(aResult, (int) (nMillis / MILLIS_PER_SECOND % 60), 2);
+		aResult.append('Z');
+
+		return aResult.toString();
+	}
+
+	/***************************************
+	 * Parses an iCalendar DATE value into the start of the local day.
+	 *
+	 * @param  sValue The value to parse (yyyyMMdd)
+	 *
+	 * @return The corresponding date
+	 *
+	 * @throws IllegalArgumentException If the value is invalid
+	 */
+	@SuppressWarnings("deprecation")
+	static Date parseDate(String sValue)
+	{
+		return new Date(parseNumber(sValue, 0, 4) - 1900,
+						parseNumber(sValue, 4, 6) - 1,
+						parseNumber(sValue, 6, 8));
+	}
+
+	/***************************************
+	 * Parses an iCalendar DATE-TIME value. A value in UTC (i.e. with a
+	 * trailing 'Z') is converted exactly, other values are interpreted in the
+	 * default time zone.
+	 *
+	 * @param  sValue The value to parse (yyyyMMddTHHmmss[Z])
+	 *
+	 * @return The corresponding date
+	 *
+	 * @throws IllegalArgumentException If the value is invalid
+	 */
+	@SuppressWarnings("deprecation")
+	static Date parseDateTime(String sValue)
+	{
+		if (sValue.length() < 15 || sValue.charAt(8) != 'T')
+		{
+			throw new IllegalArgumentException("Invalid date-time: " + sValue);
+		}
+
+		int nYear   = parseNumber(sValue, 0, 4);
+		int nMonth  = parseNumber(sValue, 4, 6);
+		int nDay    = parseNumber(sValue, 6, 8);
+		int nHour   = parseNumber(sValue, 9, 11);
+		int nMinute = parseNumber(sValue, 11, 13);
+		int nSecond = parseNumber(sValue, 13, 15);
+
+		if (sValue.endsWith("Z"))
+		{
+			long nTime =
+				getEpochDay(nYear, nMonth, nDay) * MILLIS_PER_DAY +
+				nHour * MILLIS_PER_HOUR + nMinute * MILLIS_PER_MINUTE +
+				nSecond * MILLIS_PER_SECOND;
+
+			return new Date(nTime);
+		}
+		else
+		{
+			return new Date(nYear - 1900,
+							nMonth - 1,
+							nDay,
+							nHour,
+							nMinute,
+							nSecond);
+		}
+	}
+
+	/***************************************
+	 * Parses an iCalendar DURATION value like "PT1H30M" or "-P2D". Days and
+	 * weeks are converted into exact multiples of 24 hours.
+	 *
+	 * @param  sValue The value to parse
+	 *
+	 * @return The duration in milliseconds
+	 *
+	 * @throws IllegalArgumentException If the value is invalid
+	 */
+	static long parseDuration(String sValue)
+	{
+		int  nLength   = sValue.length();
+		int  nPosition = 0;
+		long nSign     = 1;
+		long nDuration = 0;
+		long nNumber   = -1;
+
+		if (nLength > 0 && (sValue.charAt(0) == '+' || sValue.charAt(0) == '-'))
+		{
+			nSign = sValue.charAt(0) == '-' ? -1 : 1;
+			nPosition++;
+		}
+
+		if (nPosition >= nLength || sValue.charAt(nPosition++) != 'P')
+		{
+			throw new IllegalArgumentException("Invalid duration: " + sValue);
+		}
+
+		while (nPosition < nLength)
+		{
+			char c    = sValue.charAt(nPosition++);
+			long nPer = 0;
+
+			if (c >= '0' && c <= '9')
+			{
+				nNumber = (nNumber < 0 ? 0 : nNumber * 10) + (c - '0');
+			}
+			else if (c != 'T')
+			{
+				if (c == 'W')
+				{
+					nPer = 7 * MILLIS_PER_DAY;
+				}
+				else if (c == 'D')
+				{
+					nPer = MILLIS_PER_DAY;
+				}
+				else if (c == 'H')
+				{
+					nPer = MILLIS_PER_HOUR;
+				}
+				else if (c == 'M')
+				{
+					nPer = MILLIS_PER_MINUTE;
+				}
+				else if (c == 'S')
+				{
+					nPer = MILLIS_PER_SECOND;
+				}
+
+				if (nPer == 0 || nNumber < 0)
+				{
+					throw new IllegalArgumentException("Invalid duration: " +
+													   sValue);
+				}
+
+				nDuration += nNumber * nPer;
+				nNumber   =  -1;
+			}
+		}
+
+		return nSign * nDuration;
+	}
+
+	/***************************************
+	 * Removes the escaping from a text value.
+	 *
+	 * @param  sText The escaped text
+	 *
+	 * @return The unescaped text
+	 */
+	static String unescape(String sText)
+	{
+		if (sText.indexOf('\\') < 0)
+		{
+			return sText;
+		}
+
+		StringBuilder aResult = new StringBuilder(sText.length());
+		int			  nLength = sText.length();
+
+		for (int i = 0; i < nLength; i++)
+		{
+			char c = sText.charAt(i);
+
+			if (c == '\\' && i + 1 < nLength)
+			{
+				c = sText.charAt(++i);
+
+				if (c == 'n' || c == 'N')
+				{
+					c = '\n';
+				}
+			}
+
+			aResult.append(c);
+		}
+
+		return aResult.toString();
+	}
+
+	/***************************************
+	 * Appends a number with leading zeros.
+	 *
+	 * @param rBuilder The string builder to append to
+	 * @param nNumber  The number to append
+	 * @param nDigits  The minimum number of digits
+	 */
+	private static void appendDigits(StringBuilder rBuilder,
+									 int		   nNumber,
+									 int		   nDigits)
+	{
+		String sNumber = Integer.toString(nNumber);
+
+		for (int i = sNumber.length(); i < nDigits; i++)
+		{
+			rBuilder.append('0');
+		}
+
+		rBuilder.append(sNumber);
+	}
+
+	/***************************************
+	 * Divides two numbers and rounds the result towards negative infinity.
+	 *
+	 * @param  nDividend The dividend
+	 * @param  nDivisor  The positive divisor
+	 *
+	 * @return The rounded quotient
+	 */
+	private static long floorDiv(long nDividend, long nDivisor)
+	{
+		long nQuotient = nDividend / nDivisor;
+
+		return nQuotient * nDivisor > nDividend ? nQuotient - 1 : nQuotient;
+	}
+
+	/***************************************
+	 * Returns the date in the proleptic Gregorian calendar that corresponds
+	 * to a number of days since 1970-01-01.
+	 *
+	 * @param  nEpochDay The number of days since the epoch
+	 *
+	 * @return An array containing the year, month (1-12) and day of month
+	 */
+	private static int[] getCivilDate(long nEpochDay)
+	{
+		long nDays	     = nEpochDay + EPOCH_DAY_OFFSET;
+		long nEra	     = floorDiv(nDays, DAYS_PER_ERA);
+		long nDayOfEra   = nDays - nEra * DAYS_PER_ERA;
+		long nYearOfEra  =
+			(nDayOfEra - nDayOfEra / 1460 + nDayOfEra / 36524 -
+			 nDayOfEra / 146096) / 365;
+		long nDayOfYear  =
+			nDayOfEra - (365 * nYearOfEra + nYearOfEra / 4 - nYearOfEra / 100);
+		long nShiftMonth = (5 * nDayOfYear + 2) / 153;
+		long nDay	     = nDayOfYear - (153 * nShiftMonth + 2) / 5 + 1;
+		long nMonth	     =
+			nShiftMonth < 10 ? nShiftMonth + 3 : nShiftMonth - 9;
+		long nYear	     = nYearOfEra + nEra * 400 + (nMonth <= 2 ? 1 : 0);
+
+		return new int[] { (int) nYear, (int) nMonth, (int) nDay };
+	}
+
+	/***************************************
+	 * Returns the number of days since 1970-01-01 for a date in the proleptic
+	 * Gregorian calendar.
+	 *
+	 * @param  nYear  The year
+	 * @param  nMonth The month (1-12)
+	 * @param  nDay   The day of month
+	 *
+	 * @return The number of days since the epoch
+	 */
+	private static long getEpochDay(int nYear, int nMonth, int nDay)
+	{
+		long nShiftYear = nMonth <= 2 ? nYear - 1 : nYear;
+		long nEra	    = floorDiv(nShiftYear, 400);
+		long nYearOfEra = nShiftYear - nEra * 400;
+		long nDayOfYear =
+			(153 * (nMonth > 2 ? nMonth - 3 : nMonth + 9) + 2) / 5 + nDay - 1;
+		long nDayOfEra  =
+			nYearOfEra * 365 + nYearOfEra / 4 - nYearOfEra / 100 + nDayOfYear;
+
+		return nEra * DAYS_PER_ERA + nDayOfEra - EPOCH_DAY_OFFSET;
+	}
+
+	/***************************************
+	 * Parses a decimal number from a part of a string.
+	 *
+	 * @param  sValue The string value
+	 * @param  nStart The start of the number (inclusive)
+	 * @param  nEnd   The end of the number (exclusive)
+	 *
+	 * @return The parsed number
+	 *
+	 * @throws IllegalArgumentException If the value does not contain a valid
+	 *                                  number at the given position
+	 */
+	private static int parseNumber(String sValue, int nStart, int nEnd)
+	{
+		if (sValue.length() < nEnd)
+		{
+			throw new IllegalArgumentException("Invalid value: " + sValue);
+		}
+
+		return Integer.parseInt(sValue.substring(nStart, nEnd));
+	}
+}
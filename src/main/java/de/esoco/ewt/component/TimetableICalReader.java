@@ -0,0 +1,539 @@
+//++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+// gewt-timetable source file
+// Copyright (c) 2017 Elmar Sonnenschein / esoco GmbH
+// Last Change: 08.05.2017 by eso
+//
+// gewt-timetable is free software; you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published
+// by the Free Software Foundation; either version 3 of the License,
+// or (at your option) any later version.
+//
+// gewt-timetable is distributed in the hope that it will be useful, but
+// WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License along
+// with gewt-timetable; if not, write to the Free Software Foundation, Inc.,
+// 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA or use the
+// contact information on the FSF website http://www.fsf.org
+//++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+package de.esoco.ewt.component;
+
+import de.esoco.lib.property.PropertyName;
+import de.esoco.lib.property.StringProperties;
+
+import java.util.Date;
+
+import static de.esoco.lib.property.StandardProperties.ALL_DAY;
+import static de.esoco.lib.property.StandardProperties.DESCRIPTION;
+import static de.esoco.lib.property.StandardProperties.END_DATE;
+import static de.esoco.lib.property.StandardProperties.ID;
+import static de.esoco.lib.property.StandardProperties.LOCATION;
+import static de.esoco.lib.property.StandardProperties.START_DATE;
+import static de.esoco.lib.property.StandardProperties.TITLE;
+
+
+/********************************************************************
+ * Reads the events of iCalendar data (RFC 5545) incrementally and hands them
+ * to a {@link ChunkHandler} in chunks of encoded event batches that can be
+ * added directly to a timetable with {@link
+ * Timetable#addEvents(TimetableEventBatch)}. The text is pushed into the
+ * reader in arbitrary fragments with {@link #read(String)}, e.g. as it is
+ * received from the server. Only the current incomplete line, the current
+ * event, and the events of the current chunk are kept in memory so that
+ * large calendars can be imported without holding the complete text or all
+ * events at once. This class has no dependencies on client-side code so that
+ * it can also be used on the server.
+ *
+ * <p>The following VEVENT properties are mapped to the standard properties
+ * of timetable events:</p>
+ *
+ * <ul>
+ *   <li>UID: {@link de.esoco.lib.property.StandardProperties#ID}</li>
+ *   <li>SUMMARY: {@link de.esoco.lib.property.StandardProperties#TITLE}</li>
+ *   <li>DESCRIPTION: {@link
+ *     de.esoco.lib.property.StandardProperties#DESCRIPTION}</li>
+ *   <li>LOCATION: {@link
+ *     de.esoco.lib.property.StandardProperties#LOCATION}</li>
+ *   <li>DTSTART: {@link
+ *     de.esoco.lib.property.StandardProperties#START_DATE}</li>
+ *   <li>DTEND or DURATION: {@link
+ *     de.esoco.lib.property.StandardProperties#END_DATE}</li>
+ *   <li>RRULE: {@link TimetableEventEncoder#RECURRENCE_RULE}</li>
+ *   <li>EXDATE: {@link TimetableEventEncoder#RECURRENCE_EXCEPTIONS}</li>
+ * </ul>
+ *
+ * <p>Events with a DTSTART of the type DATE become all-day events. Their end
+ * date will be set to the start of the last day of the event because the
+ * DTEND of an iCalendar event is exclusive. Date-times in UTC are converted
+ * exactly, all other date-times are interpreted in the default time zone,
+ * i.e. TZID parameters are ignored. Alarms and all other properties are
+ * ignored too. Recurrence rules must be supported by {@link
+ * TimetableRecurrence} which also excludes the complete day of each EXDATE.
+ * Events without a valid DTSTART or with an unsupported recurrence will be
+ * skipped and counted as such. Events without a UID will receive a generated
+ * ID that is unique for all readers and writers because it starts with a
+ * prefix that is created by {@link TimetableICal#createIdPrefix()}.</p>
+ *
+ * @author eso
+ */
+public class TimetableICalReader
+{
+	//~ Static fields/initializers ---------------------------------------------
+
+	private static final String VEVENT = "VEVENT";
+
+	private static final PropertyName<String> RECURRENCE_RULE	    =
+		TimetableEventEncoder.RECURRENCE_RULE;
+	private static final PropertyName<String> RECURRENCE_EXCEPTIONS =
+		TimetableEventEncoder.RECURRENCE_EXCEPTIONS;
+
+	//~ Instance fields --------------------------------------------------------
+
+	private final int		   nChunkSize;
+	private final ChunkHandler rChunkHandler;
+	private final String	   sIdPrefix;
+
+	private final TimetableEventEncoder aEncoder = new TimetableEventEncoder();
+	private final StringBuilder		    aInput   = new StringBuilder();
+
+	private StringBuilder    aLine		  = null;
+	private StringProperties aEvent		  = null;
+	private String			 sDuration    = null;
+	private boolean			 bInvalid     = false;
+	private int				 nSubLevel    = 0;
+	private int				 nChunkEvents = 0;
+	private int				 nEventCount  = 0;
+	private int				 nSkipCount   = 0;
+
+	//~ Constructors -----------------------------------------------------------
+
+	/***************************************
+	 * Creates a new instance.
+	 *
+	 * @param nChunkSize    The maximum number of events in a chunk
+	 * @param rChunkHandler The handler that receives the event chunks
+	 */
+	public TimetableICalReader(int nChunkSize, ChunkHandler rChunkHandler)
+	{
+		if (nChunkSize <= 0)
+		{
+			throw new IllegalArgumentException("Chunk size must be > 0");
+		}
+
+		this.nChunkSize    = nChunkSize;
+		this.rChunkHandler = rChunkHandler;
+
+		sIdPrefix = TimetableICal.createIdPrefix();
+	}
+
+	//~ Methods ----------------------------------------------------------------
+
+	/***************************************
+	 * Processes the remaining input and hands the last chunk of events to the
+	 * chunk handler. This method must be invoked after all text has been
+	 * read. Afterwards this reader can be used to read further calendar data.
+	 */
+	public void finish()
+	{
+		if (aInput.length() > 0)
+		{
+			processPhysicalLine(aInput.toString());
+			aInput.setLength(0);
+		}
+
+		if (aLine != null)
+		{
+			processLine(aLine.toString());
+			aLine = null;
+		}
+
+		aEvent    = null;
+		nSubLevel = 0;
+		flushChunk();
+	}
+
+	/***************************************
+	 * Returns the number of events that have been read so far.
+	 *
+	 * @return The event count
+	 */
+	public final int getEventCount()
+	{
+		return nEventCount;
+	}
+
+	/***************************************
+	 * Returns the number of events that have been skipped because of invalid
+	 * or missing start or end dates or an unsupported recurrence.
+	 *
+	 * @return The number of skipped events
+	 */
+	public final int getSkipCount()
+	{
+		return nSkipCount;
+	}
+
+	/***************************************
+	 * Reads the next fragment of iCalendar text. The fragment may end
+	 * anywhere, even in the middle of a line. All complete events will be
+	 * added to the current chunk which will be handed to the chunk handler as
+	 * soon as it contains the maximum number of events.
+	 *
+	 * @param sText The next text fragment
+	 */
+	public void read(String sText)
+	{
+		int nPosition = 0;
+		int nLineEnd;
+
+		aInput.append(sText);
+
+		while ((nLineEnd = aInput.indexOf("\n", nPosition)) >= 0)
+		{
+			int nEnd = nLineEnd;
+
+			if (nEnd > nPosition && aInput.charAt(nEnd - 1) == '\r')
+			{
+				nEnd--;
+			}
+
+			processPhysicalLine(aInput.substring(nPosition, nEnd));
+			nPosition = nLineEnd + 1;
+		}
+
+		aInput.delete(0, nPosition);
+	}
+
+	/***************************************
+	 * Completes the current event and adds it to the current chunk.
+	 */
+	private void endEvent()
+	{
+		Date rStart = aEvent.getProperty(START_DATE, null);
+		Date rEnd   = aEvent.getProperty(END_DATE, null);
+
+		try
+		{
+			if (rStart != null && rEnd == null && sDuration != null)
+			{
+				rEnd = new Date(rStart.getTime() +
+								TimetableICal.parseDuration(sDuration));
+			}
+		}
+		catch (IllegalArgumentException e)
+		{
+			bInvalid = true;
+		}
+
+		try
+		{
+			TimetableRecurrence.parse(aEvent.getProperty(RECURRENCE_RULE,
+														 null),
+									  aEvent.getProperty(RECURRENCE_EXCEPTIONS,
+														 null));
+		}
+		catch (IllegalArgumentException e)
+		{
+			bInvalid = true;
+		}
+
+		if (rStart == null || bInvalid)
+		{
+			nSkipCount++;
+		}
+		else
+		{
+			if (aEvent.hasFlag(ALL_DAY))
+			{
+				rEnd = getLastDay(rStart, rEnd);
+			}
+			else if (rEnd == null || rEnd.before(rStart))
+			{
+				rEnd = rStart;
+			}
+
+			aEvent.setProperty(END_DATE, rEnd);
+
+			if (!aEvent.hasProperty(ID))
+			{
+				aEvent.setProperty(ID, sIdPrefix + nEventCount);
+			}
+
+			if (!aEvent.hasProperty(TITLE))
+			{
+				aEvent.setProperty(TITLE, "");
+			}
+
+			aEncoder.add(aEvent);
+			nEventCount++;
+
+			if (++nChunkEvents >= nChunkSize)
+			{
+				flushChunk();
+			}
+		}
+
+		aEvent = null;
+	}
+
+	/***************************************
+	 * Returns the index of the colon that separates the name and parameters
+	 * of a content line from the value. Colons in quoted parameter values are
+	 * ignored.
+	 *
+	 * @param  sLine The content line
+	 *
+	 * @return The index of the separator or -1 if not found
+	 */
+	private int findValueSeparator(String sLine)
+	{
+		boolean bQuoted = false;
+		int     nLength = sLine.length();
+
+		for (int i = 0; i < nLength; i++)
+		{
+			char c = sLine.charAt(i);
+
+			if (c == '"')
+			{
+				bQuoted = !bQuoted;
+			}
+			else if (c == ':' && !bQuoted)
+			{
+				return i;
+			}
+		}
+
+		return -1;
+	}
+
+	/***************************************
+	 * Hands the current chunk of events to the chunk handler if it is not
+	 * empty.
+	 */
+	private void flushChunk()
+	{
+		if (nChunkEvents > 0)
+		{
+			nChunkEvents = 0;
+			rChunkHandler.handleChunk(aEncoder.encode());
+		}
+	}
+
+	/***************************************
+	 * Returns the inclusive last day of an all-day event from the exclusive
+	 * iCalendar end date.
+	 *
+	 * @param  rStart The start day of the event
+	 * @param  rEnd   The exclusive end day or NULL for a single day
+	 *
+	 * @return The last day of the event
+	 */
+	@SuppressWarnings("deprecation")
+	private Date getLastDay(Date rStart, Date rEnd)
+	{
+		if (rEnd != null)
+		{
+			rEnd =
+				new Date(rEnd.getYear(), rEnd.getMonth(), rEnd.getDate() - 1);
+		}
+
+		return rEnd != null && rEnd.after(rStart) ? rEnd : rStart;
+	}
+
+	/***************************************
+	 * Parses the value of a date property. If the value type is DATE the
+	 * current event will be marked as an all-day event.
+	 *
+	 * @param  sParams The upper case parameters of the property
+	 * @param  sValue  The property value
+	 * @param  bStart  TRUE for the start date
+	 *
+	 * @return The parsed date or NULL if the value is invalid
+	 */
+	private Date parseDate(String sParams, String sValue, boolean bStart)
+	{
+		boolean bDateOnly =
+			sParams.contains("VALUE=DATE") && !sParams.contains("DATE-TIME") ||
+			sValue.length() == 8;
+
+		try
+		{
+			if (bDateOnly)
+			{
+				if (bStart)
+				{
+					aEvent.setProperty(ALL_DAY, Boolean.TRUE);
+				}
+
+				return TimetableICal.parseDate(sValue);
+			}
+			else
+			{
+				return TimetableICal.parseDateTime(sValue);
+			}
+		}
+		catch (IllegalArgumentException e)
+		{
+			bInvalid = true;
+
+			return null;
+		}
+	}
+
+	/***************************************
+	 * Processes a complete (i.e. unfolded) content line.
+	 *
+	 * @param sLine The content line
+	 */
+	private void processLine(String sLine)
+	{
+		int nSeparator = findValueSeparator(sLine);
+
+		if (nSeparator < 0)
+		{
+			return;
+		}
+
+		String sName   = sLine.substring(0, nSeparator).toUpperCase();
+		String sValue  = sLine.substring(nSeparator + 1);
+		String sParams = "";
+		int    nParams = sName.indexOf(';');
+
+		if (nParams >= 0)
+		{
+			sParams = sName.substring(nParams + 1);
+			sName   = sName.substring(0, nParams);
+		}
+
+		if ("BEGIN".equals(sName))
+		{
+			if (aEvent != null)
+			{
+				nSubLevel++;
+			}
+			else if (VEVENT.equalsIgnoreCase(sValue))
+			{
+				aEvent    = new StringProperties();
+				sDuration = null;
+				bInvalid  = false;
+			}
+		}
+		else if (aEvent != null)
+		{
+			if ("END".equals(sName))
+			{
+				if (nSubLevel > 0)
+				{
+					nSubLevel--;
+				}
+				else
+				{
+					endEvent();
+				}
+			}
+			else if (nSubLevel == 0)
+			{
+				setEventProperty(sName, sParams, sValue);
+			}
+		}
+	}
+
+	/***************************************
+	 * Processes a physical line of the input. Lines that start with a space
+	 * or tab are continuations of the previous line.
+	 *
+	 * @param sLine The physical line without the line terminator
+	 */
+	private void processPhysicalLine(String sLine)
+	{
+		if (sLine.length() > 0 &&
+			(sLine.charAt(0) == ' ' || sLine.charAt(0) == '\t'))
+		{
+			if (aLine != null)
+			{
+				aLine.append(sLine, 1, sLine.length());
+			}
+		}
+		else
+		{
+			if (aLine != null)
+			{
+				processLine(aLine.toString());
+			}
+
+			aLine = sLine.length() > 0 ? new StringBuilder(sLine) : null;
+		}
+	}
+
+	/***************************************
+	 * Maps an iCalendar property to a property of the current event.
+	 *
+	 * @param sName   The upper case property name
+	 * @param sParams The upper case property parameters
+	 * @param sValue  The property value
+	 */
+	private void setEventProperty(String sName, String sParams, String sValue)
+	{
+		if ("UID".equals(sName))
+		{
+			aEvent.setProperty(ID, sValue);
+		}
+		else if ("SUMMARY".equals(sName))
+		{
+			aEvent.setProperty(TITLE, TimetableICal.unescape(sValue));
+		}
+		else if ("DESCRIPTION".equals(sName))
+		{
+			aEvent.setProperty(DESCRIPTION, TimetableICal.unescape(sValue));
+		}
+		else if ("LOCATION".equals(sName))
+		{
+			aEvent.setProperty(LOCATION, TimetableICal.unescape(sValue));
+		}
+		else if ("DTSTART".equals(sName))
+		{
+			aEvent.setProperty(START_DATE, parseDate(sParams, sValue, true));
+		}
+		else if ("DTEND".equals(sName))
+		{
+			aEvent.setProperty(END_DATE, parseDate(sParams, sValue, false));
+		}
+		else if ("DURATION".equals(sName))
+		{
+			sDuration = sValue;
+		}
+		else if ("RRULE".equals(sName))
+		{
+			aEvent.setProperty(RECURRENCE_RULE, sValue);
+		}
+		else if ("EXDATE".equals(sName))
+		{
+			String sExceptions =
+				aEvent.getProperty(RECURRENCE_EXCEPTIONS, null);
+
+			aEvent.setProperty(RECURRENCE_EXCEPTIONS,
+							   sExceptions != null ? sExceptions + "," + sValue
+												   : sValue);
+		}
+	}
+
+	//~ Inner Interfaces -------------------------------------------------------
+
+	/********************************************************************
+	 * The interface for the receivers of the event chunks of a reader.
+	 */
+	public static interface ChunkHandler
+	{
+		//~ Methods ------------------------------------------------------------
+
+		/***************************************
+		 * Handles a chunk of events that have been read.
+		 *
+		 * @param rChunk The event batch containing the events of the chunk
+		 */
+		public void handleChunk(TimetableEventBatch rChunk);
+	}
+}
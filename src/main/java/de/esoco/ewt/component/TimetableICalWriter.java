@@ -0,0 +1,448 @@
+//++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+// gewt-timetable source file
+// Copyright (c) 2017 Elmar Sonnenschein / esoco GmbH
+// Last Change: 08.05.2017 by eso
+//
+// gewt-timetable is free software; you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published
+// by the Free Software Foundation; either version 3 of the License,
+// or (at your option) any later version.
+//
+// gewt-timetable is distributed in the hope that it will be useful, but
+// WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License along
+// with gewt-timetable; if not, write to the Free Software Foundation, Inc.,
+// 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA or use the
+// contact information on the FSF website http://www.fsf.org
+//++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+package de.esoco.ewt.component;
+
+import de.esoco.lib.property.HasProperties;
+import de.esoco.lib.property.PropertyName;
+
+import java.util.Collection;
+import java.util.Date;
+
+import com.bradrydzewski.gwt.calendar.client.Appointment;
+
+import static de.esoco.lib.property.StandardProperties.ALL_DAY;
+import static de.esoco.lib.property.StandardProperties.DESCRIPTION;
+import static de.esoco.lib.property.StandardProperties.END_DATE;
+import static de.esoco.lib.property.StandardProperties.ID;
+import static de.esoco.lib.property.StandardProperties.LOCATION;
+import static de.esoco.lib.property.StandardProperties.START_DATE;
+import static de.esoco.lib.property.StandardProperties.TITLE;
+
+
+/********************************************************************
+ * Writes timetable events as iCalendar data (RFC 5545). The text is generated
+ * incrementally and handed to an {@link OutputHandler} in fragments of a
+ * configurable size so that large numbers of events can be exported without
+ * creating the complete text in memory. The event properties are mapped in
+ * the same way as by {@link TimetableICalReader}, i.e. date-times are written
+ * in UTC and all-day events as DATE values with an exclusive end date. The
+ * rules of recurring events are written as RRULE and their exceptions as
+ * EXDATE values of the same type as the start date. Events without an ID
+ * receive a generated UID like in the reader. The content of a timetable can
+ * be written with {@link Timetable#exportEvents(TimetableICalWriter)}.
+ *
+ * <p>The calendar header will be written before the first event. After the
+ * last event {@link #finish()} must be invoked to write the calendar footer
+ * and the remaining text.</p>
+ *
+ * @author eso
+ */
+public class TimetableICalWriter
+{
+	//~ Static fields/initializers ---------------------------------------------
+
+	// the maximum number of octets in a line without the line break
+	private static final int MAX_LINE_LENGTH = 75;
+
+	private static final String PRODUCT_ID = "-//esoco//gewt-timetable//EN";
+
+	private static final PropertyName<String> RECURRENCE_RULE	    =
+		TimetableEventEncoder.RECURRENCE_RULE;
+	private static final PropertyName<String> RECURRENCE_EXCEPTIONS =
+		TimetableEventEncoder.RECURRENCE_EXCEPTIONS;
+
+	//~ Instance fields --------------------------------------------------------
+
+	private final int		    nBufferSize;
+	private final OutputHandler rOutputHandler;
+	private final String	    sTimestamp;
+	private final String	    sIdPrefix;
+
+	private final StringBuilder aBuffer = new StringBuilder();
+
+	private boolean bStarted    = false;
+	private int     nEventCount = 0;
+
+	//~ Constructors -----------------------------------------------------------
+
+	/***************************************
+	 * Creates a new instance.
+	 *
+	 * @param nBufferSize    The number of characters after which the written
+	 *                       text will be handed to the output handler
+	 * @param rOutputHandler The handler that receives the text fragments
+	 */
+	public TimetableICalWriter(int nBufferSize, OutputHandler rOutputHandler)
+	{
+		this.nBufferSize    = nBufferSize;
+		this.rOutputHandler = rOutputHandler;
+
+		sTimestamp = TimetableICal.formatUtcDateTime(new Date().getTime());
+		sIdPrefix  = TimetableICal.createIdPrefix();
+	}
+
+	//~ Methods ----------------------------------------------------------------
+
+	/***************************************
+	 * Writes the calendar footer and hands the remaining text to the output
+	 * handler. Afterwards this writer can be used to write another calendar.
+	 */
+	public void finish()
+	{
+		start();
+		writeLine("END:VCALENDAR");
+		flush();
+
+		bStarted = false;
+	}
+
+	/***************************************
+	 * Returns the number of events that have been written so far.
+	 *
+	 * @return The event count
+	 */
+	public final int getEventCount()
+	{
+		return nEventCount;
+	}
+
+	/***************************************
+	 * Writes an event with the properties that are supported by {@link
+	 * Timetable#addEvent(HasProperties)}. Events without a start date will be
+	 * ignored.
+	 *
+	 * @param rEvent The event properties
+	 */
+	public void writeEvent(HasProperties rEvent)
+	{
+		writeEvent(rEvent.getProperty(ID, null),
+				   rEvent.getProperty(TITLE, null),
+				   rEvent.getProperty(DESCRIPTION, null),
+				   rEvent.getProperty(LOCATION, null),
+				   rEvent.getProperty(START_DATE, null),
+				   rEvent.getProperty(END_DATE, null),
+				   rEvent.hasFlag(ALL_DAY),
+				   rEvent.getProperty(RECURRENCE_RULE, null),
+				   rEvent.getProperty(RECURRENCE_EXCEPTIONS, null));
+	}
+
+	/***************************************
+	 * Writes multiple events.
+	 *
+	 * @param rEvents The events to write
+	 *
+	 * @see   #writeEvent(HasProperties)
+	 */
+	public void writeEvents(Collection<? extends HasProperties> rEvents)
+	{
+		for (HasProperties rEvent : rEvents)
+		{
+			writeEvent(rEvent);
+		}
+	}
+
+	/***************************************
+	 * Writes an event directly from a timetable appointment without creating
+	 * a properties object for it.
+	 *
+	 * @param rAppointment The appointment to write
+	 * @param rRecurrence  The recurrence of the appointment or NULL for none
+	 */
+	void writeEvent(Appointment rAppointment, TimetableRecurrence rRecurrence)
+	{
+		writeEvent(rAppointment.getId(),
+				   rAppointment.getTitle(),
+				   rAppointment.getDescription(),
+				   rAppointment.getLocation(),
+				   rAppointment.getStart(),
+				   rAppointment.getEnd(),
+				   rAppointment.isAllDay(),
+				   rRecurrence != null ? rRecurrence.getRule() : null,
+				   rRecurrence != null ? rRecurrence.getExceptions() : null);
+	}
+
+	/***************************************
+	 * Hands the buffered text to the output handler if it is not empty.
+	 */
+	private void flush()
+	{
+		if (aBuffer.length() > 0)
+		{
+			rOutputHandler.write(aBuffer.toString());
+			aBuffer.setLength(0);
+		}
+	}
+
+	/***************************************
+	 * Returns the number of octets of a code point in the UTF-8 encoding.
+	 *
+	 * @param  nCodePoint The code point
+	 *
+	 * @return The number of octets (1 to 4)
+	 */
+	private int getUtf8Length(int nCodePoint)
+	{
+		if (nCodePoint < 0x80)
+		{
+			return 1;
+		}
+		else if (nCodePoint < 0x800)
+		{
+			return 2;
+		}
+		else if (nCodePoint < 0x10000)
+		{
+			return 3;
+		}
+		else
+		{
+			return 4;
+		}
+	}
+
+	/***************************************
+	 * Writes the calendar header if it hasn't been written yet.
+	 */
+	private void start()
+	{
+		if (!bStarted)
+		{
+			bStarted = true;
+			writeLine("BEGIN:VCALENDAR");
+			writeLine("VERSION:2.0");
+			writeLine("PRODID:" + PRODUCT_ID);
+		}
+	}
+
+	/***************************************
+	 * Writes the date properties of an event.
+	 *
+	 * @param rStart  The start date
+	 * @param rEnd    The end date or NULL for none
+	 * @param bAllDay TRUE for an all-day event
+	 */
+	@SuppressWarnings("deprecation")
+	private void writeDates(Date rStart, Date rEnd, boolean bAllDay)
+	{
+		if (bAllDay)
+		{
+			// the iCalendar end date of all-day events is exclusive
+			Date rLastDay = rEnd != null && rEnd.after(rStart) ? rEnd : rStart;
+			Date aEndDay  =
+				new Date(rLastDay.getYear(),
+						 rLastDay.getMonth(),
+						 rLastDay.getDate() + 1);
+
+			writeLine("DTSTART;VALUE=DATE:" +
+					  TimetableICal.formatDate(rStart));
+			writeLine("DTEND;VALUE=DATE:" + TimetableICal.formatDate(aEndDay));
+		}
+		else
+		{
+			writeLine("DTSTART:" +
+					  TimetableICal.formatUtcDateTime(rStart.getTime()));
+
+			if (rEnd != null)
+			{
+				writeLine("DTEND:" +
+						  TimetableICal.formatUtcDateTime(rEnd.getTime()));
+			}
+		}
+	}
+
+	/***************************************
+	 * Writes a single event.
+	 *
+	 * @param sId          The event ID or NULL to generate a UID
+	 * @param sTitle       The event title
+	 * @param sDescription The event description
+	 * @param sLocation    The event location
+	 * @param rStart       The start date
+	 * @param rEnd         The end date
+	 * @param bAllDay      TRUE for an all-day event
+	 * @param sRule        The recurrence rule or NULL for none
+	 * @param sExceptions  The recurrence exceptions or NULL for none
+	 */
+	private void writeEvent(String  sId,
+							String  sTitle,
+							String  sDescription,
+							String  sLocation,
+							Date    rStart,
+							Date    rEnd,
+							boolean bAllDay,
+							String  sRule,
+							String  sExceptions)
+	{
+		if (rStart != null)
+		{
+			if (sId == null || sId.length() == 0)
+			{
+				sId = sIdPrefix + nEventCount;
+			}
+
+			start();
+			writeLine("BEGIN:VEVENT");
+			writeText("UID", sId);
+			writeLine("DTSTAMP:" + sTimestamp);
+			writeDates(rStart, rEnd, bAllDay);
+
+			if (sRule != null)
+			{
+				writeLine("RRULE:" + sRule);
+
+				if (sExceptions != null)
+				{
+					writeExceptions(sExceptions, rStart, bAllDay);
+				}
+			}
+
+			writeText("SUMMARY", sTitle);
+			writeText("DESCRIPTION", sDescription);
+			writeText("LOCATION", sLocation);
+			writeLine("END:VEVENT");
+
+			nEventCount++;
+
+			if (aBuffer.length() >= nBufferSize)
+			{
+				flush();
+			}
+		}
+	}
+
+	/***************************************
+	 * Writes the exceptions of a recurring event as EXDATE properties. An
+	 * exception excludes all occurrences on its day. Therefore the exceptions
+	 * of all-day events are written as DATE values and those of other events
+	 * as the UTC date-time of the occurrence on the day of the exception.
+	 *
+	 * @param sExceptions The comma-separated exception dates
+	 * @param rStart      The start date of the recurring event
+	 * @param bAllDay     TRUE for an all-day event
+	 */
+	@SuppressWarnings("deprecation")
+	private void writeExceptions(String  sExceptions,
+								 Date    rStart,
+								 boolean bAllDay)
+	{
+		for (String sException : sExceptions.split(","))
+		{
+			sException = sException.trim();
+
+			if (sException.length() > 0)
+			{
+				Date rDay =
+					sException.length() == 8
+					? TimetableICal.parseDate(sException)
+					: TimetableICal.parseDateTime(sException);
+
+				if (bAllDay)
+				{
+					writeLine("EXDATE;VALUE=DATE:" +
+							  TimetableICal.formatDate(rDay));
+				}
+				else
+				{
+					Date aOccurrence =
+						new Date(rDay.getYear(),
+								 rDay.getMonth(),
+								 rDay.getDate(),
+								 rStart.getHours(),
+								 rStart.getMinutes(),
+								 rStart.getSeconds());
+
+					writeLine("EXDATE:" +
+							  TimetableICal.formatUtcDateTime(aOccurrence
+															  .getTime()));
+				}
+			}
+		}
+	}
+
+	/***************************************
+	 * Writes a content line and folds it if it exceeds the maximum line
+	 * length. As required by the specification the length is measured in the
+	 * octets of the UTF-8 encoding of the line, including the leading space
+	 * of continuation lines. Lines are only folded between code points so
+	 * that multi-byte characters and surrogate pairs are never split.
+	 *
+	 * @param sLine The content line
+	 */
+	private void writeLine(String sLine)
+	{
+		int nLength  = sLine.length();
+		int nSegment = 0;
+		int nOctets  = 0;
+		int nIndex   = 0;
+
+		while (nIndex < nLength)
+		{
+			int nCodePoint = sLine.codePointAt(nIndex);
+			int nSize	   = getUtf8Length(nCodePoint);
+
+			if (nOctets + nSize > MAX_LINE_LENGTH)
+			{
+				aBuffer.append(sLine, nSegment, nIndex)
+					   .append(TimetableICal.LINE_END)
+					   .append(' ');
+				nSegment = nIndex;
+				nOctets  = 1;
+			}
+
+			nOctets += nSize;
+			nIndex  += Character.charCount(nCodePoint);
+		}
+
+		aBuffer.append(sLine, nSegment, nLength)
+			   .append(TimetableICal.LINE_END);
+	}
+
+	/***************************************
+	 * Writes a text property if the value is not empty.
+	 *
+	 * @param sName  The property name
+	 * @param sValue The property value or NULL for none
+	 */
+	private void writeText(String sName, String sValue)
+	{
+		if (sValue != null && sValue.length() > 0)
+		{
+			writeLine(sName + ":" + TimetableICal.escape(sValue));
+		}
+	}
+
+	//~ Inner Interfaces -------------------------------------------------------
+
+	/********************************************************************
+	 * The interface for the receivers of the text written by a writer.
+	 */
+	public static interface OutputHandler
+	{
+		//~ Methods ------------------------------------------------------------
+
+		/***************************************
+		 * Writes the next fragment of the iCalendar text.
+		 *
+		 * @param sText The text fragment
+		 */
+		public void write(String sText);
+	}
+}
@@ -0,0 +1,230 @@
+//++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+// gewt-timetable source file
+// Copyright (c) 2017 Elmar Sonnenschein / esoco GmbH
+// Last Change: 08.05.2017 by eso
+//
+// gewt-timetable is free software; you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published
+// by the Free Software Foundation; either version 3 of the License,
+// or (at your option) any later version.
+//
+// gewt-timetable is distributed in the hope that it will be useful, but
+// WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License along
+// with gewt-timetable; if not, write to the Free Software Foundation, Inc.,
+// 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA or use the
+// contact information on the FSF website http://www.fsf.org
+//++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+package de.esoco.ewt.component;
+
+import de.esoco.lib.property.HasProperties;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import com.bradrydzewski.gwt.calendar.client.Appointment;
+
+
+/********************************************************************
+ * Performs the processing steps of the incremental adding of events to a
+ * timetable independent of the GWT scheduling. In the first phase the events
+ * are converted into appointments and separated into events inside and
+ * outside of the visible date range. The visible events that have been
+ * converted in a time slice are added at the end of that slice so that they
+ * are displayed as early as possible. After the last event has been converted
+ * the remaining events are appended in chunks. Each invocation of {@link
+ * #execute()} processes events until the target reports that the current time
+ * slice has been used up.
+ *
+ * @author eso
+ * @see    Timetable.EventLoader
+ */
+class TimetableIncrementalLoad
+{
+	//~ Instance fields --------------------------------------------------------
+
+	private final List<HasProperties> aEvents;
+	private final int				  nChunkSize;
+	private final Target			  rTarget;
+
+	private final List<Appointment> aHiddenEvents = new ArrayList<>();
+
+	private int nConverted = 0;
+	private int nVisible   = 0;
+	private int nAppended  = 0;
+
+	//~ Constructors -----------------------------------------------------------
+
+	/***************************************
+	 * Creates a new instance.
+	 *
+	 * @param rEvents    The events to add
+	 * @param nChunkSize The maximum number of hidden events to append at once
+	 * @param rTarget    The target that receives the appointments
+	 */
+	TimetableIncrementalLoad(Collection<? extends HasProperties> rEvents,
+							 int								 nChunkSize,
+							 Target								 rTarget)
+	{
+		this.aEvents    = new ArrayList<>(rEvents);
+		this.nChunkSize = nChunkSize;
+		this.rTarget    = rTarget;
+	}
+
+	//~ Methods ----------------------------------------------------------------
+
+	/***************************************
+	 * Performs the next processing step until the current time slice has been
+	 * used up or all events have been added.
+	 */
+	public void execute()
+	{
+		if (nConverted < aEvents.size())
+		{
+			convertEvents();
+		}
+		else
+		{
+			appendHiddenEvents();
+		}
+	}
+
+	/***************************************
+	 * Returns the number of events that have been added to the target so
+	 * far.
+	 *
+	 * @return The number of added events
+	 */
+	public int getAddedCount()
+	{
+		return nVisible + nAppended;
+	}
+
+	/***************************************
+	 * Returns the total number of events to add.
+	 *
+	 * @return The total event count
+	 */
+	public int getTotalCount()
+	{
+		return aEvents.size();
+	}
+
+	/***************************************
+	 * Checks whether all events have been converted and added to the target.
+	 *
+	 * @return TRUE if finished
+	 */
+	public boolean isFinished()
+	{
+		return nConverted == aEvents.size() &&
+			   nAppended == aHiddenEvents.size();
+	}
+
+	/***************************************
+	 * Appends the next chunks of events outside of the visible range until
+	 * the time slice has been used up.
+	 */
+	private void appendHiddenEvents()
+	{
+		int nCount = aHiddenEvents.size();
+
+		while (nAppended < nCount && !rTarget.isSliceExpired())
+		{
+			int nEnd = Math.min(nAppended + nChunkSize, nCount);
+
+			rTarget.appendHiddenAppointments(aHiddenEvents.subList(nAppended,
+																   nEnd));
+			nAppended = nEnd;
+		}
+	}
+
+	/***************************************
+	 * Converts the next events into appointments until the time slice has
+	 * been used up. The converted events in the visible date range will then
+	 * be added to the target.
+	 */
+	private void convertEvents()
+	{
+		List<Appointment> aVisibleEvents = new ArrayList<>();
+		int				  nCount		 = aEvents.size();
+
+		while (nConverted < nCount && !rTarget.isSliceExpired())
+		{
+			Appointment aAppointment =
+				rTarget.createAppointment(aEvents.get(nConverted++));
+
+			if (rTarget.isVisible(aAppointment))
+			{
+				aVisibleEvents.add(aAppointment);
+			}
+			else
+			{
+				aHiddenEvents.add(aAppointment);
+			}
+		}
+
+		if (!aVisibleEvents.isEmpty())
+		{
+			rTarget.addVisibleAppointments(aVisibleEvents);
+			nVisible += aVisibleEvents.size();
+		}
+	}
+
+	//~ Inner Interfaces -------------------------------------------------------
+
+	/********************************************************************
+	 * The interface that needs to be implemented by the receiver of the
+	 * appointments of an incremental loading.
+	 */
+	static interface Target
+	{
+		//~ Methods ------------------------------------------------------------
+
+		/***************************************
+		 * Adds the appointments in the visible date range that have been
+		 * converted in the current time slice. This will be invoked at the
+		 * end of each time slice in which visible events have been converted.
+		 *
+		 * @param rAppointments The visible appointments
+		 */
+		public void addVisibleAppointments(List<Appointment> rAppointments);
+
+		/***************************************
+		 * Appends a chunk of appointments outside of the visible date range.
+		 *
+		 * @param rAppointments The appointments to append
+		 */
+		public void appendHiddenAppointments(List<Appointment> rAppointments);
+
+		/***************************************
+		 * Converts an event into an appointment.
+		 *
+		 * @param  rEvent The event to convert
+		 *
+		 * @return The new appointment
+		 */
+		public Appointment createAppointment(HasProperties rEvent);
+
+		/***************************************
+		 * Checks whether the time slice of the current processing step has
+		 * been used up.
+		 *
+		 * @return TRUE if the processing needs to be interrupted
+		 */
+		public boolean isSliceExpired();
+
+		/***************************************
+		 * Checks whether an appointment is in the visible date range.
+		 *
+		 * @param  rAppointment The appointment to check
+		 *
+		 * @return TRUE if the appointment is visible
+		 */
+		public boolean isVisible(Appointment rAppointment);
+	}
+}
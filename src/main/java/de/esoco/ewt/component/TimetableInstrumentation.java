@@ -0,0 +1,163 @@
+//++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+// gewt-timetable source file
+// Copyright (c) 2017 Elmar Sonnenschein / esoco GmbH
+// Last Change: 08.05.2017 by eso
+//
+// gewt-timetable is free software; you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published
+// by the Free Software Foundation; either version 3 of the License,
+// or (at your option) any later version.
+//
+// gewt-timetable is distributed in the hope that it will be useful, but
+// WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License along
+// with gewt-timetable; if not, write to the Free Software Foundation, Inc.,
+// 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA or use the
+// contact information on the FSF website http://www.fsf.org
+//++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+package de.esoco.ewt.component;
+
+import de.esoco.ewt.component.TimetableStatistics.Operation;
+
+
+/********************************************************************
+ * Records the durations of timetable operations and the number of created
+ * appointment widgets. Durations are measured with {@link System#nanoTime()}
+ * which is available in GWT as well as on the JVM so that the same
+ * measurements can be performed in JVM tests and benchmarks. A snapshot of
+ * the recorded values can be queried with {@link #getStatistics()}. An
+ * optional {@link Listener} will be notified of each recorded operation.
+ *
+ * <p>To measure an operation the caller queries the start time with {@link
+ * #startTime()} before it and invokes {@link #record(Operation, long, int)}
+ * with that time afterwards.</p>
+ *
+ * @author eso
+ * @see    Timetable#enableStatistics(boolean)
+ */
+public class TimetableInstrumentation
+{
+	//~ Instance fields --------------------------------------------------------
+
+	private final int	 nOperations  = Operation.values().length;
+	private final int[]  aCounts	  = new int[nOperations];
+	private final long[] aItems		  = new long[nOperations];
+	private final long[] aTotalNanos  = new long[nOperations];
+	private final long[] aMaxNanos    = new long[nOperations];
+
+	private long	 nCreatedWidgets = 0;
+	private Listener rListener		 = null;
+
+	//~ Static methods ---------------------------------------------------------
+
+	/***************************************
+	 * Returns the current time for the measurement of an operation.
+	 *
+	 * @return The start time in nanoseconds
+	 */
+	public static long startTime()
+	{
+		return System.nanoTime();
+	}
+
+	//~ Methods ----------------------------------------------------------------
+
+	/***************************************
+	 * Adds to the number of appointment widgets that have been created.
+	 *
+	 * @param nWidgets The number of new widgets
+	 */
+	public void countWidgets(int nWidgets)
+	{
+		nCreatedWidgets += nWidgets;
+	}
+
+	/***************************************
+	 * Returns a snapshot of the values that have been recorded so far.
+	 *
+	 * @return A new statistics object
+	 */
+	public TimetableStatistics getStatistics()
+	{
+		return new TimetableStatistics(aCounts,
+									   aItems,
+									   aTotalNanos,
+									   aMaxNanos,
+									   nCreatedWidgets);
+	}
+
+	/***************************************
+	 * Records an operation that has started at a certain time and ends now.
+	 *
+	 * @param eOperation The operation
+	 * @param nStartTime The start time as returned by {@link #startTime()}
+	 * @param nItems     The number of items processed by the operation
+	 */
+	public void record(Operation eOperation, long nStartTime, int nItems)
+	{
+		long nDuration = System.nanoTime() - nStartTime;
+		int  nIndex    = eOperation.ordinal();
+
+		aCounts[nIndex]++;
+		aItems[nIndex]	    += nItems;
+		aTotalNanos[nIndex] += nDuration;
+		aMaxNanos[nIndex]   = Math.max(aMaxNanos[nIndex], nDuration);
+
+		if (rListener != null)
+		{
+			rListener.operationRecorded(eOperation, nDuration, nItems);
+		}
+	}
+
+	/***************************************
+	 * Resets all recorded values.
+	 */
+	public void reset()
+	{
+		for (int i = 0; i < nOperations; i++)
+		{
+			aCounts[i]     = 0;
+			aItems[i]	   = 0;
+			aTotalNanos[i] = 0;
+			aMaxNanos[i]   = 0;
+		}
+
+		nCreatedWidgets = 0;
+	}
+
+	/***************************************
+	 * Sets the listener to be notified of recorded operations.
+	 *
+	 * @param rListener The listener or NULL for none
+	 */
+	public void setListener(Listener rListener)
+	{
+		this.rListener = rListener;
+	}
+
+	//~ Inner Interfaces -------------------------------------------------------
+
+	/********************************************************************
+	 * A listener interface for the notification of recorded operations.
+	 *
+	 * @see Timetable#setStatisticsListener(Listener)
+	 */
+	public static interface Listener
+	{
+		//~ Methods ------------------------------------------------------------
+
+		/***************************************
+		 * Will be invoked after an operation has been recorded.
+		 *
+		 * @param eOperation The operation
+		 * @param nDuration  The duration of the operation in nanoseconds
+		 * @param nItems     The number of items processed by the operation
+		 */
+		public void operationRecorded(Operation eOperation,
+									  long		nDuration,
+									  int		nItems);
+	}
+}
@@ -0,0 +1,768 @@
+//++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+// gewt-timetable source file
+// Copyright (c) 2017 Elmar Sonnenschein / esoco GmbH
+// Last Change: 08.05.2017 by eso
+//
+// gewt-timetable is free software; you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published
+// by the Free Software Foundation; either version 3 of the License,
+// or (at your option) any later version.
+//
+// gewt-timetable is distributed in the hope that it will be useful, but
+// WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License along
+// with gewt-timetable; if not, write to the Free Software Foundation, Inc.,
+// 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA or use the
+// contact information on the FSF website http://www.fsf.org
+//++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+package de.esoco.ewt.component;
+
+import de.esoco.ewt.timetable.TimetableLayoutCalculator;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.bradrydzewski.gwt.calendar.client.Appointment;
+import com.bradrydzewski.gwt.calendar.client.CalendarFormat;
+import com.bradrydzewski.gwt.calendar.client.CalendarSettings.Click;
+import com.bradrydzewski.gwt.calendar.client.CalendarView;
+import com.bradrydzewski.gwt.calendar.client.CalendarWidget;
+import com.bradrydzewski.gwt.calendar.client.DateUtils;
+import com.bradrydzewski.gwt.calendar.client.monthview.AppointmentWidget;
+import com.bradrydzewski.gwt.calendar.client.monthview.MonthViewDateUtils;
+import com.bradrydzewski.gwt.calendar.client.monthview.MonthViewStyleManager;
+
+import com.google.gwt.core.client.GWT;
+import com.google.gwt.event.dom.client.ClickEvent;
+import com.google.gwt.event.dom.client.ClickHandler;
+import com.google.gwt.event.dom.client.DoubleClickEvent;
+import com.google.gwt.event.dom.client.DoubleClickHandler;
+import com.google.gwt.user.client.DOM;
+import com.google.gwt.user.client.Element;
+import com.google.gwt.user.client.Event;
+import com.google.gwt.user.client.ui.FlexTable;
+import com.google.gwt.user.client.ui.FlowPanel;
+import com.google.gwt.user.client.ui.HTMLTable.CellFormatter;
+import com.google.gwt.user.client.ui.Label;
+import com.google.gwt.user.client.ui.PopupPanel;
+
+
+/********************************************************************
+ * A month view that limits the number of appointments that are displayed in
+ * each day cell. Other than the gwt-cal month view which distributes all
+ * appointments into a layout description before creating the widgets this
+ * view first counts the appointments per day in a histogram and only creates
+ * widgets for up to the maximum number of appointments per day. Additional
+ * appointments are summarized in a single "+N more" label. The widgets for the
+ * remaining appointments of a day are only created if the user expands the
+ * label by clicking on it.
+ *
+ * <p>The grids of recently displayed months are kept in a small cache
+ * together with their widgets while they are detached from the DOM. If a
+ * cached month is displayed again its grid will be swapped back in without
+ * creating any widgets. A month can also be prerendered with {@link
+ * #prerender(Date, List)} before it is displayed. The cache is keyed by the
+ * displayed date range, the cell event limit and the data version. Setting a
+ * new data version with {@link #setDataVersion(int)} clears the cache.</p>
+ *
+ * <p>Other than the gwt-cal month view this view doesn't support moving
+ * appointments by drag and drop. The drag controller of gwt-cal needs to be
+ * registered for each widget and drop target of a grid which doesn't fit the
+ * detached grids in the cache and the widgets that are created on demand for
+ * expanded cells.</p>
+ *
+ * @author eso
+ */
+class TimetableMonthView extends CalendarView
+{
+	//~ Static fields/initializers ---------------------------------------------
+
+	private static final String MONTH_VIEW_STYLE    = "gwt-cal-MonthView";
+	private static final String WEEKDAY_LABEL_STYLE = "weekDayLabel";
+	private static final String CELL_STYLE		    = "dayCell";
+	private static final String CELL_HEADER_STYLE   = "dayCellLabel";
+	private static final String MORE_LABEL_STYLE    = "moreAppointments";
+	private static final String OVERFLOW_STYLE	    = "gwt-cal-MonthOverflow";
+
+	private static final int MAX_CACHED_PAGES = 4;
+
+	//~ Instance fields --------------------------------------------------------
+
+	private final MonthViewStyleManager rStyleManager =
+		GWT.create(MonthViewStyleManager.class);
+
+	@SuppressWarnings("serial")
+	private final Map<String, MonthPage> aPageCache =
+		new LinkedHashMap<String, MonthPage>(8, 0.75f, true)
+		{
+			@Override
+			protected boolean removeEldestEntry(
+				Map.Entry<String, MonthPage> rEldest)
+			{
+				return size() > MAX_CACHED_PAGES;
+			}
+		};
+
+	private MonthPage  aPage		   = new MonthPage();
+	private int		   nMaxCellEvents;
+	private int		   nDataVersion    = 0;
+	private int		   nCreatedWidgets = 0;
+	private PopupPanel aOverflowPopup  = null;
+
+	//~ Constructors -----------------------------------------------------------
+
+	/***************************************
+	 * Creates a new instance.
+	 *
+	 * @param nMaxCellEvents The maximum number of events to display per day
+	 */
+	public TimetableMonthView(int nMaxCellEvents)
+	{
+		this.nMaxCellEvents = nMaxCellEvents;
+	}
+
+	//~ Methods ----------------------------------------------------------------
+
+	/***************************************
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void attach(CalendarWidget rWidget)
+	{
+		super.attach(rWidget);
+
+		calendarWidget.getRootPanel().add(aPage.aGrid);
+	}
+
+	/***************************************
+	 * Overridden to swap in the grid of the current month from the page
+	 * cache if possible.
+	 *
+	 * @see CalendarView#doLayout()
+	 */
+	@Override
+	public void doLayout()
+	{
+		Date   rDate = calendarWidget.getDate();
+		String sKey  = getPageKey(rDate);
+
+		hideOverflow();
+
+		if (!sKey.equals(aPage.sKey))
+		{
+			MonthPage rCached = aPageCache.remove(sKey);
+
+			if (rCached != null)
+			{
+				showPage(rCached);
+				nCreatedWidgets = 0;
+				onAppointmentSelected(calendarWidget.getSelectedAppointment());
+
+				return;
+			}
+			else if (aPage.sKey != null)
+			{
+				showPage(new MonthPage());
+			}
+		}
+
+		layoutPage(aPage, rDate, calendarWidget.getAppointments());
+		aPage.sKey	    = sKey;
+		nCreatedWidgets = aPage.aAppointmentWidgets.size();
+	}
+
+	/***************************************
+	 * Returns the number of appointments for a certain day as calculated by
+	 * the last layout.
+	 *
+	 * @param  nDay The index of the day in this view
+	 *
+	 * @return The appointment count
+	 */
+	public int getDayCount(int nDay)
+	{
+		return aPage.aDayCounts[nDay];
+	}
+
+	/***************************************
+	 * Returns the maximum number of events that are displayed per day.
+	 *
+	 * @return The maximum cell event count
+	 */
+	public final int getMaxCellEvents()
+	{
+		return nMaxCellEvents;
+	}
+
+	/***************************************
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String getStyleName()
+	{
+		return MONTH_VIEW_STYLE;
+	}
+
+	/***************************************
+	 * Returns the number of appointment widgets that have been created by
+	 * the last layout, excluding the widgets of expanded day cells. This will
+	 * be zero if the grid of the last layout has been taken from the cache.
+	 *
+	 * @return The widget count
+	 */
+	public int getWidgetCount()
+	{
+		return nCreatedWidgets;
+	}
+
+	/***************************************
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void onAppointmentSelected(Appointment rAppointment)
+	{
+		for (AppointmentWidget rWidget : aPage.aAppointmentWidgets)
+		{
+			Appointment rWidgetAppointment = rWidget.getAppointment();
+
+			rStyleManager.applyStyle(rWidget,
+									 calendarWidget.isTheSelectedAppointment(
+										 rWidgetAppointment));
+		}
+	}
+
+	/***************************************
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void onDeleteKeyPressed()
+	{
+		Appointment rSelected = calendarWidget.getSelectedAppointment();
+
+		if (rSelected != null)
+		{
+			deleteAppointment(rSelected);
+		}
+	}
+
+	/***************************************
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void onDoubleClick(Element rElement, Event rEvent)
+	{
+		Appointment rAppointment = findAppointment(rElement);
+
+		if (rAppointment != null)
+		{
+			openAppointment(rAppointment);
+		}
+		else if (getSettings().getTimeBlockClickNumber() == Click.Double)
+		{
+			fireDayClick(rElement);
+		}
+	}
+
+	/***************************************
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void onMouseOver(Element rElement, Event rEvent)
+	{
+		calendarWidget.fireMouseOverEvent(findAppointment(rElement), rElement);
+	}
+
+	/***************************************
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void onSingleClick(Element rElement, Event rEvent)
+	{
+		Appointment rAppointment = findAppointment(rElement);
+		Integer     rMoreDay     = aPage.aMoreLabels.get(rElement);
+
+		if (rAppointment != null)
+		{
+			selectAppointment(rAppointment);
+		}
+		else if (rMoreDay != null)
+		{
+			showOverflow(rMoreDay.intValue(), rElement);
+		}
+		else if (getSettings().getTimeBlockClickNumber() == Click.Single)
+		{
+			fireDayClick(rElement);
+		}
+	}
+
+	/***************************************
+	 * Renders the grid of the month that contains a certain date into the
+	 * page cache if it is neither displayed nor cached already.
+	 *
+	 * @param rDate         The date of the month to render
+	 * @param rAppointments The appointments in the date range of the month
+	 */
+	public void prerender(Date rDate, List<Appointment> rAppointments)
+	{
+		String sKey = getPageKey(rDate);
+
+		if (!sKey.equals(aPage.sKey) && !aPageCache.containsKey(sKey))
+		{
+			MonthPage aNewPage = new MonthPage();
+
+			layoutPage(aNewPage, rDate, rAppointments);
+			aNewPage.sKey = sKey;
+			aPageCache.put(sKey, aNewPage);
+		}
+	}
+
+	/***************************************
+	 * Sets the version of the displayed data. If it differs from the
+	 * current version all cached grids will be discarded and the current
+	 * grid will be recreated by the next layout.
+	 *
+	 * @param nVersion The data version
+	 */
+	public void setDataVersion(int nVersion)
+	{
+		if (nVersion != nDataVersion)
+		{
+			nDataVersion = nVersion;
+			aPage.sKey   = null;
+			aPageCache.clear();
+		}
+	}
+
+	/***************************************
+	 * Sets the maximum number of events that are displayed per day.
+	 *
+	 * @param nMaxCellEvents The new maximum cell event count
+	 */
+	public final void setMaxCellEvents(int nMaxCellEvents)
+	{
+		this.nMaxCellEvents = nMaxCellEvents;
+	}
+
+	/***************************************
+	 * Counts the appointments of each displayed day into the day histogram
+	 * of a page and collects the appointments to be displayed for each day up
+	 * to the maximum cell event count.
+	 *
+	 * @param  rPage         The page to count the appointments for
+	 * @param  rAppointments The appointments to count
+	 *
+	 * @return A list containing the list of displayed appointments for each
+	 *         day
+	 */
+	private List<List<Appointment>> countAppointments(
+		MonthPage		  rPage,
+		List<Appointment> rAppointments)
+	{
+		long[] rDayStarts = rPage.aDayStarts;
+		int[]  rDayCounts = rPage.aDayCounts;
+		int    nDays	  = rDayCounts.length;
+
+		List<List<Appointment>> aDayAppointments = new ArrayList<>(nDays);
+
+		for (int i = 0; i < nDays; i++)
+		{
+			aDayAppointments.add(new ArrayList<Appointment>(nMaxCellEvents));
+		}
+
+		for (Appointment rAppointment : rAppointments)
+		{
+			long nStart = TimetableEventIndex.getStartTime(rAppointment);
+			long nEnd   = TimetableEventIndex.getEndTime(rAppointment);
+
+			// an appointment that ends at midnight doesn't occupy the next
+			// day but the end of an all-day appointment is its last day
+			if (!rAppointment.isAllDay() && nEnd > nStart)
+			{
+				nEnd--;
+			}
+
+			int nFirst =
+				TimetableLayoutCalculator.getDayIndex(rDayStarts, nStart);
+			int nLast  =
+				TimetableLayoutCalculator.getDayIndex(rDayStarts, nEnd);
+
+			nFirst = Math.max(nFirst, 0);
+			nLast  = Math.min(nLast, nDays - 1);
+
+			for (int nDay = nFirst; nDay <= nLast; nDay++)
+			{
+				List<Appointment> rDisplayed = aDayAppointments.get(nDay);
+
+				if (rDisplayed.size() < nMaxCellEvents)
+				{
+					rDisplayed.add(rAppointment);
+				}
+
+				rDayCounts[nDay]++;
+			}
+		}
+
+		return aDayAppointments;
+	}
+
+	/***************************************
+	 * Creates a widget for an appointment.
+	 *
+	 * @param  rAppointment The appointment
+	 *
+	 * @return The new widget
+	 */
+	private AppointmentWidget createAppointmentWidget(Appointment rAppointment)
+	{
+		AppointmentWidget aWidget  = new AppointmentWidget(rAppointment);
+		boolean			  bSelected =
+			calendarWidget.isTheSelectedAppointment(rAppointment);
+
+		rStyleManager.applyStyle(aWidget, bSelected);
+
+		return aWidget;
+	}
+
+	/***************************************
+	 * Creates the panel for a single day cell of a page.
+	 *
+	 * @param  rPage          The page to create the cell for
+	 * @param  rDate          The date of the day
+	 * @param  nDay           The index of the day in this view
+	 * @param  rAppointments  The appointments to display
+	 * @param  nCurrentMonth  The month that is displayed by this view
+	 *
+	 * @return The cell panel
+	 */
+	@SuppressWarnings("deprecation")
+	private FlowPanel createDayCell(MonthPage		  rPage,
+									Date			  rDate,
+									int				  nDay,
+									List<Appointment> rAppointments,
+									int				  nCurrentMonth)
+	{
+		FlowPanel aCell		 = new FlowPanel();
+		Label     aDayLabel  = new Label(String.valueOf(rDate.getDate()));
+		int		  nRemaining = rPage.aDayCounts[nDay] - rAppointments.size();
+
+		aDayLabel.setStyleName(CELL_HEADER_STYLE);
+
+		if (rDate.getMonth() != nCurrentMonth)
+		{
+			aDayLabel.addStyleDependentName("disabled");
+		}
+
+		addDayClickHandler(aDayLabel, DateUtils.newDate(rDate));
+		aCell.add(aDayLabel);
+
+		for (Appointment rAppointment : rAppointments)
+		{
+			AppointmentWidget aWidget = createAppointmentWidget(rAppointment);
+
+			rPage.aAppointmentWidgets.add(aWidget);
+			aCell.add(aWidget);
+		}
+
+		if (nRemaining > 0)
+		{
+			Label aMoreLabel =
+				new Label(CalendarFormat.MESSAGES.more(nRemaining));
+
+			aMoreLabel.setStyleName(MORE_LABEL_STYLE);
+			rPage.aMoreLabels.put(aMoreLabel.getElement(), nDay);
+			aCell.add(aMoreLabel);
+		}
+
+		return aCell;
+	}
+
+	/***************************************
+	 * Creates a widget for an appointment in the overflow popup. Because the
+	 * popup is not part of the calendar widget it handles the mouse events
+	 * itself.
+	 *
+	 * @param  rAppointment The appointment
+	 *
+	 * @return The new widget
+	 */
+	private AppointmentWidget createOverflowWidget(
+		final Appointment rAppointment)
+	{
+		AppointmentWidget aWidget = createAppointmentWidget(rAppointment);
+
+		aWidget.addClickHandler(new ClickHandler()
+			{
+				@Override
+				public void onClick(ClickEvent rEvent)
+				{
+					hideOverflow();
+					selectAppointment(rAppointment);
+				}
+			});
+		aWidget.addDoubleClickHandler(new DoubleClickHandler()
+			{
+				@Override
+				public void onDoubleClick(DoubleClickEvent rEvent)
+				{
+					hideOverflow();
+					openAppointment(rAppointment);
+				}
+			});
+
+		return aWidget;
+	}
+
+	/***************************************
+	 * Returns the appointment of the widget that contains a certain element.
+	 *
+	 * @param  rElement The element
+	 *
+	 * @return The appointment or NULL for none
+	 */
+	private Appointment findAppointment(Element rElement)
+	{
+		for (AppointmentWidget rWidget : aPage.aAppointmentWidgets)
+		{
+			if (DOM.isOrHasChild(rWidget.getElement(), rElement))
+			{
+				return rWidget.getAppointment();
+			}
+		}
+
+		return null;
+	}
+
+	/***************************************
+	 * Fires a time block click event if the element is a day cell.
+	 *
+	 * @param rElement The clicked element
+	 */
+	private void fireDayClick(Element rElement)
+	{
+		Integer rDay = aPage.aCellElements.get(rElement);
+
+		if (rDay != null)
+		{
+			calendarWidget.fireTimeBlockClickEvent(
+				new Date(aPage.aDayStarts[rDay.intValue()]));
+		}
+	}
+
+	/***************************************
+	 * Returns the key of the page that displays the month of a certain date.
+	 *
+	 * @param  rDate The date
+	 *
+	 * @return The page key
+	 */
+	@SuppressWarnings("deprecation")
+	private String getPageKey(Date rDate)
+	{
+		int  nFirstDay  = CalendarFormat.INSTANCE.getFirstDayOfWeek();
+		Date aFirstDate =
+			MonthViewDateUtils.firstDateShownInAMonthView(rDate, nFirstDay);
+
+		return aFirstDate.getTime() + ":" + rDate.getMonth() + ":" +
+			   nMaxCellEvents + ":" + nDataVersion;
+	}
+
+	/***************************************
+	 * Hides the popup for the overflow appointments of a day if it is
+	 * visible.
+	 */
+	private void hideOverflow()
+	{
+		if (aOverflowPopup != null)
+		{
+			aOverflowPopup.hide();
+			aOverflowPopup = null;
+		}
+	}
+
+	/***************************************
+	 * Initializes the start times and the histogram of the days of a page.
+	 *
+	 * @param rPage      The page
+	 * @param rFirstDate The first displayed date
+	 * @param nDays      The number of displayed days
+	 */
+	private void initDays(MonthPage rPage, Date rFirstDate, int nDays)
+	{
+		Date aDay = DateUtils.newDate(rFirstDate);
+
+		rPage.aDayStarts = new long[nDays + 1];
+		rPage.aDayCounts = new int[nDays];
+
+		DateUtils.resetTime(aDay);
+
+		for (int i = 0; i <= nDays; i++)
+		{
+			rPage.aDayStarts[i] = aDay.getTime();
+			DateUtils.moveOneDayForward(aDay);
+		}
+	}
+
+	/***************************************
+	 * Creates the grid of a page for the month of a certain date.
+	 *
+	 * @param rPage         The page to fill
+	 * @param rDate         The date of the month to display
+	 * @param rAppointments The appointments in the date range of the month
+	 */
+	@SuppressWarnings("deprecation")
+	private void layoutPage(MonthPage		  rPage,
+							Date			  rDate,
+							List<Appointment> rAppointments)
+	{
+		int  nFirstDay  = CalendarFormat.INSTANCE.getFirstDayOfWeek();
+		int  nWeeks     =
+			MonthViewDateUtils.monthViewRequiredRows(rDate, nFirstDay);
+		Date aFirstDate =
+			MonthViewDateUtils.firstDateShownInAMonthView(rDate, nFirstDay);
+		int  nDays	    = nWeeks * DateUtils.DAYS_IN_A_WEEK;
+
+		FlexTable rGrid = rPage.aGrid;
+
+		rGrid.removeAllRows();
+		rPage.aAppointmentWidgets.clear();
+		rPage.aCellElements.clear();
+		rPage.aMoreLabels.clear();
+
+		initDays(rPage, aFirstDate, nDays);
+
+		List<List<Appointment>> aDayAppointments =
+			countAppointments(rPage, rAppointments);
+
+		String[] rDayNames =
+			CalendarFormat.INSTANCE.getDayOfWeekAbbreviatedNames();
+
+		CellFormatter rFormatter = rGrid.getCellFormatter();
+
+		for (int nCol = 0; nCol < DateUtils.DAYS_IN_A_WEEK; nCol++)
+		{
+			rGrid.setText(0, nCol, rDayNames[(nCol + nFirstDay) % 7]);
+			rFormatter.setStyleName(0, nCol, WEEKDAY_LABEL_STYLE);
+		}
+
+		Date aDay = aFirstDate;
+
+		for (int nDay = 0; nDay < nDays; nDay++)
+		{
+			int nRow = nDay / DateUtils.DAYS_IN_A_WEEK + 1;
+			int nCol = nDay % DateUtils.DAYS_IN_A_WEEK;
+
+			FlowPanel aCell = createDayCell(rPage,
+											aDay,
+											nDay,
+											aDayAppointments.get(nDay),
+											rDate.getMonth());
+
+			rGrid.setWidget(nRow, nCol, aCell);
+			rFormatter.setStyleName(nRow, nCol, CELL_STYLE);
+			rFormatter.setHeight(nRow, nCol, (100 / nWeeks) + "%");
+			rPage.aCellElements.put(aCell.getElement(), nDay);
+
+			aDay = DateUtils.moveOneDayForward(DateUtils.newDate(aDay));
+		}
+	}
+
+	/***************************************
+	 * Shows a popup with all appointments of a certain day. The widgets for
+	 * the appointments are only created when this method is invoked.
+	 *
+	 * @param nDay     The index of the day
+	 * @param rElement The element to show the popup relative to
+	 */
+	private void showOverflow(int nDay, Element rElement)
+	{
+		long	  nDayStart = aPage.aDayStarts[nDay];
+		long	  nDayEnd   = aPage.aDayStarts[nDay + 1];
+		FlowPanel aContent  = new FlowPanel();
+
+		hideOverflow();
+
+		for (Appointment rAppointment : calendarWidget.getAppointments())
+		{
+			long nStart = TimetableEventIndex.getStartTime(rAppointment);
+			long nEnd   = TimetableEventIndex.getEndTime(rAppointment);
+
+			boolean bReachesDay =
+				rAppointment.isAllDay() ? nEnd >= nDayStart
+										: nEnd > nDayStart ||
+										  nStart == nDayStart;
+
+			if (nStart < nDayEnd && bReachesDay)
+			{
+				aContent.add(createOverflowWidget(rAppointment));
+			}
+		}
+
+		aOverflowPopup = new PopupPanel(true);
+		aOverflowPopup.setStyleName(OVERFLOW_STYLE);
+		aOverflowPopup.setWidget(aContent);
+		aOverflowPopup.setPopupPosition(rElement.getAbsoluteLeft(),
+										rElement.getAbsoluteTop());
+		aOverflowPopup.show();
+	}
+
+	/***************************************
+	 * Replaces the currently displayed page with another page. The current
+	 * page will be stored in the page cache if it has been laid out.
+	 *
+	 * @param rPage The page to display
+	 */
+	private void showPage(MonthPage rPage)
+	{
+		if (aPage.sKey != null)
+		{
+			aPageCache.put(aPage.sKey, aPage);
+		}
+
+		aPage.aGrid.removeFromParent();
+		aPage = rPage;
+		calendarWidget.getRootPanel().add(rPage.aGrid);
+	}
+
+	//~ Inner Classes ----------------------------------------------------------
+
+	/********************************************************************
+	 * Contains the grid of a displayed or cached month together with the
+	 * widgets and the day data that have been created for it.
+	 *
+	 * @author eso
+	 */
+	static class MonthPage
+	{
+		//~ Instance fields ----------------------------------------------------
+
+		private final FlexTable aGrid = new FlexTable();
+
+		private final List<AppointmentWidget> aAppointmentWidgets =
+			new ArrayList<>();
+
+		private final Map<Element, Integer> aCellElements = new HashMap<>();
+		private final Map<Element, Integer> aMoreLabels   = new HashMap<>();
+
+		private String sKey		  = null;
+		private long[] aDayStarts = new long[0];
+		private int[]  aDayCounts = new int[0];
+
+		//~ Constructors -------------------------------------------------------
+
+		/***************************************
+		 * Creates a new instance.
+		 */
+		MonthPage()
+		{
+			aGrid.setWidth("100%");
+			aGrid.setHeight("100%");
+		}
+	}
+}
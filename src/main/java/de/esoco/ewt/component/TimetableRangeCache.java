@@ -0,0 +1,462 @@
+//++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+// gewt-timetable source file
+// Copyright (c) 2017 Elmar Sonnenschein / esoco GmbH
+// Last Change: 08.05.2017 by eso
+//
+// gewt-timetable is free software; you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published
+// by the Free Software Foundation; either version 3 of the License,
+// or (at your option) any later version.
+//
+// gewt-timetable is distributed in the hope that it will be useful, but
+// WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License along
+// with gewt-timetable; if not, write to the Free Software Foundation, Inc.,
+// 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA or use the
+// contact information on the FSF website http://www.fsf.org
+//++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+package de.esoco.ewt.component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+
+/********************************************************************
+ * Keeps track of the time ranges for which events have been requested from an
+ * event provider. Only the parts of a time range that are neither loaded nor
+ * pending will be requested again, contiguous gaps being combined into a
+ * single request. If the number of loaded events exceeds a configurable budget
+ * the least recently used ranges will be evicted, except for ranges that
+ * overlap a protected (i.e. the visible) range and the range that has just
+ * been loaded, e.g. by a prefetch. Because an event may overlap multiple
+ * ranges the cache counts the references to each event ID and only reports an
+ * event as evicted if no loaded range refers to it anymore.
+ *
+ * <p>Loaded ranges that touch each other are merged to keep the number of
+ * ranges small. To keep ranges evictable a merge is only performed if the
+ * merged range contains at most a quarter of the event budget.</p>
+ *
+ * @author eso
+ */
+class TimetableRangeCache
+{
+	//~ Instance fields --------------------------------------------------------
+
+	private final int nEventBudget;
+	private final int nMaxMergedEvents;
+
+	private final List<Range>		   aRanges		   = new ArrayList<>();
+	private final Map<String, Integer> aEventReferences = new HashMap<>();
+
+	private int nAccessCount = 0;
+
+	//~ Constructors -----------------------------------------------------------
+
+	/***************************************
+	 * Creates a new instance.
+	 *
+	 * @param nEventBudget The maximum number of events to keep loaded or zero
+	 *                     for no limit
+	 */
+	public TimetableRangeCache(int nEventBudget)
+	{
+		this.nEventBudget = nEventBudget;
+
+		nMaxMergedEvents =
+			nEventBudget > 0 ? nEventBudget / 4 : Integer.MAX_VALUE;
+	}
+
+	//~ Methods ----------------------------------------------------------------
+
+	/***************************************
+	 * Removes all ranges from this cache.
+	 */
+	public void clear()
+	{
+		aRanges.clear();
+		aEventReferences.clear();
+	}
+
+	/***************************************
+	 * Returns the number of distinct events in the loaded ranges.
+	 *
+	 * @return The event count
+	 */
+	public int getEventCount()
+	{
+		return aEventReferences.size();
+	}
+
+	/***************************************
+	 * Returns the ranges that are currently cached, including pending ranges.
+	 *
+	 * @return A new list of the cached ranges, ordered by their start
+	 */
+	public List<Range> getRanges()
+	{
+		return new ArrayList<>(aRanges);
+	}
+
+	/***************************************
+	 * Removes a pending range, e.g. if the request for it has failed.
+	 *
+	 * @param rRange The range to remove
+	 */
+	public void removePendingRange(Range rRange)
+	{
+		if (rRange.bPending)
+		{
+			aRanges.remove(rRange);
+		}
+	}
+
+	/***************************************
+	 * Returns the parts of a time range that are neither loaded nor already
+	 * requested and registers them as pending. Adjacent gaps are combined
+	 * into a single range.
+	 *
+	 * @param  nStart The start of the time range (inclusive)
+	 * @param  nEnd   The end of the time range (exclusive)
+	 *
+	 * @return The new pending ranges that need to be requested (may be empty)
+	 */
+	public List<Range> requestRanges(long nStart, long nEnd)
+	{
+		List<Range> aMissing = new ArrayList<>();
+		long	    nGap     = nStart;
+
+		for (Range rRange : aRanges)
+		{
+			if (rRange.nEnd > nGap)
+			{
+				if (rRange.nStart >= nEnd)
+				{
+					break;
+				}
+
+				if (rRange.nStart > nGap)
+				{
+					aMissing.add(new Range(nGap, rRange.nStart));
+				}
+
+				nGap = rRange.nEnd;
+			}
+		}
+
+		if (nGap < nEnd)
+		{
+			aMissing.add(new Range(nGap, nEnd));
+		}
+
+		for (Range rRange : aMissing)
+		{
+			rRange.nLastAccess = ++nAccessCount;
+			aRanges.add(findInsertPosition(rRange.nStart), rRange);
+		}
+
+		return aMissing;
+	}
+
+	/***************************************
+	 * Sets the events that have been loaded for a pending range. If the range
+	 * is not pending anymore (e.g. because this cache has been cleared) the
+	 * call will be ignored and NULL will be returned. The loaded range will
+	 * be marked as recently used and merged with adjacent loaded ranges. If
+	 * the event budget is exceeded afterwards the least recently used ranges
+	 * will be evicted, except for the loaded range.
+	 *
+	 * @param  rRange         The pending range
+	 * @param  rEventIds      The IDs of the events that have been loaded for
+	 *                        the range
+	 * @param  nProtectStart  The start of the range that must not be evicted
+	 * @param  nProtectEnd    The end of the range that must not be evicted
+	 *
+	 * @return The IDs of the events that have been evicted or NULL if the
+	 *         range events have been ignored
+	 */
+	public List<String> setRangeEvents(Range			  rRange,
+									   Collection<String> rEventIds,
+									   long				  nProtectStart,
+									   long				  nProtectEnd)
+	{
+		if (!rRange.bPending || !aRanges.contains(rRange))
+		{
+			return null;
+		}
+
+		rRange.bPending    = false;
+		rRange.nLastAccess = ++nAccessCount;
+		rRange.aEventIds   = new HashSet<>(rEventIds);
+
+		for (String sId : rRange.aEventIds)
+		{
+			Integer rCount = aEventReferences.get(sId);
+
+			aEventReferences.put(sId, rCount != null ? rCount + 1 : 1);
+		}
+
+		mergeAdjacentRanges(rRange);
+
+		return evict(nProtectStart, nProtectEnd, rRange);
+	}
+
+	/***************************************
+	 * Marks all ranges that overlap a certain time range as recently used.
+	 *
+	 * @param nStart The start of the time range (inclusive)
+	 * @param nEnd   The end of the time range (exclusive)
+	 */
+	public void touch(long nStart, long nEnd)
+	{
+		int nAccess = ++nAccessCount;
+
+		for (Range rRange : aRanges)
+		{
+			if (rRange.overlaps(nStart, nEnd))
+			{
+				rRange.nLastAccess = nAccess;
+			}
+		}
+	}
+
+	/***************************************
+	 * Checks whether two adjacent ranges can be merged.
+	 *
+	 * @param  rFirst  The first range
+	 * @param  rSecond The second range that follows the first
+	 *
+	 * @return TRUE if the ranges can be merged
+	 */
+	private boolean canMerge(Range rFirst, Range rSecond)
+	{
+		return !rFirst.bPending && !rSecond.bPending &&
+			   rFirst.nEnd == rSecond.nStart &&
+			   rFirst.aEventIds.size() + rSecond.aEventIds.size() <=
+			   nMaxMergedEvents;
+	}
+
+	/***************************************
+	 * Evicts the least recently used ranges until the number of loaded events
+	 * is within the budget.
+	 *
+	 * @param  nProtectStart The start of the range that must not be evicted
+	 * @param  nProtectEnd   The end of the range that must not be evicted
+	 * @param  rNewest       The most recently loaded range which must not be
+	 *                       evicted either
+	 *
+	 * @return The IDs of the events that are no longer referenced by any range
+	 */
+	private List<String> evict(long  nProtectStart,
+							   long  nProtectEnd,
+							   Range rNewest)
+	{
+		List<String> aEvicted = new ArrayList<>();
+
+		while (nEventBudget > 0 && aEventReferences.size() > nEventBudget)
+		{
+			Range rOldest = null;
+
+			for (Range rRange : aRanges)
+			{
+				if (!rRange.bPending && rRange != rNewest &&
+					!rRange.overlaps(nProtectStart, nProtectEnd) &&
+					(rOldest == null ||
+					 rRange.nLastAccess < rOldest.nLastAccess))
+				{
+					rOldest = rRange;
+				}
+			}
+
+			if (rOldest == null)
+			{
+				break;
+			}
+
+			aRanges.remove(rOldest);
+
+			for (String sId : rOldest.aEventIds)
+			{
+				if (releaseEvent(sId))
+				{
+					aEvicted.add(sId);
+				}
+			}
+		}
+
+		return aEvicted;
+	}
+
+	/***************************************
+	 * Returns the position at which a range with a certain start needs to be
+	 * inserted to keep the range list ordered.
+	 *
+	 * @param  nStart The range start
+	 *
+	 * @return The insert position
+	 */
+	private int findInsertPosition(long nStart)
+	{
+		int nPosition = 0;
+
+		while (nPosition < aRanges.size() &&
+			   aRanges.get(nPosition).nStart < nStart)
+		{
+			nPosition++;
+		}
+
+		return nPosition;
+	}
+
+	/***************************************
+	 * Merges a range into another range that it touches.
+	 *
+	 * @param rTarget The range to merge into
+	 * @param rOther  The range to merge which must have been removed from
+	 *                the range list
+	 */
+	private void merge(Range rTarget, Range rOther)
+	{
+		rTarget.nStart	    = Math.min(rTarget.nStart, rOther.nStart);
+		rTarget.nEnd	    = Math.max(rTarget.nEnd, rOther.nEnd);
+		rTarget.nLastAccess = Math.max(rTarget.nLastAccess, rOther.nLastAccess);
+
+		for (String sId : rOther.aEventIds)
+		{
+			// events in both ranges are now referenced only once
+			if (!rTarget.aEventIds.add(sId))
+			{
+				releaseEvent(sId);
+			}
+		}
+	}
+
+	/***************************************
+	 * Merges a loaded range with the adjacent loaded ranges if possible.
+	 *
+	 * @param rRange The loaded range
+	 */
+	private void mergeAdjacentRanges(Range rRange)
+	{
+		int nIndex = aRanges.indexOf(rRange);
+
+		if (nIndex + 1 < aRanges.size() &&
+			canMerge(rRange, aRanges.get(nIndex + 1)))
+		{
+			merge(rRange, aRanges.remove(nIndex + 1));
+		}
+
+		if (nIndex > 0 && canMerge(aRanges.get(nIndex - 1), rRange))
+		{
+			merge(rRange, aRanges.remove(nIndex - 1));
+		}
+	}
+
+	/***************************************
+	 * Releases a reference to an event by a range.
+	 *
+	 * @param  sId The event ID
+	 *
+	 * @return TRUE if the event is no longer referenced by any range
+	 */
+	private boolean releaseEvent(String sId)
+	{
+		int nCount = aEventReferences.get(sId) - 1;
+
+		if (nCount == 0)
+		{
+			aEventReferences.remove(sId);
+		}
+		else
+		{
+			aEventReferences.put(sId, nCount);
+		}
+
+		return nCount == 0;
+	}
+
+	//~ Inner Classes ----------------------------------------------------------
+
+	/********************************************************************
+	 * Describes a time range in the cache.
+	 *
+	 * @author eso
+	 */
+	static class Range
+	{
+		//~ Instance fields ----------------------------------------------------
+
+		private long nStart;
+		private long nEnd;
+
+		private boolean     bPending    = true;
+		private int		    nLastAccess = 0;
+		private Set<String> aEventIds   = null;
+
+		//~ Constructors -------------------------------------------------------
+
+		/***************************************
+		 * Creates a new instance.
+		 *
+		 * @param nStart The start of the range (inclusive)
+		 * @param nEnd   The end of the range (exclusive)
+		 */
+		Range(long nStart, long nEnd)
+		{
+			this.nStart = nStart;
+			this.nEnd   = nEnd;
+		}
+
+		//~ Methods ------------------------------------------------------------
+
+		/***************************************
+		 * Returns the end of this range.
+		 *
+		 * @return The end time in milliseconds (exclusive)
+		 */
+		public final long getEnd()
+		{
+			return nEnd;
+		}
+
+		/***************************************
+		 * Returns the start of this range.
+		 *
+		 * @return The start time in milliseconds (inclusive)
+		 */
+		public final long getStart()
+		{
+			return nStart;
+		}
+
+		/***************************************
+		 * Checks whether this range is still waiting for its events.
+		 *
+		 * @return TRUE if this range is pending
+		 */
+		public final boolean isPending()
+		{
+			return bPending;
+		}
+
+		/***************************************
+		 * Checks whether this range overlaps another time range.
+		 *
+		 * @param  nOtherStart The start of the other range (inclusive)
+		 * @param  nOtherEnd   The end of the other range (exclusive)
+		 *
+		 * @return TRUE if the ranges overlap
+		 */
+		boolean overlaps(long nOtherStart, long nOtherEnd)
+		{
+			return nStart < nOtherEnd && nEnd > nOtherStart;
+		}
+	}
+}
@@ -0,0 +1,542 @@
+//++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+// gewt-timetable source file
+// Copyright (c) 2017 Elmar Sonnenschein / esoco GmbH
+// Last Change: 08.05.2017 by eso
+//
+// gewt-timetable is free software; you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published
+// by the Free Software Foundation; either version 3 of the License,
+// or (at your option) any later version.
+//
+// gewt-timetable is distributed in the hope that it will be useful, but
+// WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License along
+// with gewt-timetable; if not, write to the Free Software Foundation, Inc.,
+// 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA or use the
+// contact information on the FSF website http://www.fsf.org
+//++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+package de.esoco.ewt.component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.bradrydzewski.gwt.calendar.client.DateUtils;
+
+
+/********************************************************************
+ * A recurrence rule for timetable events that is expanded into single
+ * occurrences on demand. The rule is defined by a subset of the RRULE format
+ * of RFC 5545 which supports the following parts:
+ *
+ * <ul>
+ *   <li>FREQ: one of DAILY, WEEKLY, MONTHLY, or YEARLY (required)</li>
+ *   <li>INTERVAL: the number of periods between occurrences (default 1)</li>
+ *   <li>COUNT: the total number of occurrences</li>
+ *   <li>UNTIL: the last possible occurrence date in the format yyyyMMdd or
+ *     yyyyMMdd'T'HHmmss with an optional 'Z' suffix for UTC</li>
+ *   <li>BYDAY: a comma-separated list of the weekdays SU, MO, TU, WE, TH,
+ *     FR, and SA (only for FREQ=WEEKLY)</li>
+ *   <li>WKST: the first day of the week for BYDAY (default MO)</li>
+ * </ul>
+ *
+ * <p>Exceptions can be defined as a comma-separated list of dates in the
+ * format of the UNTIL part. Other than EXDATE in RFC 5545 an exception
+ * excludes all occurrences on the same day, independent of the time.
+ * Occurrences that are excluded by an exception still count for the COUNT
+ * part of the rule.</p>
+ *
+ * @author eso
+ */
+class TimetableRecurrence
+{
+	//~ Enums ------------------------------------------------------------------
+
+	/********************************************************************
+	 * Enumeration of the supported recurrence frequencies.
+	 */
+	enum Frequency { DAILY, WEEKLY, MONTHLY, YEARLY }
+
+	//~ Static fields/initializers ---------------------------------------------
+
+	private static final String[] WEEKDAYS =
+		new String[] { "SU", "MO", "TU", "WE", "TH", "FR", "SA" };
+
+	private static final long MAX_DAY_MILLIS =
+		DateUtils.MILLIS_IN_A_DAY + 60 * 60 * 1000;
+
+	//~ Instance fields --------------------------------------------------------
+
+	private final String sRule;
+	private final String sExceptions;
+
+	private Frequency eFrequency = null;
+	private int		  nInterval  = 1;
+	private int		  nCount     = -1;
+	private long	  nUntil     = Long.MAX_VALUE;
+	private int		  nWeekStart = 1;
+	private int[]	  aWeekdays  = null;
+
+	private final Set<Integer> aExceptionDays = new HashSet<>();
+
+	//~ Constructors -----------------------------------------------------------
+
+	/***************************************
+	 * Creates a new instance by parsing a rule and exceptions.
+	 *
+	 * @param  sRule       The recurrence rule
+	 * @param  sExceptions The exception dates or NULL for none
+	 *
+	 * @throws IllegalArgumentException If the rule or the exceptions are
+	 *                                  invalid or not supported
+	 */
+	TimetableRecurrence(String sRule, String sExceptions)
+	{
+		this.sRule		 = sRule;
+		this.sExceptions = sExceptions;
+
+		parseRule(sRule);
+
+		if (sExceptions != null)
+		{
+			for (String sException : sExceptions.split(","))
+			{
+				sException = sException.trim();
+
+				if (sException.length() > 0)
+				{
+					Date aException = new Date(parseDate(sException));
+
+					aExceptionDays.add(getDayKey(aException));
+				}
+			}
+		}
+	}
+
+	//~ Static methods ---------------------------------------------------------
+
+	/***************************************
+	 * Parses a recurrence rule and exceptions.
+	 *
+	 * @param  sRule       The recurrence rule or NULL for none
+	 * @param  sExceptions The exception dates or NULL for none
+	 *
+	 * @return The recurrence or NULL if the rule is NULL
+	 *
+	 * @throws IllegalArgumentException If the rule or the exceptions are
+	 *                                  invalid or not supported
+	 */
+	public static TimetableRecurrence parse(String sRule, String sExceptions)
+	{
+		return sRule != null ? new TimetableRecurrence(sRule, sExceptions)
+							 : null;
+	}
+
+	/***************************************
+	 * Returns a key that identifies the day of a date.
+	 *
+	 * @param  rDate The date
+	 *
+	 * @return The day key
+	 */
+	@SuppressWarnings("deprecation")
+	private static int getDayKey(Date rDate)
+	{
+		return (rDate.getYear() + 1900) * 10000 + (rDate.getMonth() + 1) * 100 +
+			   rDate.getDate();
+	}
+
+	/***************************************
+	 * Parses a date in the formats yyyyMMdd or yyyyMMdd'T'HHmmss with an
+	 * optional 'Z' suffix for UTC.
+	 *
+	 * @param  sDate The date string
+	 *
+	 * @return The date in milliseconds
+	 *
+	 * @throws IllegalArgumentException If the date format is invalid
+	 */
+	@SuppressWarnings("deprecation")
+	private static long parseDate(String sDate)
+	{
+		int nLength = sDate.length();
+
+		if (nLength != 8 && (nLength < 15 || sDate.charAt(8) != 'T'))
+		{
+			throw new IllegalArgumentException("Invalid date: " + sDate);
+		}
+
+		try
+		{
+			int nYear   = Integer.parseInt(sDate.substring(0, 4)) - 1900;
+			int nMonth  = Integer.parseInt(sDate.substring(4, 6)) - 1;
+			int nDay    = Integer.parseInt(sDate.substring(6, 8));
+			int nHour   = 0;
+			int nMinute = 0;
+			int nSecond = 0;
+
+			if (nLength > 8)
+			{
+				nHour   = Integer.parseInt(sDate.substring(9, 11));
+				nMinute = Integer.parseInt(sDate.substring(11, 13));
+				nSecond = Integer.parseInt(sDate.substring(13, 15));
+			}
+
+			if (sDate.endsWith("Z"))
+			{
+				return Date.UTC(nYear, nMonth, nDay, nHour, nMinute, nSecond);
+			}
+			else
+			{
+				return new Date(nYear, nMonth, nDay, nHour, nMinute, nSecond)
+					   .getTime();
+			}
+		}
+		catch (NumberFormatException e)
+		{
+			throw new IllegalArgumentException("Invalid date: " + sDate, e);
+		}
+	}
+
+	/***************************************
+	 * Returns the index of a weekday abbreviation.
+	 *
+	 * @param  sWeekday The weekday abbreviation
+	 *
+	 * @return The weekday index (0 = sunday)
+	 *
+	 * @throws IllegalArgumentException If the weekday is invalid
+	 */
+	private static int parseWeekday(String sWeekday)
+	{
+		for (int i = 0; i < WEEKDAYS.length; i++)
+		{
+			if (WEEKDAYS[i].equals(sWeekday))
+			{
+				return i;
+			}
+		}
+
+		throw new IllegalArgumentException("Invalid weekday: " + sWeekday);
+	}
+
+	//~ Methods ----------------------------------------------------------------
+
+	/***************************************
+	 * Returns the exceptions from which this instance has been created.
+	 *
+	 * @return The exceptions string or NULL for none
+	 */
+	public final String getExceptions()
+	{
+		return sExceptions;
+	}
+
+	/***************************************
+	 * Returns the start dates of the occurrences of a recurring event that
+	 * overlap a certain time range.
+	 *
+	 * @param  rSeriesStart The start of the first occurrence of the event
+	 * @param  nDuration    The duration of the occurrences in milliseconds
+	 * @param  nRangeStart  The start of the time range (inclusive)
+	 * @param  nRangeEnd    The end of the time range (exclusive)
+	 *
+	 * @return A new list containing the occurrence start dates in ascending
+	 *         order
+	 */
+	@SuppressWarnings("deprecation")
+	public List<Date> getOccurrences(Date rSeriesStart,
+									 long nDuration,
+									 long nRangeStart,
+									 long nRangeEnd)
+	{
+		List<Date> aOccurrences = new ArrayList<>();
+		long	   nSeriesStart = rSeriesStart.getTime();
+		int		   nPeriod	    = 0;
+		int		   nGenerated   = 0;
+
+		if (nCount < 0)
+		{
+			// without a count the periods before the range can be skipped
+			long nSkip = nRangeStart - nDuration - nSeriesStart;
+
+			nPeriod = Math.max((int) (nSkip / getMaxPeriodMillis()) - 1, 0);
+		}
+
+		int nYear   = rSeriesStart.getYear();
+		int nMonth  = rSeriesStart.getMonth();
+		int nDay    = rSeriesStart.getDate();
+		int nHour   = rSeriesStart.getHours();
+		int nMinute = rSeriesStart.getMinutes();
+		int nSecond = rSeriesStart.getSeconds();
+
+		int[] rDayOffsets = getDayOffsets(rSeriesStart);
+
+		while (nCount < 0 || nGenerated < nCount)
+		{
+			int nStep = nPeriod++ * nInterval;
+
+			for (int nOffset : rDayOffsets)
+			{
+				Date aDate;
+
+				switch (eFrequency)
+				{
+					case DAILY:
+						aDate =
+							new Date(nYear,
+									 nMonth,
+									 nDay + nStep,
+									 nHour,
+									 nMinute,
+									 nSecond);
+						break;
+
+					case WEEKLY:
+						aDate =
+							new Date(nYear,
+									 nMonth,
+									 nDay + nStep * 7 + nOffset,
+									 nHour,
+									 nMinute,
+									 nSecond);
+						break;
+
+					case MONTHLY:
+						aDate =
+							new Date(nYear,
+									 nMonth + nStep,
+									 nDay,
+									 nHour,
+									 nMinute,
+									 nSecond);
+
+						// skip months that don't contain the day
+						if (aDate.getDate() != nDay)
+						{
+							continue;
+						}
+
+						break;
+
+					default:
+						aDate =
+							new Date(nYear + nStep,
+									 nMonth,
+									 nDay,
+									 nHour,
+									 nMinute,
+									 nSecond);
+
+						// skip years that don't contain the day (29th feb)
+						if (aDate.getMonth() != nMonth)
+						{
+							continue;
+						}
+				}
+
+				long nStart = aDate.getTime();
+
+				if (nStart < nSeriesStart)
+				{
+					continue;
+				}
+
+				if (nStart >= nRangeEnd || nStart > nUntil ||
+					(nCount >= 0 && nGenerated >= nCount))
+				{
+					return aOccurrences;
+				}
+
+				nGenerated++;
+
+				if (nStart + nDuration >= nRangeStart &&
+					!aExceptionDays.contains(getDayKey(aDate)))
+				{
+					aOccurrences.add(aDate);
+				}
+			}
+		}
+
+		return aOccurrences;
+	}
+
+	/***************************************
+	 * Returns the rule from which this instance has been created.
+	 *
+	 * @return The rule string
+	 */
+	public final String getRule()
+	{
+		return sRule;
+	}
+
+	/***************************************
+	 * Checks whether this instance has been created from a certain rule and
+	 * exceptions.
+	 *
+	 * @param  sOtherRule       The rule to compare
+	 * @param  sOtherExceptions The exceptions to compare
+	 *
+	 * @return TRUE if rule and exceptions are equal to those of this instance
+	 */
+	public boolean isDefinedBy(String sOtherRule, String sOtherExceptions)
+	{
+		return sRule.equals(sOtherRule) &&
+			   (sExceptions == null ? sOtherExceptions == null
+									: sExceptions.equals(sOtherExceptions));
+	}
+
+	/***************************************
+	 * Returns the day offsets of the occurrences in each period relative to
+	 * the day of the series start. For weekly rules with weekdays these are
+	 * the offsets of the weekdays from the start date, otherwise a single
+	 * offset of zero.
+	 *
+	 * @param  rSeriesStart The start of the series
+	 *
+	 * @return The day offsets in ascending order
+	 */
+	@SuppressWarnings("deprecation")
+	private int[] getDayOffsets(Date rSeriesStart)
+	{
+		if (aWeekdays == null)
+		{
+			return new int[] { 0 };
+		}
+
+		int   nStartWeekday = rSeriesStart.getDay();
+		int   nWeekOffset   = (nStartWeekday - nWeekStart + 7) % 7;
+		int[] aOffsets	    = new int[aWeekdays.length];
+
+		for (int i = 0; i < aWeekdays.length; i++)
+		{
+			aOffsets[i] = (aWeekdays[i] - nWeekStart + 7) % 7 - nWeekOffset;
+		}
+
+		Arrays.sort(aOffsets);
+
+		return aOffsets;
+	}
+
+	/***************************************
+	 * Returns the maximum length of a period of this rule. This is used to
+	 * calculate the periods that can be skipped before a time range.
+	 *
+	 * @return The maximum period length in milliseconds
+	 */
+	private long getMaxPeriodMillis()
+	{
+		int nDays;
+
+		switch (eFrequency)
+		{
+			case DAILY:
+				nDays = 1;
+				break;
+
+			case WEEKLY:
+				nDays = 7;
+				break;
+
+			case MONTHLY:
+				nDays = 31;
+				break;
+
+			default:
+				nDays = 366;
+		}
+
+		return nDays * MAX_DAY_MILLIS * nInterval;
+	}
+
+	/***************************************
+	 * Parses the parts of a recurrence rule into the fields of this instance.
+	 *
+	 * @param  sRule The rule to parse
+	 *
+	 * @throws IllegalArgumentException If the rule is invalid
+	 */
+	private void parseRule(String sRule)
+	{
+		String sParts = sRule.startsWith("RRULE:") ? sRule.substring(6) : sRule;
+
+		try
+		{
+			for (String sPart : sParts.split(";"))
+			{
+				int nSeparator = sPart.indexOf('=');
+
+				if (nSeparator <= 0)
+				{
+					throw new IllegalArgumentException("Invalid rule part: " +
+													   sPart);
+				}
+
+				String sName  = sPart.substring(0, nSeparator).trim();
+				String sValue = sPart.substring(nSeparator + 1).trim();
+
+				if ("FREQ".equals(sName))
+				{
+					eFrequency = Frequency.valueOf(sValue);
+				}
+				else if ("INTERVAL".equals(sName))
+				{
+					nInterval = Integer.parseInt(sValue);
+				}
+				else if ("COUNT".equals(sName))
+				{
+					nCount = Integer.parseInt(sValue);
+				}
+				else if ("UNTIL".equals(sName))
+				{
+					// a date without time includes the whole day
+					nUntil =
+						parseDate(sValue.length() == 8 ? sValue + "T235959"
+													   : sValue);
+				}
+				else if ("WKST".equals(sName))
+				{
+					nWeekStart = parseWeekday(sValue);
+				}
+				else if ("BYDAY".equals(sName))
+				{
+					String[] aDays = sValue.split(",");
+
+					aWeekdays = new int[aDays.length];
+
+					for (int i = 0; i < aDays.length; i++)
+					{
+						aWeekdays[i] = parseWeekday(aDays[i].trim());
+					}
+				}
+				else
+				{
+					throw new IllegalArgumentException("Unsupported part: " +
+													   sName);
+				}
+			}
+		}
+		catch (NumberFormatException e)
+		{
+			throw new IllegalArgumentException("Invalid rule: " + sRule, e);
+		}
+
+		if (eFrequency == null || nInterval < 1)
+		{
+			throw new IllegalArgumentException("Invalid rule: " + sRule);
+		}
+
+		if (aWeekdays != null && eFrequency != Frequency.WEEKLY)
+		{
+			throw new IllegalArgumentException("BYDAY only supported for " +
+											   "FREQ=WEEKLY: " + sRule);
+		}
+	}
+}
@@ -0,0 +1,617 @@
+//++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+// gewt-timetable source file
+// Copyright (c) 2017 Elmar Sonnenschein / esoco GmbH
+// Last Change: 08.05.2017 by eso
+//
+// gewt-timetable is free software; you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published
+// by the Free Software Foundation; either version 3 of the License,
+// or (at your option) any later version.
+//
+// gewt-timetable is distributed in the hope that it will be useful, but
+// WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License along
+// with gewt-timetable; if not, write to the Free Software Foundation, Inc.,
+// 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA or use the
+// contact information on the FSF website http://www.fsf.org
+//++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+package de.esoco.ewt.component;
+
+import de.esoco.ewt.component.Timetable.TimetableEvent;
+import de.esoco.ewt.component.TimetableDayLayout.DayLayout;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import com.bradrydzewski.gwt.calendar.client.Appointment;
+import com.bradrydzewski.gwt.calendar.client.CalendarFormat;
+import com.bradrydzewski.gwt.calendar.client.CalendarSettings;
+import com.bradrydzewski.gwt.calendar.client.CalendarView;
+import com.bradrydzewski.gwt.calendar.client.CalendarWidget;
+import com.bradrydzewski.gwt.calendar.client.DateUtils;
+import com.bradrydzewski.gwt.calendar.client.dayview.AppointmentAdapter;
+import com.bradrydzewski.gwt.calendar.client.dayview.AppointmentWidget;
+import com.bradrydzewski.gwt.calendar.client.dayview.DayViewStyleManager;
+import com.bradrydzewski.gwt.calendar.client.dayview.DayViewTimeline;
+import com.bradrydzewski.gwt.calendar.client.util.AppointmentUtil;
+
+import com.google.gwt.core.client.GWT;
+import com.google.gwt.event.dom.client.ScrollEvent;
+import com.google.gwt.event.dom.client.ScrollHandler;
+import com.google.gwt.user.client.DOM;
+import com.google.gwt.user.client.Element;
+import com.google.gwt.user.client.Event;
+import com.google.gwt.user.client.ui.AbsolutePanel;
+import com.google.gwt.user.client.ui.Label;
+import com.google.gwt.user.client.ui.ScrollPanel;
+
+
+/********************************************************************
+ * A view that displays the timed events of a single day in a separate lane
+ * for each resource (e.g. a room) side by side. The resource of an event is
+ * defined by the property {@link Timetable#RESOURCE}. All lanes share the
+ * settings of the calendar widget and a single time axis which is kept in
+ * sync with the vertical scroll position of the lanes. Likewise the header
+ * with the resource labels follows the horizontal scroll position.
+ *
+ * <p>Only the lanes in the horizontal viewport and a small overscan around it
+ * are rendered. The other lanes are rendered when they are scrolled into the
+ * viewport. The layout of each lane is cached together with the appointments
+ * it has been calculated for and a lane is only rendered again if its
+ * appointments, their times, or the settings have changed. Therefore a
+ * modification of the events of a single resource only causes the layout of
+ * a single lane.</p>
+ *
+ * <p>All-day and multi-day events are not displayed in the lanes and the
+ * events cannot be modified by dragging.</p>
+ *
+ * @author eso
+ */
+class TimetableResourceView extends CalendarView
+{
+	//~ Static fields/initializers ---------------------------------------------
+
+	private static final String RESOURCE_VIEW_STYLE = "gwt-cal-ResourceView";
+	private static final String HEADER_STYLE	    = "resourceHeader";
+	private static final String LABEL_STYLE		    = "resourceLabel";
+	private static final String LANE_STYLE		    = "resourceLane";
+
+	private static final int LANE_WIDTH	    = 150;
+	private static final int HEADER_HEIGHT  = 24;
+	private static final int TIMELINE_WIDTH = 50;
+	private static final int OVERSCAN_LANES = 1;
+	private static final int INITIAL_LANES  = 8;
+
+	//~ Instance fields --------------------------------------------------------
+
+	private final DayViewStyleManager rStyleManager =
+		GWT.create(DayViewStyleManager.class);
+
+	private final AbsolutePanel aHeader		   = new AbsolutePanel();
+	private final AbsolutePanel aHeaderContent = new AbsolutePanel();
+	private final AbsolutePanel aBody		   = new AbsolutePanel();
+	private final ScrollPanel   aScrollPanel   = new ScrollPanel();
+	private final AbsolutePanel aContent	   = new AbsolutePanel();
+
+	private final Map<String, Lane> aLanes = new HashMap<>();
+
+	private Map<String, String> aResources = new LinkedHashMap<>();
+
+	private TimetableDayLayout aDayLayout;
+	private DayViewTimeline    aTimeline;
+	private String			   sTimelineKey    = null;
+	private long			   nDayStart	   = 0;
+	private int				   nCreatedWidgets = 0;
+
+	//~ Methods ----------------------------------------------------------------
+
+	/***************************************
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void attach(CalendarWidget rWidget)
+	{
+		super.attach(rWidget);
+
+		if (aTimeline == null)
+		{
+			aDayLayout = new TimetableDayLayout(this);
+			aTimeline  = new DayViewTimeline(this);
+
+			aHeader.setStyleName(HEADER_STYLE);
+			aHeader.setWidth("100%");
+			aHeader.setHeight(HEADER_HEIGHT + "px");
+			aHeader.add(aHeaderContent, TIMELINE_WIDTH, 0);
+			aBody.setWidth("100%");
+			aTimeline.setWidth(TIMELINE_WIDTH + "px");
+			aBody.add(aTimeline, 0, 0);
+			aBody.add(aScrollPanel, TIMELINE_WIDTH, 0);
+			aScrollPanel.setWidget(aContent);
+			aScrollPanel.addScrollHandler(new ScrollHandler()
+				{
+					@Override
+					public void onScroll(ScrollEvent rEvent)
+					{
+						handleScroll();
+					}
+				});
+			initLanes();
+		}
+
+		calendarWidget.getRootPanel().add(aHeader);
+		calendarWidget.getRootPanel().add(aBody);
+	}
+
+	/***************************************
+	 * Assigns the displayed appointments to the resource lanes and renders
+	 * the lanes in the viewport which have changed since they have been
+	 * rendered the last time.
+	 *
+	 * @see CalendarView#doLayout()
+	 */
+	@Override
+	public void doLayout()
+	{
+		CalendarSettings rSettings = getSettings();
+
+		Date aStart = DateUtils.newDate(calendarWidget.getDate());
+
+		DateUtils.resetTime(aStart);
+		nDayStart = aStart.getTime();
+
+		Date aEnd = DateUtils.newDate(aStart);
+
+		DateUtils.moveOneDayForward(aEnd);
+		prepareTimeline(rSettings);
+
+		int nDayHeight =
+			CalendarFormat.HOURS_IN_DAY * rSettings.getIntervalsPerHour() *
+			rSettings.getPixelsPerInterval();
+
+		Map<String, List<Appointment>> aLaneAppointments =
+			new HashMap<>(aLanes.size() * 2);
+
+		for (Appointment rAppointment :
+			 AppointmentUtil.filterListByDate(calendarWidget.getAppointments(),
+											  aStart,
+											  aEnd))
+		{
+			String sResource = getResource(rAppointment);
+
+			if (sResource != null && aLanes.containsKey(sResource))
+			{
+				List<Appointment> rList = aLaneAppointments.get(sResource);
+
+				if (rList == null)
+				{
+					rList = new ArrayList<>();
+					aLaneAppointments.put(sResource, rList);
+				}
+
+				rList.add(rAppointment);
+			}
+		}
+
+		aContent.setPixelSize(aLanes.size() * LANE_WIDTH, nDayHeight);
+
+		for (Lane rLane : aLanes.values())
+		{
+			List<Appointment> rAppointments =
+				aLaneAppointments.get(rLane.sResource);
+
+			rLane.aPanel.setHeight(nDayHeight + "px");
+			rLane.rAppointments =
+				rAppointments != null ? rAppointments
+									  : Collections.<Appointment>emptyList();
+		}
+
+		renderLanes();
+	}
+
+	/***************************************
+	 * Overridden to fit the lanes and the time axis into the calendar
+	 * widget.
+	 *
+	 * @see CalendarView#doSizing()
+	 */
+	@Override
+	public void doSizing()
+	{
+		int nWidth  = calendarWidget.getOffsetWidth();
+		int nHeight = calendarWidget.getOffsetHeight() - HEADER_HEIGHT;
+
+		if (nWidth > 0 && nHeight > 0)
+		{
+			aBody.setHeight(nHeight + "px");
+			aScrollPanel.setPixelSize(Math.max(nWidth - TIMELINE_WIDTH, 0),
+									  nHeight);
+			renderLanes();
+		}
+	}
+
+	/***************************************
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String getStyleName()
+	{
+		return RESOURCE_VIEW_STYLE;
+	}
+
+	/***************************************
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void onAppointmentSelected(Appointment rAppointment)
+	{
+		for (Lane rLane : aLanes.values())
+		{
+			for (AppointmentWidget rWidget : rLane.aWidgets)
+			{
+				Appointment rWidgetAppointment = rWidget.getAppointment();
+
+				boolean bSelected =
+					calendarWidget.isTheSelectedAppointment(
+						rWidgetAppointment);
+
+				rStyleManager.applyStyle(rWidget, bSelected);
+			}
+		}
+	}
+
+	/***************************************
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void onDoubleClick(Element rElement, Event rEvent)
+	{
+		Appointment rAppointment = findAppointment(rElement);
+
+		if (rAppointment != null)
+		{
+			openAppointment(rAppointment);
+		}
+	}
+
+	/***************************************
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void onMouseOver(Element rElement, Event rEvent)
+	{
+		calendarWidget.fireMouseOverEvent(findAppointment(rElement), rElement);
+	}
+
+	/***************************************
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void onSingleClick(Element rElement, Event rEvent)
+	{
+		Appointment rAppointment = findAppointment(rElement);
+
+		if (rAppointment != null)
+		{
+			selectAppointment(rAppointment);
+		}
+	}
+
+	/***************************************
+	 * Returns the number of appointment widgets that have been created since
+	 * the last invocation of this method and resets the count. Because lanes
+	 * are also rendered while scrolling this includes the widgets of lanes
+	 * that have been scrolled into the viewport.
+	 *
+	 * @return The number of created widgets
+	 */
+	public int resetCreatedWidgetCount()
+	{
+		int nCount = nCreatedWidgets;
+
+		nCreatedWidgets = 0;
+
+		return nCount;
+	}
+
+	/***************************************
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void scrollToHour(int nHour)
+	{
+		CalendarSettings rSettings = getSettings();
+
+		int nHourHeight =
+			rSettings.getIntervalsPerHour() * rSettings.getPixelsPerInterval();
+
+		aScrollPanel.setVerticalScrollPosition((nHour -
+												rSettings.getDayStartsAt()) *
+											   nHourHeight);
+	}
+
+	/***************************************
+	 * Sets the resources that are displayed in separate lanes. The lanes of
+	 * resources that have been displayed before will be kept together with
+	 * their layouts.
+	 *
+	 * @param rResources An ordered mapping from resource keys to the labels
+	 *                   of the resource lanes
+	 */
+	public void setResources(Map<String, String> rResources)
+	{
+		aResources = new LinkedHashMap<>(rResources);
+
+		if (aTimeline != null)
+		{
+			initLanes();
+		}
+	}
+
+	/***************************************
+	 * Returns the appointment of the widget that contains a certain element.
+	 *
+	 * @param  rElement The element
+	 *
+	 * @return The appointment or NULL for none
+	 */
+	private Appointment findAppointment(Element rElement)
+	{
+		for (Lane rLane : aLanes.values())
+		{
+			if (DOM.isOrHasChild(rLane.aPanel.getElement(), rElement))
+			{
+				for (AppointmentWidget rWidget : rLane.aWidgets)
+				{
+					if (DOM.isOrHasChild(rWidget.getElement(), rElement))
+					{
+						return rWidget.getAppointment();
+					}
+				}
+
+				break;
+			}
+		}
+
+		return null;
+	}
+
+	/***************************************
+	 * Returns the resource key of an appointment.
+	 *
+	 * @param  rAppointment The appointment
+	 *
+	 * @return The resource key or NULL if the appointment has no resource
+	 */
+	private String getResource(Appointment rAppointment)
+	{
+		return rAppointment instanceof TimetableEvent
+			   ? ((TimetableEvent) rAppointment).getResource() : null;
+	}
+
+	/***************************************
+	 * Synchronizes the header and the time axis with the scroll position of
+	 * the lanes and renders the lanes that have been scrolled into the
+	 * viewport.
+	 */
+	private void handleScroll()
+	{
+		aHeader.setWidgetPosition(aHeaderContent,
+								  TIMELINE_WIDTH -
+								  aScrollPanel.getHorizontalScrollPosition(),
+								  0);
+		aBody.setWidgetPosition(aTimeline,
+								0,
+								-aScrollPanel.getVerticalScrollPosition());
+		renderLanes();
+	}
+
+	/***************************************
+	 * Creates the header labels and the lanes for the current resources.
+	 * Existing lanes of the remaining resources are moved to their new
+	 * position.
+	 */
+	private void initLanes()
+	{
+		Iterator<Entry<String, Lane>> rIterator = aLanes.entrySet().iterator();
+
+		while (rIterator.hasNext())
+		{
+			Lane rLane = rIterator.next().getValue();
+
+			if (!aResources.containsKey(rLane.sResource))
+			{
+				rLane.aPanel.removeFromParent();
+				rIterator.remove();
+			}
+		}
+
+		int nLane = 0;
+
+		aHeaderContent.clear();
+		aHeaderContent.setPixelSize(aResources.size() * LANE_WIDTH,
+									HEADER_HEIGHT);
+
+		for (Entry<String, String> rResource : aResources.entrySet())
+		{
+			String sResource = rResource.getKey();
+			Label  aLabel    = new Label(rResource.getValue());
+			Lane   rLane     = aLanes.get(sResource);
+			int    nLeft     = nLane++ * LANE_WIDTH;
+
+			aLabel.setStyleName(LABEL_STYLE);
+			aLabel.setWidth(LANE_WIDTH + "px");
+			aHeaderContent.add(aLabel, nLeft, 0);
+
+			if (rLane == null)
+			{
+				rLane = new Lane(sResource);
+				rLane.aPanel.setWidth(LANE_WIDTH + "px");
+				aLanes.put(sResource, rLane);
+				aContent.add(rLane.aPanel, nLeft, 0);
+			}
+			else
+			{
+				aContent.setWidgetPosition(rLane.aPanel, nLeft, 0);
+			}
+
+			rLane.nIndex = nLane - 1;
+		}
+	}
+
+	/***************************************
+	 * Prepares the time axis again if the settings that affect it have
+	 * changed.
+	 *
+	 * @param rSettings The calendar settings
+	 */
+	private void prepareTimeline(CalendarSettings rSettings)
+	{
+		String sKey =
+			rSettings.getIntervalsPerHour() + ":" +
+			rSettings.getPixelsPerInterval() + ":" +
+			rSettings.getDayStartsAt() + ":" +
+			rSettings.isOffsetHourLabels();
+
+		if (!sKey.equals(sTimelineKey))
+		{
+			aTimeline.prepare();
+			sTimelineKey = sKey;
+		}
+	}
+
+	/***************************************
+	 * Renders a single lane with the appointments that have been assigned to
+	 * it by the last layout.
+	 *
+	 * @param rLane The lane to render
+	 */
+	private void renderLane(Lane rLane)
+	{
+		CalendarSettings rSettings = getSettings();
+
+		for (AppointmentWidget rWidget : rLane.aWidgets)
+		{
+			rWidget.removeFromParent();
+		}
+
+		rLane.aWidgets.clear();
+
+		for (AppointmentAdapter rAdapter :
+			 aDayLayout.layoutColumn(rLane.rAppointments))
+		{
+			Appointment		  rAppointment = rAdapter.getAppointment();
+			AppointmentWidget aWidget	   = new AppointmentWidget();
+			boolean			  bSelected    =
+				calendarWidget.isTheSelectedAppointment(rAppointment);
+
+			aWidget.setWidth(rAdapter.getWidth());
+			aWidget.setHeight(rAdapter.getHeight());
+			aWidget.setTitle(rAppointment.getTitle());
+			aWidget.setTop(rAdapter.getTop());
+			aWidget.setLeft(rAdapter.getLeft());
+			aWidget.setAppointment(rAppointment);
+			aWidget.setDescription(rAppointment.getDescription());
+			rStyleManager.applyStyle(aWidget, bSelected);
+			rLane.aPanel.add(aWidget);
+			rLane.aWidgets.add(aWidget);
+		}
+
+		nCreatedWidgets += rLane.aWidgets.size();
+		rLane.aLayout    = new DayLayout(rLane.rAppointments, 1, rSettings);
+		rLane.nLayoutDay = nDayStart;
+	}
+
+	/***************************************
+	 * Renders the lanes in the horizontal viewport and the overscan around it
+	 * if their layout is not valid anymore.
+	 */
+	private void renderLanes()
+	{
+		CalendarSettings rSettings = getSettings();
+
+		int nViewWidth = aScrollPanel.getOffsetWidth();
+		int nFirstLane =
+			aScrollPanel.getHorizontalScrollPosition() / LANE_WIDTH;
+
+		if (nViewWidth <= 0)
+		{
+			// not attached yet, render at least a reasonable number of lanes
+			nViewWidth = INITIAL_LANES * LANE_WIDTH;
+		}
+
+		int nFrom = nFirstLane - OVERSCAN_LANES;
+		int nTo   = nFirstLane + nViewWidth / LANE_WIDTH + 1 + OVERSCAN_LANES;
+
+		for (Lane rLane : aLanes.values())
+		{
+			if (rLane.nIndex >= nFrom && rLane.nIndex < nTo &&
+				!rLane.isValid(nDayStart, rSettings))
+			{
+				renderLane(rLane);
+			}
+		}
+	}
+
+	//~ Inner Classes ----------------------------------------------------------
+
+	/********************************************************************
+	 * The lane of a single resource together with the layout that has been
+	 * rendered into it.
+	 *
+	 * @author eso
+	 */
+	static class Lane
+	{
+		//~ Instance fields ----------------------------------------------------
+
+		private final String				  sResource;
+		private final AbsolutePanel			  aPanel   = new AbsolutePanel();
+		private final List<AppointmentWidget> aWidgets = new ArrayList<>();
+
+		private List<Appointment> rAppointments = Collections.emptyList();
+		private DayLayout		  aLayout	    = null;
+		private long			  nLayoutDay    = 0;
+		private int				  nIndex	    = 0;
+
+		//~ Constructors -------------------------------------------------------
+
+		/***************************************
+		 * Creates a new instance.
+		 *
+		 * @param sResource The key of the lane resource
+		 */
+		Lane(String sResource)
+		{
+			this.sResource = sResource;
+
+			aPanel.setStyleName(LANE_STYLE);
+		}
+
+		//~ Methods ------------------------------------------------------------
+
+		/***************************************
+		 * Checks whether the rendered layout of this lane is still valid for
+		 * the current appointments of the lane.
+		 *
+		 * @param  nDay      The start of the displayed day
+		 * @param  rSettings The calendar settings
+		 *
+		 * @return TRUE if the lane doesn't need to be rendered again
+		 */
+		boolean isValid(long nDay, CalendarSettings rSettings)
+		{
+			return aLayout != null && nLayoutDay == nDay &&
+				   aLayout.isValid(rAppointments, 1, rSettings);
+		}
+	}
+}
@@ -0,0 +1,139 @@
+//++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+// gewt-timetable source file
+// Copyright (c) 2017 Elmar Sonnenschein / esoco GmbH
+// Last Change: 08.05.2017 by eso
+//
+// gewt-timetable is free software; you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published
+// by the Free Software Foundation; either version 3 of the License,
+// or (at your option) any later version.
+//
+// gewt-timetable is distributed in the hope that it will be useful, but
+// WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License along
+// with gewt-timetable; if not, write to the Free Software Foundation, Inc.,
+// 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA or use the
+// contact information on the FSF website http://www.fsf.org
+//++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+package de.esoco.ewt.component;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+import com.bradrydzewski.gwt.calendar.client.Appointment;
+
+
+/********************************************************************
+ * An immutable time slot as returned by the queries of a {@link Timetable}.
+ *
+ * @author eso
+ * @see    Timetable#getFreeSlots(Date, Date, int)
+ */
+public class TimetableSlot
+{
+	//~ Static fields/initializers ---------------------------------------------
+
+	private static final int MILLIS_PER_MINUTE = 60 * 1000;
+
+	//~ Instance fields --------------------------------------------------------
+
+	private final long nStart;
+	private final long nEnd;
+
+	//~ Constructors -----------------------------------------------------------
+
+	/***************************************
+	 * Creates a new instance.
+	 *
+	 * @param nStart The start time of the slot (inclusive)
+	 * @param nEnd   The end time of the slot (exclusive)
+	 */
+	TimetableSlot(long nStart, long nEnd)
+	{
+		this.nStart = nStart;
+		this.nEnd   = nEnd;
+	}
+
+	//~ Static methods ---------------------------------------------------------
+
+	/***************************************
+	 * Adds the free slots in a time range to a list by sweeping over the
+	 * appointments in the range. The appointments must be ordered by their
+	 * start time and may overlap each other or the range boundaries.
+	 *
+	 * @param rSlots        The list to add the free slots to
+	 * @param nFrom         The start of the time range (inclusive)
+	 * @param nTo           The end of the time range (exclusive)
+	 * @param nMinimum      The minimum duration of a slot in milliseconds
+	 * @param rAppointments The appointments in the time range
+	 */
+	static void addFreeSlots(List<TimetableSlot>			  rSlots,
+							 long							  nFrom,
+							 long							  nTo,
+							 long							  nMinimum,
+							 Collection<? extends Appointment> rAppointments)
+	{
+		for (Appointment rAppointment : rAppointments)
+		{
+			long nBusy = TimetableEventIndex.getStartTime(rAppointment);
+
+			if (nBusy - nFrom >= nMinimum)
+			{
+				rSlots.add(new TimetableSlot(nFrom, nBusy));
+			}
+
+			nFrom =
+				Math.max(nFrom, TimetableEventIndex.getEndTime(rAppointment));
+		}
+
+		if (nTo - nFrom >= nMinimum)
+		{
+			rSlots.add(new TimetableSlot(nFrom, nTo));
+		}
+	}
+
+	//~ Methods ----------------------------------------------------------------
+
+	/***************************************
+	 * Returns the end of this slot.
+	 *
+	 * @return The exclusive end date
+	 */
+	public Date getEnd()
+	{
+		return new Date(nEnd);
+	}
+
+	/***************************************
+	 * Returns the duration of this slot in minutes.
+	 *
+	 * @return The duration in minutes
+	 */
+	public int getMinutes()
+	{
+		return (int) ((nEnd - nStart) / MILLIS_PER_MINUTE);
+	}
+
+	/***************************************
+	 * Returns the start of this slot.
+	 *
+	 * @return The inclusive start date
+	 */
+	public Date getStart()
+	{
+		return new Date(nStart);
+	}
+
+	/***************************************
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String toString()
+	{
+		return "TimetableSlot[" + getStart() + " - " + getEnd() + "]";
+	}
+}
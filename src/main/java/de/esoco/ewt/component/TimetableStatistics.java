@@ -0,0 +1,202 @@
+//++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+// gewt-timetable source file
+// Copyright (c) 2017 Elmar Sonnenschein / esoco GmbH
+// Last Change: 08.05.2017 by eso
+//
+// gewt-timetable is free software; you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published
+// by the Free Software Foundation; either version 3 of the License,
+// or (at your option) any later version.
+//
+// gewt-timetable is distributed in the hope that it will be useful, but
+// WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License along
+// with gewt-timetable; if not, write to the Free Software Foundation, Inc.,
+// 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA or use the
+// contact information on the FSF website http://www.fsf.org
+//++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+package de.esoco.ewt.component;
+
+/********************************************************************
+ * An immutable snapshot of the performance statistics of a timetable. For
+ * each {@link Operation} it contains the number of invocations, the number
+ * of processed items, and the total and maximum durations. Instances are
+ * created by a {@link TimetableInstrumentation}.
+ *
+ * @author eso
+ * @see    Timetable#getStatistics()
+ */
+public class TimetableStatistics
+{
+	//~ Enums ------------------------------------------------------------------
+
+	/********************************************************************
+	 * Enumeration of the measured timetable operations. The layout of the
+	 * views is measured separately for each view style.
+	 */
+	public enum Operation
+	{
+		ADD_EVENTS, REMOVE_EVENTS, UPDATE_EVENTS, CLEAR, REPAINT, SORT,
+		DAY_LAYOUT, MONTH_LAYOUT, AGENDA_LAYOUT, YEAR_LAYOUT, RESOURCE_LAYOUT,
+		SIZING
+	}
+
+	//~ Static fields/initializers ---------------------------------------------
+
+	private static final double NANOS_PER_MILLI = 1000000.0;
+
+	//~ Instance fields --------------------------------------------------------
+
+	private final int[]  aCounts;
+	private final long[] aItems;
+	private final long[] aTotalNanos;
+	private final long[] aMaxNanos;
+	private final long   nCreatedWidgets;
+
+	//~ Constructors -----------------------------------------------------------
+
+	/***************************************
+	 * Creates a new instance from copies of the given arrays which must be
+	 * indexed by the operation ordinals.
+	 *
+	 * @param rCounts         The number of invocations per operation
+	 * @param rItems          The number of processed items per operation
+	 * @param rTotalNanos     The total durations in nanoseconds
+	 * @param rMaxNanos       The maximum durations in nanoseconds
+	 * @param nCreatedWidgets The number of created appointment widgets
+	 */
+	TimetableStatistics(int[]  rCounts,
+						long[] rItems,
+						long[] rTotalNanos,
+						long[] rMaxNanos,
+						long   nCreatedWidgets)
+	{
+		this.aCounts		 = rCounts.clone();
+		this.aItems			 = rItems.clone();
+		this.aTotalNanos	 = rTotalNanos.clone();
+		this.aMaxNanos		 = rMaxNanos.clone();
+		this.nCreatedWidgets = nCreatedWidgets;
+	}
+
+	//~ Methods ----------------------------------------------------------------
+
+	/***************************************
+	 * Returns the average duration of an operation.
+	 *
+	 * @param  eOperation The operation
+	 *
+	 * @return The average duration in milliseconds or zero if the operation
+	 *         has not been performed
+	 */
+	public double getAverageMillis(Operation eOperation)
+	{
+		int nCount = getCount(eOperation);
+
+		return nCount > 0 ? getTotalMillis(eOperation) / nCount : 0;
+	}
+
+	/***************************************
+	 * Returns the number of times an operation has been performed.
+	 *
+	 * @param  eOperation The operation
+	 *
+	 * @return The invocation count
+	 */
+	public int getCount(Operation eOperation)
+	{
+		return aCounts[eOperation.ordinal()];
+	}
+
+	/***************************************
+	 * Returns the total number of appointment widgets that have been created
+	 * by the layouts of the timetable views.
+	 *
+	 * @return The created widget count
+	 */
+	public long getCreatedWidgets()
+	{
+		return nCreatedWidgets;
+	}
+
+	/***************************************
+	 * Returns the total number of items that have been processed by an
+	 * operation, e.g. the number of added events or of sorted appointments.
+	 *
+	 * @param  eOperation The operation
+	 *
+	 * @return The processed item count
+	 */
+	public long getItemCount(Operation eOperation)
+	{
+		return aItems[eOperation.ordinal()];
+	}
+
+	/***************************************
+	 * Returns the longest duration of an operation.
+	 *
+	 * @param  eOperation The operation
+	 *
+	 * @return The maximum duration in milliseconds
+	 */
+	public double getMaxMillis(Operation eOperation)
+	{
+		return aMaxNanos[eOperation.ordinal()] / NANOS_PER_MILLI;
+	}
+
+	/***************************************
+	 * Returns the accumulated duration of all invocations of an operation.
+	 *
+	 * @param  eOperation The operation
+	 *
+	 * @return The total duration in milliseconds
+	 */
+	public double getTotalMillis(Operation eOperation)
+	{
+		return aTotalNanos[eOperation.ordinal()] / NANOS_PER_MILLI;
+	}
+
+	/***************************************
+	 * Returns a multi-line description of the operations that have been
+	 * performed at least once.
+	 *
+	 * @return The statistics description
+	 */
+	@Override
+	public String toString()
+	{
+		StringBuilder aResult = new StringBuilder("TimetableStatistics");
+
+		for (Operation eOperation : Operation.values())
+		{
+			if (getCount(eOperation) > 0)
+			{
+				aResult.append("\n  ").append(eOperation);
+				aResult.append(": count=").append(getCount(eOperation));
+				aResult.append(", items=").append(getItemCount(eOperation));
+				aResult.append(", total=")
+					   .append(formatMillis(getTotalMillis(eOperation)));
+				aResult.append(", max=")
+					   .append(formatMillis(getMaxMillis(eOperation)));
+			}
+		}
+
+		aResult.append("\n  WIDGETS: ").append(nCreatedWidgets);
+
+		return aResult.toString();
+	}
+
+	/***************************************
+	 * Formats a duration in milliseconds with a precision of microseconds.
+	 *
+	 * @param  fMillis The duration in milliseconds
+	 *
+	 * @return The formatted duration
+	 */
+	private String formatMillis(double fMillis)
+	{
+		return Math.round(fMillis * 1000) / 1000.0 + "ms";
+	}
+}
@@ -0,0 +1,278 @@
+//++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+// gewt-timetable source file
+// Copyright (c) 2017 Elmar Sonnenschein / esoco GmbH
+// Last Change: 08.05.2017 by eso
+//
+// gewt-timetable is free software; you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published
+// by the Free Software Foundation; either version 3 of the License,
+// or (at your option) any later version.
+//
+// gewt-timetable is distributed in the hope that it will be useful, but
+// WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License along
+// with gewt-timetable; if not, write to the Free Software Foundation, Inc.,
+// 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA or use the
+// contact information on the FSF website http://www.fsf.org
+//++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+package de.esoco.ewt.component;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.bradrydzewski.gwt.calendar.client.Appointment;
+import com.bradrydzewski.gwt.calendar.client.CalendarSettings;
+import com.bradrydzewski.gwt.calendar.client.CalendarView;
+import com.bradrydzewski.gwt.calendar.client.CalendarWidget;
+
+import com.google.gwt.i18n.client.DateTimeFormat;
+import com.google.gwt.user.client.Element;
+import com.google.gwt.user.client.Event;
+import com.google.gwt.user.client.ui.Grid;
+import com.google.gwt.user.client.ui.HTMLTable.CellFormatter;
+
+
+/********************************************************************
+ * A view that displays the utilization of each day of a year in a compact
+ * grid with a row for each month and a cell for each day. The cells are
+ * rendered from the aggregated event counts and booked minutes per day that
+ * are maintained by the event index. Therefore no appointment widgets are
+ * created, independent of the number of events in the year. Each cell
+ * displays the number of events of the day and has a style that reflects the
+ * booked minutes relative to the working hours of a day, from {@link
+ * #DAY_STYLE}-level0 for days without events to {@link #DAY_STYLE}-level4
+ * for fully booked days. Clicking on a day fires a date request event for it.
+ *
+ * @author eso
+ */
+class TimetableYearView extends CalendarView
+{
+	//~ Static fields/initializers ---------------------------------------------
+
+	/** The style of the day cells. */
+	public static final String DAY_STYLE = "yearDay";
+
+	private static final String YEAR_VIEW_STYLE   = "gwt-cal-YearView";
+	private static final String MONTH_LABEL_STYLE = "monthLabel";
+	private static final String DAY_LABEL_STYLE   = "dayLabel";
+	private static final String NO_DAY_STYLE	  = "noDay";
+	private static final String LEVEL_STYLE		  = "-level";
+
+	private static final int MONTHS    = 12;
+	private static final int MAX_DAYS  = 31;
+	private static final int MAX_LEVEL = 4;
+
+	private static final int MINUTES_PER_HOUR = 60;
+
+	private static final DateTimeFormat MONTH_FORMAT =
+		DateTimeFormat.getFormat("MMM");
+
+	//~ Instance fields --------------------------------------------------------
+
+	private final Grid aGrid = new Grid(MONTHS + 1, MAX_DAYS + 1);
+
+	private final Map<Element, Long> aDayCells = new HashMap<>();
+
+	private TimetableDayAggregates rAggregates  = new TimetableDayAggregates();
+	private TimetableDayAggregates rAdjustments = new TimetableDayAggregates();
+
+	//~ Methods ----------------------------------------------------------------
+
+	/***************************************
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void attach(CalendarWidget rWidget)
+	{
+		super.attach(rWidget);
+
+		CellFormatter rFormatter = aGrid.getCellFormatter();
+
+		aGrid.setWidth("100%");
+
+		for (int nDay = 1; nDay <= MAX_DAYS; nDay++)
+		{
+			aGrid.setText(0, nDay, String.valueOf(nDay));
+			rFormatter.setStyleName(0, nDay, DAY_LABEL_STYLE);
+		}
+
+		calendarWidget.getRootPanel().add(aGrid);
+	}
+
+	/***************************************
+	 * {@inheritDoc}
+	 */
+	@Override
+	@SuppressWarnings("deprecation")
+	public void doLayout()
+	{
+		int			  nYear		 = calendarWidget.getDate().getYear();
+		CellFormatter rFormatter = aGrid.getCellFormatter();
+
+		aDayCells.clear();
+
+		for (int nMonth = 0; nMonth < MONTHS; nMonth++)
+		{
+			int nRow = nMonth + 1;
+
+			Date aMonth = new Date(nYear, nMonth, 1);
+
+			aGrid.setText(nRow, 0, MONTH_FORMAT.format(aMonth));
+			rFormatter.setStyleName(nRow, 0, MONTH_LABEL_STYLE);
+
+			for (int nDay = 1; nDay <= MAX_DAYS; nDay++)
+			{
+				Date aDate = new Date(nYear, nMonth, nDay);
+
+				if (aDate.getMonth() == nMonth)
+				{
+					layoutDay(nRow, nDay, aDate.getTime());
+				}
+				else
+				{
+					aGrid.setText(nRow, nDay, "");
+					rFormatter.setStyleName(nRow, nDay, NO_DAY_STYLE);
+				}
+			}
+		}
+	}
+
+	/***************************************
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String getStyleName()
+	{
+		return YEAR_VIEW_STYLE;
+	}
+
+	/***************************************
+	 * Does nothing because this view doesn't display single appointments.
+	 *
+	 * @see CalendarView#onAppointmentSelected(Appointment)
+	 */
+	@Override
+	public void onAppointmentSelected(Appointment rAppointment)
+	{
+	}
+
+	/***************************************
+	 * Does nothing because a single click already requests the day.
+	 *
+	 * @see CalendarView#onDoubleClick(Element, Event)
+	 */
+	@Override
+	public void onDoubleClick(Element rElement, Event rEvent)
+	{
+	}
+
+	/***************************************
+	 * Does nothing because this view doesn't display single appointments.
+	 *
+	 * @see CalendarView#onMouseOver(Element, Event)
+	 */
+	@Override
+	public void onMouseOver(Element rElement, Event rEvent)
+	{
+	}
+
+	/***************************************
+	 * Fires a date request event if a day cell has been clicked.
+	 *
+	 * @see CalendarView#onSingleClick(Element, Event)
+	 */
+	@Override
+	public void onSingleClick(Element rElement, Event rEvent)
+	{
+		Long rDayStart = aDayCells.get(rElement);
+
+		if (rDayStart != null)
+		{
+			calendarWidget.fireDateRequestEvent(new Date(rDayStart.longValue()),
+												rElement);
+		}
+	}
+
+	/***************************************
+	 * Sets the aggregates that will be displayed by the next layout. The
+	 * values of the adjustments are added to the values of the aggregates,
+	 * e.g. to replace recurring events with their occurrences.
+	 *
+	 * @param rAggregates  The aggregates of the events per day
+	 * @param rAdjustments The adjustments of the aggregates
+	 */
+	public void setAggregates(
+		TimetableDayAggregates rAggregates,
+		TimetableDayAggregates rAdjustments)
+	{
+		this.rAggregates  = rAggregates;
+		this.rAdjustments = rAdjustments;
+	}
+
+	/***************************************
+	 * Returns the utilization level of a day.
+	 *
+	 * @param  nCount   The number of events on the day
+	 * @param  nMinutes The booked minutes of the day
+	 *
+	 * @return The level from 0 (no events) to {@link #MAX_LEVEL} (fully
+	 *         booked)
+	 */
+	private int getLevel(int nCount, int nMinutes)
+	{
+		int nLevel = 0;
+
+		if (nCount > 0)
+		{
+			CalendarSettings rSettings = getSettings();
+
+			int nWorkMinutes =
+				(rSettings.getWorkingHourEnd() -
+				 rSettings.getWorkingHourStart()) * MINUTES_PER_HOUR;
+
+			nLevel =
+				1 +
+				Math.min(nMinutes * (MAX_LEVEL - 1) / Math.max(nWorkMinutes, 1),
+						 MAX_LEVEL - 1);
+		}
+
+		return nLevel;
+	}
+
+	/***************************************
+	 * Renders the cell of a single day.
+	 *
+	 * @param nRow      The grid row of the month
+	 * @param nColumn   The grid column of the day
+	 * @param nDayStart The start time of the day
+	 */
+	private void layoutDay(int nRow, int nColumn, long nDayStart)
+	{
+		CellFormatter rFormatter = aGrid.getCellFormatter();
+		Element		  rCell		 = rFormatter.getElement(nRow, nColumn);
+
+		int nCount   =
+			rAggregates.getCount(nDayStart) + rAdjustments.getCount(nDayStart);
+		int nMinutes =
+			rAggregates.getMinutes(nDayStart) +
+			rAdjustments.getMinutes(nDayStart);
+
+		aGrid.setText(nRow, nColumn, nCount > 0 ? String.valueOf(nCount) : "");
+		rFormatter.setStyleName(nRow, nColumn, DAY_STYLE);
+		rFormatter.addStyleName(nRow,
+								nColumn,
+								DAY_STYLE + LEVEL_STYLE +
+								getLevel(nCount, nMinutes));
+		int nHours = nMinutes / MINUTES_PER_HOUR;
+
+		nMinutes %= MINUTES_PER_HOUR;
+
+		// the booked time as a tooltip
+		rCell.setTitle(nHours + (nMinutes < 10 ? ":0" : ":") + nMinutes);
+		aDayCells.put(rCell, nDayStart);
+	}
+}
@@ -0,0 +1,406 @@
+//++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+// gewt-timetable source file
+// Copyright (c) 2017 Elmar Sonnenschein / esoco GmbH
+// Last Change: 08.05.2017 by eso
+//
+// gewt-timetable is free software; you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published
+// by the Free Software Foundation; either version 3 of the License,
+// or (at your option) any later version.
+//
+// gewt-timetable is distributed in the hope that it will be useful, but
+// WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License along
+// with gewt-timetable; if not, write to the Free Software Foundation, Inc.,
+// 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA or use the
+// contact information on the FSF website http://www.fsf.org
+//++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+package de.esoco.ewt.timetable;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.google.gwt.user.client.rpc.IsSerializable;
+
+
+/********************************************************************
+ * A precomputed layout of the events in the date range of a timetable day
+ * view. Timed events are described by the day on which they are displayed,
+ * the time cells they occupy and the overlap column they have been assigned
+ * to. Multi-day and all-day events are described by the range of days they
+ * span and the lane they occupy in the multi-day area of the view. Like the
+ * events in a timetable event batch the layout data is stored in parallel
+ * arrays for an efficient transfer to the client.
+ *
+ * <p>A layout is created with a {@link TimetableLayoutCalculator}, typically
+ * on the server, and is only valid for the settings it has been calculated
+ * with. It also contains the start and end times of each event so that a
+ * client can verify that the layout is still valid for its current events
+ * before using it.</p>
+ *
+ * @author eso
+ */
+public class TimetableLayout implements IsSerializable
+{
+	//~ Instance fields --------------------------------------------------------
+
+	private int nDays;
+	private int nIntervalsPerHour;
+	private int nDayStartsAt;
+	private int nLaneCount;
+
+	private String[] aIds;
+	private double[] aStartTimes;
+	private double[] aEndTimes;
+	private int[]    aFirstDays;
+	private int[]    aLastDays;
+	private int[]    aCellStarts;
+	private int[]    aCellSpans;
+	private int[]    aColumns;
+	private int[]    aColumnCounts;
+	private int[]    aLanes;
+
+	private transient Map<String, Integer> aIdIndex;
+	private transient int[]				   aEventCounts;
+
+	//~ Constructors -----------------------------------------------------------
+
+	/***************************************
+	 * Creates a new instance with the given layout data. All arrays must have
+	 * the same length. For multi-day events the cell and column arrays must
+	 * contain zero, for timed events the lane array must contain -1.
+	 *
+	 * @param nDays             The number of days in the layout range
+	 * @param nIntervalsPerHour The number of time cells per hour
+	 * @param nDayStartsAt      The hour at which the display of a day starts
+	 * @param nLaneCount        The number of lanes for multi-day events
+	 * @param rIds              The event IDs
+	 * @param rStartTimes       The event start times in milliseconds
+	 * @param rEndTimes         The event end times in milliseconds
+	 * @param rFirstDays        The indexes of the first days of the events
+	 * @param rLastDays         The indexes of the last days of the events
+	 * @param rCellStarts       The first time cells of timed events
+	 * @param rCellSpans        The number of time cells of timed events
+	 * @param rColumns          The overlap columns of timed events
+	 * @param rColumnCounts     The overlap column counts of timed events
+	 * @param rLanes            The lanes of multi-day events
+	 */
+	TimetableLayout(int		 nDays,
+					int		 nIntervalsPerHour,
+					int		 nDayStartsAt,
+					int		 nLaneCount,
+					String[] rIds,
+					double[] rStartTimes,
+					double[] rEndTimes,
+					int[]    rFirstDays,
+					int[]    rLastDays,
+					int[]    rCellStarts,
+					int[]    rCellSpans,
+					int[]    rColumns,
+					int[]    rColumnCounts,
+					int[]    rLanes)
+	{
+		this.nDays			   = nDays;
+		this.nIntervalsPerHour = nIntervalsPerHour;
+		this.nDayStartsAt	   = nDayStartsAt;
+		this.nLaneCount		   = nLaneCount;
+
+		aIds		  = rIds;
+		aStartTimes   = rStartTimes;
+		aEndTimes     = rEndTimes;
+		aFirstDays    = rFirstDays;
+		aLastDays     = rLastDays;
+		aCellStarts   = rCellStarts;
+		aCellSpans    = rCellSpans;
+		aColumns	  = rColumns;
+		aColumnCounts = rColumnCounts;
+		aLanes		  = rLanes;
+	}
+
+	/***************************************
+	 * Default constructor for serialization.
+	 */
+	TimetableLayout()
+	{
+	}
+
+	//~ Methods ----------------------------------------------------------------
+
+	/***************************************
+	 * Returns the number of time cells occupied by a timed event.
+	 *
+	 * @param  nIndex The event index
+	 *
+	 * @return The cell span
+	 */
+	public int getCellSpan(int nIndex)
+	{
+		return aCellSpans[nIndex];
+	}
+
+	/***************************************
+	 * Returns the first time cell of a timed event.
+	 *
+	 * @param  nIndex The event index
+	 *
+	 * @return The start cell
+	 */
+	public int getCellStart(int nIndex)
+	{
+		return aCellStarts[nIndex];
+	}
+
+	/***************************************
+	 * Returns the overlap column of a timed event.
+	 *
+	 * @param  nIndex The event index
+	 *
+	 * @return The column index
+	 */
+	public int getColumn(int nIndex)
+	{
+		return aColumns[nIndex];
+	}
+
+	/***************************************
+	 * Returns the number of overlap columns in the group of overlapping timed
+	 * events that an event belongs to.
+	 *
+	 * @param  nIndex The event index
+	 *
+	 * @return The column count
+	 */
+	public int getColumnCount(int nIndex)
+	{
+		return aColumnCounts[nIndex];
+	}
+
+	/***************************************
+	 * Returns the number of timed events that are displayed on a certain day.
+	 *
+	 * @param  nDay The day index
+	 *
+	 * @return The number of timed events on the day
+	 */
+	public int getDayEventCount(int nDay)
+	{
+		return getEventCounts()[nDay];
+	}
+
+	/***************************************
+	 * Returns the hour at which the display of a day starts.
+	 *
+	 * @return The day start hour
+	 */
+	public final int getDayStartsAt()
+	{
+		return nDayStartsAt;
+	}
+
+	/***************************************
+	 * Returns the number of days in the range of this layout.
+	 *
+	 * @return The day count
+	 */
+	public final int getDays()
+	{
+		return nDays;
+	}
+
+	/***************************************
+	 * Returns the end time of an event.
+	 *
+	 * @param  nIndex The event index
+	 *
+	 * @return The end time in milliseconds
+	 */
+	public long getEndTime(int nIndex)
+	{
+		return (long) aEndTimes[nIndex];
+	}
+
+	/***************************************
+	 * Returns the index of the first day of an event. For timed events this
+	 * is the day on which they are displayed.
+	 *
+	 * @param  nIndex The event index
+	 *
+	 * @return The first day index
+	 */
+	public int getFirstDay(int nIndex)
+	{
+		return aFirstDays[nIndex];
+	}
+
+	/***************************************
+	 * Returns the ID of an event.
+	 *
+	 * @param  nIndex The event index
+	 *
+	 * @return The event ID
+	 */
+	public String getId(int nIndex)
+	{
+		return aIds[nIndex];
+	}
+
+	/***************************************
+	 * Returns the number of time cells per hour.
+	 *
+	 * @return The intervals per hour
+	 */
+	public final int getIntervalsPerHour()
+	{
+		return nIntervalsPerHour;
+	}
+
+	/***************************************
+	 * Returns the lane of a multi-day event.
+	 *
+	 * @param  nIndex The event index
+	 *
+	 * @return The lane index or -1 for timed events
+	 */
+	public int getLane(int nIndex)
+	{
+		return aLanes[nIndex];
+	}
+
+	/***************************************
+	 * Returns the number of lanes that are occupied by multi-day events.
+	 *
+	 * @return The lane count
+	 */
+	public final int getLaneCount()
+	{
+		return nLaneCount;
+	}
+
+	/***************************************
+	 * Returns the index of the last day of an event. For timed events this
+	 * is the same as the first day.
+	 *
+	 * @param  nIndex The event index
+	 *
+	 * @return The last day index
+	 */
+	public int getLastDay(int nIndex)
+	{
+		return aLastDays[nIndex];
+	}
+
+	/***************************************
+	 * Returns the number of multi-day events in this layout.
+	 *
+	 * @return The multi-day event count
+	 */
+	public int getMultiDayEventCount()
+	{
+		return getEventCounts()[nDays];
+	}
+
+	/***************************************
+	 * Returns the start time of an event.
+	 *
+	 * @param  nIndex The event index
+	 *
+	 * @return The start time in milliseconds
+	 */
+	public long getStartTime(int nIndex)
+	{
+		return (long) aStartTimes[nIndex];
+	}
+
+	/***************************************
+	 * Returns the index of the event with a certain ID.
+	 *
+	 * @param  sId The event ID
+	 *
+	 * @return The event index or -1 if the ID is not part of this layout
+	 */
+	public int indexOf(String sId)
+	{
+		if (aIdIndex == null)
+		{
+			Map<String, Integer> aIndex = new HashMap<>(aIds.length);
+
+			for (int i = 0; i < aIds.length; i++)
+			{
+				aIndex.put(aIds[i], i);
+			}
+
+			aIdIndex = aIndex;
+		}
+
+		Integer rIndex = aIdIndex.get(sId);
+
+		return rIndex != null ? rIndex.intValue() : -1;
+	}
+
+	/***************************************
+	 * Checks whether an event is displayed in the multi-day area of the view.
+	 * This is the case for all-day events and for events that end on another
+	 * day than they start.
+	 *
+	 * @param  nIndex The event index
+	 *
+	 * @return TRUE for a multi-day event, FALSE for a timed event
+	 */
+	public boolean isMultiDay(int nIndex)
+	{
+		return aLanes[nIndex] >= 0;
+	}
+
+	/***************************************
+	 * Checks whether this layout has been calculated with certain settings.
+	 *
+	 * @param  nDays             The number of days in the range
+	 * @param  nIntervalsPerHour The number of time cells per hour
+	 * @param  nDayStartsAt      The hour at which the display of a day starts
+	 *
+	 * @return TRUE if the settings match
+	 */
+	public boolean matches(int nDays, int nIntervalsPerHour, int nDayStartsAt)
+	{
+		return nDays == this.nDays &&
+			   nIntervalsPerHour == this.nIntervalsPerHour &&
+			   nDayStartsAt == this.nDayStartsAt;
+	}
+
+	/***************************************
+	 * Returns the number of events in this layout.
+	 *
+	 * @return The event count
+	 */
+	public int size()
+	{
+		return aIds.length;
+	}
+
+	/***************************************
+	 * Returns the number of events per day. The counts are calculated on the
+	 * first invocation.
+	 *
+	 * @return An array containing the number of timed events per day and
+	 *         the number of multi-day events in an additional last element
+	 */
+	private int[] getEventCounts()
+	{
+		if (aEventCounts == null)
+		{
+			int[] aCounts = new int[nDays + 1];
+
+			for (int i = 0; i < aIds.length; i++)
+			{
+				aCounts[isMultiDay(i) ? nDays : aFirstDays[i]]++;
+			}
+
+			aEventCounts = aCounts;
+		}
+
+		return aEventCounts;
+	}
+}
@@ -0,0 +1,696 @@
+//++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+// gewt-timetable source file
+// Copyright (c) 2017 Elmar Sonnenschein / esoco GmbH
+// Last Change: 08.05.2017 by eso
+//
+// gewt-timetable is free software; you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published
+// by the Free Software Foundation; either version 3 of the License,
+// or (at your option) any later version.
+//
+// gewt-timetable is distributed in the hope that it will be useful, but
+// WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License along
+// with gewt-timetable; if not, write to the Free Software Foundation, Inc.,
+// 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA or use the
+// contact information on the FSF website http://www.fsf.org
+//++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+package de.esoco.ewt.timetable;
+
+import de.esoco.lib.property.HasProperties;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import static de.esoco.lib.property.StandardProperties.ALL_DAY;
+import static de.esoco.lib.property.StandardProperties.END_DATE;
+import static de.esoco.lib.property.StandardProperties.ID;
+import static de.esoco.lib.property.StandardProperties.START_DATE;
+
+
+/********************************************************************
+ * Calculates the layout of timetable events for the date range of a day
+ * view. This class has no dependencies on client-side code so that it can be
+ * used on the server to precompute a {@link TimetableLayout} that is then
+ * handed to the client which can display the events without calculating the
+ * layout itself. The static methods contain the layout algorithms that are
+ * shared with the client-side layout of the timetable.
+ *
+ * <p>Timed events are assigned to overlap columns with a sweep over the
+ * events of each day. Multi-day and all-day events are stacked into lanes by
+ * assigning each event the first lane that is free on all of its days. The
+ * calculation uses the default time zone which must therefore be the same
+ * as that of the client.</p>
+ *
+ * <p>A calculator can be used to create multiple layouts. After each
+ * invocation of {@link #calculate()} it is reset to an empty state.</p>
+ *
+ * @author eso
+ */
+public class TimetableLayoutCalculator
+{
+	//~ Static fields/initializers ---------------------------------------------
+
+	private static final int MINUTES_PER_HOUR = 60;
+	private static final int MINUTES_PER_DAY  = 24 * MINUTES_PER_HOUR;
+
+	private static final Comparator<LayoutEvent> EVENT_ORDER =
+		new Comparator<LayoutEvent>()
+		{
+			@Override
+			public int compare(LayoutEvent rFirst, LayoutEvent rSecond)
+			{
+				// same order as the appointments of a timetable
+				int nCompare = Long.compare(rFirst.nStart, rSecond.nStart);
+
+				return nCompare != 0
+					   ? nCompare : Long.compare(rSecond.nEnd, rFirst.nEnd);
+			}
+		};
+
+	//~ Instance fields --------------------------------------------------------
+
+	private final Date rFirstDay;
+	private final int  nDays;
+	private final int  nIntervalsPerHour;
+	private final int  nDayStartsAt;
+
+	private List<LayoutEvent> aEvents = new ArrayList<>();
+
+	//~ Constructors -----------------------------------------------------------
+
+	/***************************************
+	 * Creates a new instance for a certain date range and the settings of
+	 * the timetable that will display the layout.
+	 *
+	 * @param rFirstDay         The first day of the date range
+	 * @param nDays             The number of days in the date range
+	 * @param nIntervalsPerHour The number of time cells per hour
+	 * @param nDayStartsAt      The hour at which the display of a day starts
+	 */
+	public TimetableLayoutCalculator(Date rFirstDay,
+									 int  nDays,
+									 int  nIntervalsPerHour,
+									 int  nDayStartsAt)
+	{
+		this.rFirstDay		   = rFirstDay;
+		this.nDays			   = nDays;
+		this.nIntervalsPerHour = nIntervalsPerHour;
+		this.nDayStartsAt	   = nDayStartsAt;
+	}
+
+	//~ Static methods ---------------------------------------------------------
+
+	/***************************************
+	 * Assigns the overlap columns to the timed events of a day. The events
+	 * must be ordered by their start cell. Each event receives the first
+	 * column that is not occupied by an overlapping event. All events in a
+	 * group of transitively overlapping events receive the same number of
+	 * total columns which is returned in an array.
+	 *
+	 * @param  rCellStarts The start cells of the events
+	 * @param  rCellEnds   The (inclusive) end cells of the events
+	 * @param  rColumns    An array that will receive the assigned columns
+	 *
+	 * @return An array containing the total column count for each event
+	 */
+	public static int[] assignColumns(int[]		  rCellStarts,
+									  final int[] rCellEnds,
+									  int[]		  rColumns)
+	{
+		int   nCount	    = rCellStarts.length;
+		int[] aTotalColumns = new int[nCount];
+		int   nGroupStart   = 0;
+		int   nNextColumn   = 0;
+
+		PriorityQueue<Integer> aActive	    =
+			new PriorityQueue<>(11,
+				new Comparator<Integer>()
+				{
+					@Override
+					public int compare(Integer rFirst, Integer rSecond)
+					{
+						return rCellEnds[rFirst] - rCellEnds[rSecond];
+					}
+				});
+		PriorityQueue<Integer> aFreeColumns = new PriorityQueue<>();
+
+		for (int i = 0; i < nCount; i++)
+		{
+			while (!aActive.isEmpty() &&
+				   rCellEnds[aActive.peek()] < rCellStarts[i])
+			{
+				aFreeColumns.add(rColumns[aActive.poll()]);
+			}
+
+			if (aActive.isEmpty())
+			{
+				// a new group of overlapping events starts
+				Arrays.fill(aTotalColumns, nGroupStart, i, nNextColumn);
+				aFreeColumns.clear();
+				nGroupStart = i;
+				nNextColumn = 0;
+			}
+
+			rColumns[i] =
+				aFreeColumns.isEmpty() ? nNextColumn++ : aFreeColumns.poll();
+			aActive.add(i);
+		}
+
+		Arrays.fill(aTotalColumns, nGroupStart, nCount, nNextColumn);
+
+		return aTotalColumns;
+	}
+
+	/***************************************
+	 * Assigns the lanes of multi-day events. The events must be ordered by
+	 * their first day. Each event receives the first lane that is not
+	 * occupied on any of its days.
+	 *
+	 * @param  rFirstDays The indexes of the first days of the events
+	 * @param  rLastDays  The indexes of the last days of the events
+	 * @param  rLanes     An array that will receive the assigned lanes
+	 *
+	 * @return The number of lanes
+	 */
+	public static int assignLanes(int[] rFirstDays,
+								  int[] rLastDays,
+								  int[] rLanes)
+	{
+		// because of the event order a lane is free if the last event in it
+		// ends before the first day of the next event
+		List<Integer> aLaneEnds = new ArrayList<>();
+
+		for (int i = 0; i < rFirstDays.length; i++)
+		{
+			int nLane = 0;
+
+			while (nLane < aLaneEnds.size() &&
+				   aLaneEnds.get(nLane) >= rFirstDays[i])
+			{
+				nLane++;
+			}
+
+			if (nLane < aLaneEnds.size())
+			{
+				aLaneEnds.set(nLane, rLastDays[i]);
+			}
+			else
+			{
+				aLaneEnds.add(rLastDays[i]);
+			}
+
+			rLanes[i] = nLane;
+		}
+
+		return aLaneEnds.size();
+	}
+
+	/***************************************
+	 * Returns the index of the day in a date range that contains a certain
+	 * time.
+	 *
+	 * @param  rDayStarts The day start times as returned by {@link
+	 *                    #getDayStarts(Date, int, int)}
+	 * @param  nTime      The time in milliseconds
+	 *
+	 * @return The day index, -1 if the time is before the range, or the day
+	 *         count if it is after the range
+	 */
+	public static int getDayIndex(long[] rDayStarts, long nTime)
+	{
+		int nIndex = Arrays.binarySearch(rDayStarts, nTime);
+
+		return nIndex >= 0 ? nIndex : -nIndex - 2;
+	}
+
+	/***************************************
+	 * Returns the start times of the days in a date range. Like in the
+	 * timetable a day starts at the configured day start hour.
+	 *
+	 * @param  rFirstDay    The first day of the range
+	 * @param  nDays        The number of days in the range
+	 * @param  nDayStartsAt The hour at which a day starts
+	 *
+	 * @return An array of the day start times in milliseconds with an
+	 *         additional element for the end of the range
+	 */
+	@SuppressWarnings("deprecation")
+	public static long[] getDayStarts(Date rFirstDay,
+									  int  nDays,
+									  int  nDayStartsAt)
+	{
+		long[] aDayStarts = new long[nDays + 1];
+
+		for (int i = 0; i <= nDays; i++)
+		{
+			aDayStarts[i] =
+				new Date(rFirstDay.getYear(),
+						 rFirstDay.getMonth(),
+						 rFirstDay.getDate() + i,
+						 nDayStartsAt,
+						 0).getTime();
+		}
+
+		return aDayStarts;
+	}
+
+	/***************************************
+	 * Returns the index of the last time cell of an event.
+	 *
+	 * @param  nStartCell        The start cell of the event
+	 * @param  nEndMinutes       The end of the event in minutes since the day
+	 *                           start
+	 * @param  nIntervalsPerHour The number of time cells per hour
+	 *
+	 * @return The last cell that starts before the end of the event
+	 */
+	public static int getEndCell(int nStartCell,
+								 int nEndMinutes,
+								 int nIntervalsPerHour)
+	{
+		int nMinutesPerCell = MINUTES_PER_HOUR / nIntervalsPerHour;
+		int nLastCell	    = MINUTES_PER_DAY / nMinutesPerCell - 1;
+		int nEndCell	    =
+			(nEndMinutes + nMinutesPerCell - 1) / nMinutesPerCell - 1;
+
+		return Math.max(nStartCell, Math.min(nEndCell, nLastCell));
+	}
+
+	/***************************************
+	 * Returns the index of the first day of a multi-day event in a date
+	 * range.
+	 *
+	 * @param  rDayStarts The day start times of the range
+	 * @param  nStart     The start time of the event
+	 * @param  nEnd       The end time of the event
+	 *
+	 * @return The first day index or -1 if the event is not displayed in the
+	 *         range
+	 */
+	public static int getFirstDay(long[] rDayStarts, long nStart, long nEnd)
+	{
+		int nLast = rDayStarts.length - 1;
+
+		if (nStart >= rDayStarts[nLast] ||
+			(nStart < rDayStarts[0] && nEnd < rDayStarts[0]))
+		{
+			return -1;
+		}
+
+		return Math.max(getDayIndex(rDayStarts, nStart), 0);
+	}
+
+	/***************************************
+	 * Returns the index of the last day of a multi-day event in a date range.
+	 *
+	 * @param  rDayStarts The day start times of the range
+	 * @param  nFirstDay  The first day as returned by {@link
+	 *                    #getFirstDay(long[], long, long)}
+	 * @param  nEnd       The end time of the event
+	 *
+	 * @return The last day index
+	 */
+	public static int getLastDay(long[] rDayStarts, int nFirstDay, long nEnd)
+	{
+		int nLastDay = getDayIndex(rDayStarts, nEnd);
+
+		return Math.max(nFirstDay, Math.min(nLastDay, rDayStarts.length - 2));
+	}
+
+	/***************************************
+	 * Returns the minutes of a time since the start of the displayed day.
+	 * Times before the day start hour belong to the end of the previous day.
+	 *
+	 * @param  rTime        The time
+	 * @param  nDayStartsAt The hour at which a day starts
+	 *
+	 * @return The minutes since the day start
+	 */
+	@SuppressWarnings("deprecation")
+	public static int getMinutesSinceDayStart(Date rTime, int nDayStartsAt)
+	{
+		int nHours = rTime.getHours() - nDayStartsAt;
+
+		if (nHours < 0)
+		{
+			nHours += 24;
+		}
+
+		return nHours * MINUTES_PER_HOUR + rTime.getMinutes();
+	}
+
+	/***************************************
+	 * Returns the index of the first time cell of an event.
+	 *
+	 * @param  nStartMinutes     The start of the event in minutes since the
+	 *                           day start
+	 * @param  nIntervalsPerHour The number of time cells per hour
+	 *
+	 * @return The start cell
+	 */
+	public static int getStartCell(int nStartMinutes, int nIntervalsPerHour)
+	{
+		return nStartMinutes / (MINUTES_PER_HOUR / nIntervalsPerHour);
+	}
+
+	/***************************************
+	 * Returns the index of the day on which a timed event is displayed.
+	 *
+	 * @param  rDayStarts The day start times of the range
+	 * @param  nStart     The start time of the event
+	 * @param  nEnd       The end time of the event
+	 *
+	 * @return The day index or -1 if the event is not displayed in the range
+	 */
+	public static int getTimedDay(long[] rDayStarts, long nStart, long nEnd)
+	{
+		int nDay = getDayIndex(rDayStarts, nStart);
+
+		return nDay >= 0 && nDay < rDayStarts.length - 1 &&
+			   nEnd < rDayStarts[nDay + 1] ? nDay : -1;
+	}
+
+	/***************************************
+	 * Checks whether an event is displayed in the multi-day area of a day
+	 * view. This is the case for all-day events and for events that end on a
+	 * different date than they start.
+	 *
+	 * @param  rStart  The start date of the event
+	 * @param  rEnd    The end date of the event
+	 * @param  bAllDay TRUE for an all-day event
+	 *
+	 * @return TRUE for a multi-day event
+	 */
+	@SuppressWarnings("deprecation")
+	public static boolean isMultiDay(Date rStart, Date rEnd, boolean bAllDay)
+	{
+		return bAllDay ||
+			   rStart.getDate() != rEnd.getDate() ||
+			   rStart.getMonth() != rEnd.getMonth() ||
+			   rStart.getYear() != rEnd.getYear();
+	}
+
+	//~ Methods ----------------------------------------------------------------
+
+	/***************************************
+	 * Adds an event to this calculator. The event properties are the same as
+	 * for the events of a timetable but only the ID, the dates and the
+	 * all-day flag are relevant for the layout.
+	 *
+	 * @param rEvent The event to add
+	 */
+	public void add(HasProperties rEvent)
+	{
+		add(rEvent.getProperty(ID, null),
+			rEvent.getProperty(START_DATE, null),
+			rEvent.getProperty(END_DATE, null),
+			rEvent.hasFlag(ALL_DAY));
+	}
+
+	/***************************************
+	 * Adds an event to this calculator.
+	 *
+	 * @param sId     The event ID
+	 * @param rStart  The start date of the event
+	 * @param rEnd    The end date of the event or NULL for none
+	 * @param bAllDay TRUE for an all-day event
+	 */
+	public void add(String sId, Date rStart, Date rEnd, boolean bAllDay)
+	{
+		aEvents.add(new LayoutEvent(sId, rStart, rEnd, bAllDay));
+	}
+
+	/***************************************
+	 * Adds multiple events to this calculator.
+	 *
+	 * @param rEvents The events to add
+	 */
+	public void addAll(Collection<? extends HasProperties> rEvents)
+	{
+		for (HasProperties rEvent : rEvents)
+		{
+			add(rEvent);
+		}
+	}
+
+	/***************************************
+	 * Calculates the layout of the events that have been added to this
+	 * calculator and resets this calculator. Events that are not displayed
+	 * in the date range are not contained in the layout.
+	 *
+	 * @return The new layout
+	 */
+	public TimetableLayout calculate()
+	{
+		long[] aDayStarts = getDayStarts(rFirstDay, nDays, nDayStartsAt);
+
+		List<List<LayoutEvent>> aDayEvents	   = new ArrayList<>(nDays);
+		List<LayoutEvent>	    aMultiDayEvents = new ArrayList<>();
+
+		for (int i = 0; i < nDays; i++)
+		{
+			aDayEvents.add(new ArrayList<LayoutEvent>());
+		}
+
+		Collections.sort(aEvents, EVENT_ORDER);
+
+		for (LayoutEvent rEvent : aEvents)
+		{
+			Date rStart = new Date(rEvent.nStart);
+			Date rEnd   = new Date(rEvent.nEnd);
+
+			if (isMultiDay(rStart, rEnd, rEvent.bAllDay))
+			{
+				rEvent.nFirstDay =
+					getFirstDay(aDayStarts, rEvent.nStart, rEvent.nEnd);
+
+				if (rEvent.nFirstDay >= 0)
+				{
+					rEvent.nLastDay =
+						getLastDay(aDayStarts, rEvent.nFirstDay, rEvent.nEnd);
+					aMultiDayEvents.add(rEvent);
+				}
+			}
+			else
+			{
+				int nDay = getTimedDay(aDayStarts, rEvent.nStart, rEvent.nEnd);
+
+				if (nDay >= 0)
+				{
+					calculateCells(rEvent, rStart, rEnd);
+					rEvent.nFirstDay = nDay;
+					rEvent.nLastDay  = nDay;
+					aDayEvents.get(nDay).add(rEvent);
+				}
+			}
+		}
+
+		List<LayoutEvent> aLayoutEvents = new ArrayList<>(aEvents.size());
+
+		for (List<LayoutEvent> rEvents : aDayEvents)
+		{
+			// the event order is also the order of the start cells of a day
+			layoutColumns(rEvents);
+			aLayoutEvents.addAll(rEvents);
+		}
+
+		int nLaneCount = layoutLanes(aMultiDayEvents);
+
+		aLayoutEvents.addAll(aMultiDayEvents);
+		aEvents = new ArrayList<>();
+
+		return createLayout(aLayoutEvents, nLaneCount);
+	}
+
+	/***************************************
+	 * Calculates the time cells of a timed event.
+	 *
+	 * @param rEvent The event
+	 * @param rStart The start date of the event
+	 * @param rEnd   The end date of the event
+	 */
+	private void calculateCells(LayoutEvent rEvent, Date rStart, Date rEnd)
+	{
+		int nStartCell =
+			getStartCell(getMinutesSinceDayStart(rStart, nDayStartsAt),
+						 nIntervalsPerHour);
+		int nEndCell   =
+			getEndCell(nStartCell,
+					   getMinutesSinceDayStart(rEnd, nDayStartsAt),
+					   nIntervalsPerHour);
+
+		rEvent.nCellStart = nStartCell;
+		rEvent.nCellSpan  = nEndCell - nStartCell + 1;
+	}
+
+	/***************************************
+	 * Creates the layout object from the calculated events.
+	 *
+	 * @param  rEvents    The events with their calculated layout
+	 * @param  nLaneCount The number of multi-day lanes
+	 *
+	 * @return The new layout
+	 */
+	private TimetableLayout createLayout(
+		List<LayoutEvent> rEvents,
+		int				  nLaneCount)
+	{
+		int nCount = rEvents.size();
+
+		String[] aIds		   = new String[nCount];
+		double[] aStartTimes   = new double[nCount];
+		double[] aEndTimes     = new double[nCount];
+		int[]    aFirstDays    = new int[nCount];
+		int[]    aLastDays     = new int[nCount];
+		int[]    aCellStarts   = new int[nCount];
+		int[]    aCellSpans    = new int[nCount];
+		int[]    aColumns	   = new int[nCount];
+		int[]    aColumnCounts = new int[nCount];
+		int[]    aLanes		   = new int[nCount];
+
+		for (int i = 0; i < nCount; i++)
+		{
+			LayoutEvent rEvent = rEvents.get(i);
+
+			aIds[i]			 = rEvent.sId;
+			aStartTimes[i]   = rEvent.nStart;
+			aEndTimes[i]	 = rEvent.nEnd;
+			aFirstDays[i]    = rEvent.nFirstDay;
+			aLastDays[i]	 = rEvent.nLastDay;
+			aCellStarts[i]   = rEvent.nCellStart;
+			aCellSpans[i]    = rEvent.nCellSpan;
+			aColumns[i]		 = rEvent.nColumn;
+			aColumnCounts[i] = rEvent.nColumnCount;
+			aLanes[i]		 = rEvent.nLane;
+		}
+
+		return new TimetableLayout(nDays,
+								   nIntervalsPerHour,
+								   nDayStartsAt,
+								   nLaneCount,
+								   aIds,
+								   aStartTimes,
+								   aEndTimes,
+								   aFirstDays,
+								   aLastDays,
+								   aCellStarts,
+								   aCellSpans,
+								   aColumns,
+								   aColumnCounts,
+								   aLanes);
+	}
+
+	/***************************************
+	 * Assigns the overlap columns to the timed events of a day.
+	 *
+	 * @param rEvents The events of the day ordered by their start cell
+	 */
+	private void layoutColumns(List<LayoutEvent> rEvents)
+	{
+		int   nCount	  = rEvents.size();
+		int[] aCellStarts = new int[nCount];
+		int[] aCellEnds   = new int[nCount];
+		int[] aColumns    = new int[nCount];
+
+		for (int i = 0; i < nCount; i++)
+		{
+			LayoutEvent rEvent = rEvents.get(i);
+
+			aCellStarts[i] = rEvent.nCellStart;
+			aCellEnds[i]   = rEvent.nCellStart + rEvent.nCellSpan - 1;
+		}
+
+		int[] aTotalColumns = assignColumns(aCellStarts, aCellEnds, aColumns);
+
+		for (int i = 0; i < nCount; i++)
+		{
+			LayoutEvent rEvent = rEvents.get(i);
+
+			rEvent.nColumn	    = aColumns[i];
+			rEvent.nColumnCount = aTotalColumns[i];
+		}
+	}
+
+	/***************************************
+	 * Assigns the lanes to multi-day events.
+	 *
+	 * @param  rEvents The multi-day events ordered by their first day
+	 *
+	 * @return The number of lanes
+	 */
+	private int layoutLanes(List<LayoutEvent> rEvents)
+	{
+		int   nCount	 = rEvents.size();
+		int[] aFirstDays = new int[nCount];
+		int[] aLastDays  = new int[nCount];
+		int[] aLanes	 = new int[nCount];
+
+		for (int i = 0; i < nCount; i++)
+		{
+			aFirstDays[i] = rEvents.get(i).nFirstDay;
+			aLastDays[i]  = rEvents.get(i).nLastDay;
+		}
+
+		int nLaneCount = assignLanes(aFirstDays, aLastDays, aLanes);
+
+		for (int i = 0; i < nCount; i++)
+		{
+			rEvents.get(i).nLane = aLanes[i];
+		}
+
+		return nLaneCount;
+	}
+
+	//~ Inner Classes ----------------------------------------------------------
+
+	/********************************************************************
+	 * Contains the data of an event and its calculated layout.
+	 *
+	 * @author eso
+	 */
+	static class LayoutEvent
+	{
+		//~ Instance fields ----------------------------------------------------
+
+		private final String  sId;
+		private final long    nStart;
+		private final long    nEnd;
+		private final boolean bAllDay;
+
+		private int nFirstDay    = -1;
+		private int nLastDay     = -1;
+		private int nCellStart   = 0;
+		private int nCellSpan    = 0;
+		private int nColumn	     = 0;
+		private int nColumnCount = 0;
+		private int nLane	     = -1;
+
+		//~ Constructors -------------------------------------------------------
+
+		/***************************************
+		 * Creates a new instance.
+		 *
+		 * @param sId     The event ID
+		 * @param rStart  The start date
+		 * @param rEnd    The end date or NULL for none
+		 * @param bAllDay TRUE for an all-day event
+		 */
+		LayoutEvent(String sId, Date rStart, Date rEnd, boolean bAllDay)
+		{
+			this.sId	 = sId;
+			this.nStart  = rStart.getTime();
+			this.nEnd    = rEnd != null ? rEnd.getTime() : nStart;
+			this.bAllDay = bAllDay;
+		}
+	}
+}
@@ -0,0 +1,145 @@
+//++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+// gewt-timetable source file
+// Copyright (c) 2017 Elmar Sonnenschein / esoco GmbH
+// Last Change: 08.05.2017 by eso
+//
+// gewt-timetable is free software; you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published
+// by the Free Software Foundation; either version 3 of the License,
+// or (at your option) any later version.
+//
+// gewt-timetable is distributed in the hope that it will be useful, but
+// WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License along
+// with gewt-timetable; if not, write to the Free Software Foundation, Inc.,
+// 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA or use the
+// contact information on the FSF website http://www.fsf.org
+//++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+package de.esoco.ewt.component;
+
+import java.util.Date;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+
+/********************************************************************
+ * Test of {@link TimetableDayAggregates}.
+ *
+ * @author eso
+ */
+@SuppressWarnings("deprecation")
+public class TimetableDayAggregatesTest
+{
+	//~ Static fields/initializers ---------------------------------------------
+
+	private static final long DAY_1 = new Date(117, 0, 2).getTime();
+	private static final long DAY_2 = new Date(117, 0, 3).getTime();
+	private static final long DAY_3 = new Date(117, 0, 4).getTime();
+	private static final long DAY_4 = new Date(117, 0, 5).getTime();
+
+	//~ Methods ----------------------------------------------------------------
+
+	/***************************************
+	 * Tests that all-day events are counted on each day including their last
+	 * day but don't add booked minutes.
+	 */
+	@Test
+	public void testAllDayEvents()
+	{
+		TimetableDayAggregates aAggregates = new TimetableDayAggregates();
+
+		aAggregates.add(DAY_1, DAY_3, true);
+		aAggregates.add(DAY_2, DAY_2, true);
+
+		assertEquals(1, aAggregates.getCount(DAY_1));
+		assertEquals(2, aAggregates.getCount(DAY_2));
+		assertEquals(1, aAggregates.getCount(DAY_3));
+		assertEquals(0, aAggregates.getCount(DAY_4));
+		assertEquals(0, aAggregates.getMinutes(DAY_2));
+
+		aAggregates.remove(DAY_1, DAY_3, true);
+
+		assertEquals(0, aAggregates.getCount(DAY_1));
+		assertEquals(1, aAggregates.getCount(DAY_2));
+		assertEquals(0, aAggregates.getCount(DAY_3));
+	}
+
+	/***************************************
+	 * Tests that the values of an instance can become negative.
+	 */
+	@Test
+	public void testNegativeAdjustments()
+	{
+		TimetableDayAggregates aAdjustments = new TimetableDayAggregates();
+
+		aAdjustments.remove(time(DAY_1, 9, 0), time(DAY_1, 10, 0), false);
+
+		assertEquals(-1, aAdjustments.getCount(DAY_1));
+		assertEquals(-60, aAdjustments.getMinutes(DAY_1));
+
+		aAdjustments.add(time(DAY_1, 9, 0), time(DAY_1, 10, 0), false);
+
+		assertEquals(0, aAdjustments.getCount(DAY_1));
+		assertEquals(0, aAdjustments.getMinutes(DAY_1));
+	}
+
+	/***************************************
+	 * Tests the aggregation of timed events.
+	 */
+	@Test
+	public void testTimedEvents()
+	{
+		TimetableDayAggregates aAggregates = new TimetableDayAggregates();
+
+		aAggregates.add(time(DAY_1, 9, 0), time(DAY_1, 10, 30), false);
+		aAggregates.add(time(DAY_1, 14, 0), time(DAY_1, 14, 15), false);
+
+		// an event that ends at midnight is not counted on the next day
+		aAggregates.add(time(DAY_1, 23, 0), DAY_2, false);
+
+		// overnight event
+		aAggregates.add(time(DAY_2, 22, 0), time(DAY_3, 1, 0), false);
+
+		// event without duration
+		aAggregates.add(time(DAY_4, 8, 0), time(DAY_4, 8, 0), false);
+
+		assertEquals(3, aAggregates.getCount(DAY_1));
+		assertEquals(165, aAggregates.getMinutes(DAY_1));
+		assertEquals(1, aAggregates.getCount(DAY_2));
+		assertEquals(120, aAggregates.getMinutes(DAY_2));
+		assertEquals(1, aAggregates.getCount(DAY_3));
+		assertEquals(60, aAggregates.getMinutes(DAY_3));
+		assertEquals(1, aAggregates.getCount(DAY_4));
+		assertEquals(0, aAggregates.getMinutes(DAY_4));
+
+		aAggregates.remove(time(DAY_2, 22, 0), time(DAY_3, 1, 0), false);
+
+		assertEquals(0, aAggregates.getCount(DAY_2));
+		assertEquals(0, aAggregates.getMinutes(DAY_3));
+	}
+
+	/***************************************
+	 * Returns a time on a certain day.
+	 *
+	 * @param  nDay    The start of the day
+	 * @param  nHour   The hour
+	 * @param  nMinute The minute
+	 *
+	 * @return The time in milliseconds
+	 */
+	private long time(long nDay, int nHour, int nMinute)
+	{
+		Date rDay = new Date(nDay);
+
+		return new Date(rDay.getYear(),
+						rDay.getMonth(),
+						rDay.getDate(),
+						nHour,
+						nMinute).getTime();
+	}
+}
@@ -0,0 +1,231 @@
+//++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+// gewt-timetable source file
+// Copyright (c) 2017 Elmar Sonnenschein / esoco GmbH
+// Last Change: 08.05.2017 by eso
+//
+// gewt-timetable is free software; you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published
+// by the Free Software Foundation; either version 3 of the License,
+// or (at your option) any later version.
+//
+// gewt-timetable is distributed in the hope that it will be useful, but
+// WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License along
+// with gewt-timetable; if not, write to the Free Software Foundation, Inc.,
+// 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA or use the
+// contact information on the FSF website http://www.fsf.org
+//++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+package de.esoco.ewt.component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.bradrydzewski.gwt.calendar.client.Appointment;
+import com.bradrydzewski.gwt.calendar.client.CalendarSettings;
+import com.bradrydzewski.gwt.calendar.client.HasSettings;
+import com.bradrydzewski.gwt.calendar.client.dayview.AppointmentAdapter;
+import com.bradrydzewski.gwt.calendar.client.dayview.DayViewLayoutStrategy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+
+/********************************************************************
+ * Test of {@link TimetableDayLayout}. The layout must be the same as that of
+ * the gwt-cal {@link DayViewLayoutStrategy} it replaces.
+ *
+ * @author eso
+ */
+@SuppressWarnings("deprecation")
+public class TimetableDayLayoutTest
+{
+	//~ Static fields/initializers ---------------------------------------------
+
+	private static final Date DAY = new Date(117, 0, 2);
+
+	private static final long MINUTE = 60 * 1000;
+
+	//~ Instance fields --------------------------------------------------------
+
+	private final CalendarSettings aSettings = new CalendarSettings();
+
+	private final HasSettings aHasSettings =
+		new HasSettings()
+		{
+			@Override
+			public CalendarSettings getSettings()
+			{
+				return aSettings;
+			}
+
+			@Override
+			public void setSettings(CalendarSettings rSettings)
+			{
+			}
+		};
+
+	//~ Methods ----------------------------------------------------------------
+
+	/***************************************
+	 * Tests that unchanged days are taken from the cache and changed days are
+	 * calculated again.
+	 */
+	@Test
+	public void testCache()
+	{
+		TimetableDayLayout aLayout	   = new TimetableDayLayout(aHasSettings);
+		List<Appointment>  rDayEvents  = createAppointments(1, 10, 240);
+		List<Appointment>  rNextEvents = createAppointments(2, 10, 240);
+
+		List<AppointmentAdapter> rFirst = aLayout.doLayout(rDayEvents, 0, 2);
+
+		aLayout.doLayout(rNextEvents, 1, 2);
+		assertSame(rFirst, aLayout.doLayout(rDayEvents, 0, 2));
+
+		Appointment rChanged = rDayEvents.get(3);
+
+		rChanged.setEnd(new Date(rChanged.getEnd().getTime() + 30 * MINUTE));
+
+		List<AppointmentAdapter> rChangedLayout =
+			aLayout.doLayout(rDayEvents, 0, 2);
+
+		assertNotSame(rFirst, rChangedLayout);
+		compare(new DayViewLayoutStrategy(aHasSettings).doLayout(rDayEvents,
+																 0,
+																 2),
+				rChangedLayout);
+	}
+
+	/***************************************
+	 * Tests the layout of densely overlapping events.
+	 */
+	@Test
+	public void testDenseDay()
+	{
+		for (int nSeed = 0; nSeed < 20; nSeed++)
+		{
+			compareWithDayView(createAppointments(nSeed, 40, 240));
+		}
+	}
+
+	/***************************************
+	 * Tests the layout of events that are spread over the day.
+	 */
+	@Test
+	public void testSparseDay()
+	{
+		for (int nSeed = 0; nSeed < 20; nSeed++)
+		{
+			compareWithDayView(createAppointments(nSeed, 15, 90));
+		}
+	}
+
+	/***************************************
+	 * Compares two lists of appointment adapters.
+	 *
+	 * @param rExpected The expected adapters
+	 * @param rActual   The actual adapters
+	 */
+	private void compare(
+		List<AppointmentAdapter> rExpected,
+		List<AppointmentAdapter> rActual)
+	{
+		assertEquals(rExpected.size(), rActual.size());
+
+		for (int i = 0; i < rExpected.size(); i++)
+		{
+			AppointmentAdapter rExpectedAdapter = rExpected.get(i);
+			AppointmentAdapter rActualAdapter   = rActual.get(i);
+			String			   sId			    =
+				rExpectedAdapter.getAppointment().getId();
+
+			assertSame(rExpectedAdapter.getAppointment(),
+					   rActualAdapter.getAppointment());
+			assertEquals(sId,
+						 rExpectedAdapter.getCellStart(),
+						 rActualAdapter.getCellStart());
+			assertEquals(sId,
+						 rExpectedAdapter.getCellSpan(),
+						 rActualAdapter.getCellSpan());
+			assertEquals(sId,
+						 rExpectedAdapter.getColumnStart(),
+						 rActualAdapter.getColumnStart());
+			assertEquals(sId,
+						 rExpectedAdapter.getTop(),
+						 rActualAdapter.getTop(),
+						 0.001);
+			assertEquals(sId,
+						 rExpectedAdapter.getLeft(),
+						 rActualAdapter.getLeft(),
+						 0.001);
+			assertEquals(sId,
+						 rExpectedAdapter.getWidth(),
+						 rActualAdapter.getWidth(),
+						 0.001);
+			assertEquals(sId,
+						 rExpectedAdapter.getHeight(),
+						 rActualAdapter.getHeight(),
+						 0.001);
+		}
+	}
+
+	/***************************************
+	 * Compares the layout of the appointments as the middle day of a three
+	 * day view with the layout of the gwt-cal day view.
+	 *
+	 * @param rAppointments The appointments, ordered by their start
+	 */
+	private void compareWithDayView(List<Appointment> rAppointments)
+	{
+		compare(new DayViewLayoutStrategy(aHasSettings).doLayout(rAppointments,
+																 1,
+																 3),
+				new TimetableDayLayout(aHasSettings).doLayout(rAppointments,
+															  1,
+															  3));
+	}
+
+	/***************************************
+	 * Creates random appointments on the test day that end on the same day.
+	 *
+	 * @param  nSeed        The random seed
+	 * @param  nCount       The number of appointments
+	 * @param  nMaxDuration The maximum duration in minutes
+	 *
+	 * @return The appointments, ordered by their start
+	 */
+	private List<Appointment> createAppointments(int nSeed,
+												 int nCount,
+												 int nMaxDuration)
+	{
+		Random			  aRandom		= new Random(nSeed);
+		List<Appointment> aAppointments = new ArrayList<>(nCount);
+
+		for (int i = 0; i < nCount; i++)
+		{
+			Appointment aAppointment = new Appointment();
+			long		nStart		 =
+				DAY.getTime() + aRandom.nextInt(18 * 60) * MINUTE;
+
+			aAppointment.setId("e" + i);
+			aAppointment.setStart(new Date(nStart));
+			aAppointment.setEnd(new Date(nStart +
+										 (15 + aRandom.nextInt(nMaxDuration)) *
+										 MINUTE));
+			aAppointments.add(aAppointment);
+		}
+
+		Collections.sort(aAppointments);
+
+		return aAppointments;
+	}
+}
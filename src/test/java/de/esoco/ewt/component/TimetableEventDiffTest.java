@@ -0,0 +1,430 @@
+//++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+// gewt-timetable source file
+// Copyright (c) 2017 Elmar Sonnenschein / esoco GmbH
+// Last Change: 08.05.2017 by eso
+//
+// gewt-timetable is free software; you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published
+// by the Free Software Foundation; either version 3 of the License,
+// or (at your option) any later version.
+//
+// gewt-timetable is distributed in the hope that it will be useful, but
+// WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License along
+// with gewt-timetable; if not, write to the Free Software Foundation, Inc.,
+// 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA or use the
+// contact information on the FSF website http://www.fsf.org
+//++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+package de.esoco.ewt.component;
+
+import de.esoco.lib.property.HasProperties;
+import de.esoco.lib.property.StringProperties;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.junit.Test;
+
+import com.bradrydzewski.gwt.calendar.client.Appointment;
+
+import static de.esoco.lib.property.StandardProperties.ID;
+import static de.esoco.lib.property.StandardProperties.START_DATE;
+import static de.esoco.lib.property.StandardProperties.TITLE;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+
+/********************************************************************
+ * Test of {@link TimetableEventDiff}.
+ *
+ * @author eso
+ */
+@SuppressWarnings("deprecation")
+public class TimetableEventDiffTest
+{
+	//~ Static fields/initializers ---------------------------------------------
+
+	private static final Date VISIBLE_DAY = new Date(117, 0, 2, 10, 0);
+	private static final Date HIDDEN_DAY  = new Date(117, 0, 9, 10, 0);
+
+	//~ Methods ----------------------------------------------------------------
+
+	/***************************************
+	 * Tests that changes outside of the visible date range are applied
+	 * without a visible change.
+	 */
+	@Test
+	public void testHiddenChanges()
+	{
+		TestTarget aTarget = new TestTarget();
+
+		aTarget.add("1", VISIBLE_DAY);
+		aTarget.add("2", HIDDEN_DAY);
+		aTarget.add("3", HIDDEN_DAY);
+
+		TimetableEventDiff aDiff = new TimetableEventDiff(aTarget);
+
+		aDiff.setEvents(Arrays.asList(event("1", "Title", VISIBLE_DAY),
+									  event("2", "Changed", HIDDEN_DAY),
+									  event("4", "Title", HIDDEN_DAY)));
+
+		List<Appointment> rUpdated = aDiff.getUpdated();
+
+		assertEquals(2, rUpdated.size());
+		assertSame(aTarget.aAppointments.get("2"), rUpdated.get(0));
+		assertEquals("Changed", rUpdated.get(0).getTitle());
+		assertEquals("4", rUpdated.get(1).getId());
+		assertEquals(Arrays.asList(aTarget.aAppointments.get("3")),
+					 aDiff.getRemoved());
+		assertFalse(aDiff.isVisibleChange());
+		assertEquals(1, aTarget.nUpdates);
+		assertEquals(1, aTarget.nReplacements);
+	}
+
+	/***************************************
+	 * Tests that events without an ID or with duplicate IDs are rejected
+	 * before any appointment is modified.
+	 */
+	@Test
+	public void testInvalidEvents()
+	{
+		TestTarget aTarget = new TestTarget();
+
+		aTarget.add("1", VISIBLE_DAY);
+
+		StringProperties aNoId = event("2", "Title", VISIBLE_DAY);
+
+		aNoId.removeProperty(ID);
+
+		List<List<HasProperties>> aInvalidEvents =
+			Arrays.asList(Arrays.<HasProperties>asList(event("1",
+															 "Changed",
+															 VISIBLE_DAY),
+													   aNoId),
+						  Arrays.<HasProperties>asList(event("1",
+															 "Changed",
+															 VISIBLE_DAY),
+													   event("1",
+															 "Other",
+															 VISIBLE_DAY)));
+
+		for (List<HasProperties> rEvents : aInvalidEvents)
+		{
+			try
+			{
+				new TimetableEventDiff(aTarget).setEvents(rEvents);
+				fail();
+			}
+			catch (IllegalArgumentException e)
+			{
+				// expected
+			}
+		}
+
+		assertEquals(0, aTarget.nUpdates + aTarget.nReplacements);
+		assertEquals("Title", aTarget.aAppointments.get("1").getTitle());
+	}
+
+	/***************************************
+	 * Tests that an update only modifies the given events and keeps all other
+	 * appointments.
+	 */
+	@Test
+	public void testUpdateEvents()
+	{
+		TestTarget aTarget = new TestTarget();
+
+		aTarget.add("1", VISIBLE_DAY);
+		aTarget.add("2", HIDDEN_DAY);
+		aTarget.add("3", HIDDEN_DAY);
+
+		TimetableEventDiff aDiff = new TimetableEventDiff(aTarget);
+
+		aDiff.updateEvents(Arrays.asList(event("2", "Changed", HIDDEN_DAY),
+										 event("3", "Title", HIDDEN_DAY),
+										 event("4", "Title", HIDDEN_DAY)));
+
+		List<Appointment> rUpdated = aDiff.getUpdated();
+
+		assertEquals(2, rUpdated.size());
+		assertSame(aTarget.aAppointments.get("2"), rUpdated.get(0));
+		assertEquals("4", rUpdated.get(1).getId());
+		assertTrue(aDiff.getRemoved().isEmpty());
+		assertFalse(aDiff.isVisibleChange());
+		assertEquals(1, aTarget.nUpdates);
+		assertEquals(1, aTarget.nReplacements);
+
+		aDiff = new TimetableEventDiff(aTarget);
+		aDiff.updateEvents(Arrays.asList(event("3", "Title", VISIBLE_DAY)));
+
+		assertEquals(Arrays.asList(aTarget.aAppointments.get("3")),
+					 aDiff.getUpdated());
+		assertTrue(aDiff.isVisibleChange());
+
+		List<HasProperties> aDuplicates =
+			Arrays.<HasProperties>asList(event("1", "Changed", VISIBLE_DAY),
+										 event("1", "Other", VISIBLE_DAY));
+
+		try
+		{
+			new TimetableEventDiff(aTarget).updateEvents(aDuplicates);
+			fail();
+		}
+		catch (IllegalArgumentException e)
+		{
+			// expected
+		}
+
+		assertEquals("Title", aTarget.aAppointments.get("1").getTitle());
+	}
+
+	/***************************************
+	 * Tests that events which are moved into or out of the visible date range
+	 * or visible events that are added or removed cause a visible change.
+	 */
+	@Test
+	public void testVisibleChanges()
+	{
+		TestTarget aTarget = new TestTarget();
+
+		aTarget.add("1", HIDDEN_DAY);
+		aTarget.add("2", VISIBLE_DAY);
+
+		List<List<HasProperties>> aChanges =
+			Arrays.asList(Arrays.<HasProperties>asList(event("1",
+															 "Title",
+															 VISIBLE_DAY),
+													   event("2",
+															 "Title",
+															 VISIBLE_DAY)),
+						  Arrays.<HasProperties>asList(event("1",
+															 "Title",
+															 HIDDEN_DAY),
+													   event("2",
+															 "Title",
+															 VISIBLE_DAY)),
+						  Arrays.<HasProperties>asList(event("1",
+															 "Title",
+															 HIDDEN_DAY)),
+						  Arrays.<HasProperties>asList(event("1",
+															 "Title",
+															 HIDDEN_DAY),
+													   event("3",
+															 "Title",
+															 VISIBLE_DAY)));
+
+		for (List<HasProperties> rEvents : aChanges)
+		{
+			TimetableEventDiff aDiff = new TimetableEventDiff(aTarget);
+
+			aDiff.setEvents(rEvents);
+			aTarget.apply(aDiff);
+
+			assertTrue(aDiff.isVisibleChange());
+		}
+	}
+
+	/***************************************
+	 * Tests that unchanged events don't cause any updates.
+	 */
+	@Test
+	public void testUnchangedEvents()
+	{
+		TestTarget aTarget = new TestTarget();
+
+		aTarget.add("1", VISIBLE_DAY);
+		aTarget.add("2", HIDDEN_DAY);
+
+		TimetableEventDiff aDiff = new TimetableEventDiff(aTarget);
+
+		aDiff.setEvents(Arrays.asList(event("2", "Title", HIDDEN_DAY),
+									  event("1", "Title", VISIBLE_DAY)));
+
+		assertTrue(aDiff.getUpdated().isEmpty());
+		assertTrue(aDiff.getRemoved().isEmpty());
+		assertFalse(aDiff.isVisibleChange());
+		assertEquals(0, aTarget.nUpdates);
+		assertEquals(2, aTarget.nReplacements);
+
+		aDiff = new TimetableEventDiff(aTarget);
+		aDiff.setEvents(Collections.<HasProperties>emptyList());
+
+		assertEquals(2, aDiff.getRemoved().size());
+		assertTrue(aDiff.isVisibleChange());
+	}
+
+	/***************************************
+	 * Creates a new event.
+	 *
+	 * @param  sId    The event ID
+	 * @param  sTitle The event title
+	 * @param  rStart The start date
+	 *
+	 * @return The new event
+	 */
+	private StringProperties event(String sId, String sTitle, Date rStart)
+	{
+		StringProperties aEvent = new StringProperties();
+
+		aEvent.setProperty(ID, sId);
+		aEvent.setProperty(TITLE, sTitle);
+		aEvent.setProperty(START_DATE, rStart);
+
+		return aEvent;
+	}
+
+	//~ Inner Classes ----------------------------------------------------------
+
+	/********************************************************************
+	 * A diff target that contains appointments with an ID, title, and start
+	 * date. Appointments on the day of {@link #VISIBLE_DAY} are regarded as
+	 * visible.
+	 *
+	 * @author eso
+	 */
+	static class TestTarget implements TimetableEventDiff.Target
+	{
+		//~ Instance fields ----------------------------------------------------
+
+		private Map<String, Appointment> aAppointments = new LinkedHashMap<>();
+
+		private int nUpdates	  = 0;
+		private int nReplacements = 0;
+
+		//~ Methods ------------------------------------------------------------
+
+		/***************************************
+		 * {@inheritDoc}
+		 */
+		@Override
+		public Appointment createAppointment(HasProperties rEvent)
+		{
+			Appointment aAppointment = new Appointment();
+
+			aAppointment.setId(rEvent.getProperty(ID, null));
+			setAttributes(aAppointment, rEvent);
+
+			return aAppointment;
+		}
+
+		/***************************************
+		 * {@inheritDoc}
+		 */
+		@Override
+		public Collection<Appointment> getAllAppointments()
+		{
+			return aAppointments.values();
+		}
+
+		/***************************************
+		 * {@inheritDoc}
+		 */
+		@Override
+		public Appointment getAppointment(String sId)
+		{
+			return aAppointments.get(sId);
+		}
+
+		/***************************************
+		 * {@inheritDoc}
+		 */
+		@Override
+		public boolean hasChanges(Appointment   rAppointment,
+								  HasProperties rEvent)
+		{
+			return !Objects.equals(rAppointment.getTitle(),
+								   rEvent.getProperty(TITLE, null)) ||
+				   !Objects.equals(rAppointment.getStart(),
+								   rEvent.getProperty(START_DATE, null));
+		}
+
+		/***************************************
+		 * {@inheritDoc}
+		 */
+		@Override
+		public boolean isVisible(Appointment rAppointment)
+		{
+			return rAppointment.getStart().getDate() == VISIBLE_DAY.getDate();
+		}
+
+		/***************************************
+		 * {@inheritDoc}
+		 */
+		@Override
+		public void updateAppointment(Appointment   rAppointment,
+									  HasProperties rEvent,
+									  boolean		bChanged)
+		{
+			if (bChanged)
+			{
+				setAttributes(rAppointment, rEvent);
+				nUpdates++;
+			}
+			else
+			{
+				nReplacements++;
+			}
+		}
+
+		/***************************************
+		 * Adds an appointment with the title "Title".
+		 *
+		 * @param sId    The appointment ID
+		 * @param rStart The start date
+		 */
+		void add(String sId, Date rStart)
+		{
+			Appointment aAppointment = new Appointment();
+
+			aAppointment.setId(sId);
+			aAppointment.setTitle("Title");
+			aAppointment.setStart(rStart);
+			aAppointments.put(sId, aAppointment);
+		}
+
+		/***************************************
+		 * Applies the result of a comparison to the appointments of this
+		 * instance.
+		 *
+		 * @param rDiff The comparison result
+		 */
+		void apply(TimetableEventDiff rDiff)
+		{
+			for (Appointment rAppointment : rDiff.getRemoved())
+			{
+				aAppointments.remove(rAppointment.getId());
+			}
+
+			for (Appointment rAppointment : rDiff.getUpdated())
+			{
+				aAppointments.put(rAppointment.getId(), rAppointment);
+			}
+		}
+
+		/***************************************
+		 * Sets the attributes of an appointment from an event.
+		 *
+		 * @param rAppointment The appointment
+		 * @param rEvent       The event
+		 */
+		private void setAttributes(Appointment   rAppointment,
+								   HasProperties rEvent)
+		{
+			rAppointment.setTitle(rEvent.getProperty(TITLE, null));
+			rAppointment.setStart(rEvent.getProperty(START_DATE, null));
+		}
+	}
+}
@@ -0,0 +1,163 @@
+//++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+// gewt-timetable source file
+// Copyright (c) 2017 Elmar Sonnenschein / esoco GmbH
+// Last Change: 08.05.2017 by eso
+//
+// gewt-timetable is free software; you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published
+// by the Free Software Foundation; either version 3 of the License,
+// or (at your option) any later version.
+//
+// gewt-timetable is distributed in the hope that it will be useful, but
+// WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License along
+// with gewt-timetable; if not, write to the Free Software Foundation, Inc.,
+// 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA or use the
+// contact information on the FSF website http://www.fsf.org
+//++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+package de.esoco.ewt.component;
+
+import de.esoco.lib.property.StringProperties;
+
+import java.util.Arrays;
+import java.util.Date;
+
+import org.junit.Test;
+
+import static de.esoco.lib.property.StandardProperties.ALL_DAY;
+import static de.esoco.lib.property.StandardProperties.END_DATE;
+import static de.esoco.lib.property.StandardProperties.ID;
+import static de.esoco.lib.property.StandardProperties.LOCATION;
+import static de.esoco.lib.property.StandardProperties.START_DATE;
+import static de.esoco.lib.property.StandardProperties.TITLE;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+
+/********************************************************************
+ * Test of {@link TimetableEventEncoder} and {@link TimetableEventBatch}.
+ *
+ * @author eso
+ */
+@SuppressWarnings("deprecation")
+public class TimetableEventEncoderTest
+{
+	//~ Static fields/initializers ---------------------------------------------
+
+	private static final Date START = new Date(117, 0, 2, 10, 0);
+	private static final Date END   = new Date(117, 0, 2, 11, 30);
+
+	//~ Methods ----------------------------------------------------------------
+
+	/***************************************
+	 * Tests the encoding of the event attributes.
+	 */
+	@Test
+	public void testEncode()
+	{
+		StringProperties aTimed  = createEvent("e1", "Meeting");
+		StringProperties aAllDay = createEvent("e2", "Meeting");
+
+		aTimed.setProperty(END_DATE, END);
+		aTimed.setProperty(LOCATION, "Room 1");
+		aAllDay.setFlag(ALL_DAY);
+
+		TimetableEventBatch aBatch =
+			TimetableEventEncoder.encode(Arrays.asList(aTimed, aAllDay));
+
+		assertEquals(2, aBatch.size());
+		assertEquals("e1", aBatch.getId(0));
+		assertEquals("Meeting", aBatch.getTitle(0));
+		assertEquals("Room 1", aBatch.getLocation(0));
+		assertEquals("", aBatch.getDescription(0));
+		assertEquals(START, aBatch.getStart(0));
+		assertEquals(END, aBatch.getEnd(0));
+		assertFalse(aBatch.hasFlag(0, TimetableEventBatch.FLAG_ALL_DAY));
+		assertNull(aBatch.getEnd(1));
+		assertTrue(aBatch.hasFlag(1, TimetableEventBatch.FLAG_ALL_DAY));
+	}
+
+	/***************************************
+	 * Tests that events without an ID or start date are rejected.
+	 */
+	@Test
+	public void testInvalidEvents()
+	{
+		TimetableEventEncoder aEncoder = new TimetableEventEncoder();
+		StringProperties	  aValid   = createEvent("e1", "Valid");
+		StringProperties	  aNoId    = createEvent("e2", "No ID");
+		StringProperties	  aNoStart = createEvent("e3", "No start");
+
+		aNoId.removeProperty(ID);
+		aNoStart.removeProperty(START_DATE);
+
+		for (StringProperties rInvalid : Arrays.asList(aNoId, aNoStart))
+		{
+			try
+			{
+				aEncoder.addAll(Arrays.asList(aValid, rInvalid));
+				fail();
+			}
+			catch (IllegalArgumentException e)
+			{
+				// expected
+			}
+		}
+
+		aEncoder.add(aValid);
+
+		TimetableEventBatch aBatch = aEncoder.encode();
+
+		assertEquals(1, aBatch.size());
+		assertEquals(START, aBatch.getStart(0));
+	}
+
+	/***************************************
+	 * Tests the encoding of recurring events.
+	 */
+	@Test
+	public void testRecurrence()
+	{
+		StringProperties aSeries = createEvent("s1", "Daily");
+		StringProperties aSingle = createEvent("e1", "Single");
+
+		aSeries.setProperty(TimetableEventEncoder.RECURRENCE_RULE,
+							"FREQ=DAILY;COUNT=10");
+		aSeries.setProperty(TimetableEventEncoder.RECURRENCE_EXCEPTIONS,
+							"20170104,20170105");
+
+		TimetableEventBatch aBatch =
+			TimetableEventEncoder.encode(Arrays.asList(aSeries, aSingle));
+
+		assertEquals("FREQ=DAILY;COUNT=10", aBatch.getRecurrenceRule(0));
+		assertEquals("20170104,20170105", aBatch.getRecurrenceExceptions(0));
+		assertNull(aBatch.getRecurrenceRule(1));
+		assertNull(aBatch.getRecurrenceExceptions(1));
+	}
+
+	/***************************************
+	 * Creates a new event.
+	 *
+	 * @param  sId    The event ID
+	 * @param  sTitle The event title
+	 *
+	 * @return The new event
+	 */
+	private StringProperties createEvent(String sId, String sTitle)
+	{
+		StringProperties aEvent = new StringProperties();
+
+		aEvent.setProperty(ID, sId);
+		aEvent.setProperty(TITLE, sTitle);
+		aEvent.setProperty(START_DATE, START);
+
+		return aEvent;
+	}
+}
@@ -0,0 +1,154 @@
+//++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+// gewt-timetable source file
+// Copyright (c) 2017 Elmar Sonnenschein / esoco GmbH
+// Last Change: 08.05.2017 by eso
+//
+// gewt-timetable is free software; you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published
+// by the Free Software Foundation; either version 3 of the License,
+// or (at your option) any later version.
+//
+// gewt-timetable is distributed in the hope that it will be useful, but
+// WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License along
+// with gewt-timetable; if not, write to the Free Software Foundation, Inc.,
+// 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA or use the
+// contact information on the FSF website http://www.fsf.org
+//++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+package de.esoco.ewt.component;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.bradrydzewski.gwt.calendar.client.Appointment;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+
+/********************************************************************
+ * Test of {@link TimetableEventIndex}.
+ *
+ * @author eso
+ */
+@SuppressWarnings("deprecation")
+public class TimetableEventIndexTest
+{
+	//~ Methods ----------------------------------------------------------------
+
+	/***************************************
+	 * Tests range queries over short appointments and appointments that are
+	 * longer than a day.
+	 */
+	@Test
+	public void testRangeQuery()
+	{
+		TimetableEventIndex aIndex = new TimetableEventIndex();
+
+		Appointment aEarly  = appointment(new Date(117, 0, 2, 8, 0), 1);
+		Appointment aLate   = appointment(new Date(117, 0, 2, 20, 0), 6);
+		Appointment aNext   = appointment(new Date(117, 0, 3, 9, 0), 1);
+		Appointment aWeek   = appointment(new Date(116, 11, 30, 12, 0), 24 * 7);
+		Appointment aBefore = appointment(new Date(116, 11, 20, 12, 0), 48);
+
+		aIndex.addAll(Arrays.asList(aNext, aWeek, aLate, aBefore, aEarly));
+
+		assertEquals(5, aIndex.size());
+
+		List<Appointment> rResult =
+			aIndex.getAppointments(new Date(117, 0, 2), new Date(117, 0, 3));
+
+		assertEquals(Arrays.asList(aWeek, aEarly, aLate), rResult);
+
+		// the late appointment reaches into the next day
+		rResult =
+			aIndex.getAppointments(new Date(117, 0, 3), new Date(117, 0, 4));
+
+		assertEquals(Arrays.asList(aWeek, aLate, aNext), rResult);
+
+		rResult =
+			aIndex.getAppointments(new Date(117, 0, 10), new Date(117, 0, 11));
+
+		assertTrue(rResult.isEmpty());
+
+		rResult =
+			aIndex.getAppointments(new Date(116, 11, 21),
+								   new Date(116, 11, 22));
+
+		assertEquals(Arrays.asList(aBefore), rResult);
+	}
+
+	/***************************************
+	 * Tests that modified appointments are moved between the short and long
+	 * entries and that removed appointments are no longer returned.
+	 */
+	@Test
+	public void testUpdateAndRemove()
+	{
+		TimetableEventIndex aIndex = new TimetableEventIndex();
+
+		Date rDay      = new Date(117, 0, 2);
+		Date rNextDay  = new Date(117, 0, 3);
+		Date rLaterDay = new Date(117, 0, 5);
+
+		Appointment aFirst  = appointment(new Date(117, 0, 2, 9, 0), 1);
+		Appointment aSecond = appointment(new Date(117, 0, 2, 11, 0), 1);
+
+		aIndex.add(aFirst);
+		aIndex.add(aSecond);
+
+		int nModifications = aIndex.getModificationCount();
+
+		// make the first appointment span several days
+		aFirst.setEnd(new Date(117, 0, 6, 9, 0));
+		aIndex.update(aFirst);
+
+		assertTrue(aIndex.getModificationCount() > nModifications);
+		assertEquals(Arrays.asList(aFirst),
+					 aIndex.getAppointments(rLaterDay, new Date(117, 0, 6)));
+		assertEquals(Arrays.asList(aFirst, aSecond),
+					 aIndex.getAppointments(rDay, rNextDay));
+
+		// and shorten it again
+		aFirst.setEnd(new Date(117, 0, 2, 10, 0));
+		aIndex.update(aFirst);
+
+		assertTrue(aIndex.getAppointments(rLaterDay, new Date(117, 0, 6))
+					   .isEmpty());
+		assertEquals(Arrays.asList(aFirst, aSecond),
+					 aIndex.getAppointments(rDay, rNextDay));
+
+		assertTrue(aIndex.remove(aFirst));
+		assertFalse(aIndex.remove(aFirst));
+		assertFalse(aIndex.contains(aFirst));
+		assertEquals(1, aIndex.size());
+		assertEquals(Arrays.asList(aSecond),
+					 aIndex.getAppointments(rDay, rNextDay));
+	}
+
+	/***************************************
+	 * Creates a new appointment.
+	 *
+	 * @param  rStart The start date
+	 * @param  nHours The duration in hours
+	 *
+	 * @return The new appointment
+	 */
+	private Appointment appointment(Date rStart, int nHours)
+	{
+		Appointment aAppointment = new Appointment();
+
+		aAppointment.setStart(rStart);
+		aAppointment.setEnd(new Date(rStart.getTime() +
+									 nHours * 60L * 60 * 1000));
+
+		return aAppointment;
+	}
+}
@@ -0,0 +1,433 @@
+//++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+// gewt-timetable source file
+// Copyright (c) 2017 Elmar Sonnenschein / esoco GmbH
+// Last Change: 08.05.2017 by eso
+//
+// gewt-timetable is free software; you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published
+// by the Free Software Foundation; either version 3 of the License,
+// or (at your option) any later version.
+//
+// gewt-timetable is distributed in the hope that it will be useful, but
+// WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License along
+// with gewt-timetable; if not, write to the Free Software Foundation, Inc.,
+// 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA or use the
+// contact information on the FSF website http://www.fsf.org
+//++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+package de.esoco.ewt.component;
+
+import de.esoco.lib.property.HasProperties;
+import de.esoco.lib.property.StringProperties;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.Test;
+
+import static de.esoco.lib.property.StandardProperties.ALL_DAY;
+import static de.esoco.lib.property.StandardProperties.DESCRIPTION;
+import static de.esoco.lib.property.StandardProperties.END_DATE;
+import static de.esoco.lib.property.StandardProperties.ID;
+import static de.esoco.lib.property.StandardProperties.LOCATION;
+import static de.esoco.lib.property.StandardProperties.START_DATE;
+import static de.esoco.lib.property.StandardProperties.TITLE;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+
+/********************************************************************
+ * Test of {@link TimetableICalWriter} and {@link TimetableICalReader}.
+ *
+ * @author eso
+ */
+@SuppressWarnings("deprecation")
+public class TimetableICalTest
+{
+	//~ Static fields/initializers ---------------------------------------------
+
+	private static final int MAX_LINE_LENGTH = 75;
+
+	//~ Methods ----------------------------------------------------------------
+
+	/***************************************
+	 * Tests that events without a UID receive IDs that are unique across
+	 * readers.
+	 */
+	@Test
+	public void testGeneratedIds()
+	{
+		String sText =
+			"BEGIN:VCALENDAR\r\nBEGIN:VEVENT\r\nDTSTART:20170102T100000Z\r\n" +
+			"SUMMARY:No UID\r\nEND:VEVENT\r\nEND:VCALENDAR\r\n";
+
+		String sFirstId  = read(sText, 10, 100).get(0).getId(0);
+		String sSecondId = read(sText, 10, 100).get(0).getId(0);
+
+		assertTrue(sFirstId.startsWith("ical-"));
+		assertFalse(sFirstId.equals(sSecondId));
+
+		StringProperties aEvent =
+			createEvent(null, new Date(117, 0, 2, 10, 0), 60);
+
+		String sWrittenId =
+			read(write(Arrays.asList(aEvent, aEvent)), 10, 100).get(0)
+			.getId(1);
+
+		assertTrue(sWrittenId.startsWith("ical-"));
+		assertFalse(sWrittenId.equals(sFirstId));
+		assertFalse(sWrittenId.equals(sSecondId));
+	}
+
+	/***************************************
+	 * Tests that long lines are folded to the maximum line length and
+	 * unfolded again by the reader.
+	 */
+	@Test
+	public void testLineFolding()
+	{
+		StringBuilder aText = new StringBuilder();
+
+		for (int i = 0; i < 40; i++)
+		{
+			aText.append("Line ").append(i).append(", part; ");
+		}
+
+		StringProperties aEvent =
+			createEvent("long", new Date(117, 0, 2, 10, 0), 60);
+
+		aEvent.setProperty(DESCRIPTION, aText.toString());
+
+		String   sText  = write(Arrays.asList(aEvent));
+		String[] aLines = sText.split("\r\n", -1);
+
+		assertTrue(sText.endsWith("\r\n"));
+
+		int nFolded = 0;
+
+		for (String sLine : aLines)
+		{
+			assertTrue(sLine, sLine.length() <= MAX_LINE_LENGTH);
+
+			if (sLine.startsWith(" "))
+			{
+				nFolded++;
+			}
+		}
+
+		assertTrue(nFolded > 1);
+
+		List<TimetableEventBatch> rChunks = read(sText, 100, 3);
+
+		assertEquals(1, rChunks.size());
+		assertEquals(aText.toString(), rChunks.get(0).getDescription(0));
+	}
+
+	/***************************************
+	 * Tests that lines with multi-byte characters are folded by the octets
+	 * of their UTF-8 encoding without splitting characters.
+	 */
+	@Test
+	public void testMultiByteFolding() throws Exception
+	{
+		StringBuilder aText = new StringBuilder();
+
+		for (int i = 0; i < 30; i++)
+		{
+			aText.append("a\u00e4\u20ac\ud83d\ude00 ");
+		}
+
+		StringProperties aEvent =
+			createEvent("utf", new Date(117, 0, 2, 10, 0), 60);
+
+		aEvent.setProperty(DESCRIPTION, aText.toString());
+
+		String sText = write(Arrays.asList(aEvent));
+
+		for (String sLine : sText.split("\r\n"))
+		{
+			char cFirst = sLine.charAt(0);
+			char cLast  = sLine.charAt(sLine.length() - 1);
+			int  nBytes = sLine.getBytes("UTF-8").length;
+
+			assertTrue(sLine, nBytes <= MAX_LINE_LENGTH);
+			assertFalse(sLine, Character.isLowSurrogate(cFirst));
+			assertFalse(sLine, Character.isHighSurrogate(cLast));
+		}
+
+		List<TimetableEventBatch> rChunks = read(sText, 100, 5);
+
+		assertEquals(aText.toString(), rChunks.get(0).getDescription(0));
+	}
+
+	/***************************************
+	 * Tests the chunking of events by the reader.
+	 */
+	@Test
+	public void testReadChunks()
+	{
+		List<HasProperties> aEvents = new ArrayList<>();
+
+		for (int i = 0; i < 25; i++)
+		{
+			aEvents.add(createEvent("e" + i,
+									new Date(117, 0, 2 + i, 10, 0),
+									30));
+		}
+
+		List<TimetableEventBatch> rChunks = read(write(aEvents), 10, 50);
+
+		assertEquals(3, rChunks.size());
+		assertEquals(10, rChunks.get(0).size());
+		assertEquals(10, rChunks.get(1).size());
+		assertEquals(5, rChunks.get(2).size());
+		assertEquals("e24", rChunks.get(2).getId(4));
+	}
+
+	/***************************************
+	 * Tests that recurring events are written with their rule and exceptions
+	 * and read back as the same series.
+	 */
+	@Test
+	public void testRecurrenceRoundTrip()
+	{
+		StringProperties aTimed  =
+			createEvent("timed", new Date(117, 4, 8, 9, 30), 60);
+		StringProperties aAllDay =
+			createEvent("allday", new Date(117, 4, 8), 0);
+
+		aTimed.setProperty(TimetableEventEncoder.RECURRENCE_RULE,
+						   "FREQ=WEEKLY;BYDAY=MO,WE;COUNT=20");
+		aTimed.setProperty(TimetableEventEncoder.RECURRENCE_EXCEPTIONS,
+						   "20170510,20170515T093000");
+		aAllDay.setProperty(ALL_DAY, Boolean.TRUE);
+		aAllDay.setProperty(TimetableEventEncoder.RECURRENCE_RULE,
+							"FREQ=DAILY;UNTIL=20170520");
+		aAllDay.setProperty(TimetableEventEncoder.RECURRENCE_EXCEPTIONS,
+							"20170509");
+
+		String sText = write(Arrays.asList(aTimed, aAllDay));
+
+		assertTrue(sText.contains("RRULE:FREQ=WEEKLY;BYDAY=MO,WE;COUNT=20"));
+		assertTrue(sText.contains("EXDATE;VALUE=DATE:20170509"));
+
+		TimetableEventBatch rBatch = read(sText, 100, 11).get(0);
+
+		assertEquals(2, rBatch.size());
+
+		assertEquals("FREQ=WEEKLY;BYDAY=MO,WE;COUNT=20",
+					 rBatch.getRecurrenceRule(0));
+		assertEquals("FREQ=DAILY;UNTIL=20170520", rBatch.getRecurrenceRule(1));
+
+		List<Date> rTimed  =
+			getOccurrences(rBatch.getRecurrenceRule(0),
+						   rBatch.getRecurrenceExceptions(0),
+						   rBatch.getStart(0));
+		List<Date> rAllDay =
+			getOccurrences(rBatch.getRecurrenceRule(1),
+						   rBatch.getRecurrenceExceptions(1),
+						   rBatch.getStart(1));
+
+		assertEquals(18, rTimed.size());
+		assertEquals(12, rAllDay.size());
+		assertEquals(getOccurrences("FREQ=WEEKLY;BYDAY=MO,WE;COUNT=20",
+									"20170510,20170515T093000",
+									aTimed.getProperty(START_DATE, null)),
+					 rTimed);
+		assertEquals(getOccurrences("FREQ=DAILY;UNTIL=20170520",
+									"20170509",
+									aAllDay.getProperty(START_DATE, null)),
+					 rAllDay);
+	}
+
+	/***************************************
+	 * Tests that events with an unsupported recurrence rule are skipped.
+	 */
+	@Test
+	public void testUnsupportedRecurrence()
+	{
+		String sText =
+			"BEGIN:VCALENDAR\r\nBEGIN:VEVENT\r\nUID:1\r\n" +
+			"DTSTART:20170102T100000Z\r\nRRULE:FREQ=HOURLY\r\n" +
+			"END:VEVENT\r\nBEGIN:VEVENT\r\nUID:2\r\n" +
+			"DTSTART:20170102T100000Z\r\nEND:VEVENT\r\nEND:VCALENDAR\r\n";
+
+		final List<TimetableEventBatch> aChunks = new ArrayList<>();
+
+		TimetableICalReader aReader =
+			new TimetableICalReader(10,
+				new TimetableICalReader.ChunkHandler()
+				{
+					@Override
+					public void handleChunk(TimetableEventBatch rChunk)
+					{
+						aChunks.add(rChunk);
+					}
+				});
+
+		aReader.read(sText);
+		aReader.finish();
+
+		assertEquals(1, aReader.getSkipCount());
+		assertEquals(1, aChunks.get(0).size());
+		assertEquals("2", aChunks.get(0).getId(0));
+	}
+
+	/***************************************
+	 * Tests that events written by the writer are read back unchanged, with
+	 * the text split into small fragments.
+	 */
+	@Test
+	public void testRoundTrip()
+	{
+		StringProperties aTimed   =
+			createEvent("timed", new Date(117, 4, 8, 9, 30), 90);
+		StringProperties aAllDay  =
+			createEvent("allday", new Date(117, 4, 8), 0);
+		Date			 rLastDay = new Date(117, 4, 10);
+
+		aTimed.setProperty(DESCRIPTION, "A, B; C\\D\nnext line");
+		aTimed.setProperty(LOCATION, "Room 1");
+		aAllDay.setProperty(END_DATE, rLastDay);
+		aAllDay.setProperty(ALL_DAY, Boolean.TRUE);
+
+		TimetableEventBatch rBatch =
+			read(write(Arrays.asList(aTimed, aAllDay)), 100, 7).get(0);
+
+		assertEquals(2, rBatch.size());
+
+		assertEquals("timed", rBatch.getId(0));
+		assertEquals("Title timed", rBatch.getTitle(0));
+		assertEquals("A, B; C\\D\nnext line", rBatch.getDescription(0));
+		assertEquals("Room 1", rBatch.getLocation(0));
+		assertEquals(aTimed.getProperty(START_DATE, null), rBatch.getStart(0));
+		assertEquals(aTimed.getProperty(END_DATE, null), rBatch.getEnd(0));
+		assertFalse(rBatch.hasFlag(0, TimetableEventBatch.FLAG_ALL_DAY));
+
+		assertEquals("allday", rBatch.getId(1));
+		assertEquals(new Date(117, 4, 8), rBatch.getStart(1));
+		assertEquals(rLastDay, rBatch.getEnd(1));
+		assertTrue(rBatch.hasFlag(1, TimetableEventBatch.FLAG_ALL_DAY));
+	}
+
+	/***************************************
+	 * Creates the properties of an event.
+	 *
+	 * @param  sId       The event ID
+	 * @param  rStart    The start date
+	 * @param  nMinutes  The duration in minutes
+	 *
+	 * @return The event properties
+	 */
+	private StringProperties createEvent(String sId, Date rStart, int nMinutes)
+	{
+		StringProperties aEvent = new StringProperties();
+
+		aEvent.setProperty(ID, sId);
+		aEvent.setProperty(TITLE, "Title " + sId);
+		aEvent.setProperty(START_DATE, rStart);
+		aEvent.setProperty(END_DATE,
+						   new Date(rStart.getTime() + nMinutes * 60000L));
+
+		return aEvent;
+	}
+
+	/***************************************
+	 * Returns the occurrences of a recurring event in the year of the event.
+	 *
+	 * @param  sRule       The recurrence rule
+	 * @param  sExceptions The recurrence exceptions
+	 * @param  rStart      The start of the recurring event
+	 *
+	 * @return The occurrence dates
+	 */
+	private List<Date> getOccurrences(String sRule,
+									  String sExceptions,
+									  Date   rStart)
+	{
+		TimetableRecurrence aRecurrence =
+			TimetableRecurrence.parse(sRule, sExceptions);
+
+		return aRecurrence.getOccurrences(rStart,
+										  0,
+										  new Date(rStart.getYear(), 0, 1)
+										  .getTime(),
+										  new Date(rStart.getYear() + 1, 0, 1)
+										  .getTime());
+	}
+
+	/***************************************
+	 * Reads iCalendar text in fragments of a certain size.
+	 *
+	 * @param  sText         The text to read
+	 * @param  nChunkSize    The chunk size of the reader
+	 * @param  nFragmentSize The size of the text fragments
+	 *
+	 * @return The chunks that have been read
+	 */
+	private List<TimetableEventBatch> read(String sText,
+										   int    nChunkSize,
+										   int    nFragmentSize)
+	{
+		final List<TimetableEventBatch> aChunks = new ArrayList<>();
+
+		TimetableICalReader aReader =
+			new TimetableICalReader(nChunkSize,
+				new TimetableICalReader.ChunkHandler()
+				{
+					@Override
+					public void handleChunk(TimetableEventBatch rChunk)
+					{
+						aChunks.add(rChunk);
+					}
+				});
+
+		for (int i = 0; i < sText.length(); i += nFragmentSize)
+		{
+			aReader.read(sText.substring(i,
+										 Math.min(sText.length(),
+												  i + nFragmentSize)));
+		}
+
+		aReader.finish();
+		assertEquals(0, aReader.getSkipCount());
+
+		return aChunks;
+	}
+
+	/***************************************
+	 * Writes events into a string.
+	 *
+	 * @param  rEvents The events to write
+	 *
+	 * @return The iCalendar text
+	 */
+	private String write(List<? extends HasProperties> rEvents)
+	{
+		final StringBuilder aText = new StringBuilder();
+
+		TimetableICalWriter aWriter =
+			new TimetableICalWriter(200,
+				new TimetableICalWriter.OutputHandler()
+				{
+					@Override
+					public void write(String sText)
+					{
+						aText.append(sText);
+					}
+				});
+
+		aWriter.writeEvents(rEvents);
+		aWriter.finish();
+		assertEquals(rEvents.size(), aWriter.getEventCount());
+
+		return aText.toString();
+	}
+}
@@ -0,0 +1,270 @@
+//++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+// gewt-timetable source file
+// Copyright (c) 2017 Elmar Sonnenschein / esoco GmbH
+// Last Change: 08.05.2017 by eso
+//
+// gewt-timetable is free software; you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published
+// by the Free Software Foundation; either version 3 of the License,
+// or (at your option) any later version.
+//
+// gewt-timetable is distributed in the hope that it will be useful, but
+// WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License along
+// with gewt-timetable; if not, write to the Free Software Foundation, Inc.,
+// 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA or use the
+// contact information on the FSF website http://www.fsf.org
+//++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+package de.esoco.ewt.component;
+
+import de.esoco.lib.property.HasProperties;
+import de.esoco.lib.property.StringProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.bradrydzewski.gwt.calendar.client.Appointment;
+
+import static de.esoco.lib.property.StandardProperties.ID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+
+/********************************************************************
+ * Test of {@link TimetableIncrementalLoad}.
+ *
+ * @author eso
+ */
+public class TimetableIncrementalLoadTest
+{
+	//~ Static fields/initializers ---------------------------------------------
+
+	private static final int CHUNK_SIZE		 = 10;
+	private static final int STEPS_PER_SLICE = 7;
+
+	//~ Methods ----------------------------------------------------------------
+
+	/***************************************
+	 * Tests that an empty batch is finished immediately.
+	 */
+	@Test
+	public void testEmptyBatch()
+	{
+		TestTarget aTarget = new TestTarget(1);
+
+		TimetableIncrementalLoad aLoad =
+			new TimetableIncrementalLoad(new ArrayList<HasProperties>(),
+										 CHUNK_SIZE,
+										 aTarget);
+
+		assertTrue(aLoad.isFinished());
+		assertEquals(0, aLoad.getAddedCount());
+	}
+
+	/***************************************
+	 * Tests the loading of a batch that contains visible and hidden events.
+	 */
+	@Test
+	public void testMixedBatch()
+	{
+		TestTarget aTarget = new TestTarget(2);
+
+		TimetableIncrementalLoad aLoad =
+			new TimetableIncrementalLoad(createEvents(95),
+										 CHUNK_SIZE,
+										 aTarget);
+
+		int nSlices = runToEnd(aLoad, aTarget);
+
+		assertEquals(48, aTarget.aVisible.size());
+		assertEquals(47, aTarget.aHidden.size());
+		assertEquals(95, aLoad.getAddedCount());
+		assertTrue(nSlices > 95 / STEPS_PER_SLICE);
+
+		for (List<Appointment> rChunk : aTarget.aHiddenChunks)
+		{
+			assertTrue(rChunk.size() <= CHUNK_SIZE);
+		}
+	}
+
+	/***************************************
+	 * Tests that a batch of only visible events that needs several time
+	 * slices for the conversion is not finished before all events have been
+	 * converted. This had been the case because the finish condition only
+	 * considered the (still empty) list of hidden events. The visible events
+	 * must be added at the end of each slice.
+	 */
+	@Test
+	public void testVisibleBatchLargerThanSlice()
+	{
+		TestTarget aTarget = new TestTarget(1);
+
+		TimetableIncrementalLoad aLoad =
+			new TimetableIncrementalLoad(createEvents(50),
+										 CHUNK_SIZE,
+										 aTarget);
+
+		aTarget.startSlice();
+		aLoad.execute();
+
+		assertFalse(aLoad.isFinished());
+		assertEquals(STEPS_PER_SLICE, aLoad.getAddedCount());
+		assertEquals(STEPS_PER_SLICE, aTarget.aVisible.size());
+		assertEquals(1, aTarget.nVisibleAdds);
+
+		int nSlices = runToEnd(aLoad, aTarget) + 1;
+
+		assertEquals(50, aTarget.aVisible.size());
+		assertEquals(nSlices, aTarget.nVisibleAdds);
+		assertEquals((50 + STEPS_PER_SLICE - 1) / STEPS_PER_SLICE, nSlices);
+		assertTrue(aTarget.aHidden.isEmpty());
+		assertEquals(50, aLoad.getAddedCount());
+	}
+
+	/***************************************
+	 * Creates a list of events with consecutive IDs.
+	 *
+	 * @param  nCount The number of events
+	 *
+	 * @return The event list
+	 */
+	private List<HasProperties> createEvents(int nCount)
+	{
+		List<HasProperties> aEvents = new ArrayList<>(nCount);
+
+		for (int i = 0; i < nCount; i++)
+		{
+			StringProperties aEvent = new StringProperties();
+
+			aEvent.setProperty(ID, Integer.toString(i));
+			aEvents.add(aEvent);
+		}
+
+		return aEvents;
+	}
+
+	/***************************************
+	 * Executes a load in consecutive slices until it has finished.
+	 *
+	 * @param  rLoad   The load to execute
+	 * @param  rTarget The load target
+	 *
+	 * @return The number of executed slices
+	 */
+	private int runToEnd(TimetableIncrementalLoad rLoad, TestTarget rTarget)
+	{
+		int nSlices = 0;
+
+		while (!rLoad.isFinished())
+		{
+			assertTrue("Endless loading", nSlices++ < 1000);
+			rTarget.startSlice();
+			rLoad.execute();
+		}
+
+		return nSlices;
+	}
+
+	//~ Inner Classes ----------------------------------------------------------
+
+	/********************************************************************
+	 * A load target that limits each time slice to a fixed number of steps.
+	 * Every n-th appointment is regarded as visible.
+	 *
+	 * @author eso
+	 */
+	static class TestTarget implements TimetableIncrementalLoad.Target
+	{
+		//~ Instance fields ----------------------------------------------------
+
+		private final int nVisibleInterval;
+
+		private List<Appointment>		aVisible	  = new ArrayList<>();
+		private List<Appointment>		aHidden		  = new ArrayList<>();
+		private List<List<Appointment>> aHiddenChunks = new ArrayList<>();
+
+		private int nSteps		 = 0;
+		private int nVisibleAdds = 0;
+
+		//~ Constructors -------------------------------------------------------
+
+		/***************************************
+		 * Creates a new instance.
+		 *
+		 * @param nVisibleInterval The interval of visible appointments
+		 */
+		TestTarget(int nVisibleInterval)
+		{
+			this.nVisibleInterval = nVisibleInterval;
+		}
+
+		//~ Methods ------------------------------------------------------------
+
+		/***************************************
+		 * {@inheritDoc}
+		 */
+		@Override
+		public void addVisibleAppointments(List<Appointment> rAppointments)
+		{
+			aVisible.addAll(rAppointments);
+			nVisibleAdds++;
+		}
+
+		/***************************************
+		 * {@inheritDoc}
+		 */
+		@Override
+		public void appendHiddenAppointments(List<Appointment> rAppointments)
+		{
+			aHidden.addAll(rAppointments);
+			aHiddenChunks.add(new ArrayList<>(rAppointments));
+		}
+
+		/***************************************
+		 * {@inheritDoc}
+		 */
+		@Override
+		public Appointment createAppointment(HasProperties rEvent)
+		{
+			Appointment aAppointment = new Appointment();
+
+			aAppointment.setId(rEvent.getProperty(ID, null));
+
+			return aAppointment;
+		}
+
+		/***************************************
+		 * {@inheritDoc}
+		 */
+		@Override
+		public boolean isSliceExpired()
+		{
+			return nSteps++ >= STEPS_PER_SLICE;
+		}
+
+		/***************************************
+		 * {@inheritDoc}
+		 */
+		@Override
+		public boolean isVisible(Appointment rAppointment)
+		{
+			return Integer.parseInt(rAppointment.getId()) % nVisibleInterval ==
+				   0;
+		}
+
+		/***************************************
+		 * Starts a new time slice.
+		 */
+		void startSlice()
+		{
+			nSteps = 0;
+		}
+	}
+}
@@ -0,0 +1,156 @@
+//++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+// gewt-timetable source file
+// Copyright (c) 2017 Elmar Sonnenschein / esoco GmbH
+// Last Change: 08.05.2017 by eso
+//
+// gewt-timetable is free software; you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published
+// by the Free Software Foundation; either version 3 of the License,
+// or (at your option) any later version.
+//
+// gewt-timetable is distributed in the hope that it will be useful, but
+// WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License along
+// with gewt-timetable; if not, write to the Free Software Foundation, Inc.,
+// 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA or use the
+// contact information on the FSF website http://www.fsf.org
+//++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+package de.esoco.ewt.component;
+
+import de.esoco.ewt.component.TimetableStatistics.Operation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+
+/********************************************************************
+ * Test of {@link TimetableInstrumentation} and {@link TimetableStatistics}.
+ *
+ * @author eso
+ */
+public class TimetableInstrumentationTest
+{
+	//~ Static fields/initializers ---------------------------------------------
+
+	private static final long NANOS_PER_MILLI = 1000000;
+
+	//~ Methods ----------------------------------------------------------------
+
+	/***************************************
+	 * Tests that the listener is notified of each recorded operation.
+	 */
+	@Test
+	public void testListener()
+	{
+		final List<Operation> aOperations = new ArrayList<>();
+
+		TimetableInstrumentation aInstrumentation =
+			new TimetableInstrumentation();
+
+		aInstrumentation.setListener(new TimetableInstrumentation.Listener()
+			{
+				@Override
+				public void operationRecorded(Operation eOperation,
+											  long		nDuration,
+											  int		nItems)
+				{
+					assertTrue(nDuration >= 0);
+					assertEquals(3, nItems);
+					aOperations.add(eOperation);
+				}
+			});
+
+		aInstrumentation.record(Operation.SORT, startedBefore(1), 3);
+		aInstrumentation.record(Operation.CLEAR, startedBefore(1), 3);
+		aInstrumentation.setListener(null);
+		aInstrumentation.record(Operation.SORT, startedBefore(1), 3);
+
+		assertEquals(2, aOperations.size());
+		assertEquals(Operation.SORT, aOperations.get(0));
+		assertEquals(Operation.CLEAR, aOperations.get(1));
+	}
+
+	/***************************************
+	 * Tests the counters of recorded operations.
+	 */
+	@Test
+	public void testRecord()
+	{
+		TimetableInstrumentation aInstrumentation =
+			new TimetableInstrumentation();
+
+		aInstrumentation.record(Operation.ADD_EVENTS, startedBefore(2), 10);
+		aInstrumentation.record(Operation.ADD_EVENTS, startedBefore(4), 5);
+		aInstrumentation.record(Operation.DAY_LAYOUT, startedBefore(1), 7);
+		aInstrumentation.countWidgets(12);
+		aInstrumentation.countWidgets(3);
+
+		TimetableStatistics rStatistics = aInstrumentation.getStatistics();
+
+		assertEquals(2, rStatistics.getCount(Operation.ADD_EVENTS));
+		assertEquals(15, rStatistics.getItemCount(Operation.ADD_EVENTS));
+		assertEquals(1, rStatistics.getCount(Operation.DAY_LAYOUT));
+		assertEquals(7, rStatistics.getItemCount(Operation.DAY_LAYOUT));
+		assertEquals(0, rStatistics.getCount(Operation.SORT));
+		assertEquals(0, rStatistics.getAverageMillis(Operation.SORT), 0);
+		assertEquals(15, rStatistics.getCreatedWidgets());
+
+		double fTotal = rStatistics.getTotalMillis(Operation.ADD_EVENTS);
+		double fMax   = rStatistics.getMaxMillis(Operation.ADD_EVENTS);
+
+		assertTrue(fTotal >= 6);
+		assertTrue(fMax >= 4 && fMax <= fTotal);
+		assertEquals(fTotal / 2,
+					 rStatistics.getAverageMillis(Operation.ADD_EVENTS),
+					 0.000001);
+	}
+
+	/***************************************
+	 * Tests that statistics are independent snapshots and that the counters
+	 * can be reset.
+	 */
+	@Test
+	public void testSnapshotAndReset()
+	{
+		TimetableInstrumentation aInstrumentation =
+			new TimetableInstrumentation();
+
+		aInstrumentation.record(Operation.REPAINT, startedBefore(1), 1);
+		aInstrumentation.countWidgets(5);
+
+		TimetableStatistics rBefore = aInstrumentation.getStatistics();
+
+		aInstrumentation.record(Operation.REPAINT, startedBefore(1), 1);
+		aInstrumentation.reset();
+
+		TimetableStatistics rAfter = aInstrumentation.getStatistics();
+
+		assertEquals(1, rBefore.getCount(Operation.REPAINT));
+		assertEquals(5, rBefore.getCreatedWidgets());
+		assertEquals(0, rAfter.getCount(Operation.REPAINT));
+		assertEquals(0, rAfter.getItemCount(Operation.REPAINT));
+		assertEquals(0, rAfter.getMaxMillis(Operation.REPAINT), 0);
+		assertEquals(0, rAfter.getCreatedWidgets());
+	}
+
+	/***************************************
+	 * Returns a start time that lies a certain number of milliseconds in the
+	 * past.
+	 *
+	 * @param  nMillis The milliseconds
+	 *
+	 * @return The start time in nanoseconds
+	 */
+	private long startedBefore(int nMillis)
+	{
+		return TimetableInstrumentation.startTime() - nMillis * NANOS_PER_MILLI;
+	}
+}
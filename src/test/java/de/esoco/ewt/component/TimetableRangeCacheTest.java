@@ -0,0 +1,260 @@
+//++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+// gewt-timetable source file
+// Copyright (c) 2017 Elmar Sonnenschein / esoco GmbH
+// Last Change: 08.05.2017 by eso
+//
+// gewt-timetable is free software; you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published
+// by the Free Software Foundation; either version 3 of the License,
+// or (at your option) any later version.
+//
+// gewt-timetable is distributed in the hope that it will be useful, but
+// WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License along
+// with gewt-timetable; if not, write to the Free Software Foundation, Inc.,
+// 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA or use the
+// contact information on the FSF website http://www.fsf.org
+//++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+package de.esoco.ewt.component;
+
+import de.esoco.ewt.component.TimetableRangeCache.Range;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+
+/********************************************************************
+ * Test of {@link TimetableRangeCache}.
+ *
+ * @author eso
+ */
+public class TimetableRangeCacheTest
+{
+	//~ Methods ----------------------------------------------------------------
+
+	/***************************************
+	 * Tests that the least recently used ranges are evicted first and that
+	 * ranges overlapping the protected range are kept.
+	 */
+	@Test
+	public void testEvictLeastRecentlyUsed()
+	{
+		TimetableRangeCache aCache = new TimetableRangeCache(4);
+
+		load(aCache, 0, 10, 0, 10, "a", "b");
+		load(aCache, 10, 20, 10, 20, "c", "d");
+		aCache.touch(0, 10);
+
+		// the first range is protected although it is the oldest
+		List<String> rEvicted = load(aCache, 20, 30, 0, 10, "e", "f");
+
+		assertEquals(2, rEvicted.size());
+		assertTrue(rEvicted.containsAll(Arrays.asList("c", "d")));
+		assertEquals(4, aCache.getEventCount());
+
+		rEvicted = load(aCache, 30, 40, 30, 40, "g");
+
+		assertTrue(rEvicted.containsAll(Arrays.asList("a", "b")));
+		assertEquals(3, aCache.getEventCount());
+	}
+
+	/***************************************
+	 * Tests that events which are referenced by multiple ranges are only
+	 * evicted with the last range.
+	 */
+	@Test
+	public void testEvictSharedEvents()
+	{
+		TimetableRangeCache aCache = new TimetableRangeCache(3);
+
+		load(aCache, 0, 10, 20, 30, "a", "b");
+		load(aCache, 10, 20, 20, 30, "b", "c");
+
+		List<String> rEvicted = load(aCache, 20, 30, 20, 30, "d");
+
+		assertEquals(Arrays.asList("a"), rEvicted);
+		assertEquals(3, aCache.getEventCount());
+		assertEquals(2, aCache.getRanges().size());
+		assertEquals(10, aCache.getRanges().get(0).getStart());
+	}
+
+	/***************************************
+	 * Tests that loaded ranges which touch each other are merged.
+	 */
+	@Test
+	public void testMergeAdjacentRanges()
+	{
+		TimetableRangeCache aCache = new TimetableRangeCache(0);
+
+		load(aCache, 0, 10, 0, 10, "a", "b");
+		load(aCache, 10, 20, 0, 10, "b", "c");
+
+		assertEquals(1, aCache.getRanges().size());
+		assertRange(aCache.getRanges().get(0), 0, 20);
+		assertEquals(3, aCache.getEventCount());
+
+		load(aCache, 30, 40, 0, 10, "d");
+		assertEquals(2, aCache.getRanges().size());
+
+		// a pending range is not merged until it has been loaded
+		Range rGap = aCache.requestRanges(0, 40).get(0);
+
+		assertRange(rGap, 20, 30);
+		assertEquals(3, aCache.getRanges().size());
+
+		aCache.setRangeEvents(rGap, Arrays.asList("c", "e"), 0, 10);
+
+		assertEquals(1, aCache.getRanges().size());
+		assertRange(aCache.getRanges().get(0), 0, 40);
+		assertEquals(5, aCache.getEventCount());
+	}
+
+	/***************************************
+	 * Tests that ranges are not merged if the merged range would contain
+	 * more than a quarter of the event budget.
+	 */
+	@Test
+	public void testMergeLimit()
+	{
+		TimetableRangeCache aCache = new TimetableRangeCache(8);
+
+		load(aCache, 0, 10, 0, 10, "a");
+		load(aCache, 10, 20, 0, 10, "b");
+		load(aCache, 20, 30, 0, 10, "c");
+
+		assertEquals(2, aCache.getRanges().size());
+		assertRange(aCache.getRanges().get(0), 0, 20);
+		assertRange(aCache.getRanges().get(1), 20, 30);
+	}
+
+	/***************************************
+	 * Tests that the cache doesn't evict anything without a budget.
+	 */
+	@Test
+	public void testNoBudget()
+	{
+		TimetableRangeCache aCache = new TimetableRangeCache(0);
+
+		for (int i = 0; i < 10; i++)
+		{
+			assertTrue(load(aCache, i * 10, i * 10 + 10, 0, 0, "e" + i)
+					   .isEmpty());
+		}
+
+		assertEquals(10, aCache.getEventCount());
+	}
+
+	/***************************************
+	 * Tests that a range that has just been loaded (e.g. prefetched) is not
+	 * evicted immediately, even if it is the only range outside of the
+	 * protected range.
+	 */
+	@Test
+	public void testProtectNewestRange()
+	{
+		TimetableRangeCache aCache = new TimetableRangeCache(2);
+
+		load(aCache, 0, 10, 0, 10, "a", "b");
+
+		assertTrue(load(aCache, 20, 30, 0, 10, "c").isEmpty());
+		assertEquals(2, aCache.getRanges().size());
+		assertEquals(3, aCache.getEventCount());
+
+		// the previously prefetched range is evicted by the next load
+		assertEquals(Arrays.asList("c"), load(aCache, 40, 50, 0, 10, "d"));
+	}
+
+	/***************************************
+	 * Tests that only the missing parts of a time range are requested.
+	 */
+	@Test
+	public void testRequestGaps()
+	{
+		TimetableRangeCache aCache = new TimetableRangeCache(0);
+
+		List<Range> rRanges = aCache.requestRanges(10, 20);
+
+		assertEquals(1, rRanges.size());
+		assertTrue(rRanges.get(0).isPending());
+
+		aCache.requestRanges(30, 40);
+		rRanges = aCache.requestRanges(0, 50);
+
+		assertEquals(3, rRanges.size());
+		assertRange(rRanges.get(0), 0, 10);
+		assertRange(rRanges.get(1), 20, 30);
+		assertRange(rRanges.get(2), 40, 50);
+		assertTrue(aCache.requestRanges(5, 45).isEmpty());
+	}
+
+	/***************************************
+	 * Tests that the events of a range that has been removed while pending
+	 * are ignored.
+	 */
+	@Test
+	public void testStaleRange()
+	{
+		TimetableRangeCache aCache = new TimetableRangeCache(0);
+
+		Range rRange = aCache.requestRanges(0, 10).get(0);
+
+		aCache.clear();
+		assertNull(aCache.setRangeEvents(rRange, Arrays.asList("a"), 0, 10));
+		assertEquals(0, aCache.getEventCount());
+
+		rRange = aCache.requestRanges(0, 10).get(0);
+		aCache.removePendingRange(rRange);
+		assertEquals(1, aCache.requestRanges(0, 10).size());
+	}
+
+	/***************************************
+	 * Asserts the boundaries of a range.
+	 *
+	 * @param rRange The range
+	 * @param nStart The expected start
+	 * @param nEnd   The expected end
+	 */
+	private void assertRange(Range rRange, long nStart, long nEnd)
+	{
+		assertEquals(nStart, rRange.getStart());
+		assertEquals(nEnd, rRange.getEnd());
+	}
+
+	/***************************************
+	 * Requests a range that must be completely missing and sets its events.
+	 *
+	 * @param  rCache        The cache
+	 * @param  nStart        The range start
+	 * @param  nEnd          The range end
+	 * @param  nProtectStart The start of the protected range
+	 * @param  nProtectEnd   The end of the protected range
+	 * @param  rEventIds     The IDs of the range events
+	 *
+	 * @return The IDs of the evicted events
+	 */
+	private List<String> load(TimetableRangeCache rCache,
+							  long				  nStart,
+							  long				  nEnd,
+							  long				  nProtectStart,
+							  long				  nProtectEnd,
+							  String...			  rEventIds)
+	{
+		List<Range> rRanges = rCache.requestRanges(nStart, nEnd);
+
+		assertEquals(1, rRanges.size());
+
+		return rCache.setRangeEvents(rRanges.get(0),
+									 Arrays.asList(rEventIds),
+									 nProtectStart,
+									 nProtectEnd);
+	}
+}
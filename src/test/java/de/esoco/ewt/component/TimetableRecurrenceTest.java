@@ -0,0 +1,185 @@
+//++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+// gewt-timetable source file
+// Copyright (c) 2017 Elmar Sonnenschein / esoco GmbH
+// Last Change: 08.05.2017 by eso
+//
+// gewt-timetable is free software; you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published
+// by the Free Software Foundation; either version 3 of the License,
+// or (at your option) any later version.
+//
+// gewt-timetable is distributed in the hope that it will be useful, but
+// WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License along
+// with gewt-timetable; if not, write to the Free Software Foundation, Inc.,
+// 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA or use the
+// contact information on the FSF website http://www.fsf.org
+//++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+package de.esoco.ewt.component;
+
+import java.util.Date;
+import java.util.List;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+
+/********************************************************************
+ * Test of {@link TimetableRecurrence}.
+ *
+ * @author eso
+ */
+@SuppressWarnings("deprecation")
+public class TimetableRecurrenceTest
+{
+	//~ Static fields/initializers ---------------------------------------------
+
+	private static final long HOUR = 60 * 60 * 1000;
+
+	private static final Date SERIES_START = new Date(117, 0, 2, 10, 0);
+
+	//~ Methods ----------------------------------------------------------------
+
+	/***************************************
+	 * Tests that COUNT limits the total number of occurrences, independent
+	 * of the queried range.
+	 */
+	@Test
+	public void testCount()
+	{
+		TimetableRecurrence aRule =
+			TimetableRecurrence.parse("FREQ=DAILY;COUNT=5", null);
+
+		List<Date> rAll = getOccurrences(aRule, new Date(117, 0, 1), 30);
+
+		assertEquals(5, rAll.size());
+		assertEquals(SERIES_START, rAll.get(0));
+		assertEquals(new Date(117, 0, 6, 10, 0), rAll.get(4));
+
+		// a range after the first occurrences must not restart the count
+		List<Date> rLater = getOccurrences(aRule, new Date(117, 0, 5), 30);
+
+		assertEquals(2, rLater.size());
+		assertEquals(new Date(117, 0, 5, 10, 0), rLater.get(0));
+	}
+
+	/***************************************
+	 * Tests that excluded days are skipped but still count for COUNT.
+	 */
+	@Test
+	public void testExceptions()
+	{
+		TimetableRecurrence aRule =
+			TimetableRecurrence.parse("FREQ=DAILY;COUNT=5",
+									  "20170103, 20170105T100000");
+
+		List<Date> rDates = getOccurrences(aRule, new Date(117, 0, 1), 30);
+
+		assertEquals(3, rDates.size());
+		assertEquals(new Date(117, 0, 2, 10, 0), rDates.get(0));
+		assertEquals(new Date(117, 0, 4, 10, 0), rDates.get(1));
+		assertEquals(new Date(117, 0, 6, 10, 0), rDates.get(2));
+	}
+
+	/***************************************
+	 * Tests invalid rules.
+	 */
+	@Test
+	public void testInvalidRules()
+	{
+		String[] aRules =
+			new String[]
+			{
+				"COUNT=3", "FREQ=HOURLY", "FREQ=DAILY;INTERVAL=0",
+				"FREQ=DAILY;BYDAY=MO", "FREQ=WEEKLY;BYDAY=XX",
+				"FREQ=DAILY;UNTIL=2017", "FREQ=DAILY;FOO=1"
+			};
+
+		for (String sRule : aRules)
+		{
+			try
+			{
+				TimetableRecurrence.parse(sRule, null);
+				fail("Rule accepted: " + sRule);
+			}
+			catch (IllegalArgumentException e)
+			{
+				// expected
+			}
+		}
+	}
+
+	/***************************************
+	 * Tests the expansion of weekly rules with weekdays and an interval.
+	 */
+	@Test
+	public void testWeeklyByDay()
+	{
+		// 2017-01-02 is a monday
+		TimetableRecurrence aRule =
+			TimetableRecurrence.parse("FREQ=WEEKLY;INTERVAL=2;BYDAY=MO,FR",
+									  null);
+
+		List<Date> rDates = getOccurrences(aRule, new Date(117, 0, 1), 28);
+
+		assertEquals(4, rDates.size());
+		assertEquals(new Date(117, 0, 2, 10, 0), rDates.get(0));
+		assertEquals(new Date(117, 0, 6, 10, 0), rDates.get(1));
+		assertEquals(new Date(117, 0, 16, 10, 0), rDates.get(2));
+		assertEquals(new Date(117, 0, 20, 10, 0), rDates.get(3));
+	}
+
+	/***************************************
+	 * Tests that a date-only UNTIL includes the occurrence on that day and
+	 * that a date-time UNTIL is inclusive.
+	 */
+	@Test
+	public void testUntil()
+	{
+		TimetableRecurrence aDateRule =
+			TimetableRecurrence.parse("FREQ=DAILY;UNTIL=20170105", null);
+		TimetableRecurrence aTimeRule =
+			TimetableRecurrence.parse("FREQ=DAILY;UNTIL=20170105T095959",
+									  null);
+
+		List<Date> rDates = getOccurrences(aDateRule, new Date(117, 0, 1), 30);
+
+		assertEquals(4, rDates.size());
+		assertEquals(new Date(117, 0, 5, 10, 0), rDates.get(3));
+
+		rDates = getOccurrences(aTimeRule, new Date(117, 0, 1), 30);
+
+		assertEquals(3, rDates.size());
+		assertEquals(new Date(117, 0, 4, 10, 0), rDates.get(2));
+	}
+
+	/***************************************
+	 * Returns the occurrences of one-hour events that start at the series
+	 * start in a certain range of days.
+	 *
+	 * @param  rRule     The recurrence rule
+	 * @param  rFirstDay The first day of the range
+	 * @param  nDays     The number of days in the range
+	 *
+	 * @return The occurrence start dates
+	 */
+	private List<Date> getOccurrences(TimetableRecurrence rRule,
+									  Date				  rFirstDay,
+									  int				  nDays)
+	{
+		Date rEnd =
+			new Date(rFirstDay.getYear(),
+					 rFirstDay.getMonth(),
+					 rFirstDay.getDate() + nDays);
+
+		return rRule.getOccurrences(SERIES_START,
+									HOUR,
+									rFirstDay.getTime(),
+									rEnd.getTime());
+	}
+}
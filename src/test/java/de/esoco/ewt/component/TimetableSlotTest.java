@@ -0,0 +1,167 @@
+//++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+// gewt-timetable source file
+// Copyright (c) 2017 Elmar Sonnenschein / esoco GmbH
+// Last Change: 08.05.2017 by eso
+//
+// gewt-timetable is free software; you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published
+// by the Free Software Foundation; either version 3 of the License,
+// or (at your option) any later version.
+//
+// gewt-timetable is distributed in the hope that it will be useful, but
+// WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License along
+// with gewt-timetable; if not, write to the Free Software Foundation, Inc.,
+// 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA or use the
+// contact information on the FSF website http://www.fsf.org
+//++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+package de.esoco.ewt.component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.bradrydzewski.gwt.calendar.client.Appointment;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+
+/********************************************************************
+ * Test of {@link TimetableSlot}.
+ *
+ * @author eso
+ */
+@SuppressWarnings("deprecation")
+public class TimetableSlotTest
+{
+	//~ Static fields/initializers ---------------------------------------------
+
+	private static final long MINUTE = 60 * 1000;
+
+	//~ Methods ----------------------------------------------------------------
+
+	/***************************************
+	 * Tests the free slots between overlapping and nested appointments and
+	 * appointments that overlap the range boundaries.
+	 */
+	@Test
+	public void testFreeSlots()
+	{
+		List<TimetableSlot> aSlots = new ArrayList<>();
+
+		List<Appointment> aAppointments =
+			Arrays.asList(appointment(7, 0, 8, 30),
+						  appointment(9, 0, 12, 0),
+						  appointment(10, 0, 11, 0),
+						  appointment(11, 30, 12, 30),
+						  appointment(13, 0, 14, 0),
+						  appointment(14, 15, 15, 0),
+						  appointment(16, 30, 18, 0));
+
+		TimetableSlot.addFreeSlots(aSlots,
+								   time(8, 0),
+								   time(17, 0),
+								   30 * MINUTE,
+								   aAppointments);
+
+		// the 15 minutes between 14:00 and 14:15 are too short and the last
+		// appointment overlaps the end of the range
+		assertEquals(3, aSlots.size());
+		assertSlot(aSlots.get(0), 8, 30, 9, 0);
+		assertSlot(aSlots.get(1), 12, 30, 13, 0);
+		assertSlot(aSlots.get(2), 15, 0, 16, 30);
+		assertEquals(90, aSlots.get(2).getMinutes());
+	}
+
+	/***************************************
+	 * Tests ranges without appointments and ranges that are fully booked.
+	 */
+	@Test
+	public void testEmptyAndBookedRanges()
+	{
+		List<TimetableSlot> aSlots = new ArrayList<>();
+
+		TimetableSlot.addFreeSlots(aSlots,
+								   time(8, 0),
+								   time(17, 0),
+								   MINUTE,
+								   Collections.<Appointment>emptyList());
+
+		assertEquals(1, aSlots.size());
+		assertSlot(aSlots.get(0), 8, 0, 17, 0);
+
+		aSlots.clear();
+		TimetableSlot.addFreeSlots(aSlots,
+								   time(8, 0),
+								   time(17, 0),
+								   MINUTE,
+								   Arrays.asList(appointment(7, 0, 12, 0),
+												 appointment(12, 0, 18, 0)));
+
+		assertTrue(aSlots.isEmpty());
+	}
+
+	/***************************************
+	 * Creates a new appointment on the test day.
+	 *
+	 * @param  nStartHour   The start hour
+	 * @param  nStartMinute The start minute
+	 * @param  nEndHour     The end hour
+	 * @param  nEndMinute   The end minute
+	 *
+	 * @return The new appointment
+	 */
+	private Appointment appointment(int nStartHour,
+									int nStartMinute,
+									int nEndHour,
+									int nEndMinute)
+	{
+		Appointment aAppointment = new Appointment();
+
+		aAppointment.setStart(new Date(time(nStartHour, nStartMinute)));
+		aAppointment.setEnd(new Date(time(nEndHour, nEndMinute)));
+
+		return aAppointment;
+	}
+
+	/***************************************
+	 * Asserts the start and end time of a slot on the test day.
+	 *
+	 * @param rSlot        The slot to check
+	 * @param nStartHour   The expected start hour
+	 * @param nStartMinute The expected start minute
+	 * @param nEndHour     The expected end hour
+	 * @param nEndMinute   The expected end minute
+	 */
+	private void assertSlot(TimetableSlot rSlot,
+							int			  nStartHour,
+							int			  nStartMinute,
+							int			  nEndHour,
+							int			  nEndMinute)
+	{
+		assertEquals(new Date(time(nStartHour, nStartMinute)),
+					 rSlot.getStart());
+		assertEquals(new Date(time(nEndHour, nEndMinute)), rSlot.getEnd());
+	}
+
+	/***************************************
+	 * Returns a time on the test day.
+	 *
+	 * @param  nHour   The hour
+	 * @param  nMinute The minute
+	 *
+	 * @return The time in milliseconds
+	 */
+	private long time(int nHour, int nMinute)
+	{
+		return new Date(117, 0, 2, nHour, nMinute).getTime();
+	}
+}
@@ -0,0 +1,213 @@
+//++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+// gewt-timetable source file
+// Copyright (c) 2017 Elmar Sonnenschein / esoco GmbH
+// Last Change: 08.05.2017 by eso
+//
+// gewt-timetable is free software; you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published
+// by the Free Software Foundation; either version 3 of the License,
+// or (at your option) any later version.
+//
+// gewt-timetable is distributed in the hope that it will be useful, but
+// WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License along
+// with gewt-timetable; if not, write to the Free Software Foundation, Inc.,
+// 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA or use the
+// contact information on the FSF website http://www.fsf.org
+//++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+package de.esoco.ewt.timetable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.bradrydzewski.gwt.calendar.client.Appointment;
+import com.bradrydzewski.gwt.calendar.client.CalendarSettings;
+import com.bradrydzewski.gwt.calendar.client.HasSettings;
+import com.bradrydzewski.gwt.calendar.client.dayview.AppointmentAdapter;
+import com.bradrydzewski.gwt.calendar.client.dayview.DayViewLayoutStrategy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+
+/********************************************************************
+ * Test of {@link TimetableLayoutCalculator}. The layout of timed events is
+ * compared with the layout of the gwt-cal {@link DayViewLayoutStrategy} which
+ * it must reproduce.
+ *
+ * @author eso
+ */
+@SuppressWarnings("deprecation")
+public class TimetableLayoutCalculatorTest
+{
+	//~ Static fields/initializers ---------------------------------------------
+
+	private static final Date DAY = new Date(117, 0, 2);
+
+	private static final long MINUTE = 60 * 1000;
+
+	//~ Methods ----------------------------------------------------------------
+
+	/***************************************
+	 * Tests the calculation of the day starts and the day of a time.
+	 */
+	@Test
+	public void testDayStarts()
+	{
+		long[] aDayStarts = TimetableLayoutCalculator.getDayStarts(DAY, 3, 8);
+
+		assertEquals(4, aDayStarts.length);
+		assertEquals(new Date(117, 0, 2, 8, 0).getTime(), aDayStarts[0]);
+		assertEquals(new Date(117, 0, 5, 8, 0).getTime(), aDayStarts[3]);
+
+		long nBefore = new Date(117, 0, 3, 7, 59).getTime();
+		long nAfter  = new Date(117, 0, 3, 8, 0).getTime();
+
+		assertEquals(0,
+					 TimetableLayoutCalculator.getDayIndex(aDayStarts,
+														   nBefore));
+		assertEquals(1,
+					 TimetableLayoutCalculator.getDayIndex(aDayStarts,
+														   nAfter));
+	}
+
+	/***************************************
+	 * Tests the layout of densely overlapping events.
+	 */
+	@Test
+	public void testDenseDay()
+	{
+		for (int nSeed = 0; nSeed < 20; nSeed++)
+		{
+			compareWithDayView(createAppointments(nSeed, 40, 4 * 60, 240));
+		}
+	}
+
+	/***************************************
+	 * Tests the layout of events that are spread over the day.
+	 */
+	@Test
+	public void testSparseDay()
+	{
+		for (int nSeed = 0; nSeed < 20; nSeed++)
+		{
+			compareWithDayView(createAppointments(nSeed, 15, 22 * 60, 90));
+		}
+	}
+
+	/***************************************
+	 * Compares the layout of timed appointments of a single day with the
+	 * layout of the gwt-cal day view.
+	 *
+	 * @param rAppointments The appointments, ordered by their start
+	 */
+	private void compareWithDayView(List<Appointment> rAppointments)
+	{
+		final CalendarSettings aSettings = new CalendarSettings();
+
+		HasSettings aHasSettings =
+			new HasSettings()
+			{
+				@Override
+				public CalendarSettings getSettings()
+				{
+					return aSettings;
+				}
+
+				@Override
+				public void setSettings(CalendarSettings rSettings)
+				{
+				}
+			};
+
+		TimetableLayoutCalculator aCalculator =
+			new TimetableLayoutCalculator(DAY,
+										  1,
+										  aSettings.getIntervalsPerHour(),
+										  0);
+
+		for (Appointment rAppointment : rAppointments)
+		{
+			aCalculator.add(rAppointment.getId(),
+							rAppointment.getStart(),
+							rAppointment.getEnd(),
+							false);
+		}
+
+		TimetableLayout			 rLayout   = aCalculator.calculate();
+		List<AppointmentAdapter> rAdapters =
+			new DayViewLayoutStrategy(aHasSettings).doLayout(rAppointments,
+															  0,
+															  1);
+
+		assertEquals(rAppointments.size(), rLayout.size());
+		assertEquals(rAppointments.size(), rAdapters.size());
+
+		for (AppointmentAdapter rAdapter : rAdapters)
+		{
+			String sId    = rAdapter.getAppointment().getId();
+			int    nIndex = rLayout.indexOf(sId);
+
+			assertTrue(sId, nIndex >= 0);
+			assertEquals(sId,
+						 rAdapter.getCellStart(),
+						 rLayout.getCellStart(nIndex));
+			assertEquals(sId,
+						 rAdapter.getCellSpan(),
+						 rLayout.getCellSpan(nIndex));
+			assertEquals(sId,
+						 rAdapter.getColumnStart(),
+						 rLayout.getColumn(nIndex));
+			assertEquals(sId,
+						 rAdapter.getIntersectingBlocks().get(0)
+						 .getTotalColumns(),
+						 rLayout.getColumnCount(nIndex));
+		}
+	}
+
+	/***************************************
+	 * Creates random appointments on the test day. The appointments must
+	 * end on the same day because otherwise they are multi-day events.
+	 *
+	 * @param  nSeed        The random seed
+	 * @param  nCount       The number of appointments
+	 * @param  nStartRange  The range of the start minute
+	 * @param  nMaxDuration The maximum duration in minutes
+	 *
+	 * @return The appointments, ordered by their start
+	 */
+	private List<Appointment> createAppointments(int nSeed,
+												 int nCount,
+												 int nStartRange,
+												 int nMaxDuration)
+	{
+		Random			  aRandom		= new Random(nSeed);
+		List<Appointment> aAppointments = new ArrayList<>(nCount);
+
+		for (int i = 0; i < nCount; i++)
+		{
+			Appointment aAppointment = new Appointment();
+			long		nStart		 =
+				DAY.getTime() + aRandom.nextInt(nStartRange) * MINUTE;
+
+			aAppointment.setId("e" + i);
+			aAppointment.setStart(new Date(nStart));
+			aAppointment.setEnd(new Date(nStart +
+										 (15 + aRandom.nextInt(nMaxDuration)) *
+										 MINUTE));
+			aAppointments.add(aAppointment);
+		}
+
+		Collections.sort(aAppointments);
+
+		return aAppointments;
+	}
+}